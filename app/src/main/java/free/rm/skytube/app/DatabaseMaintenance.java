@@ -0,0 +1,76 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app;
+
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+
+import free.rm.skytube.businessobjects.db.PageSnapshotDb;
+import free.rm.skytube.businessobjects.db.SQLiteOpenHelperEx;
+import free.rm.skytube.businessobjects.db.SkyTubeDatabase;
+import free.rm.skytube.businessobjects.db.SponsorBlockDb;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Keeps the databases small: deletes the cached subscription videos according to the retention settings, the
+ * old SponsorBlock segments and the expired page snapshots, then returns the free pages to the file system, and
+ * truncates the write-ahead log.
+ */
+public final class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+    private static final long MAINTENANCE_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    /** The SponsorBlock segments are kept for offline use long after they are stale. */
+    private static final long SPONSORBLOCK_RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+
+    private DatabaseMaintenance() {
+    }
+
+    /**
+     * Run the maintenance in the background, if the last one was at least a day ago.
+     */
+    public static Completable runIfDue() {
+        return Completable.fromAction(() -> {
+            final Settings settings = SkyTubeApp.getSettings();
+            final long now = System.currentTimeMillis();
+            if (now - settings.getLastDatabaseMaintenance() < MAINTENANCE_INTERVAL_MS) {
+                return;
+            }
+            settings.setLastDatabaseMaintenance(now);
+            run(settings, now);
+        }).subscribeOn(Schedulers.io())
+                .doOnError(throwable -> Log.e(TAG, "Database maintenance failed: " + throwable.getMessage(), throwable))
+                .onErrorComplete();
+    }
+
+    private static void run(Settings settings, long now) {
+        final SkyTubeDatabase database = SkyTubeDatabase.getInstance();
+        final SQLiteOpenHelperEx.Stats before = database.getStats();
+
+        final int retentionDays = settings.getSubscriptionVideoRetentionDays();
+        final long minPublishTime = retentionDays > 0 ? now - TimeUnit.DAYS.toMillis(retentionDays) : 0;
+        final int deleted = SubscriptionsDb.getSubscriptionsDb().deleteExpiredVideos(minPublishTime, settings.getSubscriptionVideoRetentionCount());
+        final int deletedSegments = SponsorBlockDb.getSponsorBlockDb().deleteFetchedBefore(now - SPONSORBLOCK_RETENTION_MS);
+        final int deletedSnapshots = PageSnapshotDb.getPageSnapshotDb().deleteSavedBefore(now - PageSnapshotDb.SNAPSHOT_TTL_MS);
+        final boolean fullVacuum = database.compact();
+        Log.i(TAG, "Deleted " + deleted + " videos, " + deletedSegments + " SponsorBlock entries, " + deletedSnapshots
+                + " page snapshots, full vacuum: " + fullVacuum + ", before: " + before
+                + ", after: " + database.getStats());
+    }
+}
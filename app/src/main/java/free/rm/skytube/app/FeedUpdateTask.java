@@ -62,7 +62,16 @@ public class FeedUpdateTask {
         return refreshInProgress;
     }
 
-    public synchronized boolean start(Context context) {
+    public boolean start(Context context) {
+        return start(context, false);
+    }
+
+    /**
+     * Start checking the subscribed channels for new videos.
+     * @param forceFullSweep check every channel, even the ones which are not due according to their upload frequency.
+     * @return false, if a refresh is already in progress, or there is no network connection.
+     */
+    public synchronized boolean start(Context context, boolean forceFullSweep) {
         if (refreshInProgress) {
             return false;
         }
@@ -70,10 +79,12 @@ public class FeedUpdateTask {
             return false;
         }
         createNotificationChannel(context);
-        SkyTubeApp.getSettings().setRefreshSubsFeedFull(false);
+        final Settings settings = SkyTubeApp.getSettings();
+        final boolean fullSweep = forceFullSweep || settings.isRefreshSubsFeedFull() || settings.isRefreshAllChannels();
+        settings.setRefreshSubsFeedFull(false);
         refreshInProgress = true;
 
-        compositeDisposable.add(YouTubeTasks.refreshAllSubscriptions(context, this::processChannelIds,
+        compositeDisposable.add(YouTubeTasks.refreshAllSubscriptions(context, fullSweep, this::processChannelIds,
                 newVideosFound -> {
                     numChannelsFetched++;
                     numVideosFetched += newVideosFound;
@@ -98,7 +109,9 @@ public class FeedUpdateTask {
                     NotificationManagerCompat.from(context).cancel(NOTIFICATION_ID);
 
                     EventBus.getInstance().notifySubscriptionRefreshFinished();
-                }).subscribe());
+                })
+                .flatMapCompletable(newVideos -> DatabaseMaintenance.runIfDue())
+                .subscribe());
         return true;
     }
 
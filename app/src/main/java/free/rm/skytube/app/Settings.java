@@ -49,6 +49,7 @@ public class Settings {
     private static final String LATEST_RELEASE_NOTES_DISPLAYED = "Settings.LATEST_RELEASE_NOTES_DISPLAYED";
     private static final String FLAG_REFRESH_FEED_FROM_CACHE = "SubscriptionsFeedFragment.FLAG_REFRESH_FEED_FROM_CACHE";
     private static final String FLAG_REFRESH_FEED_FULL = "SubscriptionsFeedFragment.FLAG_REFRESH_FEED_FULL";
+    private static final String LAST_DATABASE_MAINTENANCE = "Settings.LAST_DATABASE_MAINTENANCE";
     /** Refresh the feed (by querying the YT servers) after 3 hours since the last check. */
     private static final int    REFRESH_TIME_HOURS = 3;
     private static final long   REFRESH_TIME_IN_MS = REFRESH_TIME_HOURS * (1000L*3600L);
@@ -202,7 +203,8 @@ public class Settings {
 
         boolean useNewFormats = prefs.getBoolean(SkyTubeApp.getStr(R.string.pref_key_use_newer_formats), false);
 
-        return new StreamSelectionPolicy(!forDownload && useNewFormats, maxResolution, minResolution, quality);
+        // the downloader fetches the separate video and audio streams too
+        return new StreamSelectionPolicy(forDownload || useNewFormats, maxResolution, minResolution, quality);
     }
 
     public StreamSelectionPolicy getDesiredVideoResolution(boolean forDownload) {
@@ -217,6 +219,29 @@ public class Settings {
         return Integer.parseInt(getPreference(R.string.pref_key_feed_notification, "0"));
     }
 
+    /**
+     * @return The number of days, after the cached videos of the subscribed channels are deleted, or 0 to keep them
+     * forever.
+     */
+    public int getSubscriptionVideoRetentionDays() {
+        return Integer.parseInt(getPreference(R.string.pref_key_subscription_video_retention_days, "0"));
+    }
+
+    /**
+     * @return The maximum number of cached videos of a subscribed channel, or 0 for unlimited.
+     */
+    public int getSubscriptionVideoRetentionCount() {
+        return Integer.parseInt(getPreference(R.string.pref_key_subscription_video_retention_count, "0"));
+    }
+
+    public long getLastDatabaseMaintenance() {
+        return getSharedPreferences().getLong(LAST_DATABASE_MAINTENANCE, 0);
+    }
+
+    public void setLastDatabaseMaintenance(long timeInMs) {
+        setPreference(LAST_DATABASE_MAINTENANCE, timeInMs);
+    }
+
     public void setWarningMobilePolicy(Policy warnPolicy) {
         setPreference(R.string.pref_key_mobile_network_usage_policy, warnPolicy.name().toLowerCase());
     }
@@ -273,6 +298,14 @@ public class Settings {
         return getPreference(FLAG_REFRESH_FEED_FULL, false);
     }
 
+    /**
+     * @return true, if every subscribed channel needs to be checked on each refresh, not just the ones which
+     * are due according to their upload frequency.
+     */
+    public boolean isRefreshAllChannels() {
+        return getPreference(R.string.pref_key_refresh_all_channels, false);
+    }
+
     public boolean isFullRefreshTimely() {
         // Only do an automatic refresh of subscriptions if it's been more than three hours since the last one was done.
         Long subscriptionsLastUpdated = getFeedsLastUpdateTime();
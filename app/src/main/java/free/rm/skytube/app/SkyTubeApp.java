@@ -32,6 +32,7 @@ import android.net.NetworkInfo;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Looper;
+import android.os.Process;
 import android.os.StrictMode;
 import android.os.SystemClock;
 import android.util.Log;
@@ -68,11 +69,15 @@ import free.rm.skytube.R;
 import free.rm.skytube.businessobjects.FeedUpdaterReceiver;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
+import free.rm.skytube.businessobjects.YouTube.VideoLanguageDetector;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.db.DatabaseTasks;
+import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
+import free.rm.skytube.businessobjects.db.SkyTubeDatabase;
+import free.rm.skytube.businessobjects.download.VideoDownloadService;
 import free.rm.skytube.gui.activities.MainActivity;
 import free.rm.skytube.gui.businessobjects.YouTubePlayer;
 import free.rm.skytube.gui.fragments.ChannelBrowserFragment;
@@ -98,16 +103,24 @@ public class SkyTubeApp extends MultiDexApplication {
 	public static final String KEY_SUBSCRIPTIONS_LAST_UPDATED = "SkyTubeApp.KEY_SUBSCRIPTIONS_LAST_UPDATED";
 	public static final String NEW_VIDEOS_NOTIFICATION_CHANNEL = "free.rm.skytube.NEW_VIDEOS_NOTIFICATION_CHANNEL";
 	public static final int NEW_VIDEOS_NOTIFICATION_CHANNEL_ID = 1;
+	public static final String DOWNLOADS_NOTIFICATION_CHANNEL = "free.rm.skytube.DOWNLOADS_NOTIFICATION_CHANNEL";
+	public static final int DOWNLOADS_NOTIFICATION_CHANNEL_ID = 2;
+
+	/** The parts of the startup are the first screen, and the deferred initialization. */
+	private static final StartupTrace startupTrace = new StartupTrace(SystemClock::elapsedRealtime,
+			Build.VERSION.SDK_INT >= Build.VERSION_CODES.N ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime(),
+			2, summary -> Log.i(StartupTrace.TAG, summary));
 
 	@Override
 	public void onCreate() {
 		super.onCreate();
-		this.settings = new Settings(this);
-		this.settings.migrate();
-		this.names = new FragmentNames(this);
 		skyTubeApp = this;
-		setupRxJava();
-		preloadPrettyTime();
+		// only what every entry point needs right away is initialized here, the rest is deferred to the background
+		startupTrace.run("settings", () -> {
+			this.settings = new Settings(this);
+			this.settings.migrate();
+		});
+		startupTrace.run("rxjava", this::setupRxJava);
 		if (BuildConfig.DEBUG) {
 			StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
 					.detectDiskReads()
@@ -123,7 +136,42 @@ public class SkyTubeApp extends MultiDexApplication {
 					//.penaltyDeath()
 					.build());
 		}
-		initChannels();
+		startDeferredInitialization();
+		startupTrace.mark("application created");
+	}
+
+	/**
+	 * Initialize the rest in the background, in the order of the likely use - including opening the database, so
+	 * the first query doesn't wait for it on the UI thread.
+	 */
+	private void startDeferredInitialization() {
+		Completable.fromAction(() -> {
+			deferred("notification channels", this::initChannels);
+			deferred("database", () -> SkyTubeDatabase.getInstance().getWritableDatabase());
+			deferred("queued downloads", () -> VideoDownloadService.resumeQueued(this));
+			deferred("fragment names", SkyTubeApp::getFragmentNames);
+			if (settings.isPlaybackStatusEnabled()) {
+				deferred("playback statuses", () -> PlaybackStatusDb.getPlaybackStatusDb().warmUp());
+			}
+			deferred("NewPipe", NewPipeService::get);
+			if (settings.isEnableVideoBlocker() && getPreferenceManager().getBoolean(getStr(R.string.pref_key_lang_detection_video_filtering), false)) {
+				deferred("language detection", VideoLanguageDetector::get);
+			}
+			deferred("PrettyTime", () -> new PrettyTime().format(LocalDate.of(2021, 2, 23)));
+		}).subscribeOn(Schedulers.io())
+				.subscribe(() -> startupTrace.finishPart("deferred initialization"),
+						exc -> Log.e(TAG, "Deferred initialization failed, because: " + exc.getMessage(), exc));
+	}
+
+	/**
+	 * Run a stage of the deferred initialization - a failed stage doesn't stop the others.
+	 */
+	private static <E extends Exception> void deferred(String name, StartupTrace.Task<E> stage) {
+		try {
+			startupTrace.run(name, stage);
+		} catch (Exception e) {
+			Log.e(TAG, "Unable to initialize " + name + ", because: " + e.getMessage(), e);
+		}
 	}
 
 	private void setupRxJava() {
@@ -155,16 +203,6 @@ public class SkyTubeApp extends MultiDexApplication {
 		});
 	}
 
-	private static void preloadPrettyTime() {
-		Completable.fromAction(() -> new PrettyTime().format(LocalDate.of(2021, 2, 23)))
-				.subscribeOn(Schedulers.io())
-				.onErrorReturn(exc -> {
-					Log.e(TAG, "Unable to initialize PrettyTime, because: " + exc.getMessage(), exc);
-					return "";
-				})
-				.subscribe();
-	}
-
 	@RequiresApi(api = Build.VERSION_CODES.M)
 	private static void uiThreadImpl() {
 		if (!Looper.getMainLooper().isCurrentThread()) {
@@ -278,7 +316,21 @@ public class SkyTubeApp extends MultiDexApplication {
 	}
 
 	public static FragmentNames getFragmentNames() {
-		return skyTubeApp.names;
+		return skyTubeApp.getNames();
+	}
+
+	private synchronized FragmentNames getNames() {
+		if (names == null) {
+			names = new FragmentNames(this);
+		}
+		return names;
+	}
+
+	/**
+	 * @return The trace of the startup of the process.
+	 */
+	public static StartupTrace getStartupTrace() {
+		return startupTrace;
 	}
 
 	/**
@@ -330,6 +382,14 @@ public class SkyTubeApp extends MultiDexApplication {
 		return (info != null && info.isConnected());
 	}
 
+	/**
+	 * @return True if the device is connected to a network, while roaming.
+	 */
+	public static boolean isActiveNetworkRoaming(@NonNull Context context) {
+		NetworkInfo info = getNetworkInfo(context);
+		return info != null && info.isRoaming();
+	}
+
 	/*
 	 * Initialize Notification Channels (for Android OREO)
 	 */
@@ -343,6 +403,10 @@ public class SkyTubeApp extends MultiDexApplication {
 				.setVibrationEnabled(true)
 				.build();
 		notificationManager.createNotificationChannel(notificationChannel);
+		notificationManager.createNotificationChannel(new NotificationChannelCompat
+				.Builder(DOWNLOADS_NOTIFICATION_CHANNEL, NotificationManagerCompat.IMPORTANCE_LOW)
+				.setName(getString(R.string.downloads))
+				.build());
 	}
 
 	/**
@@ -0,0 +1,153 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Records how long the stages of the application startup take, and on which thread. The startup has independent
+ * parts - e.g. the first screen, and the initialization deferred to the background -, the trace is reported once,
+ * after the last of them is finished.
+ */
+public final class StartupTrace {
+    public static final String TAG = "StartupTrace";
+
+    /**
+     * A stage of the startup - or a point in time, if its duration is 0.
+     */
+    public static final class Stage {
+        public final String name;
+        public final String thread;
+        /** The start of the stage, relative to the start of the process. */
+        public final long startMs;
+        public final long durationMs;
+
+        Stage(String name, String thread, long startMs, long durationMs) {
+            this.name = name;
+            this.thread = thread;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return name + '=' + durationMs + "ms@" + startMs + '[' + thread + ']';
+        }
+    }
+
+    /**
+     * The work of a stage.
+     */
+    public interface Task<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final LongSupplier clock;
+    private final long origin;
+    private final AtomicInteger pendingParts;
+    private final Consumer<String> reporter;
+    private final List<Stage> stages = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param clock    The monotonic clock in milliseconds.
+     * @param origin   The start of the process, according to the clock.
+     * @param parts    The number of the independent parts of the startup.
+     * @param reporter Receives the summary of the trace, after every part is finished.
+     */
+    public StartupTrace(@NonNull LongSupplier clock, long origin, int parts, @NonNull Consumer<String> reporter) {
+        this.clock = clock;
+        this.origin = origin;
+        this.pendingParts = new AtomicInteger(parts);
+        this.reporter = reporter;
+    }
+
+    /**
+     * Run and record a stage - the stage is recorded, even if it fails.
+     */
+    public <E extends Exception> void run(@NonNull String name, @NonNull Task<E> stage) throws E {
+        final long start = clock.getAsLong();
+        try {
+            stage.run();
+        } finally {
+            record(name, start, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Record the current point in time.
+     */
+    public void mark(@NonNull String name) {
+        final long now = clock.getAsLong();
+        record(name, now, now);
+    }
+
+    /**
+     * A part of the startup is finished - the trace is reported after the last one, and nothing is recorded after
+     * that.
+     */
+    public void finishPart(@NonNull String name) {
+        mark(name);
+        if (pendingParts.decrementAndGet() == 0) {
+            reporter.accept(getSummary());
+        }
+    }
+
+    /**
+     * @return The recorded stages in the order of their start.
+     */
+    @NonNull
+    public List<Stage> getStages() {
+        final List<Stage> result;
+        synchronized (stages) {
+            result = new ArrayList<>(stages);
+        }
+        Collections.sort(result, (a, b) -> Long.compare(a.startMs, b.startMs));
+        return result;
+    }
+
+    /**
+     * @return A single line summary - which is parsed by the cold start benchmark script.
+     */
+    @NonNull
+    public String getSummary() {
+        final List<Stage> sorted = getStages();
+        long end = 0;
+        for (Stage stage : sorted) {
+            end = Math.max(end, stage.startMs + stage.durationMs);
+        }
+        final StringBuilder summary = new StringBuilder("total=").append(end).append("ms");
+        for (Stage stage : sorted) {
+            summary.append(", ").append(stage);
+        }
+        return summary.toString();
+    }
+
+    private void record(String name, long start, long end) {
+        // the trace covers only the startup, the later activities are not recorded
+        if (pendingParts.get() <= 0) {
+            return;
+        }
+        stages.add(new Stage(name, Thread.currentThread().getName(), start - origin, end - start));
+    }
+}
@@ -36,6 +36,7 @@ import free.rm.skytube.BuildConfig;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.VideoStream.VideoQuality;
 import free.rm.skytube.businessobjects.YouTube.VideoStream.VideoResolution;
+import free.rm.skytube.businessobjects.download.StreamMuxer;
 
 public class StreamSelectionPolicy {
     private final static List<MediaFormat> VIDEO_FORMAT_QUALITY = Arrays.asList(MediaFormat.WEBM, MediaFormat.MPEG_4, MediaFormat.v3GPP);
@@ -71,6 +72,32 @@ public class StreamSelectionPolicy {
         return null;
     }
 
+    /**
+     * Select the streams to download: if the video and the audio would be in different containers, an other audio
+     * stream is preferred, which can be muxed together with the video into one file.
+     */
+    public StreamSelection selectForDownload(StreamInfo streamInfo) {
+        final StreamSelection selection = select(streamInfo);
+        if (selection == null || selection.audioStream == null) {
+            return selection;
+        }
+        final MediaFormat videoFormat = selection.videoStream.getFormat();
+        if (StreamMuxer.canMux(videoFormat, selection.audioStream.getFormat())) {
+            return selection;
+        }
+        AudioStream best = null;
+        for (AudioStream audioStream : streamInfo.getAudioStreams()) {
+            if (isOriginalAudio(audioStream) && audioStream.isUrl() && StreamMuxer.canMux(videoFormat, audioStream.getFormat())
+                    && isBetter(best, audioStream)) {
+                best = audioStream;
+            }
+        }
+        if (BuildConfig.DEBUG) {
+            Logger.d(this, "muxable audio for %s: %s", videoFormat, toHumanReadable(best));
+        }
+        return best != null ? new StreamSelection(selection.videoStream, selection.resolution, best) : selection;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("StreamSelectionPolicy{");
@@ -0,0 +1,134 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import free.rm.skytube.businessobjects.YouTube.YouTubeThumbnails;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+import free.rm.skytube.gui.businessobjects.ThumbnailLoader;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Downloads the thumbnails of the new subscription videos, and of their channels into the disk cache of Glide after
+ * a feed refresh - so the feed opens instantly afterwards, and works offline too. It only runs on unmetered networks,
+ * and stops after downloading {@link #BUDGET_BYTES}.
+ */
+public final class ThumbnailWarmer {
+    private static final String TAG = "ThumbnailWarmer";
+    /** A thumbnail is a few tens of KB, so this is a few hundred of them - well within the disk cache of Glide. */
+    private static final long BUDGET_BYTES = 20L * 1024 * 1024;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private ThumbnailWarmer() {
+    }
+
+    /**
+     * Start reading the videos inserted by the refresh, and downloading their thumbnails in the background - it can be
+     * called from any thread.
+     *
+     * @param lastVideoRowid The rowid of the latest video before the refresh, see {@link SubscriptionsDb#getLastVideoRowid()}.
+     */
+    public static void warmAfterRefresh(long lastVideoRowid) {
+        if (SkyTubeApp.isActiveNetworkMetered()) {
+            Log.i(TAG, "The network is metered, the thumbnails are not downloaded");
+            return;
+        }
+        Completable.fromAction(() -> {
+                    // a database maintenance, which renumbers the rowids in the meantime, only changes which thumbnails are warmed
+                    final List<String> urls = SubscriptionsDb.getSubscriptionsDb().getThumbnailsInsertedAfter(lastVideoRowid);
+                    if (!urls.isEmpty()) {
+                        warm(urls);
+                    }
+                })
+                .subscribeOn(Schedulers.io())
+                .doOnError(throwable -> Log.e(TAG, "Unable to download the thumbnails: " + throwable.getMessage(), throwable))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    private static void warm(List<String> urls) {
+        final Context context = SkyTubeApp.getContext();
+        final int cardWidth = ThumbnailLoader.getCardWidth(context);
+        long bytes = 0;
+        int downloaded = 0;
+        int cached = 0;
+        int failed = 0;
+        for (String url : urls) {
+            if (bytes >= BUDGET_BYTES || SkyTubeApp.isActiveNetworkMetered()) {
+                break;
+            }
+            final SourceListener listener = new SourceListener();
+            // the same URL as the video grid requests, so the grid finds it in the cache - the channel thumbnails are unchanged
+            final FutureTarget<File> target = Glide.with(context)
+                    .downloadOnly()
+                    .load(YouTubeThumbnails.getUrlForWidth(url, cardWidth))
+                    .listener(listener)
+                    .submit();
+            try {
+                final File file = target.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (listener.dataSource == DataSource.REMOTE) {
+                    bytes += file.length();
+                    downloaded++;
+                } else {
+                    cached++;
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                Glide.with(context).clear(target);
+            }
+        }
+        Log.i(TAG, "Thumbnails of " + urls.size() + ": downloaded " + downloaded + " (" + bytes / 1024 + " KB), already cached " + cached
+                + ", failed " + failed);
+    }
+
+    private static final class SourceListener implements RequestListener<File> {
+        volatile DataSource dataSource;
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<File> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(File resource, Object model, Target<File> target, DataSource dataSource, boolean isFirstResource) {
+            this.dataSource = dataSource;
+            return false;
+        }
+    }
+}
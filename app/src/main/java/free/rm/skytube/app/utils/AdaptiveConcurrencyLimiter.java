@@ -0,0 +1,107 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of in-flight requests, and adapts that limit with AIMD: every fast, successful request
+ * increases the limit by 1/limit (so roughly by one per 'round'), every failed or slow request halves it.
+ * A burst of failures from requests which were started before the last decrease only counts once.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double DECREASE_RATIO = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long slowRequestNanos;
+    private final LongSupplier clock;
+
+    private double limit;
+    private int inFlight;
+    private int maxInFlight;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit, long slowRequestMs) {
+        this(minLimit, initialLimit, maxLimit, slowRequestMs, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit, long slowRequestMs, LongSupplier clock) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMs);
+        this.clock = clock;
+        this.lastDecrease = clock.getAsLong();
+    }
+
+    /**
+     * Wait until a new request is allowed.
+     * @return the start time of the request, which needs to be passed to {@link #release(long, boolean)}.
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+        maxInFlight = Math.max(maxInFlight, inFlight);
+        return clock.getAsLong();
+    }
+
+    /**
+     * Mark a request as finished.
+     * @param startTime the value returned by {@link #acquire()}.
+     * @param success false, if the request failed in a way, which suggests, that the server is overloaded.
+     * @return the latency of the request in milliseconds.
+     */
+    public synchronized long release(long startTime, boolean success) {
+        inFlight--;
+        final long latency = clock.getAsLong() - startTime;
+        if (success && latency <= slowRequestNanos) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        } else if (startTime >= lastDecrease) {
+            limit = Math.max(minLimit, limit * DECREASE_RATIO);
+            lastDecrease = clock.getAsLong();
+        }
+        notifyAll();
+        return TimeUnit.NANOSECONDS.toMillis(latency);
+    }
+
+    /**
+     * Drop to the minimum concurrency immediately, for example when the server asks for a captcha.
+     */
+    public synchronized void backOff() {
+        limit = minLimit;
+        lastDecrease = clock.getAsLong();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
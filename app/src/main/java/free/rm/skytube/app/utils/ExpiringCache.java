@@ -0,0 +1,148 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache, where the values are loaded asynchronously, and kept for a limited time. Concurrent requests
+ * for the same key share the same load, and failed loads are not cached. A value can limit its own lifetime, e.g.
+ * if it contains URLs, which expire sooner.
+ */
+public class ExpiringCache<K, V> {
+    private final long ttlMs;
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final ToLongFunction<V> valueExpiry;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry<V> {
+        final FutureTask<V> task;
+        volatile long expiry;
+
+        Entry(FutureTask<V> task, long expiry) {
+            this.task = task;
+            this.expiry = expiry;
+        }
+    }
+
+    public ExpiringCache(long ttlMs, int maxSize) {
+        this(ttlMs, maxSize, null, System::currentTimeMillis);
+    }
+
+    /**
+     * @param valueExpiry Returns the time, when the loaded value expires - if it is sooner than the TTL.
+     */
+    public ExpiringCache(long ttlMs, int maxSize, ToLongFunction<V> valueExpiry) {
+        this(ttlMs, maxSize, valueExpiry, System::currentTimeMillis);
+    }
+
+    ExpiringCache(long ttlMs, int maxSize, LongSupplier clock) {
+        this(ttlMs, maxSize, null, clock);
+    }
+
+    ExpiringCache(long ttlMs, int maxSize, ToLongFunction<V> valueExpiry, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.maxSize = maxSize;
+        this.valueExpiry = valueExpiry;
+        this.clock = clock;
+    }
+
+    /**
+     * Return the cached, or currently loading value for the key, or start loading it with the executor.
+     */
+    public Future<V> get(K key, Callable<V> loader, Executor executor) {
+        final long now = clock.getAsLong();
+        final FutureTask<V> task = new FutureTask<V>(loader) {
+            @Override
+            protected void done() {
+                if (isCancelled() || failed(this)) {
+                    entries.computeIfPresent(key, (k, current) -> current.task == this ? null : current);
+                } else if (valueExpiry != null) {
+                    final Entry<V> current = entries.get(key);
+                    if (current != null && current.task == this) {
+                        current.expiry = Math.min(current.expiry, valueExpiry.applyAsLong(getValue(this)));
+                    }
+                }
+            }
+        };
+        final Entry<V> candidate = new Entry<>(task, now + ttlMs);
+        final Entry<V> entry = entries.compute(key, (k, old) -> old != null && old.expiry > now ? old : candidate);
+        if (entry == candidate) {
+            if (entries.size() > maxSize) {
+                evict(now);
+            }
+            executor.execute(task);
+        }
+        return entry.task;
+    }
+
+    /**
+     * @return The cached, or currently loading value for the key, or null, if there is none.
+     */
+    public Future<V> peek(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiry > clock.getAsLong() ? entry.task : null;
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static <V> V getValue(FutureTask<V> task) {
+        try {
+            return task.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("The task has already completed", e);
+        }
+    }
+
+    private static boolean failed(FutureTask<?> task) {
+        try {
+            task.get();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiry <= now);
+        final int overflow = entries.size() - maxSize;
+        if (overflow > 0) {
+            List<Map.Entry<K, Entry<V>>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(e -> e.getValue().expiry));
+            for (int i = 0; i < overflow && i < oldest.size(); i++) {
+                entries.remove(oldest.get(i).getKey(), oldest.get(i).getValue());
+            }
+        }
+    }
+}
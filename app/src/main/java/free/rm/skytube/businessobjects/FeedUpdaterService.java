@@ -12,6 +12,7 @@ import androidx.core.app.PendingIntentCompat;
 import androidx.core.content.ContextCompat;
 
 import free.rm.skytube.R;
+import free.rm.skytube.app.DatabaseMaintenance;
 import free.rm.skytube.app.EventBus;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.YouTube.Tasks.GetSubscriptionVideosTaskListener;
@@ -44,7 +45,7 @@ public class FeedUpdaterService extends Service {
 		// Need to instantiate the task here since you can only run a task once.
 		int feedUpdaterInterval = SkyTubeApp.getSettings().getFeedUpdaterInterval();
 		if (feedUpdaterInterval > 0) {
-			compositeDisposable.add(YouTubeTasks.refreshAllSubscriptions(getApplicationContext(),null, null)
+			compositeDisposable.add(YouTubeTasks.refreshAllSubscriptions(getApplicationContext(), SkyTubeApp.getSettings().isRefreshAllChannels(), null, null)
 					.subscribe(newVideosFetched -> {
 						if (newVideosFetched.intValue() > 0) {
 							Intent clickIntent = new Intent(this, MainActivity.class);
@@ -70,6 +71,7 @@ public class FeedUpdaterService extends Service {
 						}
 						EventBus.getInstance().notifyChannelsFound(newVideosFetched.intValue() > 0);
 						EventBus.getInstance().notifySubscriptionRefreshFinished();
+						compositeDisposable.add(DatabaseMaintenance.runIfDue().subscribe());
 					})
 			);
 		}
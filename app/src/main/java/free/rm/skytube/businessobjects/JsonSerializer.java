@@ -17,17 +17,63 @@
 
 package free.rm.skytube.businessobjects;
 
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.grack.nanojson.JsonObject;
 import com.grack.nanojson.JsonParser;
 import com.grack.nanojson.JsonParserException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 import free.rm.skytube.businessobjects.Sponsorblock.SBVideoInfo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 
 public class JsonSerializer {
+    private static final String TYPE_VIDEO = "video";
+    private static final String TYPE_PLAYLIST = "playlist";
+    private static final String TYPE_CHANNEL = "channel";
+
     private final Gson gson = new Gson();
+    /** The videos of a channel are not part of its card - and they refer back to the channel. */
+    private final Gson snapshotGson = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(FieldAttributes field) {
+            return field.getDeclaringClass() == YouTubeChannel.class && "youTubeVideos".equals(field.getName());
+        }
+
+        @Override
+        public boolean shouldSkipClass(Class<?> clazz) {
+            return false;
+        }
+    }).create();
+
+    /** A card of a snapshot, with its type. */
+    private static final class SnapshotItem {
+        String type;
+        JsonElement card;
+
+        SnapshotItem(String type, JsonElement card) {
+            this.type = type;
+            this.card = card;
+        }
+    }
 
     public YouTubeVideo fromPersistedVideoJson(String videoJson) {
         if (videoJson == null) {
@@ -74,4 +120,55 @@ public class JsonSerializer {
         return gson.fromJson(sponsorBlockJson, SBVideoInfo.class);
     }
 
+    /**
+     * Serialize the cards of a page - videos, playlists and channels - as gzipped JSON.
+     */
+    public byte[] toCardSnapshot(List<CardData> cards) throws IOException {
+        final List<SnapshotItem> items = new ArrayList<>(cards.size());
+        for (CardData card : cards) {
+            final String type;
+            if (card instanceof YouTubeVideo) {
+                type = TYPE_VIDEO;
+            } else if (card instanceof YouTubePlaylist) {
+                type = TYPE_PLAYLIST;
+            } else if (card instanceof YouTubeChannel) {
+                type = TYPE_CHANNEL;
+            } else {
+                continue;
+            }
+            items.add(new SnapshotItem(type, snapshotGson.toJsonTree(card)));
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            snapshotGson.toJson(items.toArray(new SnapshotItem[0]), writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return The cards serialized by {@link #toCardSnapshot(List)}.
+     */
+    public List<CardData> fromCardSnapshot(byte[] snapshot) throws IOException {
+        final SnapshotItem[] items;
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(snapshot)), StandardCharsets.UTF_8)) {
+            items = gson.fromJson(reader, SnapshotItem[].class);
+        }
+        final List<CardData> cards = new ArrayList<>(items.length);
+        for (SnapshotItem item : items) {
+            switch (item.type) {
+                case TYPE_VIDEO:
+                    cards.add(fromPersistedVideoJson(item.card.toString()));
+                    break;
+                case TYPE_PLAYLIST:
+                    cards.add(gson.fromJson(item.card, YouTubePlaylist.class));
+                    break;
+                case TYPE_CHANNEL:
+                    cards.add(gson.fromJson(item.card, YouTubeChannel.class));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return cards;
+    }
 }
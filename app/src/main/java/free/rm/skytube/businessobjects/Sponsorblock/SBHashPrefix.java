@@ -0,0 +1,105 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.Sponsorblock;
+
+import com.grack.nanojson.JsonArray;
+import com.grack.nanojson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The hash-prefix lookup of the SponsorBlock API: the videos are requested by the first characters of the SHA-256
+ * hash of their ID, and the response contains the segments of every video with that prefix. So one request serves
+ * all the requested videos, which share a prefix, and the server doesn't learn which video is watched.
+ */
+public final class SBHashPrefix {
+    /** The shortest prefix accepted by the API. */
+    static final int PREFIX_LENGTH = 4;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private SBHashPrefix() {
+    }
+
+    /**
+     * @return The lowercase hex SHA-256 hash of the video ID.
+     */
+    public static String sha256(String videoId) {
+        final byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(videoId.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        final char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    public static String getPrefix(String videoId) {
+        return sha256(videoId).substring(0, PREFIX_LENGTH);
+    }
+
+    /**
+     * @return The video IDs grouped by their hash prefix, each group can be requested at once.
+     */
+    public static Map<String, List<String>> groupByPrefix(Collection<String> videoIds) {
+        final Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String videoId : new LinkedHashSet<>(videoIds)) {
+            final String prefix = getPrefix(videoId);
+            List<String> group = groups.get(prefix);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(prefix, group);
+            }
+            group.add(videoId);
+        }
+        return groups;
+    }
+
+    /**
+     * @param response The response of '/api/skipSegments/[prefix]'.
+     * @param videoIds The videos, which are needed - the response contains other videos with the same prefix too.
+     * @return The segments of the needed videos, which have any.
+     */
+    public static Map<String, SBVideoInfo> parse(JsonArray response, Collection<String> videoIds) {
+        final Map<String, SBVideoInfo> result = new HashMap<>();
+        for (int i = 0; i < response.size(); i++) {
+            final JsonObject video = response.getObject(i);
+            final String videoId = video.getString("videoID");
+            if (videoId != null && videoIds.contains(videoId)) {
+                final JsonArray segments = video.getArray("segments");
+                if (segments != null && !segments.isEmpty()) {
+                    result.put(videoId, new SBVideoInfo(segments));
+                }
+            }
+        }
+        return result;
+    }
+}
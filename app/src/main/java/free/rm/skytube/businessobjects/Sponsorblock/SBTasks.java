@@ -10,17 +10,22 @@ import androidx.annotation.StringRes;
 
 import com.grack.nanojson.JsonArray;
 
-import org.json.JSONArray;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
+import free.rm.skytube.businessobjects.db.SponsorBlockDb;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
@@ -35,7 +40,20 @@ public class SBTasks {
             this.label = label;
         }
     }
+    private static final String API_URL = "https://sponsor.ajay.app/api/skipSegments/";
+    /** How long the fetched segments are used, before fetching them again. */
+    private static final long SEGMENTS_TTL_MS = TimeUnit.DAYS.toMillis(3);
+    /** The videos without segments are checked again sooner, as the new videos get their segments in the first days. */
+    private static final long NO_SEGMENTS_TTL_MS = TimeUnit.HOURS.toMillis(12);
+    /** The first videos of a page are prefetched, which are the most likely to be played. */
+    private static final int MAX_PREFETCHED_VIDEOS = 6;
+
     private static final Map<String, LabelAndColor> categoryMapping;
+    /**
+     * Every category is requested - and cached -, and filtered by the settings when used, so changing the settings
+     * doesn't invalidate the cache.
+     */
+    private static final String ALL_CATEGORIES;
     static {
         Map<String, LabelAndColor> colors = new HashMap();
         colors.put("sponsor", new LabelAndColor(R.color.sponsorblock_category_sponsor, R.string.sponsorblock_category_sponsor));
@@ -47,6 +65,14 @@ public class SBTasks {
         colors.put("preview", new LabelAndColor(R.color.sponsorblock_category_preview, R.string.sponsorblock_category_preview));
         colors.put("filler", new LabelAndColor(R.color.sponsorblock_category_filler, R.string.sponsorblock_category_filler));
         categoryMapping = Collections.unmodifiableMap(colors);
+
+        StringBuilder query = new StringBuilder("[");
+        for(String category : categoryMapping.keySet()) {
+            query.append("%22" + category + "%22,");
+        }
+        query.setLength(query.length() - 1); // remove last comma
+        query.append("]");
+        ALL_CATEGORIES = query.toString();
     }
 
     public static LabelAndColor getLabelAndColor(String category) {
@@ -74,30 +100,88 @@ public class SBTasks {
                 .subscribeOn(Schedulers.io());
     }
 
+    /**
+     * Return the segments of the video in the categories chosen by the user - from the cache, if it's fresh, or
+     * from the API. If the API can't be reached, the stale cached segments are returned.
+     */
     public static SBVideoInfo retrieveSponsorblockSegmentsBk(@NonNull VideoId videoId) {
         Set<String> filterList = SkyTubeApp.getSettings().getSponsorblockCategories();
         if(filterList.size() == 0) return null; // enabled but all options turned off probably means "turned off but didn't know how to disable"
         SkyTubeApp.nonUiThread();
 
-        StringBuilder query = new StringBuilder("[");
-        for(String filterCategory : filterList) {
-            query.append("%22" + filterCategory + "%22,");
+        final String id = videoId.getId();
+        final long now = System.currentTimeMillis();
+        final SponsorBlockDb.Entry cached = SponsorBlockDb.getSponsorBlockDb().get(Collections.singleton(id)).get(id);
+        SBVideoInfo info = cached != null ? cached.info : null;
+        if (cached == null || !isFresh(cached, now)) {
+            try {
+                info = fetch(SBHashPrefix.getPrefix(id), Collections.singletonList(id), now).get(id);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed retrieving Sponsorblock info" + (cached != null ? ", using the cached one: " : ": "), e);
+            }
         }
-        query.setLength(query.length() - 1); // remove last comma
-        query.append("]");
+        return info != null ? info.filter(filterList) : null;
+    }
 
-        String apiUrl = "https://sponsor.ajay.app/api/skipSegments?videoID=" + videoId.getId() + "&categories=" + query;
-        Log.d(TAG, "ApiUrl: " + apiUrl);
+    /**
+     * Fetch the segments of the first few of the given videos in the background, which are not cached yet, or the
+     * cached segments are stale - so they are available, when the video is played. As the videos mostly have
+     * different hash prefixes, every video costs a request, so nothing is prefetched on a metered network.
+     */
+    public static Completable prefetchSponsorblockSegments(@NonNull List<String> pageVideoIds) {
+        return Completable.fromAction(() -> {
+            if (SkyTubeApp.isActiveNetworkMetered()) {
+                return;
+            }
+            final List<String> videoIds = pageVideoIds.subList(0, Math.min(pageVideoIds.size(), MAX_PREFETCHED_VIDEOS));
+            final long now = System.currentTimeMillis();
+            final Map<String, SponsorBlockDb.Entry> cached = SponsorBlockDb.getSponsorBlockDb().get(videoIds);
+            final List<String> missing = new ArrayList<>();
+            for (String videoId : videoIds) {
+                final SponsorBlockDb.Entry entry = cached.get(videoId);
+                if (entry == null || !isFresh(entry, now)) {
+                    missing.add(videoId);
+                }
+            }
+            final Map<String, List<String>> groups = SBHashPrefix.groupByPrefix(missing);
+            int failed = 0;
+            for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+                try {
+                    fetch(group.getKey(), group.getValue(), now);
+                } catch (Exception e) {
+                    Log.w(TAG, "Failed prefetching Sponsorblock info for " + group.getValue() + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+            Log.d(TAG, "Prefetched Sponsorblock info of " + missing.size() + " videos out of " + videoIds.size()
+                    + " with " + groups.size() + " requests, failed: " + failed);
+        }).subscribeOn(Schedulers.io())
+                .onErrorComplete();
+    }
 
+    private static boolean isFresh(SponsorBlockDb.Entry entry, long now) {
+        return now - entry.fetched < (entry.info != null ? SEGMENTS_TTL_MS : NO_SEGMENTS_TTL_MS);
+    }
+
+    /**
+     * Request the segments of every video with the given hash prefix, in every category, and store them for the
+     * given videos - the ones without segments too.
+     *
+     * @return The segments of the given videos, which have any.
+     */
+    private static Map<String, SBVideoInfo> fetch(String prefix, List<String> videoIds, long now) throws Exception {
+        final String apiUrl = API_URL + prefix + "?categories=" + ALL_CATEGORIES;
+        Log.d(TAG, "ApiUrl: " + apiUrl);
+        Map<String, SBVideoInfo> result;
         try {
-            JsonArray sponsorblockInfo = NewPipeService.getHttpDownloader().getJSONArray(apiUrl);
-            return new SBVideoInfo(sponsorblockInfo);
-        } catch(Exception e) {
-            // FileNotFoundException = 404, which the API triggers both if the API call is invalid or no segment was found
-            // Hence we just assume that it's usually due to no segment (errors confuse users), and give a log for developers
-            Log.w(TAG, "Failed retrieving Sponsorblock info: ", e);
-            return null;
+            final JsonArray response = NewPipeService.getHttpDownloader().getJSONArray(apiUrl);
+            result = SBHashPrefix.parse(response, videoIds);
+        } catch (FileNotFoundException e) {
+            // 404: none of the videos with this prefix have segments
+            result = Collections.emptyMap();
         }
+        SponsorBlockDb.getSponsorBlockDb().put(videoIds, result, now);
+        return result;
     }
 
 }
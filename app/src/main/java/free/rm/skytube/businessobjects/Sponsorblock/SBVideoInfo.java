@@ -5,6 +5,7 @@ import com.grack.nanojson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class SBVideoInfo {
     private final double videoDuration;
@@ -14,6 +15,11 @@ public class SBVideoInfo {
         this.videoDuration = videoDuration;
     }
 
+    public SBVideoInfo(double videoDuration, List<SBSegment> segments) {
+        this.videoDuration = videoDuration;
+        this.segments.addAll(segments);
+    }
+
     public SBVideoInfo(JsonArray sponsorblockInfo) {
         double firstDuration = 0;
         for (int i = 0; i < sponsorblockInfo.size(); i++) {
@@ -36,6 +42,22 @@ public class SBVideoInfo {
         return segments;
     }
 
+    /**
+     * @return The segments in the given categories, or null, if none of them are.
+     */
+    public SBVideoInfo filter(Set<String> categories) {
+        final List<SBSegment> filtered = new ArrayList<>();
+        for (SBSegment segment : segments) {
+            if (categories.contains(segment.getCategory())) {
+                filtered.add(segment);
+            }
+        }
+        if (filtered.isEmpty()) {
+            return null;
+        }
+        return filtered.size() == segments.size() ? this : new SBVideoInfo(videoDuration, filtered);
+    }
+
     @Override
     public String toString() {
         return "SBVideoInfo{" +
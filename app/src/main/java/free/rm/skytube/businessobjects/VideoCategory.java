@@ -30,6 +30,7 @@ import free.rm.skytube.businessobjects.YouTube.NewPipePlaylistVideos;
 import free.rm.skytube.businessobjects.YouTube.NewPipeVideoBySearch;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeAPIKey;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeTrendingItems;
+import free.rm.skytube.businessobjects.db.Tasks.GetSubscriptionsVideosBySearch;
 import free.rm.skytube.businessobjects.db.Tasks.GetSubscriptionsVideosFromDb;
 
 /**
@@ -53,7 +54,9 @@ public enum VideoCategory {
 	/** Videos belonging to a playlist, not created by a channel */
 	MIXED_PLAYLIST_VIDEOS ,
 	/** Videos that have been downloaded */
-	DOWNLOADED_VIDEOS ( false);
+	DOWNLOADED_VIDEOS ( false),
+	/** Videos of the user's subscriptions feed, related to a search query */
+	SUBSCRIPTIONS_SEARCH_QUERY;
 
 	// *****************
 	// DON'T FORGET to update #createGetYouTubeVideos() methods...
@@ -86,6 +89,7 @@ public enum VideoCategory {
 			case MIXED_PLAYLIST_VIDEOS:
 			case PLAYLIST_VIDEOS: return new NewPipePlaylistVideos();
 			case DOWNLOADED_VIDEOS: return new GetDownloadedVideos();
+			case SUBSCRIPTIONS_SEARCH_QUERY: return new GetSubscriptionsVideosBySearch();
 		}
 		// this will notify the developer that he forgot to edit this method when a new type is added
 		throw new UnsupportedOperationException();
@@ -95,6 +99,24 @@ public enum VideoCategory {
 		return videoFiltering;
 	}
 
+	/**
+	 * @return True, if the first page of the category is loaded from the network, so a snapshot of it is stored,
+	 * to display it until it's loaded again.
+	 */
+	public boolean isSnapshotCached() {
+		switch (this) {
+			case FEATURED:
+			case MOST_POPULAR:
+			case SEARCH_QUERY:
+			case CHANNEL_VIDEOS:
+			case PLAYLIST_VIDEOS:
+			case MIXED_PLAYLIST_VIDEOS:
+				return true;
+			default:
+				return false;
+		}
+	}
+
 
 	/**
 	 * Create an appropriate class to get videos of a channel.
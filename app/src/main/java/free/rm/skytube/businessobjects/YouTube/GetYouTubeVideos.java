@@ -71,6 +71,13 @@ public abstract class GetYouTubeVideos {
 	public void resetKey() {
 	}
 
+	/**
+	 * @return The number of items from the end of the list, where the next page should be requested.
+	 */
+	public int getPrefetchDistance() {
+		return 1;
+	}
+
 	/**
 	 * Reset the fetching of videos. This will be called when a swipe to refresh is done.
 	 */
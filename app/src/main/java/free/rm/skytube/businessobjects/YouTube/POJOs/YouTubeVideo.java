@@ -17,11 +17,9 @@
 
 package free.rm.skytube.businessobjects.YouTube.POJOs;
 
-import android.app.DownloadManager;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.Environment;
 import android.view.Menu;
 import android.widget.Toast;
 
@@ -35,9 +33,7 @@ import com.google.api.services.youtube.model.VideoSnippet;
 import com.google.api.services.youtube.model.VideoStatistics;
 
 import org.ocpsoft.prettytime.PrettyTime;
-import org.schabi.newpipe.extractor.stream.Stream;
 import org.schabi.newpipe.extractor.stream.StreamInfo;
-import org.schabi.newpipe.extractor.stream.VideoStream;
 
 import java.io.File;
 import java.io.Serializable;
@@ -49,10 +45,8 @@ import java.util.Locale;
 
 import free.rm.skytube.BuildConfig;
 import free.rm.skytube.R;
-import free.rm.skytube.app.Settings;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.app.StreamSelectionPolicy;
-import free.rm.skytube.businessobjects.FileDownloader;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
@@ -61,6 +55,7 @@ import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
 import free.rm.skytube.businessobjects.db.BookmarksDb;
 import free.rm.skytube.businessobjects.db.DatabaseResult;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import free.rm.skytube.businessobjects.download.VideoDownloadTask;
 import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
@@ -172,6 +167,30 @@ public class YouTubeVideo extends CardData implements Serializable {
 		}
 	}
 
+	/**
+	 * Copy constructor - the channel is shared, as it is replaced, not modified, by the callers.
+	 */
+	public YouTubeVideo(YouTubeVideo other) {
+		this.id = other.id;
+		this.title = other.title;
+		this.description = other.description;
+		this.publishTimestamp = other.publishTimestamp;
+		this.publishTimestampExact = other.publishTimestampExact;
+		this.thumbnailUrl = other.thumbnailUrl;
+		this.channel = other.channel;
+		this.likeCountNumber = other.likeCountNumber;
+		this.dislikeCountNumber = other.dislikeCountNumber;
+		this.thumbsUpPercentage = other.thumbsUpPercentage;
+		this.duration = other.duration;
+		this.durationInSeconds = other.durationInSeconds;
+		this.viewsCountInt = other.viewsCountInt;
+		this.publishDate = other.publishDate;
+		this.thumbnailMaxResUrl = other.thumbnailMaxResUrl;
+		this.language = other.language;
+		this.isLiveStream = other.isLiveStream;
+		this.categoryId = other.categoryId;
+	}
+
 	public void setCategoryId(Integer categoryId) {
 		this.categoryId = categoryId;
 	}
@@ -506,33 +525,16 @@ public class YouTubeVideo extends CardData implements Serializable {
 					@Override
 					public void onGetDesiredStream(StreamInfo streamInfo, YouTubeVideo video) {
 
-						final Settings settings = SkyTubeApp.getSettings();
-						StreamSelectionPolicy selectionPolicy = settings.getDesiredVideoResolution(true);
-						StreamSelectionPolicy.StreamSelection streamSelection = selectionPolicy.select(streamInfo);
+						StreamSelectionPolicy selectionPolicy = SkyTubeApp.getSettings().getDesiredVideoResolution(true);
+						StreamSelectionPolicy.StreamSelection streamSelection = selectionPolicy.selectForDownload(streamInfo);
 						if (streamSelection != null) {
-							VideoStream videoStream = streamSelection.getVideoStream();
-							// download the video
-							downloadTheVideo(videoStream, settings);
+							// download the video, together with its audio stream, if it is a video-only stream
+							new VideoDownloadTask(YouTubeVideo.this, streamSelection).displayPermissionsActivity(context);
 						} else {
 							Toast.makeText(context, selectionPolicy.getErrorMessage(context), Toast.LENGTH_LONG).show();
 						}
 					}
 
-					private void downloadTheVideo(Stream stream, Settings settings) {
-						new VideoDownloader()
-								.setRemoteFileUrl(stream.getUrl())
-								.setDirType(Environment.DIRECTORY_MOVIES)
-								.setTitle(getTitle())
-								.setDescription(getStr(R.string.video) + " ― " + getChannelName())
-								.setOutputFileName(getId() + " - " + getTitle())
-								.setOutputDirectoryName(getChannelName())
-								.setParentDirectory(settings.getDownloadParentFolder())
-								.setOutputFileExtension(stream.getFormat().suffix)
-								.setAllowedOverRoaming(false)
-								.setAllowedNetworkTypesFlags(DownloadManager.Request.NETWORK_WIFI | DownloadManager.Request.NETWORK_MOBILE)
-								.displayPermissionsActivity(context);
-					}
-
 					@Override
 					public void onGetDesiredStreamError(Throwable throwable) {
 						Logger.e(YouTubeVideo.this, "Stream error: " + throwable.getMessage(), throwable);
@@ -571,54 +573,4 @@ public class YouTubeVideo extends CardData implements Serializable {
 		});
 	}
 
-	////////////////////////////////////////////////////////////////////////////////////////////////
-
-	/**
-	 * Downloads a YouTube video.
-	 */
-	private class VideoDownloader extends FileDownloader implements Serializable {
-
-		@Override
-		public void onFileDownloadStarted() {
-			Toast.makeText(getContext(),
-					String.format(getContext().getString(R.string.starting_video_download), getTitle()),
-					Toast.LENGTH_LONG).show();
-		}
-
-        @Override
-        public void onFileDownloadCompleted(boolean success, Uri localFileUri) {
-            if (success) {
-                DownloadedVideosDb.getVideoDownloadsDb().add(YouTubeVideo.this, localFileUri, null)
-                    .doOnSuccess(saveSucceeded -> {
-                        showToast(saveSucceeded);
-                    }).doOnError(err -> {
-                        SkyTubeApp.notifyUserOnError(getContext(), err);
-                    }).subscribe();
-            } else {
-                showToast(false);
-            }
-        }
-
-        private void showToast(boolean success) {
-            Toast.makeText(getContext(),
-                    String.format(getContext().getString(success ? R.string.video_downloaded : R.string.video_download_stream_error), getTitle()),
-                    Toast.LENGTH_LONG).show();
-        }
-
-        @Override
-        public void onDownloadStartFailed(String downloadName, final RuntimeException runtimeException) {
-            Toast.makeText(getContext(),
-                    String.format(getContext().getString(R.string.download_failed_because), downloadName, runtimeException.getMessage()),
-                    Toast.LENGTH_LONG).show();
-        }
-
-        @Override
-        public void onExternalStorageNotAvailable() {
-            Toast.makeText(getContext(),
-                    R.string.external_storage_not_available,
-                    Toast.LENGTH_LONG).show();
-        }
-
-    }
-
 }
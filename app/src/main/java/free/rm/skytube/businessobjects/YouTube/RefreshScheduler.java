@@ -0,0 +1,138 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+
+/**
+ * Decides which subscribed channels need to be checked for new videos, based on how often they upload.
+ * A channel is checked about twice per upload interval, and channels, which haven't uploaded for a long time,
+ * are checked less and less frequently - every time the silence doubles, the check interval doubles too.
+ */
+public class RefreshScheduler {
+    static final long MIN_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+    static final long MAX_INTERVAL_MS = TimeUnit.DAYS.toMillis(7);
+    /** The assumed upload interval of channels, which have less than two known videos. */
+    static final long DEFAULT_CADENCE_MS = TimeUnit.DAYS.toMillis(7);
+    /** The number of the most recent uploads, which are used to calculate the upload cadence. */
+    public static final int MAX_UPLOADS = 10;
+
+    /**
+     * The refresh history of a channel.
+     */
+    public static class ChannelState {
+        final ChannelId channelId;
+        final long lastCheck;
+        final Long lastVideo;
+        final List<Long> uploads = new ArrayList<>();
+
+        public ChannelState(@NonNull ChannelId channelId, long lastCheck, @Nullable Long lastVideo) {
+            this.channelId = channelId;
+            this.lastCheck = lastCheck;
+            this.lastVideo = lastVideo;
+        }
+
+        /**
+         * Register the publish time of a video, the most recent ones first.
+         */
+        public void addUpload(long publishTime) {
+            if (uploads.size() < MAX_UPLOADS) {
+                uploads.add(publishTime);
+            }
+        }
+
+        long getLatestUpload() {
+            long latest = lastVideo != null ? lastVideo : 0;
+            for (Long upload : uploads) {
+                latest = Math.max(latest, upload);
+            }
+            return latest;
+        }
+    }
+
+    private RefreshScheduler() {
+    }
+
+    /**
+     * @return the median time between the given uploads, or {@link #DEFAULT_CADENCE_MS} if it's unknown.
+     */
+    static long getCadence(@NonNull List<Long> uploads) {
+        if (uploads.size() < 2) {
+            return DEFAULT_CADENCE_MS;
+        }
+        final List<Long> sorted = new ArrayList<>(uploads);
+        Collections.sort(sorted);
+        final List<Long> gaps = new ArrayList<>(sorted.size() - 1);
+        for (int i = 1; i < sorted.size(); i++) {
+            gaps.add(sorted.get(i) - sorted.get(i - 1));
+        }
+        Collections.sort(gaps);
+        return Math.max(MIN_INTERVAL_MS, gaps.get(gaps.size() / 2));
+    }
+
+    /**
+     * @return the time which needs to pass after the last check, before the channel is checked again.
+     */
+    static long getRefreshInterval(@NonNull ChannelState state, long now) {
+        final long cadence = getCadence(state.uploads);
+        long interval = Math.max(MIN_INTERVAL_MS, cadence / 2);
+        final long latestUpload = state.getLatestUpload();
+        if (latestUpload > 0) {
+            // exponential back-off for dormant channels
+            for (long silence = now - latestUpload; silence > cadence && interval < MAX_INTERVAL_MS; silence /= 2) {
+                interval *= 2;
+            }
+        }
+        return Math.min(MAX_INTERVAL_MS, interval);
+    }
+
+    /**
+     * @return how overdue is the check of the channel, values above 1 mean, that it should be checked.
+     */
+    static double getUrgency(@NonNull ChannelState state, long now) {
+        if (state.lastCheck <= 0) {
+            return Double.MAX_VALUE;
+        }
+        return (now - state.lastCheck) / (double) getRefreshInterval(state, now);
+    }
+
+    /**
+     * @param fullSweep return every channel, not just the ones which are due.
+     * @return the channels to check, the most overdue ones first.
+     */
+    @NonNull
+    public static List<ChannelId> schedule(@NonNull List<ChannelState> channels, long now, boolean fullSweep) {
+        final List<ChannelState> sorted = new ArrayList<>(channels);
+        Collections.sort(sorted, Comparator.comparingDouble((ChannelState state) -> getUrgency(state, now)).reversed());
+        final List<ChannelId> result = new ArrayList<>(sorted.size());
+        for (ChannelState state : sorted) {
+            if (fullSweep || getUrgency(state, now) >= 1) {
+                result.add(state.channelId);
+            }
+        }
+        return result;
+    }
+}
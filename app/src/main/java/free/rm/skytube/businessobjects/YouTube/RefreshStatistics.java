@@ -0,0 +1,126 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import free.rm.skytube.app.utils.AdaptiveConcurrencyLimiter;
+
+/**
+ * Metrics collected during a single subscription refresh, to make it possible to tune the concurrency.
+ */
+public class RefreshStatistics {
+    private final long startTime = System.currentTimeMillis();
+    private final List<Long> channelLatencies = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AdaptiveConcurrencyLimiter limiter;
+    private volatile long endTime;
+
+    RefreshStatistics(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    void channelFinished(long latencyMs) {
+        synchronized (channelLatencies) {
+            channelLatencies.add(latencyMs);
+        }
+    }
+
+    void requestFinished(boolean success) {
+        requests.incrementAndGet();
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void retried() {
+        retries.incrementAndGet();
+    }
+
+    void finished() {
+        endTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return the latency of a channel refresh in milliseconds, at the given percentile, or 0 if nothing was refreshed.
+     */
+    public long getChannelLatencyPercentile(int percentile) {
+        final List<Long> sorted;
+        synchronized (channelLatencies) {
+            sorted = new ArrayList<>(channelLatencies);
+        }
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(sorted);
+        final int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    public int getChannelCount() {
+        synchronized (channelLatencies) {
+            return channelLatencies.size();
+        }
+    }
+
+    public long getDurationMs() {
+        return (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime;
+    }
+
+    /**
+     * @return the number of refreshed channels per second.
+     */
+    public double getThroughput() {
+        return getChannelCount() * 1000.0 / Math.max(1, getDurationMs());
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getRetries() {
+        return retries.get();
+    }
+
+    public int getErrors() {
+        return errors.get();
+    }
+
+    public int getFinalLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getMaxInFlight() {
+        return limiter.getMaxInFlight();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format("RefreshStatistics[channels=%s, duration=%sms, p50=%sms, p95=%sms, throughput=%.2f/s, requests=%s, retries=%s, errors=%s, limit=%s, maxInFlight=%s]",
+                getChannelCount(), getDurationMs(), getChannelLatencyPercentile(50), getChannelLatencyPercentile(95),
+                getThroughput(), getRequests(), getRetries(), getErrors(), getFinalLimit(), getMaxInFlight());
+    }
+}
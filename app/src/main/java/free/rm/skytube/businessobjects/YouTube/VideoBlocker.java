@@ -17,25 +17,17 @@
 
 package free.rm.skytube.businessobjects.YouTube;
 
-import com.google.common.base.Optional;
-import com.optimaize.langdetect.DetectedLanguage;
-import com.optimaize.langdetect.LanguageDetector;
-import com.optimaize.langdetect.LanguageDetectorBuilder;
-import com.optimaize.langdetect.i18n.LdLocale;
-import com.optimaize.langdetect.ngram.NgramExtractors;
-import com.optimaize.langdetect.profiles.LanguageProfile;
-import com.optimaize.langdetect.profiles.LanguageProfileReader;
-import com.optimaize.langdetect.text.CommonTextObjectFactories;
-import com.optimaize.langdetect.text.TextObject;
-import com.optimaize.langdetect.text.TextObjectFactory;
-
-import java.io.IOException;
+import android.content.SharedPreferences;
+
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.Settings;
@@ -60,12 +52,40 @@ public class VideoBlocker {
 	/** Default preferred language(s) -- by default, no language shall be filtered out. */
 	private static final Set<String> defaultPrefLanguages = new HashSet<>(SkyTubeApp.getStringArrayAsList(R.array.languages_iso639_codes));
 
+	/** The compiled filtering rules, or null if they need to be reloaded. */
+	private static volatile FilterRules filterRules = null;
+
+	/** Any preference change could affect the filtering - they are rare, so simply reload everything on the next use. */
+	private static final SharedPreferences.OnSharedPreferenceChangeListener preferenceChangeListener = (sharedPreferences, key) -> filterRules = null;
+
 	private final Settings settings;
 
 	public VideoBlocker() {
 		settings = SkyTubeApp.getSettings();
 	}
 
+	/**
+	 * @return the current filtering rules, which are only reloaded, if the settings or the channel filtering database changed.
+	 */
+	private static FilterRules getFilterRules(Settings settings) {
+		final ChannelFilteringDb db = ChannelFilteringDb.getChannelFilteringDb();
+		FilterRules rules = filterRules;
+		if (rules == null || rules.dbUpdateCounter != db.getUpdateCounter()) {
+			synchronized (VideoBlocker.class) {
+				rules = filterRules;
+				if (rules == null) {
+					// SharedPreferences only keeps a weak reference to the listener
+					SkyTubeApp.getPreferenceManager().registerOnSharedPreferenceChangeListener(preferenceChangeListener);
+				}
+				if (rules == null || rules.dbUpdateCounter != db.getUpdateCounter()) {
+					rules = new FilterRules(settings, db);
+					filterRules = rules;
+				}
+			}
+		}
+		return rules;
+	}
+
 	/**
 	 * Sets the {@link VideoBlockerListener}.
 	 */
@@ -87,24 +107,21 @@ public class VideoBlocker {
 			return videosList;
 		}
 
-		List<CardData>      filteredVideosList    = new ArrayList<>();
-		final boolean       isChannelBlacklistEnabled = settings.isChannelDenyListEnabled();
-		final List<ChannelId>  blacklistedChannelIds = isChannelBlacklistEnabled  ? ChannelFilteringDb.getChannelFilteringDb().getDeniedChannelsIdsList() : null;
-		final List<ChannelId>  whitelistedChannelIds = !isChannelBlacklistEnabled ? ChannelFilteringDb.getChannelFilteringDb().getAllowedChannelsIdsList() : null;
-		// set of user's preferred ISO 639 language codes (regex)
-		final Set<String>   preferredLanguages    = SkyTubeApp.getPreferenceManager().getStringSet(getStr(R.string.pref_key_preferred_languages), defaultPrefLanguages);
-		final BigInteger    minimumVideoViews     = getViewsFilteringValue();
-		final int           minimumVideoDislikes  = getDislikesFilteringValue();
+		List<CardData>      filteredVideosList    = new ArrayList<>(videosList.size());
+		final FilterRules   rules                 = getFilterRules(settings);
+		final Map<String, List<String>> detectedLanguages = rules.isLanguageDetectionEnabled && !rules.preferredLanguages.isEmpty()
+				? detectLanguages(videosList)
+				: Collections.emptyMap();
 
 		for (CardData cardData : videosList) {
 			if (cardData instanceof YouTubeVideo) {
 				YouTubeVideo video = (YouTubeVideo) cardData;
-				if (!((isChannelBlacklistEnabled && filterByBlacklistedChannels(video, blacklistedChannelIds))
-						|| (!isChannelBlacklistEnabled && filterByWhitelistedChannels(video, whitelistedChannelIds))
-						|| filterByLanguage(video, preferredLanguages)
-						|| filterByLanguageDetection(video, preferredLanguages)
-						|| filterByViews(video, minimumVideoViews)
-						|| filterByDislikes(video, minimumVideoDislikes))) {
+				if (!((rules.isChannelBlacklistEnabled && filterByBlacklistedChannels(video, rules.blacklistedChannelIds))
+						|| (!rules.isChannelBlacklistEnabled && filterByWhitelistedChannels(video, rules.whitelistedChannelIds))
+						|| filterByLanguage(video, rules.preferredLanguages)
+						|| (rules.isLanguageDetectionEnabled && filterByLanguageDetection(video, rules.preferredLanguages, detectedLanguages.get(video.getId())))
+						|| filterByViews(video, rules.minimumVideoViews)
+						|| filterByDislikes(video, rules.minimumVideoDislikes))) {
 					filteredVideosList.add(video);
 				}
 			} else {
@@ -132,16 +149,13 @@ public class VideoBlocker {
 	 */
 	public List<ChannelView> filterChannels(List<ChannelView> channels) {
 		List<ChannelView>       filteredChannels    = new ArrayList<>();
-		final boolean           isChannelBlacklistEnabled = settings.isChannelDenyListEnabled();
-		if (!isChannelBlacklistEnabled) {
+		final FilterRules       rules               = getFilterRules(settings);
+		if (!rules.isChannelBlacklistEnabled) {
 			return channels;
 		}
-		final List<ChannelId>      blacklistedChannelIds = isChannelBlacklistEnabled  ? ChannelFilteringDb.getChannelFilteringDb().getDeniedChannelsIdsList() : null;
-		final List<ChannelId>      whitelistedChannelIds = !isChannelBlacklistEnabled ? ChannelFilteringDb.getChannelFilteringDb().getAllowedChannelsIdsList() : null;
 
 		for (ChannelView channel : channels) {
-			if ( !(isChannelBlacklistEnabled ? filterByBlacklistedChannels(channel.getId(), blacklistedChannelIds)
-					: filterByWhitelistedChannels(channel.getId(), whitelistedChannelIds)) ) {
+			if (!filterByBlacklistedChannels(channel.getId(), rules.blacklistedChannelIds)) {
 				filteredChannels.add(channel);
 			}
 		}
@@ -174,7 +188,7 @@ public class VideoBlocker {
 	 *
 	 * @return True if the video is to be filtered; false otherwise.
 	 */
-	private boolean filterByBlacklistedChannels(YouTubeVideo video, List<ChannelId> blacklistedChannelIds) {
+	private boolean filterByBlacklistedChannels(YouTubeVideo video, Set<ChannelId> blacklistedChannelIds) {
 		if (filterByBlacklistedChannels(video.getChannelId(), blacklistedChannelIds)) {
 			log(video, FilterType.CHANNEL_BLACKLIST, video.getChannelName());
 			return true;
@@ -192,7 +206,7 @@ public class VideoBlocker {
 	 *
 	 * @return True if the channel is to be filtered; false otherwise.
 	 */
-	private boolean filterByBlacklistedChannels(ChannelId channelId, List<ChannelId> blacklistedChannelIds) {
+	private boolean filterByBlacklistedChannels(ChannelId channelId, Set<ChannelId> blacklistedChannelIds) {
 		return blacklistedChannelIds.contains(channelId);
 	}
 
@@ -205,7 +219,7 @@ public class VideoBlocker {
 	 *
 	 * @return True if the video is to be filtered; false otherwise.
 	 */
-	private boolean filterByWhitelistedChannels(YouTubeVideo video, List<ChannelId> whitelistedChannelIds) {
+	private boolean filterByWhitelistedChannels(YouTubeVideo video, Set<ChannelId> whitelistedChannelIds) {
 		if (filterByWhitelistedChannels(video.getChannelId(), whitelistedChannelIds)) {
 			log(video, FilterType.CHANNEL_WHITELIST, video.getChannelName());
 			return true;
@@ -223,7 +237,7 @@ public class VideoBlocker {
 	 *
 	 * @return True if the channel is to be filtered; false otherwise.
 	 */
-	private boolean filterByWhitelistedChannels(ChannelId channelId, List<ChannelId> whitelistedChannelIds) {
+	private boolean filterByWhitelistedChannels(ChannelId channelId, Set<ChannelId> whitelistedChannelIds) {
 		return !whitelistedChannelIds.contains(channelId);
 	}
 
@@ -233,11 +247,11 @@ public class VideoBlocker {
 	 * Many YouTube videos do not set the language, hence this method will not be accurate.
 	 *
 	 * @param video                 Video that is going to be checked for filtering purposes.
-	 * @param preferredLanguages    A set of user's preferred ISO 639 language codes (regex).
+	 * @param preferredLanguages    A list of user's preferred ISO 639 language codes (regex).
 	 *
 	 * @return True to filter out the video; false otherwise.
 	 */
-	private boolean filterByLanguage(YouTubeVideo video, Set<String> preferredLanguages) {
+	private boolean filterByLanguage(YouTubeVideo video, List<Pattern> preferredLanguages) {
 		// if the video's language is not defined (i.e. null) or empty
 		//	OR if there is no linguistic content to the video (zxx)
 		//	OR if the language is undefined (und)
@@ -253,10 +267,8 @@ public class VideoBlocker {
 			return false;
 
 		// if this video's language is equal to the user's preferred one... then do NOT filter it out
-		for (String prefLanguage : preferredLanguages) {
-			if (video.getLanguage().matches(prefLanguage))
-				return false;
-		}
+		if (matchesAny(video.getLanguage(), preferredLanguages))
+			return false;
 
 		// this video is undesirable, hence we are going to filter it
 		log(video, FilterType.LANGUAGE, video.getLanguage());
@@ -264,74 +276,76 @@ public class VideoBlocker {
 	}
 
 
+	/**
+	 * Detect the languages of all the videos of the page in one go, so the detection can run in parallel
+	 * and the previously detected languages can be looked up together.
+	 *
+	 * @return The detected languages by video id.
+	 */
+	private Map<String, List<String>> detectLanguages(List<CardData> videosList) {
+		List<YouTubeVideo> videos = new ArrayList<>(videosList.size());
+		for (CardData cardData : videosList) {
+			if (cardData instanceof YouTubeVideo) {
+				videos.add((YouTubeVideo) cardData);
+			}
+		}
+
+		try {
+			return VideoLanguageDetector.get().detectLanguages(videos);
+		} catch (Throwable tr) {
+			Logger.e(this, "Exception caught while detecting language", tr);
+			return Collections.emptyMap();
+		}
+	}
+
+
 	/**
 	 * Filter out the given video if it does not meet the preferred language criteria.  The app will
 	 * try to determine the language of the video by analyzing the video's title.
 	 *
 	 * @param video                 Video that is going to be checked for filtering purposes.
-	 * @param preferredLanguages    A set of user's preferred ISO 639 language codes (regex).
+	 * @param preferredLanguages    A list of user's preferred ISO 639 language codes (regex).
+	 * @param detectedLanguages     The languages detected from the video's title, null if the detection failed.
 	 *
 	 * @return True to filter out the video; false otherwise.
 	 */
-	private boolean filterByLanguageDetection(YouTubeVideo video, Set<String> preferredLanguages) {
-		final String text = video.getTitle().toLowerCase();
-		List<String> detectLanguageList = new ArrayList<>();
-
-		// if the user does not want to block videos based on artificial language detection, then do
-		// not filter the video
-		if (!SkyTubeApp.getPreferenceManager().getBoolean(getStr(R.string.pref_key_lang_detection_video_filtering), false))
-			return false;
-
+	private boolean filterByLanguageDetection(YouTubeVideo video, List<Pattern> preferredLanguages, List<String> detectedLanguages) {
 		// if there are no preferred languages, then it means we must not filter this video
 		if (preferredLanguages.isEmpty())
 			return false;
 
-		try {
-			// detect language
-			TextObject textObject = LanguageDetectionSingleton.get().getTextObjectFactory().forText(text);
-			Optional<LdLocale> lang = LanguageDetectionSingleton.get().getLanguageDetector().detect(textObject);
-
-			// if the confidence in the language detection is 100%, then ...
-			if (lang.isPresent()) {
-				final String langDetected = lang.get().getLanguage();
+		if (detectedLanguages == null)
+			detectedLanguages = Collections.emptyList();
 
-				detectLanguageList.add(langDetected);
-
-				// if this video's language is equal to the user's preferred one... then do NOT filter it out
-				for (String prefLanguage : preferredLanguages) {
-					if (langDetected.matches(prefLanguage))
-						return false;
-				}
-			} else {
-				// else if the library is not 100% that the language detected is the correct one...
-				List<DetectedLanguage> detectedLangList = LanguageDetectionSingleton.get().getLanguageDetector().getProbabilities(text);
+		// if this video's language is equal to the user's preferred one... then do NOT filter it out
+		for (String langDetected : detectedLanguages) {
+			if (matchesAny(langDetected, preferredLanguages))
+				return false;
+		}
 
-				for (DetectedLanguage detectedLanguage : detectedLangList) {
-					String langDetected = detectedLanguage.getLocale().getLanguage();
+		log(video, FilterType.LANGUAGE_DETECTION, detectedLanguages.toString());
+		return true;
+	}
 
-					detectLanguageList.add(langDetected);
 
-					for (String prefLanguage : preferredLanguages) {
-						if (langDetected.matches(prefLanguage))
-							return false;
-					}
-				}
-			}
-		} catch (Throwable tr) {
-			Logger.e(this, "Exception caught while detecting language", tr);
+	/**
+	 * @return True if the language matches any of the preferred language patterns.
+	 */
+	private static boolean matchesAny(String language, List<Pattern> preferredLanguages) {
+		for (Pattern prefLanguage : preferredLanguages) {
+			if (prefLanguage.matcher(language).matches())
+				return true;
 		}
-
-		log(video, FilterType.LANGUAGE_DETECTION, detectLanguageList.toString());
-		return true;
+		return false;
 	}
 
 
 	/**
 	 * @return The views filtering value set by the user.
 	 */
-	private BigInteger getViewsFilteringValue() {
+	private static long getViewsFilteringValue() {
 		final  String viewsFiltering = SkyTubeApp.getPreferenceManager().getString(getStr(R.string.pref_key_low_views_filter), getStr(R.string.views_filtering_disabled));
-		return new BigInteger(viewsFiltering);
+		return new BigInteger(viewsFiltering).min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
 	}
 
 
@@ -345,14 +359,14 @@ public class VideoBlocker {
 	 *
 	 * @return True to filter out the video; false otherwise.
 	 */
-	private boolean filterByViews(YouTubeVideo video, BigInteger minimumVideoViews) {
+	private boolean filterByViews(YouTubeVideo video, long minimumVideoViews) {
 		// if the user has not enabled the view filtering (i.e. it is set as -1), then do not filter
 		// this video
-		if (minimumVideoViews.signum() < 0  ||  video.getViewsCountInt() == null)
+		if (minimumVideoViews < 0  ||  video.getViewsCountInt() == null)
 			return false;
 
 		// if the video has less views than minimumVideoViews, then filter it out
-		if (video.getViewsCountInt().longValue() < 0) {
+		if (video.getViewsCountInt() < minimumVideoViews) {
 			log(video, FilterType.VIEWS, String.format(getStr(R.string.views), video.getViewsCountInt()));
 			return true;
 		}
@@ -364,7 +378,7 @@ public class VideoBlocker {
 	/**
 	 * @return The dislikes filtering value set by the user.
 	 */
-	private int getDislikesFilteringValue() {
+	private static int getDislikesFilteringValue() {
 		final  String dislikesFiltering = SkyTubeApp.getPreferenceManager().getString(getStr(R.string.pref_key_dislikes_filter), getStr(R.string.dislikes_filtering_disabled));
 		return Integer.parseInt(dislikesFiltering);
 	}
@@ -490,48 +504,33 @@ public class VideoBlocker {
 
 
 	/**
-	 * A singleton of objects used to detect languages.  This is required to improve the language
-	 * detection performance...
+	 * The filtering settings, loaded once, and converted to a form which can be evaluated quickly: hash sets for the
+	 * channel ids, precompiled patterns for the languages, and parsed thresholds.
 	 */
-	private static class LanguageDetectionSingleton {
-
-		private static LanguageDetectionSingleton languageDetectionSingleton = null;
-		private final TextObjectFactory textObjectFactory;
-		private final LanguageDetector  languageDetector;
-
-
-		private LanguageDetectionSingleton() throws IOException {
-			// load all languages
-			List<LanguageProfile> languageProfiles = new LanguageProfileReader().readAllBuiltIn();
-
-			// build language detector
-			languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
-					.withProfiles(languageProfiles)
-					.build();
-
-			// create a text object factory
-			textObjectFactory = CommonTextObjectFactories.forDetectingShortCleanText();
-		}
-
-
-		public static LanguageDetectionSingleton get() throws IOException {
-			if (languageDetectionSingleton == null) {
-				languageDetectionSingleton = new LanguageDetectionSingleton();
+	private static class FilterRules {
+		final int               dbUpdateCounter;
+		final boolean           isChannelBlacklistEnabled;
+		final Set<ChannelId>    blacklistedChannelIds;
+		final Set<ChannelId>    whitelistedChannelIds;
+		/** User's preferred ISO 639 language codes (regex). */
+		final List<Pattern>     preferredLanguages = new ArrayList<>();
+		final boolean           isLanguageDetectionEnabled;
+		final long              minimumVideoViews;
+		final int               minimumVideoDislikes;
+
+		FilterRules(Settings settings, ChannelFilteringDb db) {
+			// read the counter first, so a concurrent change causes a reload next time
+			dbUpdateCounter = db.getUpdateCounter();
+			isChannelBlacklistEnabled = settings.isChannelDenyListEnabled();
+			blacklistedChannelIds = isChannelBlacklistEnabled ? new HashSet<>(db.getDeniedChannelsIdsList()) : Collections.emptySet();
+			whitelistedChannelIds = !isChannelBlacklistEnabled ? new HashSet<>(db.getAllowedChannelsIdsList()) : Collections.emptySet();
+			for (String language : SkyTubeApp.getPreferenceManager().getStringSet(getStr(R.string.pref_key_preferred_languages), defaultPrefLanguages)) {
+				preferredLanguages.add(Pattern.compile(language));
 			}
-
-			return languageDetectionSingleton;
-		}
-
-
-		TextObjectFactory getTextObjectFactory() {
-			return textObjectFactory;
+			isLanguageDetectionEnabled = SkyTubeApp.getPreferenceManager().getBoolean(getStr(R.string.pref_key_lang_detection_video_filtering), false);
+			minimumVideoViews = getViewsFilteringValue();
+			minimumVideoDislikes = getDislikesFilteringValue();
 		}
-
-
-		LanguageDetector getLanguageDetector() {
-			return languageDetector;
-		}
-
 	}
 
 }
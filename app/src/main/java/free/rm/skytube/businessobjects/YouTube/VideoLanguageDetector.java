@@ -0,0 +1,175 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.optimaize.langdetect.DetectedLanguage;
+import com.optimaize.langdetect.LanguageDetector;
+import com.optimaize.langdetect.LanguageDetectorBuilder;
+import com.optimaize.langdetect.i18n.LdLocale;
+import com.optimaize.langdetect.ngram.NgramExtractors;
+import com.optimaize.langdetect.profiles.LanguageProfile;
+import com.optimaize.langdetect.profiles.LanguageProfileReader;
+import com.optimaize.langdetect.text.CommonTextObjectFactories;
+import com.optimaize.langdetect.text.TextObject;
+import com.optimaize.langdetect.text.TextObjectFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+
+/**
+ * Detects the language of the videos from their titles. The results are cached by video id in memory,
+ * and for the subscription feed videos, in the database too, as the title of a video rarely changes.
+ */
+public class VideoLanguageDetector {
+    private static final int CACHE_SIZE = 2000;
+    private static final String SEPARATOR = ",";
+
+    private static volatile VideoLanguageDetector instance;
+
+    private final TextObjectFactory textObjectFactory;
+    private final LanguageDetector languageDetector;
+    private final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final Map<String, List<String>> cache = Collections.synchronizedMap(new LinkedHashMap<String, List<String>>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    private VideoLanguageDetector() throws IOException {
+        // load all languages
+        List<LanguageProfile> languageProfiles = new LanguageProfileReader().readAllBuiltIn();
+
+        // build language detector
+        languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
+                .withProfiles(languageProfiles)
+                .build();
+
+        // create a text object factory
+        textObjectFactory = CommonTextObjectFactories.forDetectingShortCleanText();
+    }
+
+    public static VideoLanguageDetector get() throws IOException {
+        if (instance == null) {
+            synchronized (VideoLanguageDetector.class) {
+                if (instance == null) {
+                    instance = new VideoLanguageDetector();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Detect the languages of the videos, in parallel, using the cached results where possible.
+     * @return the possible languages of each video, by video id.
+     */
+    @NonNull
+    public Map<String, List<String>> detectLanguages(@NonNull List<YouTubeVideo> videos) {
+        final Map<String, List<String>> result = new HashMap<>();
+        final List<YouTubeVideo> missing = new ArrayList<>();
+        for (YouTubeVideo video : videos) {
+            final List<String> languages = cache.get(video.getId());
+            if (languages != null) {
+                result.put(video.getId(), languages);
+            } else {
+                missing.add(video);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
+        final List<String> missingIds = new ArrayList<>(missing.size());
+        for (YouTubeVideo video : missing) {
+            missingIds.add(video.getId());
+        }
+        for (Map.Entry<String, String> stored : db.getDetectedLanguages(missingIds).entrySet()) {
+            final List<String> languages = Arrays.asList(stored.getValue().split(SEPARATOR));
+            cache.put(stored.getKey(), languages);
+            result.put(stored.getKey(), languages);
+        }
+
+        final List<YouTubeVideo> toDetect = new ArrayList<>(missing.size());
+        final List<Callable<List<String>>> tasks = new ArrayList<>(missing.size());
+        for (YouTubeVideo video : missing) {
+            if (!result.containsKey(video.getId())) {
+                toDetect.add(video);
+                tasks.add(() -> detectLanguages(video.getTitle()));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return result;
+        }
+        final Map<String, String> detected = new HashMap<>();
+        try {
+            final List<Future<List<String>>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                final String videoId = toDetect.get(i).getId();
+                try {
+                    final List<String> languages = futures.get(i).get();
+                    cache.put(videoId, languages);
+                    result.put(videoId, languages);
+                    detected.put(videoId, Joiner.on(SEPARATOR).join(languages));
+                } catch (ExecutionException e) {
+                    Logger.e(this, "Exception caught while detecting language of " + videoId, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        db.saveDetectedLanguages(detected);
+        return result;
+    }
+
+    /**
+     * @return the detected language, if the detector is confident about it, otherwise all the possible languages.
+     */
+    private List<String> detectLanguages(String title) {
+        final String text = title.toLowerCase();
+        TextObject textObject = textObjectFactory.forText(text);
+        Optional<LdLocale> lang = languageDetector.detect(textObject);
+        if (lang.isPresent()) {
+            return Collections.singletonList(lang.get().getLanguage());
+        }
+        List<String> result = new ArrayList<>();
+        for (DetectedLanguage detectedLanguage : languageDetector.getProbabilities(text)) {
+            result.add(detectedLanguage.getLocale().getLanguage());
+        }
+        return result;
+    }
+}
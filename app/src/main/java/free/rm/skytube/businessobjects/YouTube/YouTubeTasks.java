@@ -22,7 +22,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -31,7 +38,11 @@ import java.util.stream.Collectors;
 import free.rm.skytube.R;
 import free.rm.skytube.app.EventBus;
 import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.ThumbnailWarmer;
 import free.rm.skytube.app.Utils;
+import free.rm.skytube.app.utils.AdaptiveConcurrencyLimiter;
+import free.rm.skytube.app.utils.ExpiringCache;
+import free.rm.skytube.businessobjects.Sponsorblock.SBTasks;
 import free.rm.skytube.businessobjects.VideoCategory;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.PersistentChannel;
@@ -41,10 +52,14 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
+import free.rm.skytube.businessobjects.YouTube.newpipe.FeedValidator;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeException;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.YouTube.newpipe.PlaylistPager;
+import free.rm.skytube.businessobjects.YouTube.newpipe.StreamInfoCache;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 import free.rm.skytube.businessobjects.db.LocalChannelTable;
+import free.rm.skytube.businessobjects.db.PageSnapshotDb;
 import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
 import free.rm.skytube.businessobjects.model.Status;
@@ -66,7 +81,22 @@ import static free.rm.skytube.app.SkyTubeApp.getContext;
  */
 public class YouTubeTasks {
     private static final String TAG = YouTubeTasks.class.getSimpleName();
-    private static final Scheduler scheduler = Schedulers.from(Executors.newFixedThreadPool(4));
+    private static final int MIN_CONCURRENCY = 1;
+    private static final int INITIAL_CONCURRENCY = 4;
+    private static final int MAX_CONCURRENCY = 16;
+    /** A feed request slower than this is handled as a sign of congestion, and reduces the concurrency. */
+    private static final long SLOW_REQUEST_MS = 5000;
+    /** Number of extra attempts, when a channel feed can't be fetched, because of a network error. */
+    private static final int MAX_RETRIES = 1;
+    private static final long DETAILS_CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final int DETAILS_CACHE_SIZE = 1000;
+    private static final Scheduler scheduler = Schedulers.from(Executors.newFixedThreadPool(MAX_CONCURRENCY));
+    /** Video details are fetched in parallel, the actual number of requests is limited by the {@link AdaptiveConcurrencyLimiter}. */
+    private static final ExecutorService detailsExecutor = Executors.newFixedThreadPool(MAX_CONCURRENCY);
+    /** Recently fetched video details, so a video is not parsed again during back-to-back refreshes. */
+    private static final ExpiringCache<String, YouTubeVideo> detailsCache = new ExpiringCache<>(DETAILS_CACHE_TTL_MS, DETAILS_CACHE_SIZE);
+
+    private static volatile RefreshStatistics lastRefreshStatistics;
 
     public interface ChannelPlaylistFetcher {
         void reset();
@@ -75,15 +105,41 @@ public class YouTubeTasks {
     }
     private YouTubeTasks() { }
 
-    public static Single<Integer> refreshAllSubscriptions(Context context, @Nullable Consumer<List<ChannelId>> subscriptionListConsumer, @Nullable Consumer<Integer> newVideosFound) {
-        Single<List<ChannelId>>  subscriptionList = SubscriptionsDb.getSubscriptionsDb().getSubscribedChannelIdsAsync();
+    /**
+     * @return the metrics of the last (or currently running) subscription refresh, or null if there wasn't any.
+     */
+    @Nullable
+    public static RefreshStatistics getLastRefreshStatistics() {
+        return lastRefreshStatistics;
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter() {
+        return new AdaptiveConcurrencyLimiter(MIN_CONCURRENCY, INITIAL_CONCURRENCY, MAX_CONCURRENCY, SLOW_REQUEST_MS);
+    }
+
+    /**
+     * Check the subscribed channels for new videos. Unless a full sweep is requested, only the channels which are
+     * due - according to their upload frequency - are checked, the most active ones first.
+     * @param fullSweep check every subscribed channel.
+     */
+    public static Single<Integer> refreshAllSubscriptions(Context context, boolean fullSweep, @Nullable Consumer<List<ChannelId>> subscriptionListConsumer, @Nullable Consumer<Integer> newVideosFound) {
+        // the YouTube API based refresh only asks for videos published after the last refresh, so it can't skip channels
+        Single<List<ChannelId>>  subscriptionList = SubscriptionsDb.getSubscriptionsDb().getChannelIdsToRefreshAsync(fullSweep || !isBulkRefresh());
         if (subscriptionListConsumer!= null) {
             subscriptionList = subscriptionList.observeOn(AndroidSchedulers.mainThread())
                     .doOnSuccess(list -> subscriptionListConsumer.accept(list))
                     .observeOn(Schedulers.io());
         }
         return subscriptionList
-                .flatMap(channelIds -> refreshSubscriptions(channelIds, newVideosFound))
+                .flatMap(channelIds -> {
+                    final long lastVideoRowid = SubscriptionsDb.getSubscriptionsDb().getLastVideoRowid();
+                    return refreshSubscriptions(channelIds, newVideosFound)
+                            .doOnSuccess(newVideos -> {
+                                if (newVideos > 0) {
+                                    ThumbnailWarmer.warmAfterRefresh(lastVideoRowid);
+                                }
+                            });
+                })
                 .doOnError(error -> {
                     SkyTubeApp.notifyUserOnError(context, error);
                 })
@@ -93,8 +149,12 @@ public class YouTubeTasks {
                 });
     }
 
+    private static boolean isBulkRefresh() {
+        return SkyTubeApp.getSettings().isUseNewPipe() || !YouTubeAPIKey.get().isUserApiKeySet();
+    }
+
     private static Single<Integer> refreshSubscriptions(@NonNull List<ChannelId> channelIds, @Nullable Consumer<Integer> newVideosFound) {
-        if (SkyTubeApp.getSettings().isUseNewPipe() || !YouTubeAPIKey.get().isUserApiKeySet()) {
+        if (isBulkRefresh()) {
             return YouTubeTasks.getBulkSubscriptionVideos(channelIds, newVideosFound);
         } else {
             return YouTubeTasks.getSubscriptionVideos(channelIds, newVideosFound);
@@ -127,11 +187,16 @@ public class YouTubeTasks {
     /**
      * A task that returns the videos of the channels the user has subscribed to. Used to detect if
      * new videos have been published since last time the user used the app.
+     * The number of parallel requests is adapted to the observed latency and error rate.
      */
     private static Single<Integer> getBulkSubscriptionVideos(@NonNull List<ChannelId> channelIds, @Nullable Consumer<Integer> newVideosFound) {
         final SubscriptionsDb subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
         final AtomicBoolean changed = new AtomicBoolean(false);
         final AtomicReference<ReCaptchaException> recaptcha = new AtomicReference<>();
+        final AdaptiveConcurrencyLimiter limiter = createLimiter();
+        final RefreshStatistics statistics = new RefreshStatistics(limiter);
+        final Set<String> videosInRefresh = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        lastRefreshStatistics = statistics;
         return Flowable.fromIterable(channelIds)
                 .flatMapSingle(channelId ->
                         Single.fromCallable(() -> {
@@ -140,33 +205,74 @@ public class YouTubeTasks {
                                 Log.i(TAG, "Re-captcha needed, done for now");
                                 return 0;
                             }
-                            Map<String, Long> alreadyKnownVideos = subscriptionsDb.getSubscribedChannelVideosByChannelToTimestamp(channelId);
-                            List<YouTubeVideo> newVideos = fetchVideos(subscriptionsDb, alreadyKnownVideos, channelId);
-                            List<YouTubeVideo> detailedList = new ArrayList<>();
-                            if (!newVideos.isEmpty()) {
-                                PersistentChannel dbChannel = subscriptionsDb.getCachedChannel(channelId);
-                                for (YouTubeVideo vid : newVideos) {
-                                    try {
-                                        final YouTubeVideo details = NewPipeService.get().getDetails(vid.getId());
-                                        if (vid.getPublishTimestampExact()) {
-                                            details.setPublishTimestamp(vid.getPublishTimestamp());
-                                            details.setPublishTimestampExact(vid.getPublishTimestampExact());
+                            final long channelStart = System.currentTimeMillis();
+                            try {
+                                Map<String, Long> alreadyKnownVideos = subscriptionsDb.getSubscribedChannelVideosByChannelToTimestamp(channelId);
+                                FeedValidator feedValidator = subscriptionsDb.getFeedValidator(channelId);
+                                List<YouTubeVideo> newVideos = fetchVideos(subscriptionsDb, alreadyKnownVideos, channelId, feedValidator, limiter, statistics, recaptcha);
+                                List<YouTubeVideo> detailedList = new ArrayList<>();
+                                boolean allDetailsFetched = true;
+                                if (!newVideos.isEmpty()) {
+                                    PersistentChannel dbChannel = subscriptionsDb.getCachedChannel(channelId);
+                                    List<Future<YouTubeVideo>> details = new ArrayList<>(newVideos.size());
+                                    for (YouTubeVideo vid : newVideos) {
+                                        // the same video can show up in the feed of multiple channels, only fetch it once
+                                        details.add(videosInRefresh.add(vid.getId())
+                                                ? detailsCache.get(vid.getId(), () -> fetchDetails(vid.getId(), limiter, statistics, recaptcha), detailsExecutor)
+                                                : null);
+                                    }
+                                    for (int i = 0; i < newVideos.size(); i++) {
+                                        final YouTubeVideo vid = newVideos.get(i);
+                                        final Future<YouTubeVideo> detailFuture = details.get(i);
+                                        if (detailFuture == null) {
+                                            continue;
+                                        }
+                                        try {
+                                            // the cached details are shared with the other refreshes, only a copy is modified
+                                            final YouTubeVideo detail = new YouTubeVideo(detailFuture.get());
+                                            if (vid.getPublishTimestampExact()) {
+                                                detail.setPublishTimestamp(vid.getPublishTimestamp());
+                                                detail.setPublishTimestampExact(vid.getPublishTimestampExact());
+                                            }
+                                            detail.setChannel(dbChannel.channel());
+                                            detailedList.add(detail);
+                                        } catch (ExecutionException executionException) {
+                                            final Throwable e = executionException.getCause();
+                                            if (e instanceof ReCaptchaException) {
+                                                final ReCaptchaException reCaptchaException = (ReCaptchaException) e;
+                                                recaptcha.compareAndSet(null, reCaptchaException);
+                                                Log.e(TAG, String.format("ReCaptcha error: %s, open %s to solve", reCaptchaException.getMessage(), reCaptchaException.getUrl()));
+                                                details.forEach(future -> {
+                                                    if (future != null) {
+                                                        future.cancel(false);
+                                                    }
+                                                });
+                                                return 0;
+                                            }
+                                            String errorMsg = String.format("Error during parsing video page for id=%s, channel: %s - name: '%s' msg:%s", vid.getId(), vid.getSafeChannelId(), vid.getSafeChannelName(), e.getMessage());
+                                            Log.e(TAG, errorMsg, e);
+                                            allDetailsFetched = false;
+                                        } catch (CancellationException cancellationException) {
+                                            // a concurrent refresh, which shares the cached load, got a re-captcha, and cancelled it
+                                            Log.w(TAG, "Fetching the details of " + vid.getId() + " was cancelled");
+                                            allDetailsFetched = false;
                                         }
-                                        details.setChannel(dbChannel.channel());
-                                        detailedList.add(details);
-                                    } catch (ReCaptchaException reCaptchaException) {
-                                        recaptcha.set(reCaptchaException);
-                                        Log.e(TAG, String.format("ReCaptcha error: %s, open %s to solve", reCaptchaException.getMessage(), reCaptchaException.getUrl()));
-                                        return 0;
-                                    } catch (ExtractionException | IOException e) {
-                                        String errorMsg = String.format("Error during parsing video page for id=%s, channel: %s - name: '%s' msg:%s", vid.getId(), vid.getSafeChannelId(), vid.getSafeChannelName(), e.getMessage());
-                                        Log.e(TAG, errorMsg, e);
                                     }
+                                    changed.compareAndSet(false, true);
+                                    subscriptionsDb.saveChannelVideos(detailedList, dbChannel, true);
                                 }
-                                changed.compareAndSet(false, true);
-                                subscriptionsDb.saveChannelVideos(detailedList, dbChannel, true);
+                                // only remember the feed, if every new video is saved, otherwise the next refresh needs to retry them -
+                                // after a failed fetch, there is nothing pending to apply
+                                if (allDetailsFetched && recaptcha.get() == null) {
+                                    feedValidator.applyPending();
+                                    if (feedValidator.isChanged()) {
+                                        subscriptionsDb.saveFeedValidator(channelId, feedValidator);
+                                    }
+                                }
+                                return detailedList.size();
+                            } finally {
+                                statistics.channelFinished(System.currentTimeMillis() - channelStart);
                             }
-                            return detailedList.size();
                         })
                                 .subscribeOn(scheduler)
                                 .observeOn(AndroidSchedulers.mainThread())
@@ -175,9 +281,10 @@ public class YouTubeTasks {
                                         newVideosFound.accept(newYouTubeVideos);
                                     }
                                     EventBus.getInstance().notifyChannelNewVideos(channelId, newYouTubeVideos);
-                                })
+                                }), false, MAX_CONCURRENCY
                 )
                 .collect(Collectors.summingInt(Integer::intValue))
+                .doFinally(() -> logStatistics(statistics))
                 .map(result -> {
                     ReCaptchaException reCaptchaException = recaptcha.get();
                     if (reCaptchaException != null) {
@@ -187,27 +294,105 @@ public class YouTubeTasks {
                 }).subscribeOn(Schedulers.io());
     }
 
+    private static void logStatistics(@NonNull RefreshStatistics statistics) {
+        statistics.finished();
+        Log.i(TAG, "Subscription refresh finished: " + statistics);
+    }
+
     private static List<YouTubeVideo> fetchVideos(@NonNull SubscriptionsDb subscriptionsDb,
                                                   @NonNull Map<String, Long> alreadyKnownVideos,
-                                                  @NonNull ChannelId channelId) {
+                                                  @NonNull ChannelId channelId,
+                                                  @Nullable FeedValidator feedValidator,
+                                                  @NonNull AdaptiveConcurrencyLimiter limiter,
+                                                  @NonNull RefreshStatistics statistics,
+                                                  @NonNull AtomicReference<ReCaptchaException> recaptcha) throws InterruptedException {
+        List<YouTubeVideo> videos = fetchVideos(channelId, feedValidator, limiter, statistics, recaptcha);
+        // If we found a video which is already added to the db, no need to check the videos after,
+        // assume, they are older, and already seen
+        videos.removeIf(video -> {
+            Long storedTs = alreadyKnownVideos.get(video.getId());
+            if (storedTs != null && Boolean.TRUE.equals(video.getPublishTimestampExact()) && !storedTs.equals(video.getPublishTimestamp())) {
+                // the freshly retrieved video contains an exact, and different publish timestamp
+                subscriptionsDb.setPublishTimestamp(video);
+                Log.i(TAG, String.format("Updating publish timestamp for %s - %s with %s",
+                        video.getId(), video.getTitle(), new Date(video.getPublishTimestamp())));
+            }
+            return storedTs != null;
+        });
+        return videos;
+    }
+
+    /**
+     * Fetch the details of a video, if no re-captcha was requested during the current refresh.
+     */
+    private static YouTubeVideo fetchDetails(@NonNull String videoId,
+                                             @NonNull AdaptiveConcurrencyLimiter limiter,
+                                             @NonNull RefreshStatistics statistics,
+                                             @NonNull AtomicReference<ReCaptchaException> recaptcha) throws InterruptedException, ExtractionException, IOException {
+        final ReCaptchaException previousRecaptcha = recaptcha.get();
+        if (previousRecaptcha != null) {
+            throw previousRecaptcha;
+        }
+        final long start = limiter.acquire();
+        boolean failed = true;
+        boolean congested = false;
         try {
-            List<YouTubeVideo> videos = NewPipeService.get().getVideosFromFeedOrFromChannel(channelId);
-            // If we found a video which is already added to the db, no need to check the videos after,
-            // assume, they are older, and already seen
-            videos.removeIf(video -> {
-                Long storedTs = alreadyKnownVideos.get(video.getId());
-                if (storedTs != null && Boolean.TRUE.equals(video.getPublishTimestampExact()) && !storedTs.equals(video.getPublishTimestamp())) {
-                    // the freshly retrieved video contains an exact, and different publish timestamp
-                    subscriptionsDb.setPublishTimestamp(video);
-                    Log.i(TAG, String.format("Updating publish timestamp for %s - %s with %s",
-                            video.getId(), video.getTitle(), new Date(video.getPublishTimestamp())));
+            final YouTubeVideo details = NewPipeService.get().getDetails(videoId);
+            failed = false;
+            return details;
+        } catch (ReCaptchaException reCaptchaException) {
+            // a captcha response is fast, but it must not count as a success, which would raise the limit again
+            congested = true;
+            limiter.backOff();
+            recaptcha.compareAndSet(null, reCaptchaException);
+            throw reCaptchaException;
+        } catch (IOException e) {
+            congested = true;
+            throw e;
+        } finally {
+            limiter.release(start, !congested);
+            statistics.requestFinished(!failed);
+        }
+    }
+
+    /**
+     * Fetch the recent videos of a channel, retrying on network errors, and backing off globally on re-captcha requests.
+     * If the feed of the channel is not changed since the last refresh, an empty list is returned.
+     */
+    private static List<YouTubeVideo> fetchVideos(@NonNull ChannelId channelId,
+                                                  @Nullable FeedValidator feedValidator,
+                                                  @NonNull AdaptiveConcurrencyLimiter limiter,
+                                                  @NonNull RefreshStatistics statistics,
+                                                  @NonNull AtomicReference<ReCaptchaException> recaptcha) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            final long start = limiter.acquire();
+            boolean failed = true;
+            boolean congested = false;
+            try {
+                List<YouTubeVideo> videos = NewPipeService.get().getVideosFromFeedOrFromChannel(channelId, feedValidator);
+                failed = false;
+                SubscriptionsDb.getSubscriptionsDb().setChannelChecked(channelId);
+                return videos != null ? videos : new ArrayList<>();
+            } catch (NewPipeException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ReCaptchaException) {
+                    congested = true;
+                    limiter.backOff();
+                    recaptcha.compareAndSet(null, (ReCaptchaException) cause);
+                    Log.e(TAG, "ReCaptcha error during fetching " + channelId + ": " + cause.getMessage());
+                    return Collections.emptyList();
                 }
-                return storedTs != null;
-            });
-            return videos;
-        } catch (NewPipeException e) {
-            handleNewPipeException(channelId, e);
-            return Collections.emptyList();
+                congested = cause instanceof IOException;
+                if (!congested || attempt >= MAX_RETRIES) {
+                    handleNewPipeException(channelId, e);
+                    return Collections.emptyList();
+                }
+                Log.w(TAG, "Retrying " + channelId + " after " + e.getMessage());
+                statistics.retried();
+            } finally {
+                limiter.release(start, !congested);
+                statistics.requestFinished(!failed);
+            }
         }
     }
 
@@ -229,18 +414,32 @@ public class YouTubeTasks {
     private static Single<List<YouTubeVideo>> getChannelVideos(@NonNull ChannelId channelId,
                                                             @Nullable Long publishedAfter,
                                                             boolean filterSubscribedVideos,
-                                                            @Nullable Consumer<Integer> newVideosFound) {
+                                                            @Nullable Consumer<Integer> newVideosFound,
+                                                            @NonNull AdaptiveConcurrencyLimiter limiter,
+                                                            @NonNull RefreshStatistics statistics) {
         if (!YouTubeAPIKey.get().isUserApiKeySet()) {
             throw new IllegalStateException("Only valid if custom YouTube key is set!");
         }
         final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
         return Single.fromCallable(() -> {
-            final GetChannelVideosFull getChannelVideosInterface = new GetChannelVideosFull();
-            getChannelVideosInterface.init();
-            getChannelVideosInterface.setPublishedAfter(publishedAfter != null
-                    ? publishedAfter : ZonedDateTime.now().minusMonths(1).toInstant().toEpochMilli());
-            getChannelVideosInterface.setChannelQuery(channelId, filterSubscribedVideos);
-            return getChannelVideosInterface.getNextVideos();
+            final long start = limiter.acquire();
+            Exception error = null;
+            try {
+                final GetChannelVideosFull getChannelVideosInterface = new GetChannelVideosFull();
+                getChannelVideosInterface.init();
+                getChannelVideosInterface.setPublishedAfter(publishedAfter != null
+                        ? publishedAfter : ZonedDateTime.now().minusMonths(1).toInstant().toEpochMilli());
+                getChannelVideosInterface.setChannelQuery(channelId, filterSubscribedVideos);
+                final List<CardData> result = getChannelVideosInterface.getNextVideos();
+                error = getChannelVideosInterface.getLastException();
+                return result;
+            } catch (IOException e) {
+                error = e;
+                throw e;
+            } finally {
+                statistics.channelFinished(limiter.release(start, !(error instanceof IOException)));
+                statistics.requestFinished(error == null);
+            }
         })
                 .onErrorReturnItem(Collections.emptyList())
                 .map(videos -> {
@@ -254,7 +453,7 @@ public class YouTubeTasks {
                     db.saveChannelVideos(realVideos, channel, true);
                     return realVideos;
                 })
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(scheduler)
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnSuccess(newYouTubeVideos -> {
                     if (newVideosFound != null) {
@@ -297,10 +496,13 @@ public class YouTubeTasks {
          */
         final Long publishedAfter = SkyTubeApp.getSettings().getFeedsLastUpdateTime();
         final AtomicBoolean changed = new AtomicBoolean(false);
+        final AdaptiveConcurrencyLimiter limiter = createLimiter();
+        final RefreshStatistics statistics = new RefreshStatistics(limiter);
+        lastRefreshStatistics = statistics;
 
         return Flowable.fromIterable(channelIds)
             .flatMapSingle(channelId ->
-                YouTubeTasks.getChannelVideos(channelId, publishedAfter, true, newVideosFound)
+                YouTubeTasks.getChannelVideos(channelId, publishedAfter, true, newVideosFound, limiter, statistics)
                     .doOnSuccess(videos -> {
                         if (!videos.isEmpty()) {
                             changed.compareAndSet(false, true);
@@ -309,9 +511,10 @@ public class YouTubeTasks {
                     })
                     .doOnError(throwable ->
                         Log.e(TAG, "Interrupt in semaphore.acquire:" + throwable.getMessage(), throwable)
-                    )
+                    ), false, MAX_CONCURRENCY
                 )
                 .collect(Collectors.summingInt(videos -> videos.size()))
+                .doFinally(() -> logStatistics(statistics))
                 .subscribeOn(Schedulers.io());
     }
 
@@ -374,7 +577,7 @@ public class YouTubeTasks {
      */
     public static Completable getDesiredStream(@NonNull YouTubeVideo youTubeVideo,
                                                     @NonNull GetDesiredStreamListener listener) {
-        return Single.fromCallable(() -> NewPipeService.get().getStreamInfoByVideoId(youTubeVideo.getId()))
+        return Single.fromCallable(() -> StreamInfoCache.get().getStreamInfo(youTubeVideo.getId()))
                 .subscribeOn(Schedulers.io())
                 .map(streamInfo -> {
                     youTubeVideo.updateFromStreamInfo(streamInfo);
@@ -390,6 +593,24 @@ public class YouTubeTasks {
                 });
     }
 
+    /**
+     * Start resolving the streams of the video in the background, as it is likely to be played soon - unless it is
+     * downloaded, or the network is metered, where the user might not want to spend the data on it.
+     */
+    public static Completable prefetchDesiredStream(@NonNull YouTubeVideo youTubeVideo) {
+        if (SkyTubeApp.isActiveNetworkMetered()) {
+            return Completable.complete();
+        }
+        return DownloadedVideosDb.getVideoDownloadsDb().isVideoDownloaded(youTubeVideo.getVideoId())
+                .doOnSuccess(downloaded -> {
+                    if (!downloaded) {
+                        StreamInfoCache.get().prefetch(youTubeVideo.getId());
+                    }
+                })
+                .ignoreElement()
+                .onErrorComplete();
+    }
+
     public static Maybe<Long> getDislikeCountFromApi(@NonNull String videoId) {
         return Maybe.fromCallable(() -> NewPipeService.get().getDislikeCountFromApi(videoId))
                 .subscribeOn(Schedulers.io())
@@ -415,6 +636,7 @@ public class YouTubeTasks {
             swipeRefreshLayout.setRefreshing(true);
         }
         final boolean subscriptionFeedVideos = videoGridAdapter.getCurrentVideoCategory() == VideoCategory.SUBSCRIPTIONS_FEED_VIDEOS;
+        final String snapshotKey = clearList ? videoGridAdapter.getSnapshotKey() : null;
 
         return Maybe.fromCallable(() -> {
             // get videos from YouTube or the database.
@@ -454,6 +676,18 @@ public class YouTubeTasks {
                     PersistentChannel persistentChannel = db.getCachedChannel(channel.getChannelId());
                     db.saveChannelVideos(channel.getYouTubeVideos(), persistentChannel, false);
                 }
+                if (SkyTubeApp.getSettings().isSponsorblockEnabled()) {
+                    final List<String> videoIds = new ArrayList<>();
+                    for (CardData video : filteredVideos) {
+                        if (video instanceof YouTubeVideo) {
+                            videoIds.add(video.getId());
+                        }
+                    }
+                    SBTasks.prefetchSponsorblockSegments(videoIds).subscribe();
+                }
+                if (snapshotKey != null && getYouTubeVideos.getLastException() == null) {
+                    PageSnapshotDb.getPageSnapshotDb().putSnapshot(snapshotKey, filteredVideos, System.currentTimeMillis());
+                }
                 return filteredVideos;
             } else {
                 return Collections.<CardData>emptyList();
@@ -469,9 +703,10 @@ public class YouTubeTasks {
                     SkyTubeApp.notifyUserOnError(context, getYouTubeVideos.getLastException());
 
                     if (clearList) {
-                        videoGridAdapter.clearList();
+                        videoGridAdapter.replaceList(videosList);
+                    } else {
+                        videoGridAdapter.appendList(videosList);
                     }
-                    videoGridAdapter.appendList(videosList);
                     videoGridAdapter.notifyVideoGridUpdated();
                 })
                 .doOnTerminate(() -> {
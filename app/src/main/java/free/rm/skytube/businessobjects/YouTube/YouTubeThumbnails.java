@@ -0,0 +1,92 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the size variant of the YouTube video thumbnails. Every video has the same thumbnail in a few fixed sizes,
+ * either letterboxed to 4:3, or in 16:9 - a variant is only replaced by a smaller one with the same aspect ratio,
+ * so the cards keep their shape, and the smaller variants always exist.
+ */
+public final class YouTubeThumbnails {
+    private static final Pattern THUMBNAIL_URL =
+            Pattern.compile("(https?://i\\d?\\.ytimg\\.com/vi(?:_webp)?/[A-Za-z0-9_-]{11}/)(\\w+)\\.(jpg|webp)(\\?.*)?");
+
+    private enum Variant {
+        DEFAULT("default", 120, false),
+        MEDIUM("mqdefault", 320, true),
+        HIGH("hqdefault", 480, false),
+        STANDARD("sddefault", 640, false),
+        HD("hq720", 1280, true),
+        MAX_RES("maxresdefault", 1280, true);
+
+        final String name;
+        final int width;
+        final boolean wide;
+
+        Variant(String name, int width, boolean wide) {
+            this.name = name;
+            this.width = width;
+            this.wide = wide;
+        }
+
+        static Variant of(String name) {
+            for (Variant variant : values()) {
+                if (variant.name.equals(name)) {
+                    return variant;
+                }
+            }
+            return null;
+        }
+    }
+
+    private YouTubeThumbnails() {
+    }
+
+    /**
+     * @param url     The URL of a thumbnail.
+     * @param widthPx The width, where the thumbnail is displayed.
+     * @return The URL of the smallest variant of the thumbnail, which is at least as wide as needed - or the URL
+     * itself, if it is not a YouTube video thumbnail, or there is no smaller variant.
+     */
+    public static String getUrlForWidth(String url, int widthPx) {
+        if (url == null) {
+            return null;
+        }
+        final Matcher matcher = THUMBNAIL_URL.matcher(url);
+        if (!matcher.matches()) {
+            return url;
+        }
+        final Variant current = Variant.of(matcher.group(2));
+        if (current == null) {
+            return url;
+        }
+        Variant best = current;
+        for (Variant variant : Variant.values()) {
+            if (variant.wide == current.wide && variant.width >= widthPx && variant.width < best.width) {
+                best = variant;
+            }
+        }
+        if (best == current) {
+            return url;
+        }
+        // the query parameters are specific to the original variant
+        return matcher.group(1) + best.name + '.' + matcher.group(3);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The HTTP validators (ETag, Last-Modified) and the content hash of the last downloaded feed of a channel,
+ * used to skip the parsing of feeds which haven't changed since then.
+ * <p>
+ * The values of a newly downloaded feed are only pending, until {@link #applyPending()} is called, once its videos
+ * are stored - so a retry after a failed extraction still sees the feed as changed.
+ */
+public class FeedValidator {
+    private static final Pattern VIDEO_ID = Pattern.compile("<yt:videoId>([^<]+)</yt:videoId>");
+
+    /**
+     * The values of a downloaded feed, which are not applied to the validator yet.
+     */
+    static final class Candidate {
+        /** The server responded with 'Not Modified', so there is nothing to apply. */
+        static final Candidate NOT_MODIFIED = new Candidate(null, null, null);
+
+        final String eTag;
+        final String lastModified;
+        final String contentHash;
+
+        Candidate(@Nullable String eTag, @Nullable String lastModified, @Nullable String contentHash) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+        }
+    }
+
+    private String eTag;
+    private String lastModified;
+    private String contentHash;
+    private boolean changed;
+    private Candidate pending;
+
+    public FeedValidator(@Nullable String eTag, @Nullable String lastModified, @Nullable String contentHash) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    @Nullable
+    public String getETag() {
+        return eTag;
+    }
+
+    @Nullable
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    @Nullable
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return true, if the values were updated since this object was created.
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * @return true, if the downloaded feed has the same videos, as the one seen the last time.
+     */
+    boolean isSameContent(@NonNull Candidate candidate) {
+        return candidate == Candidate.NOT_MODIFIED || (candidate.contentHash != null && candidate.contentHash.equals(contentHash));
+    }
+
+    /**
+     * Remember the values of the downloaded feed, whose videos were extracted successfully.
+     */
+    void setPending(@Nullable Candidate candidate) {
+        pending = candidate != Candidate.NOT_MODIFIED ? candidate : null;
+    }
+
+    /**
+     * Apply the values of the last successfully extracted feed - once its new videos are stored.
+     */
+    public void applyPending() {
+        if (pending != null) {
+            update(pending.eTag, pending.lastModified, pending.contentHash);
+            pending = null;
+        }
+    }
+
+    void update(@Nullable String newETag, @Nullable String newLastModified, @Nullable String newContentHash) {
+        changed |= !Objects.equals(eTag, newETag) || !Objects.equals(lastModified, newLastModified) || !Objects.equals(contentHash, newContentHash);
+        eTag = newETag;
+        lastModified = newLastModified;
+        contentHash = newContentHash;
+    }
+
+    /**
+     * Calculate a hash from the list of video ids in the feed. The feed contains frequently changing values - like
+     * view counts -, which are ignored, as only the new videos are relevant.
+     * @return the hash, or null if the feed doesn't contain any video.
+     */
+    @Nullable
+    static String hashVideoIds(@NonNull String feedContent) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            final Matcher matcher = VIDEO_ID.matcher(feedContent);
+            boolean found = false;
+            while (matcher.find()) {
+                digest.update(matcher.group(1).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+                found = true;
+            }
+            if (!found) {
+                return null;
+            }
+            final StringBuilder result = new StringBuilder();
+            for (byte b : digest.digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "FeedValidator{eTag=" + eTag + ", lastModified=" + lastModified + ", contentHash=" + contentHash + ", changed=" + changed + '}';
+    }
+}
@@ -19,6 +19,7 @@ package free.rm.skytube.businessobjects.YouTube.newpipe;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.github.skytube.components.httpclient.OkHttpDownloader;
 
@@ -47,6 +48,7 @@ import org.schabi.newpipe.extractor.localization.DateWrapper;
 import org.schabi.newpipe.extractor.localization.Localization;
 import org.schabi.newpipe.extractor.playlist.PlaylistExtractor;
 import org.schabi.newpipe.extractor.search.SearchExtractor;
+import org.schabi.newpipe.extractor.services.youtube.YoutubeParsingHelper;
 import org.schabi.newpipe.extractor.stream.StreamExtractor;
 import org.schabi.newpipe.extractor.stream.StreamInfo;
 import org.schabi.newpipe.extractor.subscription.SubscriptionExtractor;
@@ -58,7 +60,9 @@ import java.net.URL;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import free.rm.skytube.BuildConfig;
@@ -80,6 +84,8 @@ public class NewPipeService {
     private final StreamingService streamingService;
     private final Settings settings;
     final static boolean DEBUG_LOG = false;
+    private final static int HTTP_OK = 200;
+    private final static int HTTP_NOT_MODIFIED = 304;
 
     static class ChannelWithExtractor {
         final YouTubeChannel channel;
@@ -240,6 +246,33 @@ public class NewPipeService {
         return new VideoPagerWithChannel(streamingService, feedExtractor, createInternalChannelFromFeed(feedExtractor)).getNextPageAsVideos();
     }
 
+    /**
+     * Download the feed with a conditional request - without changing the validator, as the videos are not extracted yet.
+     * @return the values of the downloaded feed, {@link FeedValidator.Candidate#NOT_MODIFIED}, if the server responded with
+     * 'Not Modified', or null, if the feed couldn't be downloaded.
+     */
+    @Nullable
+    private FeedValidator.Candidate probeFeed(ChannelId channelId, FeedValidator validator) throws IOException, ExtractionException {
+        final String feedUrl = YoutubeParsingHelper.getFeedUrlFrom(getListLinkHandler(channelId.getRawId()).getId());
+        final Map<String, List<String>> headers = new HashMap<>();
+        if (validator.getETag() != null) {
+            headers.put("If-None-Match", Collections.singletonList(validator.getETag()));
+        }
+        if (validator.getLastModified() != null) {
+            headers.put("If-Modified-Since", Collections.singletonList(validator.getLastModified()));
+        }
+        final Response response = NewPipe.getDownloader().get(feedUrl, headers);
+        if (response.responseCode() == HTTP_NOT_MODIFIED) {
+            return FeedValidator.Candidate.NOT_MODIFIED;
+        }
+        if (response.responseCode() != HTTP_OK) {
+            // let the extractor handle the error
+            return null;
+        }
+        return new FeedValidator.Candidate(response.getHeader("ETag"), response.getHeader("Last-Modified"),
+                FeedValidator.hashVideoIds(response.responseBody()));
+    }
+
     /**
      * Return the most recent videos for the given channel, either from a dedicated feed (with a {@link FeedExtractor} or from
      * the generic {@link ChannelExtractor}.
@@ -249,17 +282,46 @@ public class NewPipeService {
      * @throws IOException
      */
     public List<YouTubeVideo> getVideosFromFeedOrFromChannel(ChannelId channelId) throws NewPipeException {
+        return getVideosFromFeedOrFromChannel(channelId, null);
+    }
+
+    /**
+     * Return the most recent videos for the given channel, like {@link #getVideosFromFeedOrFromChannel(ChannelId)}, but
+     * skip the parsing if the feed is not changed, since the last download, described by the validator.
+     * @param channelId the id of the channel
+     * @param validator the state of the previously downloaded feed. The values of the new feed are only pending after a
+     *                  successful extraction, until {@link FeedValidator#applyPending()} is called.
+     * @return list of recent {@link YouTubeVideo}, or null, if the feed is not changed.
+     * @throws NewPipeException
+     */
+    public List<YouTubeVideo> getVideosFromFeedOrFromChannel(ChannelId channelId, @Nullable FeedValidator validator) throws NewPipeException {
+        FeedValidator.Candidate candidate = null;
         try {
             SkyTubeApp.nonUiThread();
 
+            if (validator != null) {
+                candidate = probeFeed(channelId, validator);
+                if (candidate != null && validator.isSameContent(candidate)) {
+                    Logger.i(this, "Feed of %s is not changed", channelId);
+                    validator.setPending(candidate);
+                    return null;
+                }
+            }
             List<YouTubeVideo> videos = getFeedVideos(channelId.getRawId());
             if (videos != null) {
+                if (validator != null) {
+                    validator.setPending(candidate);
+                }
                 return videos;
             }
         } catch (IOException | ExtractionException | RuntimeException | NewPipeException e) {
             Logger.e(this, "Unable to get videos from a feed " + channelId + " : "+ e.getMessage(), e);
         }
-        return getChannelVideos(channelId);
+        List<YouTubeVideo> videos = getChannelVideos(channelId);
+        if (validator != null) {
+            validator.setPending(candidate);
+        }
+        return videos;
     }
 
     public VideoPager getTrending() throws NewPipeException {
@@ -0,0 +1,236 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import android.util.Log;
+
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.stream.Stream;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import free.rm.skytube.app.utils.ExpiringCache;
+
+/**
+ * Caches the extracted {@link StreamInfo} of the recently played, or likely to be played videos, so the stream page
+ * is not extracted again for every play, download or external play. An entry is only kept, while the stream URLs
+ * in it are valid for long enough to play the video.
+ */
+public final class StreamInfoCache {
+    private static final String TAG = "StreamInfoCache";
+    private static final long MAX_TTL_MS = TimeUnit.MINUTES.toMillis(30);
+    /** The stream URLs have to stay valid for at least this long after the playback is started. */
+    private static final long EXPIRY_MARGIN_MS = TimeUnit.HOURS.toMillis(1);
+    /** A {@link StreamInfo} is big - with all the streams and related items -, so only a few are kept. */
+    private static final int MAX_SIZE = 20;
+    private static final int MAX_CONCURRENT_EXTRACTIONS = 4;
+    /** The 'expire' parameter of the stream URLs - a query parameter, or a path segment in the manifest URLs. */
+    private static final Pattern EXPIRE = Pattern.compile("[?&/]expire[=/](\\d+)");
+
+    private static final StreamInfoCache INSTANCE = new StreamInfoCache();
+
+    private final ExpiringCache<String, StreamInfo> cache =
+            new ExpiringCache<>(MAX_TTL_MS, MAX_SIZE, streamInfo -> getExpiry(streamInfo) - EXPIRY_MARGIN_MS);
+    private final ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_EXTRACTIONS);
+    private final Stats stats = new Stats();
+
+    /**
+     * The counters of the cache, to measure how much waiting is saved.
+     */
+    public static final class Stats {
+        /** The requests, which found the extraction finished. */
+        final AtomicLong hits = new AtomicLong();
+        /** The requests, which found the extraction still running - started by a prefetch. */
+        final AtomicLong pendingHits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong prefetches = new AtomicLong();
+        final AtomicLong extractions = new AtomicLong();
+        final AtomicLong extractionMs = new AtomicLong();
+        /** The time the requests waited for the stream info. */
+        final AtomicLong waitMs = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getPendingHits() {
+            return pendingHits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getAverageExtractionMs() {
+            final long count = extractions.get();
+            return count > 0 ? extractionMs.get() / count : 0;
+        }
+
+        public long getAverageWaitMs() {
+            final long count = hits.get() + pendingHits.get() + misses.get();
+            return count > 0 ? waitMs.get() / count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", pendingHits=" + pendingHits + ", misses=" + misses
+                    + ", prefetches=" + prefetches + ", extractions=" + extractions
+                    + ", avgExtractionMs=" + getAverageExtractionMs() + ", avgWaitMs=" + getAverageWaitMs() + '}';
+        }
+    }
+
+    private StreamInfoCache() {
+    }
+
+    public static StreamInfoCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the stream info of the video - the cached one, or wait for its extraction.
+     */
+    public StreamInfo getStreamInfo(String videoId) throws ExtractionException, IOException {
+        final long start = System.currentTimeMillis();
+        final Future<StreamInfo> cached = cache.peek(videoId);
+        final String result;
+        if (cached == null) {
+            stats.misses.incrementAndGet();
+            result = "miss";
+        } else if (cached.isDone()) {
+            stats.hits.incrementAndGet();
+            result = "hit";
+        } else {
+            stats.pendingHits.incrementAndGet();
+            result = "pending hit";
+        }
+        try {
+            return await(cache.get(videoId, () -> extract(videoId), executor));
+        } finally {
+            final long waited = System.currentTimeMillis() - start;
+            stats.waitMs.addAndGet(waited);
+            Log.d(TAG, "Stream info of " + videoId + ": " + result + ", waited " + waited + " ms, " + stats);
+        }
+    }
+
+    /**
+     * Extract the stream info of the video again - e.g. because the server rejected its stream URLs.
+     */
+    public StreamInfo refresh(String videoId) throws ExtractionException, IOException {
+        cache.remove(videoId);
+        return getStreamInfo(videoId);
+    }
+
+    /**
+     * Start extracting the stream info of the video in the background, unless it's cached already.
+     */
+    public void prefetch(String videoId) {
+        if (cache.peek(videoId) == null) {
+            stats.prefetches.incrementAndGet();
+            cache.get(videoId, () -> extract(videoId), executor);
+        }
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    private StreamInfo extract(String videoId) throws ExtractionException, IOException {
+        final long start = System.currentTimeMillis();
+        try {
+            return NewPipeService.get().getStreamInfoByVideoId(videoId);
+        } finally {
+            stats.extractions.incrementAndGet();
+            stats.extractionMs.addAndGet(System.currentTimeMillis() - start);
+        }
+    }
+
+    private static StreamInfo await(Future<StreamInfo> future) throws ExtractionException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting the stream info");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ExtractionException) {
+                throw (ExtractionException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return The time, when the first of the stream URLs expires, or {@link Long#MAX_VALUE}, if none of them has
+     * an expiry time.
+     */
+    static long getExpiry(StreamInfo streamInfo) {
+        final List<String> urls = new ArrayList<>();
+        final List<Stream> streams = new ArrayList<>();
+        streams.addAll(streamInfo.getVideoStreams());
+        streams.addAll(streamInfo.getVideoOnlyStreams());
+        streams.addAll(streamInfo.getAudioStreams());
+        for (Stream stream : streams) {
+            if (stream.isUrl()) {
+                urls.add(stream.getContent());
+            }
+        }
+        urls.add(streamInfo.getHlsUrl());
+        urls.add(streamInfo.getDashMpdUrl());
+        long expiry = Long.MAX_VALUE;
+        for (String url : urls) {
+            expiry = Math.min(expiry, getUrlExpiry(url));
+        }
+        return expiry;
+    }
+
+    /**
+     * @return The time in milliseconds in the 'expire' parameter of the URL, or {@link Long#MAX_VALUE}, if it has
+     * none.
+     */
+    static long getUrlExpiry(String url) {
+        if (url == null) {
+            return Long.MAX_VALUE;
+        }
+        final Matcher matcher = EXPIRE.matcher(url);
+        if (!matcher.find()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1)));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -17,20 +17,23 @@
 
 package free.rm.skytube.businessobjects.db;
 
-import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
 
 import com.github.skytube.components.utils.SQLiteHelper;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import free.rm.skytube.app.SkyTubeApp;
@@ -38,6 +41,7 @@ import free.rm.skytube.app.Utils;
 import free.rm.skytube.businessobjects.JsonSerializer;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
 import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
@@ -51,18 +55,18 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDatabase {
 	private static volatile BookmarksDb bookmarksDb = null;
 
-	private static final int DATABASE_VERSION = 1;
+	private static final int DATABASE_VERSION = 2;
 	private static final String DATABASE_NAME = "bookmarks.db";
     private final JsonSerializer jsonSerializer = new JsonSerializer();
 
-	private BookmarksDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+	private BookmarksDb() {
+		super(DATABASE_NAME, DATABASE_VERSION);
 	}
 
 
 	public static synchronized BookmarksDb getBookmarksDb() {
 		if (bookmarksDb == null) {
-			bookmarksDb = new BookmarksDb(SkyTubeApp.getContext());
+			bookmarksDb = new BookmarksDb();
 		}
 
 		return bookmarksDb;
@@ -71,11 +75,41 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(BookmarksTable.getCreateStatement());
+		BookmarksTable.addVideoColumns(db);
+		BookmarksTable.addOrderIndex(db);
 	}
 
 
 	@Override
-	public void onUpgrade(SQLiteDatabase sqLiteDatabase, int oldVersion, int newVersion) {
+	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+		VersionUpgrade upgrade = new VersionUpgrade(oldVersion, newVersion);
+		if (upgrade.executeStep(2)) {
+			Logger.w(this, "Convert bookmarks to typed columns");
+			BookmarksTable.addVideoColumns(db);
+			BookmarksTable.addOrderIndex(db);
+			convertLegacyVideos(db);
+		}
+	}
+
+	/**
+	 * Move the content of the JSON blobs into the typed columns, and spread the order values, so
+	 * a moved bookmark can be placed between its neighbours.
+	 */
+	private void convertLegacyVideos(SQLiteDatabase db) {
+		final LinkedHashMap<String, Integer> orders = getAllOrders(db);
+		try (SQLiteStatement update = db.compileStatement(BookmarksTable.UPDATE_LEGACY_VIDEO);
+			 Cursor cursor = db.rawQuery(BookmarksTable.QUERY_LEGACY_VIDEOS, null)) {
+			while (cursor.moveToNext()) {
+				final YouTubeVideo video = jsonSerializer.fromPersistedVideoJson(cursor.getBlob(0));
+				if (video != null) {
+					video.updatePublishTimestampFromDate();
+					bindVideo(update, 1, video);
+					update.bindString(BookmarksTable.VIDEO_COLUMN_COUNT + 1, video.getId());
+					update.executeUpdateDelete();
+				}
+			}
+		}
+		updateOrders(db, GapOrdering.renumber(orders, new ArrayList<>(orders.keySet())));
 	}
 
 	/**
@@ -100,16 +134,11 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
          * @return True if the video was successfully saved/bookmarked to the DB.
          */
     private DatabaseResult add(YouTubeVideo video) {
-		ContentValues values = new ContentValues();
-		values.put(BookmarksTable.COL_YOUTUBE_VIDEO_ID, video.getId());
-		values.put(BookmarksTable.COL_YOUTUBE_VIDEO, jsonSerializer.toPersistedVideoJson(video).getBytes());
-
-		int order = getMaximumOrderNumber();
-		order++;
-		values.put(BookmarksTable.COL_ORDER, order);
-
-		try {
-			long result = getWritableDatabase().insertWithOnConflict(BookmarksTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+		try (SQLiteStatement insert = getWritableDatabase().compileStatement(BookmarksTable.INSERT_VIDEO)) {
+			insert.bindString(1, video.getId());
+			insert.bindLong(2, getMaximumOrderNumber() + GapOrdering.GAP);
+			bindVideo(insert, 3, video);
+			long result = insert.executeInsert();
 			Logger.i(this, "Result for adding "+ video+ " IS "+ result);
 			if (result >= 1) {
 				return DatabaseResult.SUCCESS;
@@ -125,6 +154,40 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 		}
 	}
 
+	/**
+	 * Bind the typed columns of the video, starting from the given parameter index.
+	 */
+	private static void bindVideo(SQLiteStatement statement, int index, YouTubeVideo video) {
+		bindOptional(statement, index++, video.getChannel() != null ? video.getChannel().getId() : null);
+		bindOptional(statement, index++, video.getChannel() != null ? video.getChannel().getTitle() : null);
+		bindOptional(statement, index++, video.getTitle());
+		bindOptional(statement, index++, video.getDescription());
+		bindOptional(statement, index++, video.getThumbnailUrl());
+		statement.bindLong(index++, video.getDurationInSeconds());
+		bindOptional(statement, index++, video.getViewsCountInt());
+		bindOptional(statement, index++, video.getLikeCountNumber());
+		bindOptional(statement, index++, video.getDislikeCountNumber());
+		bindOptional(statement, index++, video.getPublishTimestamp());
+		statement.bindLong(index++, video.getPublishTimestampExact() ? 1 : 0);
+		bindOptional(statement, index, video.getCategoryId() != null ? video.getCategoryId().longValue() : null);
+	}
+
+	private static void bindOptional(SQLiteStatement statement, int index, String value) {
+		if (value != null) {
+			statement.bindString(index, value);
+		} else {
+			statement.bindNull(index);
+		}
+	}
+
+	private static void bindOptional(SQLiteStatement statement, int index, Long value) {
+		if (value != null) {
+			statement.bindLong(index, value);
+		} else {
+			statement.bindNull(index);
+		}
+	}
+
     public Single<DatabaseResult> bookmarkAsync(YouTubeVideo video) {
         return Single.fromSupplier(() -> add(video))
                 .subscribeOn(Schedulers.io())
@@ -156,32 +219,12 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 	 */
 	private DatabaseResult remove(VideoId video) {
 		try {
+			// the order of the remaining videos doesn't change, there is just a bigger gap between them
 			int rowsDeleted = getWritableDatabase().delete(BookmarksTable.TABLE_NAME,
 					BookmarksTable.COL_YOUTUBE_VIDEO_ID + " = ?",
 					new String[]{video.getId()});
 
-			if (rowsDeleted > 0) {
-				// Since we've removed a video, we will need to update the order column for all the videos.
-				int order = 1;
-				try (Cursor cursor = getReadableDatabase().query(
-						BookmarksTable.TABLE_NAME,
-						new String[]{BookmarksTable.COL_YOUTUBE_VIDEO, BookmarksTable.COL_ORDER},
-						null,
-						null, null, null, BookmarksTable.COL_ORDER + " ASC")) {
-                    int blobCol = cursor.getColumnIndexOrThrow(BookmarksTable.COL_YOUTUBE_VIDEO);
-                    while (cursor.moveToNext()) {
-                        byte[] blob = cursor.getBlob(blobCol);
-                        YouTubeVideo uvideo = jsonSerializer.fromPersistedVideoJson(blob).updatePublishTimestampFromDate();
-                        ContentValues contentValues = new ContentValues();
-                        contentValues.put(BookmarksTable.COL_ORDER, order++);
-
-                        getWritableDatabase().update(BookmarksTable.TABLE_NAME, contentValues, BookmarksTable.COL_YOUTUBE_VIDEO_ID + " = ?",
-                                new String[]{uvideo.getId()});
-                    }
-                }
-                return DatabaseResult.SUCCESS;
-            }
-            return DatabaseResult.NOT_MODIFIED;
+			return rowsDeleted > 0 ? DatabaseResult.SUCCESS : DatabaseResult.NOT_MODIFIED;
 		} catch (SQLException e) {
 			Logger.e(this, "Database error: " + e.getMessage(), e);
 			return DatabaseResult.ERROR;
@@ -189,6 +232,34 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 	}
 
 
+	/**
+	 * Remove the given videos from the bookmarks in one transaction, and notify the listeners once about all of them.
+	 *
+	 * @return The number of the removed bookmarks.
+	 */
+	int removeBookmarks(@NonNull Collection<VideoId> videos) {
+		SkyTubeApp.nonUiThread();
+		if (videos.isEmpty()) {
+			return 0;
+		}
+		final List<String> ids = new ArrayList<>(videos.size());
+		for (VideoId video : videos) {
+			ids.add(video.getId());
+		}
+		final SQLiteDatabase db = getWritableDatabase();
+		final int deleted;
+		db.beginTransaction();
+		try {
+			deleted = deleteWhereIn(db, BookmarksTable.TABLE_NAME, BookmarksTable.COL_YOUTUBE_VIDEO_ID, ids);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		final List<VideoId> removed = new ArrayList<>(videos);
+		AndroidSchedulers.mainThread().scheduleDirect(() -> notifyCardsDeleted(removed));
+		return deleted;
+	}
+
 	/**
 	 * When a Video in the Bookmarks tab is drag & dropped to a new position, this will be
 	 * called with the new updated list of videos. Since the videos are displayed in descending order,
@@ -198,12 +269,43 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 	 */
 	@Override
 	public void updateOrder(List<CardData> videos) {
-		int order = getMaximumOrderNumber();
+		List<String> videoIds = new ArrayList<>(videos.size());
+		for (CardData video : videos) {
+			videoIds.add(video.getId());
+		}
+
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			Map<String, Integer> changes = GapOrdering.reorder(getAllOrders(db), videoIds);
+			updateOrders(db, changes);
+			db.setTransactionSuccessful();
+			Logger.i(this, "Order updated for %s bookmarks", changes.size());
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * @return the order of every bookmark by video id, in descending order.
+	 */
+	private static LinkedHashMap<String, Integer> getAllOrders(SQLiteDatabase db) {
+		LinkedHashMap<String, Integer> orders = new LinkedHashMap<>();
+		try (Cursor cursor = db.rawQuery(BookmarksTable.QUERY_ALL_ORDERS, null)) {
+			while (cursor.moveToNext()) {
+				orders.put(cursor.getString(0), cursor.getInt(1));
+			}
+		}
+		return orders;
+	}
 
-		for(CardData video : videos) {
-			ContentValues cv = new ContentValues();
-			cv.put(BookmarksTable.COL_ORDER, order--);
-			getWritableDatabase().update(BookmarksTable.TABLE_NAME, cv, BookmarksTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{video.getId()});
+	private static void updateOrders(SQLiteDatabase db, Map<String, Integer> orders) {
+		try (SQLiteStatement update = db.compileStatement(BookmarksTable.UPDATE_ORDER)) {
+			for (Map.Entry<String, Integer> entry : orders.entrySet()) {
+				update.bindLong(1, entry.getValue());
+				update.bindString(2, entry.getKey());
+				update.executeUpdateDelete();
+			}
 		}
 	}
 
@@ -258,16 +360,37 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 
 		Integer minOrder = null;
 		if(cursor.moveToNext()) {
+			final int colId = cursor.getColumnIndex(BookmarksTable.COL_YOUTUBE_VIDEO_ID);
 			final int colOrder = cursor.getColumnIndex(BookmarksTable.COL_ORDER);
-			final int colVideo = cursor.getColumnIndex(BookmarksTable.COL_YOUTUBE_VIDEO);
+			final int colChannelId = BookmarksTable.COL_CHANNEL_ID.getColumn(cursor);
+			final int colChannelTitle = BookmarksTable.COL_CHANNEL_TITLE.getColumn(cursor);
+			final int colTitle = BookmarksTable.COL_TITLE.getColumn(cursor);
+			final int colDescription = BookmarksTable.COL_DESCRIPTION.getColumn(cursor);
+			final int colThumbnailUrl = BookmarksTable.COL_THUMBNAIL_URL.getColumn(cursor);
+			final int colDuration = BookmarksTable.COL_DURATION.getColumn(cursor);
+			final int colViews = BookmarksTable.COL_VIEWS.getColumn(cursor);
+			final int colLikes = BookmarksTable.COL_LIKES.getColumn(cursor);
+			final int colDislikes = BookmarksTable.COL_DISLIKES.getColumn(cursor);
+			final int colPublishTime = BookmarksTable.COL_PUBLISH_TIME.getColumn(cursor);
+			final int colPublishTimeExact = BookmarksTable.COL_PUBLISH_TIME_EXACT.getColumn(cursor);
+			final int colCategoryId = BookmarksTable.COL_CATEGORY_ID.getColumn(cursor);
 			do {
-				final byte[] blob = cursor.getBlob(colVideo);
 				final int currentOrder = cursor.getInt(colOrder);
 
                 minOrder = Utils.min(currentOrder, minOrder);
 
-				// convert JSON into YouTubeVideo
-				YouTubeVideo video = jsonSerializer.fromPersistedVideoJson(blob);
+				final Long publishTime = getOptionalLong(cursor, colPublishTime);
+				YouTubeVideo video = new YouTubeVideo(cursor.getString(colId), cursor.getString(colTitle), cursor.getString(colDescription),
+						cursor.isNull(colDuration) ? -1 : cursor.getLong(colDuration),
+						new YouTubeChannel(cursor.getString(colChannelId), cursor.getString(colChannelTitle)),
+						cursor.isNull(colViews) ? -1 : cursor.getLong(colViews),
+						publishTime != null ? Instant.ofEpochMilli(publishTime) : null,
+						cursor.getInt(colPublishTimeExact) > 0,
+						cursor.getString(colThumbnailUrl));
+				video.setLikeDislikeCount(getOptionalLong(cursor, colLikes), getOptionalLong(cursor, colDislikes));
+				Long categoryId = getOptionalLong(cursor, colCategoryId);
+				video.setCategoryId(categoryId != null ? categoryId.intValue() : null);
+				video.forceRefreshPublishDatePretty();
 
 				// add the video to the list
 				videos.add(video);
@@ -278,6 +401,10 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 		return Pair.create(videos, minOrder);
 	}
 
+	private static Long getOptionalLong(Cursor cursor, int column) {
+		return cursor.isNull(column) ? null : cursor.getLong(column);
+	}
+
 	/**
 	 *
 	 * @return all the bookmarked video's id.
@@ -296,4 +423,20 @@ public class BookmarksDb extends CardEventEmitterDatabase implements OrderableDa
 		return results;
 	}
 
+	/**
+	 * @return the ids of the bookmarked videos, which are fully watched.
+	 */
+	public @NonNull Set<VideoId> getWatchedBookmarkedVideoIds() {
+		SkyTubeApp.nonUiThread();
+		PlaybackStatusDb.getPlaybackStatusDb().flushPendingPositions();
+
+		Set<VideoId> results = new HashSet<>();
+		try (Cursor	cursor = getReadableDatabase().rawQuery(BookmarksTable.QUERY_WATCHED_IDS, null)) {
+			while(cursor.moveToNext()) {
+				results.add(VideoId.create(cursor.getString(0)));
+			}
+		}
+		return results;
+	}
+
 }
@@ -17,23 +17,99 @@
 
 package free.rm.skytube.businessobjects.db;
 
+import android.database.sqlite.SQLiteDatabase;
+
+import com.github.skytube.components.utils.Column;
+import com.github.skytube.components.utils.SQLiteHelper;
+
 /**
  * Bookmarked Videos Table
  */
 public class BookmarksTable {
 	public static final String TABLE_NAME = "Bookmarks";
 	public static final String COL_YOUTUBE_VIDEO_ID = "YouTube_Video_Id";
+	/**
+	 * The video as JSON - only used by the databases created before the typed columns were introduced.
+	 */
 	public static final String COL_YOUTUBE_VIDEO = "YouTube_Video";
 	public static final String COL_ORDER = "Order_Index";
+	public static final Column COL_CHANNEL_ID = new Column("channel_id", "text");
+	public static final Column COL_CHANNEL_TITLE = new Column("channel_title", "text");
+	public static final Column COL_TITLE = new Column("title", "text");
+	public static final Column COL_DESCRIPTION = new Column("description", "text");
+	public static final Column COL_THUMBNAIL_URL = new Column("thumbnail_url", "text");
+	public static final Column COL_DURATION = new Column("duration", "integer");
+	public static final Column COL_VIEWS = new Column("view_count", "integer");
+	public static final Column COL_LIKES = new Column("like_count", "integer");
+	public static final Column COL_DISLIKES = new Column("dislike_count", "integer");
+	public static final Column COL_PUBLISH_TIME = new Column("publish_time", "integer");
+	public static final Column COL_PUBLISH_TIME_EXACT = new Column("publish_time_exact", "integer", "not null default 0");
+	public static final Column COL_CATEGORY_ID = new Column("category_id", "integer");
+
+	private static final Column[] VIDEO_COLUMNS = {
+			COL_CHANNEL_ID,
+			COL_CHANNEL_TITLE,
+			COL_TITLE,
+			COL_DESCRIPTION,
+			COL_THUMBNAIL_URL,
+			COL_DURATION,
+			COL_VIEWS,
+			COL_LIKES,
+			COL_DISLIKES,
+			COL_PUBLISH_TIME,
+			COL_PUBLISH_TIME_EXACT,
+			COL_CATEGORY_ID
+	};
 
+	static final int VIDEO_COLUMN_COUNT = VIDEO_COLUMNS.length;
+
+	private static final String VIDEO_COLUMN_LIST;
+	static {
+		StringBuilder s = new StringBuilder(COL_YOUTUBE_VIDEO_ID).append(',').append(COL_ORDER);
+		for (Column column : VIDEO_COLUMNS) {
+			s.append(',').append(column.name());
+		}
+		VIDEO_COLUMN_LIST = s.toString();
+	}
 
 	static final String COUNT_ALL_BOOKMARKS = String.format("SELECT COUNT(*) FROM %s", BookmarksTable.TABLE_NAME);
 	static final String MAXIMUM_ORDER_QUERY = String.format("SELECT MAX(%s) FROM %s", COL_ORDER, TABLE_NAME);
-	static final String PAGED_QUERY = String.format("SELECT %1$s,%2$s FROM %3$s WHERE %2$s < ? ORDER BY %2$s DESC LIMIT ?", COL_YOUTUBE_VIDEO, COL_ORDER, TABLE_NAME);
-	static final String PAGED_QUERY_UNBOUNDED = String.format("SELECT %1$s,%2$s FROM %3$s ORDER BY %2$s DESC LIMIT ?", COL_YOUTUBE_VIDEO, COL_ORDER, TABLE_NAME);
+	static final String PAGED_QUERY = String.format("SELECT %1$s FROM %3$s WHERE %2$s < ? ORDER BY %2$s DESC LIMIT ?", VIDEO_COLUMN_LIST, COL_ORDER, TABLE_NAME);
+	static final String PAGED_QUERY_UNBOUNDED = String.format("SELECT %1$s FROM %3$s ORDER BY %2$s DESC LIMIT ?", VIDEO_COLUMN_LIST, COL_ORDER, TABLE_NAME);
 	static final String QUERY_ALL_IDS = String.format("SELECT %1$s FROM %2$s", COL_YOUTUBE_VIDEO_ID, TABLE_NAME);
+	static final String QUERY_ALL_ORDERS = String.format("SELECT %1$s,%2$s FROM %3$s ORDER BY %2$s DESC", COL_YOUTUBE_VIDEO_ID, COL_ORDER, TABLE_NAME);
+	static final String QUERY_LEGACY_VIDEOS = String.format("SELECT %1$s FROM %2$s WHERE %1$s IS NOT NULL", COL_YOUTUBE_VIDEO, TABLE_NAME);
+	/** The bookmarked videos, which are fully watched, see {@link PlaybackStatusTable}. */
+	static final String QUERY_WATCHED_IDS = String.format("SELECT b.%1$s FROM %2$s b JOIN %3$s p ON p.%4$s = b.%1$s WHERE p.%5$s = 1",
+			COL_YOUTUBE_VIDEO_ID, TABLE_NAME, PlaybackStatusTable.TABLE_NAME, PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED);
 	static final String IS_BOOKMARKED_QUERY = String.format("SELECT 1 FROM %s WHERE %s =?", TABLE_NAME, COL_YOUTUBE_VIDEO_ID);
+	static final String UPDATE_ORDER = String.format("UPDATE %s SET %s = ? WHERE %s = ?", TABLE_NAME, COL_ORDER, COL_YOUTUBE_VIDEO_ID);
+
+	/**
+	 * Insert a video, parameters: video id, order and the values of the typed columns in the order of
+	 * {@link #VIDEO_COLUMNS}.
+	 */
+	static final String INSERT_VIDEO;
+	static {
+		StringBuilder s = new StringBuilder("INSERT OR IGNORE INTO ").append(TABLE_NAME).append(" (").append(VIDEO_COLUMN_LIST).append(") VALUES (?,?");
+		for (int i = 0; i < VIDEO_COLUMNS.length; i++) {
+			s.append(",?");
+		}
+		INSERT_VIDEO = s.append(')').toString();
+	}
 
+	/**
+	 * Fill the typed columns of a video, and drop its JSON, parameters: the values of the typed columns in the
+	 * order of {@link #VIDEO_COLUMNS} and the video id.
+	 */
+	static final String UPDATE_LEGACY_VIDEO;
+	static {
+		StringBuilder s = new StringBuilder("UPDATE ").append(TABLE_NAME).append(" SET ").append(COL_YOUTUBE_VIDEO).append(" = NULL");
+		for (Column column : VIDEO_COLUMNS) {
+			s.append(',').append(column.name()).append(" = ?");
+		}
+		UPDATE_LEGACY_VIDEO = s.append(" WHERE ").append(COL_YOUTUBE_VIDEO_ID).append(" = ?").toString();
+	}
 
 	public static String getCreateStatement() {
 		return "CREATE TABLE " + TABLE_NAME + " (" +
@@ -43,4 +119,14 @@ public class BookmarksTable {
 						" )";
 	}
 
+	static void addVideoColumns(SQLiteDatabase db) {
+		for (Column column : VIDEO_COLUMNS) {
+			SQLiteHelper.addColumn(db, TABLE_NAME, column);
+		}
+	}
+
+	static void addOrderIndex(SQLiteDatabase db) {
+		db.execSQL("CREATE INDEX IF NOT EXISTS IDX_Bookmarks_Order ON " + TABLE_NAME + "(" + COL_ORDER + ")");
+	}
+
 }
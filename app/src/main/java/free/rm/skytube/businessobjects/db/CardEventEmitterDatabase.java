@@ -16,20 +16,19 @@
  */
 package free.rm.skytube.businessobjects.db;
 
-import android.content.Context;
-import android.database.sqlite.SQLiteDatabase;
+import java.util.Collection;
 
 import free.rm.skytube.app.utils.WeakList;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 import free.rm.skytube.businessobjects.interfaces.CardListener;
 
-abstract class CardEventEmitterDatabase extends SQLiteOpenHelperEx {
+abstract class CardEventEmitterDatabase extends DatabaseModule {
 
     private final WeakList<CardListener> listeners = new WeakList<>();
 
-    CardEventEmitterDatabase(final Context context, final String name, final SQLiteDatabase.CursorFactory factory, final int version) {
-        super(context, name, factory, version);
+    CardEventEmitterDatabase(final String name, final int version) {
+        super(name, version);
     }
 
     /**
@@ -58,4 +57,10 @@ abstract class CardEventEmitterDatabase extends SQLiteOpenHelperEx {
     void notifyCardDeleted(ContentId contentId) {
         listeners.forEach(cardListener -> cardListener.onCardDeleted(contentId));
     }
+
+    void notifyCardsDeleted(Collection<? extends ContentId> contentIds) {
+        if (!contentIds.isEmpty()) {
+            listeners.forEach(cardListener -> cardListener.onCardsDeleted(contentIds));
+        }
+    }
 }
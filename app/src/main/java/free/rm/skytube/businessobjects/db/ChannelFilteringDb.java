@@ -18,13 +18,13 @@
 package free.rm.skytube.businessobjects.db;
 
 import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
@@ -33,22 +33,24 @@ import free.rm.skytube.gui.businessobjects.MultiSelectListPreferenceItem;
 /**
  * A database (DB) that stores user's blacklist/whitelist channels.
  */
-public class ChannelFilteringDb extends SQLiteOpenHelperEx {
+public class ChannelFilteringDb extends DatabaseModule {
 
 	private static volatile ChannelFilteringDb channelFilteringDb = null;
 
 	private static final int DATABASE_VERSION = 1;
 	private static final String DATABASE_NAME = "channelFiltering.db";
 
+	private final AtomicInteger updateCounter = new AtomicInteger();
 
-	private ChannelFilteringDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+
+	private ChannelFilteringDb() {
+		super(DATABASE_NAME, DATABASE_VERSION);
 	}
 
 
 	public static synchronized ChannelFilteringDb getChannelFilteringDb() {
 		if (channelFilteringDb == null) {
-			channelFilteringDb = new ChannelFilteringDb(SkyTubeApp.getContext());
+			channelFilteringDb = new ChannelFilteringDb();
 		}
 		return channelFilteringDb;
 	}
@@ -184,7 +186,11 @@ public class ChannelFilteringDb extends SQLiteOpenHelperEx {
 		values.put(ChannelListTable.COL_CHANNEL_ID, channelId);
 		values.put(ChannelListTable.COL_CHANNEL_NAME, channelName);
 
-		return getWritableDatabase().insert(channelListTable.getTableName(), null, values) != -1;
+		final boolean added = getWritableDatabase().insert(channelListTable.getTableName(), null, values) != -1;
+		if (added) {
+			updateCounter.incrementAndGet();
+		}
+		return added;
 	}
 
 
@@ -210,6 +216,7 @@ public class ChannelFilteringDb extends SQLiteOpenHelperEx {
 				.delete(channelListTable.getTableName(),
 						ChannelListTable.COL_CHANNEL_ID + " IN (" + channelIdsCsv + ")",
 						null);
+		updateCounter.incrementAndGet();
 
 		return (rowsDeleted > 0);
 	}
@@ -224,9 +231,20 @@ public class ChannelFilteringDb extends SQLiteOpenHelperEx {
 	 * @return  True if successful.
 	 */
 	private boolean removeChannels(ChannelListTable channelListTable, final String channelId) {
-		return (getWritableDatabase().delete(channelListTable.getTableName(),
+		final boolean removed = getWritableDatabase().delete(channelListTable.getTableName(),
 				ChannelListTable.COL_CHANNEL_ID + " = ?",
-				new String[]{channelId}) > 0);
+				new String[]{channelId}) > 0;
+		updateCounter.incrementAndGet();
+		return removed;
+	}
+
+
+	/**
+	 * Return the number of updates happened to the lists since the application started.
+	 * If it is different than the last seen value, the cached lists need to be reloaded.
+	 */
+	public int getUpdateCounter() {
+		return updateCounter.get();
 	}
 
 
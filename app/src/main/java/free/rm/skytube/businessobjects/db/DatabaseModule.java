@@ -0,0 +1,115 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * The tables of one feature - subscriptions, bookmarks, etc - in the shared {@link SkyTubeDatabase}. Every module
+ * has its own schema version, and is created or upgraded independently of the others, when the database is opened.
+ * <p>
+ * The modules used to have their own database files, named after the module. Such a file is copied into the
+ * shared database on the next open, and then deleted.
+ */
+public abstract class DatabaseModule {
+    /** SQLite allows at most 999 parameters in a statement before 3.32 - so on every Android before 11. */
+    private static final int MAX_PARAMETERS = 500;
+
+    private final String name;
+    private final int version;
+
+    protected DatabaseModule(@NonNull String name, int version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    /**
+     * @return The name of the module, which is the name of its legacy database file too.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public SQLiteDatabase getWritableDatabase() {
+        return SkyTubeDatabase.getInstance().getWritableDatabase();
+    }
+
+    public SQLiteDatabase getReadableDatabase() {
+        return SkyTubeDatabase.getInstance().getReadableDatabase();
+    }
+
+    /**
+     * Delete the rows, whose column is one of the given values, with as few statements as the limit of the
+     * parameters allows. It should be called in a transaction, so the batches are committed together.
+     *
+     * @return The number of the deleted rows.
+     */
+    static int deleteWhereIn(SQLiteDatabase db, String table, String column, List<String> values) {
+        int deleted = 0;
+        for (int from = 0; from < values.size(); from += MAX_PARAMETERS) {
+            final List<String> batch = values.subList(from, Math.min(from + MAX_PARAMETERS, values.size()));
+            final StringBuilder where = new StringBuilder(column).append(" IN (");
+            for (int i = 0; i < batch.size(); i++) {
+                where.append(i == 0 ? "?" : ",?");
+            }
+            where.append(')');
+            deleted += db.delete(table, where.toString(), batch.toArray(new String[0]));
+        }
+        return deleted;
+    }
+
+    /**
+     * Create the tables of the module.
+     */
+    public abstract void onCreate(SQLiteDatabase db);
+
+    /**
+     * Upgrade the tables of the module - either in the shared database, or in the legacy file, before it is copied.
+     */
+    public abstract void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion);
+
+    /**
+     * Called after the rows of the module were copied from the legacy file, or after a full VACUUM, both of which
+     * could re-assign the rowids of the tables without an INTEGER PRIMARY KEY.
+     */
+    protected void onRowidsChanged(SQLiteDatabase db) {
+    }
+
+    /**
+     * @return The tables, whose content only makes sense on this device - like the paths of the downloaded files, or
+     * the caches. They are left out from the backups, and cleared when a backup is imported.
+     */
+    protected String[] getDeviceLocalTables() {
+        return new String[0];
+    }
+
+    /**
+     * Called when the shared database is closed - e.g. before a backup is imported -, so the data cached in
+     * memory is loaded again on the next use.
+     */
+    protected void onClose() {
+    }
+}
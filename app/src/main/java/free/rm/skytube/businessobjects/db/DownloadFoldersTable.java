@@ -0,0 +1,42 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The download folders, with their modification time at the last scan, so only the changed ones are listed again - and
+ * the videos, which couldn't be imported from them, so they are not looked up at every scan.
+ */
+public class DownloadFoldersTable {
+	public static final String TABLE_NAME = "DownloadFolders";
+	public static final String COL_PATH = "Path";
+	public static final String COL_MODIFIED = "Modified";
+	/** The IDs of the videos, which couldn't be imported, separated by spaces. */
+	public static final String COL_FAILED_IMPORTS = "Failed_Imports";
+
+	static final String QUERY_ALL = String.format("SELECT %s, %s, %s FROM %s", COL_PATH, COL_MODIFIED, COL_FAILED_IMPORTS, TABLE_NAME);
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_PATH + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_MODIFIED + " INTEGER NOT NULL" +
+						" )";
+	}
+
+	public static String getAddFailedImportsColumn() {
+		return "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COL_FAILED_IMPORTS + " TEXT";
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The downloads, which are started, but not finished yet - with the selected streams, so they are resumed after the
+ * process is killed.
+ */
+public class DownloadQueueTable {
+	public static final String TABLE_NAME = "DownloadQueue";
+	public static final String COL_YOUTUBE_VIDEO_ID = "YouTube_Video_Id";
+	public static final String COL_YOUTUBE_VIDEO = "YouTube_Video";
+	public static final String COL_STREAMS = "Streams";
+	public static final String COL_ADDED = "Added";
+
+	static final String QUERY_ALL = String.format("SELECT %s, %s, %s FROM %s ORDER BY %s",
+			COL_YOUTUBE_VIDEO_ID, COL_YOUTUBE_VIDEO, COL_STREAMS, TABLE_NAME, COL_ADDED);
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_YOUTUBE_VIDEO_ID + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_YOUTUBE_VIDEO + " BLOB NOT NULL, " +
+						COL_STREAMS + " TEXT NOT NULL, " +
+						COL_ADDED + " INTEGER NOT NULL" +
+						" )";
+	}
+}
@@ -15,12 +15,15 @@ import com.github.skytube.components.utils.SQLiteHelper;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.Settings;
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.businessobjects.AsyncTaskParallel;
 import free.rm.skytube.businessobjects.JsonSerializer;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.Sponsorblock.SBTasks;
@@ -28,6 +31,7 @@ import free.rm.skytube.businessobjects.Sponsorblock.SBVideoInfo;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
+import free.rm.skytube.businessobjects.download.DownloadFolderScanner;
 import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
@@ -126,26 +130,30 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
     private static volatile DownloadedVideosDb downloadsDb = null;
     private static boolean hasUpdated = false;
 
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 6;
     private static final String DATABASE_NAME = "videodownloads.db";
 
     private final JsonSerializer jsonSerializer = new JsonSerializer();
 
     public static synchronized DownloadedVideosDb getVideoDownloadsDb() {
         if (downloadsDb == null) {
-            downloadsDb = new DownloadedVideosDb(SkyTubeApp.getContext());
+            downloadsDb = new DownloadedVideosDb();
         }
 
         return downloadsDb;
     }
 
-    private DownloadedVideosDb(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DownloadedVideosDb() {
+        super(DATABASE_NAME, DATABASE_VERSION);
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(DownloadedVideosTable.getCreateStatement());
+        DownloadedVideosTable.addFileStatsColumns(db);
+        db.execSQL(DownloadFoldersTable.getCreateStatement());
+        db.execSQL(DownloadQueueTable.getCreateStatement());
+        db.execSQL(DownloadFoldersTable.getAddFailedImportsColumn());
     }
 
     @Override
@@ -156,6 +164,24 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
         if (oldVersion == 2 && newVersion >= 3) {
             db.execSQL(DownloadedVideosTable.getAddSponsorBlockColumn());
         }
+        if (oldVersion < 4 && newVersion >= 4) {
+            // the existing downloads are checked by the first scan of the download folders
+            DownloadedVideosTable.addFileStatsColumns(db);
+            db.execSQL(DownloadFoldersTable.getCreateStatement());
+        }
+        if (oldVersion < 5 && newVersion >= 5) {
+            db.execSQL(DownloadQueueTable.getCreateStatement());
+        }
+        if (oldVersion < 6 && newVersion >= 6) {
+            db.execSQL(DownloadFoldersTable.getAddFailedImportsColumn());
+        }
+    }
+
+    @Override
+    protected String[] getDeviceLocalTables() {
+        // without the scanned folders, the next scan imports the files of the download folders again, and the
+        // partially downloaded files of the queue are only on this device
+        return new String[] {DownloadedVideosTable.TABLE_NAME, DownloadFoldersTable.TABLE_NAME, DownloadQueueTable.TABLE_NAME};
     }
 
     /**
@@ -181,17 +207,35 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
                 new String[]{DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_FILE_URI, DownloadedVideosTable.COL_AUDIO_FILE_URI},
                 null,
                 null, null, null, null)) {
-            List<Status> statuses = new ArrayList<>();
+            return toStatuses(cursor);
+        }
+    }
 
-            while (cursor.moveToNext()) {
-                String id = cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID));
-                statuses.add(new Status(VideoId.create(id),
-                        getUri(cursor, cursor.getColumnIndex(DownloadedVideosTable.COL_FILE_URI)),
-                        getUri(cursor, cursor.getColumnIndex(DownloadedVideosTable.COL_AUDIO_FILE_URI)),
-                        false));
-            }
-            return statuses;
+    /**
+     * Get the list Statuses of the downloaded Videos, which are fully watched.
+     *
+     * @return List of Status
+     */
+    public List<Status> getWatchedDownloadedVideosStatuses() {
+        SkyTubeApp.nonUiThread();
+        PlaybackStatusDb.getPlaybackStatusDb().flushPendingPositions();
+
+        try (Cursor cursor = getReadableDatabase().rawQuery(DownloadedVideosTable.QUERY_WATCHED_STATUSES, null)) {
+            return toStatuses(cursor);
+        }
+    }
+
+    private List<Status> toStatuses(Cursor cursor) {
+        List<Status> statuses = new ArrayList<>();
+
+        while (cursor.moveToNext()) {
+            String id = cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID));
+            statuses.add(new Status(VideoId.create(id),
+                    getUri(cursor, cursor.getColumnIndex(DownloadedVideosTable.COL_FILE_URI)),
+                    getUri(cursor, cursor.getColumnIndex(DownloadedVideosTable.COL_AUDIO_FILE_URI)),
+                    false));
         }
+        return statuses;
     }
 
     public SBVideoInfo getDownloadedVideoSponsorblock(String videoId) {
@@ -256,6 +300,7 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
                     if (audioUri != null) {
                         values.put(DownloadedVideosTable.COL_AUDIO_FILE_URI, audioUri.toString());
                     }
+                    putFileStats(values, fileUri, audioUri);
                     if (SkyTubeApp.getSettings().isSponsorblockEnabled()) {
                         SBVideoInfo sbInfo = SBTasks.retrieveSponsorblockSegmentsBk(video.getVideoId());
                         values.put(DownloadedVideosTable.COL_SB, jsonSerializer.toPersistedSponsorBlockJson(sbInfo).getBytes());
@@ -275,6 +320,211 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
                 });
     }
 
+    private static void putFileStats(ContentValues values, Uri fileUri, Uri audioUri) {
+        final File video = fileUri != null ? new File(fileUri.getPath()) : null;
+        final File audio = audioUri != null ? new File(audioUri.getPath()) : null;
+        values.put(DownloadedVideosTable.COL_FILE_SIZE.name(), (video != null ? video.length() : 0) + (audio != null ? audio.length() : 0));
+        values.put(DownloadedVideosTable.COL_FILE_MODIFIED.name(), Math.max(video != null ? video.lastModified() : 0, audio != null ? audio.lastModified() : 0));
+    }
+
+    /**
+     * @return Every download, with the recorded size and modification time of its files.
+     */
+    public List<DownloadFolderScanner.Download> getDownloads() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().query(
+                DownloadedVideosTable.TABLE_NAME,
+                new String[]{DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_FILE_URI, DownloadedVideosTable.COL_AUDIO_FILE_URI,
+                        DownloadedVideosTable.COL_FILE_SIZE.name(), DownloadedVideosTable.COL_FILE_MODIFIED.name()},
+                null,
+                null, null, null, null)) {
+            List<DownloadFolderScanner.Download> downloads = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                Uri uri = getUri(cursor, 1);
+                Uri audioUri = getUri(cursor, 2);
+                downloads.add(new DownloadFolderScanner.Download(cursor.getString(0),
+                        uri != null ? new File(uri.getPath()) : null,
+                        audioUri != null ? new File(audioUri.getPath()) : null,
+                        cursor.getLong(3), cursor.getLong(4)));
+            }
+            return downloads;
+        }
+    }
+
+    /**
+     * @return The modification time of the download folders at the last scan.
+     */
+    public Map<String, Long> getDownloadFolders() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().rawQuery(DownloadFoldersTable.QUERY_ALL, null)) {
+            Map<String, Long> folders = new HashMap<>();
+            while (cursor.moveToNext()) {
+                folders.put(cursor.getString(0), cursor.getLong(1));
+            }
+            return folders;
+        }
+    }
+
+    /**
+     * @return The videos, which couldn't be imported at the previous scans, by their folders.
+     */
+    public Map<String, Set<String>> getFailedImports() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().rawQuery(DownloadFoldersTable.QUERY_ALL, null)) {
+            Map<String, Set<String>> failedImports = new HashMap<>();
+            while (cursor.moveToNext()) {
+                final String ids = cursor.getString(2);
+                if (ids != null && !ids.isEmpty()) {
+                    failedImports.put(cursor.getString(0), new HashSet<>(Arrays.asList(ids.split(" "))));
+                }
+            }
+            return failedImports;
+        }
+    }
+
+    /**
+     * A download, which is started, but not finished yet.
+     */
+    public static class QueuedDownload {
+        final YouTubeVideo video;
+        final String streams;
+
+        QueuedDownload(YouTubeVideo video, String streams) {
+            this.video = video;
+            this.streams = streams;
+        }
+
+        public YouTubeVideo getVideo() {
+            return video;
+        }
+
+        /**
+         * @return The selected streams, as serialized by the download.
+         */
+        public String getStreams() {
+            return streams;
+        }
+    }
+
+    /**
+     * Add the download to the queue, or replace the streams, if it is queued already.
+     */
+    public void addQueuedDownload(YouTubeVideo video, String streams) {
+        SkyTubeApp.nonUiThread();
+        ContentValues values = new ContentValues();
+        values.put(DownloadQueueTable.COL_YOUTUBE_VIDEO_ID, video.getId());
+        values.put(DownloadQueueTable.COL_YOUTUBE_VIDEO, jsonSerializer.toPersistedVideoJson(video).getBytes());
+        values.put(DownloadQueueTable.COL_STREAMS, streams);
+        values.put(DownloadQueueTable.COL_ADDED, System.currentTimeMillis());
+        getWritableDatabase().replace(DownloadQueueTable.TABLE_NAME, null, values);
+    }
+
+    /**
+     * Remove the download from the queue - once it is finished, failed or cancelled.
+     */
+    public void removeQueuedDownload(String videoId) {
+        SkyTubeApp.nonUiThread();
+        getWritableDatabase().delete(DownloadQueueTable.TABLE_NAME,
+                DownloadQueueTable.COL_YOUTUBE_VIDEO_ID + " = ?",
+                new String[]{videoId});
+    }
+
+    /**
+     * @return The queued downloads, in the order they were started.
+     */
+    public List<QueuedDownload> getQueuedDownloads() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().rawQuery(DownloadQueueTable.QUERY_ALL, null)) {
+            List<QueuedDownload> downloads = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                downloads.add(new QueuedDownload(jsonSerializer.fromPersistedVideoJson(cursor.getBlob(1)), cursor.getString(2)));
+            }
+            return downloads;
+        }
+    }
+
+    /**
+     * @return The IDs of the queued videos, whose files are still being written.
+     */
+    public Set<String> getQueuedDownloadIds() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().rawQuery(DownloadQueueTable.QUERY_ALL, null)) {
+            Set<String> ids = new HashSet<>();
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Apply the result of a scan of the download folders in one transaction: remove the downloads with missing
+     * files, update the size and the modification time of the modified ones, add the imported videos, and
+     * record the scanned folders.
+     *
+     * @param imported      The imported videos, with their files.
+     * @param folders       The modification time of the scanned folders.
+     * @param failedImports The videos, which couldn't be imported, by their folders.
+     */
+    public void applyScan(DownloadFolderScanner.Result result, Map<DownloadFolderScanner.ImportCandidate, YouTubeVideo> imported,
+                          Map<String, Long> folders, Map<String, Set<String>> failedImports) {
+        SkyTubeApp.nonUiThread();
+        final SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String videoId : result.missing) {
+                db.delete(DownloadedVideosTable.TABLE_NAME, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{videoId});
+            }
+            for (Map.Entry<String, long[]> entry : result.modified.entrySet()) {
+                ContentValues values = new ContentValues();
+                values.put(DownloadedVideosTable.COL_FILE_SIZE.name(), entry.getValue()[0]);
+                values.put(DownloadedVideosTable.COL_FILE_MODIFIED.name(), entry.getValue()[1]);
+                db.update(DownloadedVideosTable.TABLE_NAME, values, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{entry.getKey()});
+            }
+            int order = getMaximumOrderNumber();
+            for (Map.Entry<DownloadFolderScanner.ImportCandidate, YouTubeVideo> entry : imported.entrySet()) {
+                final DownloadFolderScanner.ImportCandidate candidate = entry.getKey();
+                final Uri fileUri = Uri.fromFile(candidate.videoFile);
+                final Uri audioUri = candidate.audioFile != null ? Uri.fromFile(candidate.audioFile) : null;
+                ContentValues values = new ContentValues();
+                values.put(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, candidate.videoId);
+                values.put(DownloadedVideosTable.COL_YOUTUBE_VIDEO, jsonSerializer.toPersistedVideoJson(entry.getValue()).getBytes());
+                values.put(DownloadedVideosTable.COL_FILE_URI, fileUri.toString());
+                if (audioUri != null) {
+                    values.put(DownloadedVideosTable.COL_AUDIO_FILE_URI, audioUri.toString());
+                }
+                putFileStats(values, fileUri, audioUri);
+                values.put(DownloadedVideosTable.COL_ORDER, ++order);
+                db.insertWithOnConflict(DownloadedVideosTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+            }
+            db.delete(DownloadFoldersTable.TABLE_NAME, null, null);
+            for (Map.Entry<String, Long> entry : folders.entrySet()) {
+                ContentValues values = new ContentValues();
+                values.put(DownloadFoldersTable.COL_PATH, entry.getKey());
+                values.put(DownloadFoldersTable.COL_MODIFIED, entry.getValue());
+                final Set<String> failed = failedImports.get(entry.getKey());
+                if (failed != null && !failed.isEmpty()) {
+                    values.put(DownloadFoldersTable.COL_FAILED_IMPORTS, String.join(" ", failed));
+                }
+                db.insert(DownloadFoldersTable.TABLE_NAME, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (!result.missing.isEmpty() || !imported.isEmpty()) {
+            AndroidSchedulers.mainThread().scheduleDirect(() -> {
+                for (String videoId : result.missing) {
+                    notifyCardDeleted(VideoId.create(videoId));
+                }
+                for (YouTubeVideo video : imported.values()) {
+                    notifyCardAdded(video);
+                }
+            });
+        }
+    }
+
     /**
      * Remove the filenames of the downloaded video from the database
      *
@@ -323,6 +573,50 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
                 });
     }
 
+    /**
+     * Remove the downloads, whose files are already deleted, in one transaction, remove their folders, which became
+     * empty, and notify the listeners once about all of them.
+     *
+     * @param statuses The statuses of the removed downloads.
+     * @return The number of the removed downloads.
+     */
+    int removeDownloads(@NonNull List<Status> statuses) {
+        SkyTubeApp.nonUiThread();
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        final List<String> ids = new ArrayList<>(statuses.size());
+        final List<VideoId> videoIds = new ArrayList<>(statuses.size());
+        for (Status status : statuses) {
+            ids.add(status.getVideoId().getId());
+            videoIds.add(status.getVideoId());
+        }
+        final SQLiteDatabase db = getWritableDatabase();
+        final int deleted;
+        db.beginTransaction();
+        try {
+            deleted = deleteWhereIn(db, DownloadedVideosTable.TABLE_NAME, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, ids);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        onUpdated();
+
+        final Settings settings = SkyTubeApp.getSettings();
+        if (settings.isDownloadToSeparateFolders()) {
+            final Set<File> folders = new HashSet<>();
+            for (Status status : statuses) {
+                // every folder is checked once, however many videos were in it
+                final File folder = status.getParentFolder();
+                if (folder != null && folders.add(folder)) {
+                    removeParentFolderIfEmpty(status, settings.getDownloadParentFolder());
+                }
+            }
+        }
+        AndroidSchedulers.mainThread().scheduleDirect(() -> notifyCardsDeleted(videoIds));
+        return deleted;
+    }
+
     private void removeParentFolderIfEmpty(Status file, File downloadParentFolder) {
         File parentFile = file.getParentFolder();
         Log.i(TAG, "removeParentFolderIfEmpty " + parentFile.getAbsolutePath() + " " + parentFile.exists() + " " + parentFile.isDirectory());
@@ -521,31 +815,4 @@ public class DownloadedVideosDb extends CardEventEmitterDatabase implements Orde
         }
     }
 
-    /**
-     * AsyncTask to remove any videos from the Database whose local files have gone missing.
-     */
-    public static class RemoveMissingVideosTask extends AsyncTaskParallel<Void, Void, Void> {
-        @Override
-        protected Void doInBackground(Void... voids) {
-            try (Cursor cursor = getVideoDownloadsDb().getReadableDatabase().query(
-                    DownloadedVideosTable.TABLE_NAME,
-                    new String[]{DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_FILE_URI},
-                    null,
-                    null, null, null, null)) {
-
-                if (cursor.moveToNext()) {
-                    do {
-                        String videoId = cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID));
-                        Uri uri = Uri.parse(cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_FILE_URI)));
-                        File file = new File(uri.getPath());
-                        if (!file.exists()) {
-                            getVideoDownloadsDb().remove(videoId);
-                        }
-                    } while (cursor.moveToNext());
-                }
-                return null;
-            }
-        }
-    }
-
 }
@@ -1,5 +1,10 @@
 package free.rm.skytube.businessobjects.db;
 
+import android.database.sqlite.SQLiteDatabase;
+
+import com.github.skytube.components.utils.Column;
+import com.github.skytube.components.utils.SQLiteHelper;
+
 /**
  * Downloaded Videos Table
  */
@@ -11,8 +16,16 @@ public class DownloadedVideosTable {
 	public static final String COL_AUDIO_FILE_URI = "Audio_URI";
 	public static final String COL_SB = "SponsorBlock";
 	public static final String COL_ORDER = "Order_Index";
+	/** The total size of the downloaded files, when they were last checked. */
+	public static final Column COL_FILE_SIZE = new Column("File_Size", "integer", "not null default 0");
+	/** The latest modification time of the downloaded files, when they were last checked. */
+	public static final Column COL_FILE_MODIFIED = new Column("File_Modified", "integer", "not null default 0");
 
 	static final String MAXIMUM_ORDER_QUERY = String.format("SELECT MAX(%s) FROM %s", COL_ORDER, TABLE_NAME);
+	/** The downloaded videos, which are fully watched, see {@link PlaybackStatusTable}. */
+	static final String QUERY_WATCHED_STATUSES = String.format("SELECT d.%1$s AS %1$s, d.%2$s AS %2$s, d.%3$s AS %3$s FROM %4$s d JOIN %5$s p ON p.%6$s = d.%1$s WHERE p.%7$s = 1",
+			COL_YOUTUBE_VIDEO_ID, COL_FILE_URI, COL_AUDIO_FILE_URI, TABLE_NAME,
+			PlaybackStatusTable.TABLE_NAME, PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED);
 	static final String COUNT_ALL = String.format("SELECT COUNT(*) FROM %s", TABLE_NAME);
 
 	static final String PAGED_QUERY = String.format("SELECT %1$s,%2$s FROM %3$s WHERE %2$s > ? ORDER BY %2$s DESC LIMIT ?", COL_YOUTUBE_VIDEO, COL_ORDER, TABLE_NAME);
@@ -37,4 +50,9 @@ public class DownloadedVideosTable {
 	public static String getAddSponsorBlockColumn() {
 		return ADD_COLUMN + COL_SB + " BLOB";
 	}
+
+	static void addFileStatsColumns(SQLiteDatabase db) {
+		SQLiteHelper.addColumn(db, TABLE_NAME, COL_FILE_SIZE);
+		SQLiteHelper.addColumn(db, TABLE_NAME, COL_FILE_MODIFIED);
+	}
 }
@@ -0,0 +1,234 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+
+/**
+ * Pages of a feed, which is ordered by the publish time (newest first) and the id. The first pages of the feed are
+ * kept in memory, so going back to the top of the feed doesn't need to query - and decode - them again, and the page
+ * after the last requested one is loaded in the background.
+ * <p>
+ * The writers of the feed only record the publish time of the changed items, without locking, and the next
+ * {@link #getPage(String, long)} reloads the part of the feed, which is newer than the oldest change - after a
+ * subscription refresh, that is usually just the head of the feed.
+ */
+public class FeedPageCache<T extends CardData> {
+
+    public interface Loader<T> {
+        /**
+         * @return at most limit items, following the given item in the feed - or from the start of the feed, if
+         * afterId is null.
+         */
+        @NonNull
+        List<T> loadPage(int limit, @Nullable String afterId, long afterPublishTime);
+
+        /**
+         * @return at most limit items from the start of the feed, which are published at or after the given time.
+         */
+        @NonNull
+        List<T> loadHead(long minPublishTime, int limit);
+    }
+
+    private final Loader<T> loader;
+    private final Executor executor;
+    private final int pageSize;
+    private final int maxCachedItems;
+
+    /** The first items of the feed, guarded by this. */
+    private final List<T> window = new ArrayList<>();
+    /** True, if the {@link #window} holds the whole feed. */
+    private boolean complete;
+    private Prefetch<T> prefetch;
+
+    private final AtomicBoolean invalidated = new AtomicBoolean();
+    /** The publish time of the oldest change, since the last {@link #applyChanges()}. */
+    private final AtomicLong changedFrom = new AtomicLong(Long.MAX_VALUE);
+    /** The changed items, whose previous publish time could be older than their current one. */
+    private final Set<String> changedIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    /** Incremented on every change, so a page, which was prefetched before a change, is not used. */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private static final class Prefetch<T> {
+        final String afterId;
+        final int generation;
+        final FutureTask<List<T>> task;
+
+        Prefetch(String afterId, int generation, FutureTask<List<T>> task) {
+            this.afterId = afterId;
+            this.generation = generation;
+            this.task = task;
+        }
+    }
+
+    public FeedPageCache(@NonNull Loader<T> loader, @NonNull Executor executor, int pageSize, int maxCachedPages) {
+        this.loader = loader;
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.maxCachedItems = pageSize * maxCachedPages;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * An item was inserted, updated or deleted with the given publish time.
+     */
+    public void markChanged(long publishTime) {
+        changedFrom.accumulateAndGet(publishTime, Math::min);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * The item with the given id was updated - its publish time could be changed too.
+     */
+    public void markChanged(@NonNull String id, long publishTime) {
+        changedIds.add(id);
+        markChanged(publishTime);
+    }
+
+    /**
+     * Drop every cached page, after an unknown set of items were changed.
+     */
+    public void invalidate() {
+        invalidated.set(true);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return the page following the given item - or the first page, if afterId is null. An empty list means the end
+     * of the feed.
+     */
+    @NonNull
+    public synchronized List<T> getPage(@Nullable String afterId, long afterPublishTime) {
+        final int currentGeneration = generation.get();
+        applyChanges();
+        final int index = afterId == null ? -1 : indexOf(afterId);
+        final boolean inWindow = afterId == null || index >= 0;
+        final int start = index + 1;
+        final List<T> page;
+        if (inWindow && (start + pageSize <= window.size() || complete)) {
+            page = new ArrayList<>(window.subList(start, Math.min(start + pageSize, window.size())));
+        } else {
+            page = load(afterId, afterPublishTime, currentGeneration);
+            if (inWindow) {
+                // extend the window with the items, which directly follow it
+                for (int i = window.size() - start; i < page.size() && window.size() < maxCachedItems; i++) {
+                    window.add(page.get(i));
+                }
+                complete = page.size() < pageSize && window.size() == start + page.size();
+            }
+        }
+        // prefetch the next page, if the window doesn't hold it
+        if (page.size() == pageSize && (!inWindow || !complete && start + 2 * pageSize > window.size())) {
+            final T last = page.get(page.size() - 1);
+            schedulePrefetch(last.getId(), last.getPublishTimestamp(), currentGeneration);
+        }
+        return page;
+    }
+
+    private int indexOf(String id) {
+        for (int i = 0; i < window.size(); i++) {
+            if (id.equals(window.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<T> load(@Nullable String afterId, long afterPublishTime, int currentGeneration) {
+        final Prefetch<T> pending = prefetch;
+        prefetch = null;
+        if (pending != null && pending.generation == currentGeneration && pending.afterId.equals(afterId)) {
+            try {
+                return pending.task.get();
+            } catch (ExecutionException e) {
+                Logger.e(this, "Prefetching the page failed: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (pending != null) {
+            pending.task.cancel(false);
+        }
+        return loader.loadPage(pageSize, afterId, afterPublishTime);
+    }
+
+    private void schedulePrefetch(String afterId, long afterPublishTime, int currentGeneration) {
+        if (prefetch != null) {
+            prefetch.task.cancel(false);
+        }
+        final FutureTask<List<T>> task = new FutureTask<>(() -> loader.loadPage(pageSize, afterId, afterPublishTime));
+        prefetch = new Prefetch<>(afterId, currentGeneration, task);
+        executor.execute(task);
+    }
+
+    /**
+     * Apply the recorded changes on the {@link #window}: reload the items, which are newer than the oldest change,
+     * and keep the older ones.
+     */
+    private void applyChanges() {
+        if (invalidated.getAndSet(false)) {
+            changedFrom.set(Long.MAX_VALUE);
+            changedIds.clear();
+            window.clear();
+            complete = false;
+            return;
+        }
+        long from = changedFrom.getAndSet(Long.MAX_VALUE);
+        for (Iterator<String> iterator = changedIds.iterator(); iterator.hasNext(); ) {
+            final int index = indexOf(iterator.next());
+            iterator.remove();
+            if (index >= 0) {
+                from = Math.min(from, window.get(index).getPublishTimestamp());
+            }
+        }
+        if (from == Long.MAX_VALUE || window.isEmpty()) {
+            return;
+        }
+        final List<T> head = loader.loadHead(from, maxCachedItems);
+        final List<T> kept = new ArrayList<>();
+        for (T item : window) {
+            if (item.getPublishTimestamp() < from) {
+                kept.add(item);
+            }
+        }
+        window.clear();
+        window.addAll(head);
+        for (int i = 0; i < kept.size() && window.size() < maxCachedItems; i++) {
+            window.add(kept.get(i));
+        }
+        complete = complete && head.size() < maxCachedItems && head.size() + kept.size() <= maxCachedItems;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Helpers for the FTS4 index of the subscription videos: converting the user's query to a MATCH expression,
+ * and ranking the results from their matchinfo, as the Android SQLite doesn't have a built-in ranking function.
+ */
+public class FullTextSearch {
+    /**
+     * The weight of a hit in the columns of the index: title, description, channel title.
+     */
+    private static final double[] COLUMN_WEIGHTS = { 3.0, 1.0, 2.0 };
+
+    private FullTextSearch() {
+    }
+
+    /**
+     * Every word of the query needs to match, as a prefix, so the results are shown while the user is still typing
+     * a word. The FTS operators are not supported, as they would be surprising for the users. The case is kept, as
+     * the default tokenizer folds only the ASCII letters, both in the index and in the query.
+     * @return the MATCH expression, or null, if the query doesn't contain any word.
+     */
+    @Nullable
+    public static String toMatchExpression(@Nullable String query) {
+        if (query == null) {
+            return null;
+        }
+        final StringBuilder result = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (result.length() > 0) {
+                    result.append(' ');
+                }
+                result.append('"').append(word).append("*\"");
+            }
+        }
+        return result.length() > 0 ? result.toString() : null;
+    }
+
+    /**
+     * Calculate the relevance of a row, from the result of matchinfo(..., 'pcx'): every hit of a phrase counts
+     * more, if the phrase is rare in the whole index, and the hits in the title count the most.
+     */
+    public static double score(@NonNull byte[] matchInfo) {
+        final IntBuffer values = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        return score(values);
+    }
+
+    static double score(@NonNull IntBuffer values) {
+        final int phrases = values.get(0);
+        final int columns = values.get(1);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                final int offset = 2 + 3 * (phrase * columns + column);
+                final int hitsInRow = values.get(offset);
+                final int hitsInAllRows = values.get(offset + 1);
+                if (hitsInRow > 0) {
+                    final double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                    score += weight * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
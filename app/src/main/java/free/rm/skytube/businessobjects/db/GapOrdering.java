@@ -0,0 +1,110 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates the new order values of a list, which is displayed in descending order. The values are spaced
+ * by {@link #GAP}, so when an item is moved, only the moved item needs a new value - between its new
+ * neighbours -, and the whole list is renumbered only when there is no more room between them.
+ */
+public class GapOrdering {
+    /** The distance between the order values of the neighbouring items, after a renumbering. */
+    public static final int GAP = 1024;
+
+    private GapOrdering() {
+    }
+
+    /**
+     * @param storedOrder the current order values by id, in descending order.
+     * @param displayedIds the ids in the new display order, which could be just the first part of the full list.
+     * @return the changed order values by id.
+     */
+    @NonNull
+    public static Map<String, Integer> reorder(@NonNull LinkedHashMap<String, Integer> storedOrder, @NonNull List<String> displayedIds) {
+        final List<String> stored = new ArrayList<>(storedOrder.keySet());
+        final List<String> target = new ArrayList<>(stored.size());
+        final Set<String> displayed = new HashSet<>();
+        for (String id : displayedIds) {
+            if (storedOrder.containsKey(id) && displayed.add(id)) {
+                target.add(id);
+            }
+        }
+        for (String id : stored) {
+            if (!displayed.contains(id)) {
+                target.add(id);
+            }
+        }
+
+        int first = 0;
+        while (first < stored.size() && stored.get(first).equals(target.get(first))) {
+            first++;
+        }
+        if (first == stored.size()) {
+            return new LinkedHashMap<>();
+        }
+        int last = stored.size() - 1;
+        while (stored.get(last).equals(target.get(last))) {
+            last--;
+        }
+
+        // a single item moved up or down - it could be placed between its new neighbours
+        final int moved;
+        if (target.get(first).equals(stored.get(last)) && target.subList(first + 1, last + 1).equals(stored.subList(first, last))) {
+            moved = first;
+        } else if (target.get(last).equals(stored.get(first)) && target.subList(first, last).equals(stored.subList(first + 1, last + 1))) {
+            moved = last;
+        } else {
+            return renumber(storedOrder, target);
+        }
+        final Integer above = moved > 0 ? storedOrder.get(target.get(moved - 1)) : null;
+        final Integer below = moved < target.size() - 1 ? storedOrder.get(target.get(moved + 1)) : null;
+        final long lower = below != null ? below : 0;
+        final long upper = above != null ? above : lower + 2L * GAP;
+        if (upper - lower < 2 || upper > Integer.MAX_VALUE) {
+            return renumber(storedOrder, target);
+        }
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        result.put(target.get(moved), (int) ((lower + upper) / 2));
+        return result;
+    }
+
+    /**
+     * @return the order values of every item, which needs to change to follow the given order with full gaps.
+     */
+    @NonNull
+    static Map<String, Integer> renumber(@NonNull Map<String, Integer> storedOrder, @NonNull List<String> target) {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        int order = target.size() * GAP;
+        for (String id : target) {
+            final Integer current = storedOrder.get(id);
+            if (current == null || current != order) {
+                result.put(id, order);
+            }
+            order -= GAP;
+        }
+        return result;
+    }
+}
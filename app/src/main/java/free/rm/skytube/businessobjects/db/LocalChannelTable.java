@@ -17,6 +17,7 @@
 
 package free.rm.skytube.businessobjects.db;
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
@@ -27,6 +28,7 @@ import com.google.common.base.Joiner;
 
 import free.rm.skytube.businessobjects.YouTube.POJOs.PersistentChannel;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+import free.rm.skytube.businessobjects.YouTube.newpipe.FeedValidator;
 import free.rm.skytube.businessobjects.model.Status;
 
 public class LocalChannelTable {
@@ -43,6 +45,9 @@ public class LocalChannelTable {
     public static final Column COL_ID = new Column("_id", "integer", " primary key");
     public static final Column COL_CHANNEL_ID = new Column(COL_CHANNEL_ID_name, "text", "UNIQUE NOT NULL");
     public static final Column COL_STATE = new Column("state", "integer", "default 0");
+    public static final Column COL_FEED_ETAG = new Column("feed_etag", "text");
+    public static final Column COL_FEED_LAST_MODIFIED = new Column("feed_last_modified", "text");
+    public static final Column COL_FEED_HASH = new Column("feed_hash", "text");
 
     static final String GET_ID_AND_CHANNEL_ID = String.format("SELECT %s, %s FROM %s", LocalChannelTable.COL_ID.name(), LocalChannelTable.COL_CHANNEL_ID.name(), LocalChannelTable.TABLE_NAME);
 
@@ -94,4 +99,26 @@ public class LocalChannelTable {
     public static void addStateColumn(SQLiteDatabase db) {
         SQLiteHelper.addColumn(db, TABLE_NAME, COL_STATE);
     }
+
+    public static void addFeedValidatorColumns(SQLiteDatabase db) {
+        SQLiteHelper.addColumn(db, TABLE_NAME, COL_FEED_ETAG);
+        SQLiteHelper.addColumn(db, TABLE_NAME, COL_FEED_LAST_MODIFIED);
+        SQLiteHelper.addColumn(db, TABLE_NAME, COL_FEED_HASH);
+    }
+
+    public static FeedValidator getFeedValidator(SQLiteDatabase db, @NonNull ChannelId channelId) {
+        try (Cursor cursor = db.rawQuery("select " + COL_FEED_ETAG.name() + ", " + COL_FEED_LAST_MODIFIED.name() + ", " + COL_FEED_HASH.name() +
+                " from " + TABLE_NAME + " where " + COL_CHANNEL_ID.name() + " = ?", new String[] { channelId.getRawId() })) {
+            if (cursor.moveToNext()) {
+                return new FeedValidator(cursor.getString(0), cursor.getString(1), cursor.getString(2));
+            }
+        }
+        return new FeedValidator(null, null, null);
+    }
+
+    public static void updateFeedValidator(SQLiteDatabase db, @NonNull ChannelId channelId, @NonNull FeedValidator validator) {
+        db.execSQL("update " + TABLE_NAME + " set " + COL_FEED_ETAG.name() + " = ?, " + COL_FEED_LAST_MODIFIED.name() + " = ?, " +
+                        COL_FEED_HASH.name() + " = ? where " + COL_CHANNEL_ID.name() + " = ?",
+                new Object[] { validator.getETag(), validator.getLastModified(), validator.getContentHash(), channelId.getRawId() });
+    }
 }
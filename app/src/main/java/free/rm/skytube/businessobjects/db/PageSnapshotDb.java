@@ -0,0 +1,162 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.JsonSerializer;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.VideoCategory;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * A database (DB) that stores the first page of the network backed video lists, so they can be displayed right
+ * away, while the list is loaded again from the network.
+ */
+public class PageSnapshotDb extends DatabaseModule {
+    private static volatile PageSnapshotDb pageSnapshotDb = null;
+
+    private static final int DATABASE_VERSION = 1;
+    private static final String DATABASE_NAME = "pageSnapshots.db";
+    /** An older snapshot is not displayed - trending and the search results change a lot in a day. */
+    public static final long SNAPSHOT_TTL_MS = TimeUnit.DAYS.toMillis(1);
+    /** Only the start of a list is stored, the rest is loaded from the network as usual. */
+    private static final int MAX_CARDS = 60;
+
+    private final JsonSerializer jsonSerializer = new JsonSerializer();
+
+    private PageSnapshotDb() {
+        super(DATABASE_NAME, DATABASE_VERSION);
+    }
+
+    public static synchronized PageSnapshotDb getPageSnapshotDb() {
+        if (pageSnapshotDb == null) {
+            pageSnapshotDb = new PageSnapshotDb();
+        }
+        return pageSnapshotDb;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(PageSnapshotTable.getCreateStatement());
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    @Override
+    protected String[] getDeviceLocalTables() {
+        return new String[] {PageSnapshotTable.TABLE_NAME};
+    }
+
+    /**
+     * @return The key of the snapshot of the list, or null, if the list is not stored - like the search results,
+     * while the search history is disabled.
+     */
+    @Nullable
+    public static String getKey(@NonNull VideoCategory videoCategory, @Nullable String query) {
+        if (!videoCategory.isSnapshotCached()
+                || (videoCategory == VideoCategory.SEARCH_QUERY && SkyTubeApp.getSettings().isDisableSearchHistory())) {
+            return null;
+        }
+        return query != null ? videoCategory.name() + ':' + query : videoCategory.name();
+    }
+
+    /**
+     * @return The cards of the snapshot, or null, if there is no snapshot, or it's older than {@link #SNAPSHOT_TTL_MS}.
+     */
+    @Nullable
+    public List<CardData> getSnapshot(@NonNull String key, long now) {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().query(PageSnapshotTable.TABLE_NAME,
+                new String[]{PageSnapshotTable.COL_CARDS, PageSnapshotTable.COL_SAVED},
+                PageSnapshotTable.SELECT_BY_KEY, new String[]{key}, null, null, null)) {
+            if (!cursor.moveToNext() || now - cursor.getLong(1) > SNAPSHOT_TTL_MS) {
+                return null;
+            }
+            return jsonSerializer.fromCardSnapshot(cursor.getBlob(0));
+        } catch (IOException | RuntimeException e) {
+            Logger.e(this, "Unable to read the snapshot of " + key + ": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The cards of the snapshot - or nothing - loaded in the background.
+     */
+    public Maybe<List<CardData>> getSnapshotAsync(@NonNull String key) {
+        return Maybe.fromCallable(() -> getSnapshot(key, System.currentTimeMillis()))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Replace the snapshot of the list with its first cards.
+     */
+    public void putSnapshot(@NonNull String key, @NonNull List<CardData> cards, long now) {
+        SkyTubeApp.nonUiThread();
+        if (cards.isEmpty()) {
+            return;
+        }
+        try {
+            final ContentValues values = new ContentValues();
+            values.put(PageSnapshotTable.COL_KEY, key);
+            values.put(PageSnapshotTable.COL_CARDS, jsonSerializer.toCardSnapshot(cards.subList(0, Math.min(cards.size(), MAX_CARDS))));
+            values.put(PageSnapshotTable.COL_SAVED, now);
+            getWritableDatabase().replace(PageSnapshotTable.TABLE_NAME, null, values);
+        } catch (IOException e) {
+            Logger.e(this, "Unable to save the snapshot of " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The number of the deleted snapshots, which were saved before the given time.
+     */
+    public int deleteSavedBefore(long time) {
+        SkyTubeApp.nonUiThread();
+        return getWritableDatabase().delete(PageSnapshotTable.TABLE_NAME, PageSnapshotTable.DELETE_SAVED_BEFORE,
+                new String[]{String.valueOf(time)});
+    }
+
+    /**
+     * Delete the results of the given search - as they are part of the search history.
+     */
+    public void deleteSearchSnapshot(@NonNull String query) {
+        getWritableDatabase().delete(PageSnapshotTable.TABLE_NAME, PageSnapshotTable.SELECT_BY_KEY,
+                new String[]{VideoCategory.SEARCH_QUERY.name() + ':' + query});
+    }
+
+    /**
+     * Delete the results of every search - as they are part of the search history.
+     */
+    public void deleteSearchSnapshots() {
+        getWritableDatabase().delete(PageSnapshotTable.TABLE_NAME, PageSnapshotTable.DELETE_BY_KEY_PATTERN,
+                new String[]{VideoCategory.SEARCH_QUERY.name() + ":*"});
+    }
+}
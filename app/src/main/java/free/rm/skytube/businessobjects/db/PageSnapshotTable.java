@@ -0,0 +1,41 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The first page of the network backed video lists - trending, search results, channel videos... - as they were
+ * displayed the last time, keyed by the video category and the query.
+ */
+public class PageSnapshotTable {
+	public static final String TABLE_NAME = "PageSnapshot";
+	public static final String COL_KEY = "Key";
+	/** The cards as gzipped JSON. */
+	public static final String COL_CARDS = "Cards";
+	public static final String COL_SAVED = "Saved";
+
+	static final String SELECT_BY_KEY = String.format("%s = ?", COL_KEY);
+	static final String DELETE_SAVED_BEFORE = String.format("%s < ?", COL_SAVED);
+	static final String DELETE_BY_KEY_PATTERN = String.format("%s GLOB ?", COL_KEY);
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_KEY + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_CARDS + " BLOB NOT NULL, " +
+						COL_SAVED + " INTEGER NOT NULL" +
+						" )";
+	}
+}
@@ -1,15 +1,21 @@
 package free.rm.skytube.businessobjects.db;
 
 import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 
-import java.util.HashMap;
+import com.github.skytube.components.utils.Stopwatch;
+
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.Logger;
@@ -17,19 +23,36 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.interfaces.VideoPlayStatusUpdateListener;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
-import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * A database (DB) that stores video playback history
  */
-public class PlaybackStatusDb extends SQLiteOpenHelperEx {
+public class PlaybackStatusDb extends DatabaseModule {
 	private static volatile PlaybackStatusDb playbackStatusDb = null;
-	private static HashMap<String, VideoWatchedStatus> playbackHistoryMap = null;
 
 	private static final int DATABASE_VERSION = 1;
+	/** The maximum number of statuses kept in memory, the rest is looked up from the database on demand. */
+	private static final int MAX_INDEX_SIZE = 50000;
+	private static final String GET_STATUSES_QUERY = "SELECT " + PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID + ", " + PlaybackStatusTable.COL_YOUTUBE_VIDEO_POSITION + ", " + PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED +
+			" FROM " + PlaybackStatusTable.TABLE_NAME;
+	private static final String GET_RECENT_STATUSES_QUERY = GET_STATUSES_QUERY + " ORDER BY rowid DESC LIMIT " + (MAX_INDEX_SIZE + 1);
+	private static final String GET_STATUS_QUERY = GET_STATUSES_QUERY + " WHERE " + PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID + " = ?";
+
+	/** How long the position updates are collected, before they are written in one transaction. */
+	private static final long FLUSH_DELAY_MS = 2000;
+
+	/** Only videos with a stored status are in the index, reads don't need any locking. */
+	private final ConcurrentHashMap<String, VideoWatchedStatus> statusIndex = new ConcurrentHashMap<>();
+	private volatile boolean indexLoaded = false;
+	/** True, if every stored status is in the index, so a missing entry means, the video is not watched. */
+	private volatile boolean indexComplete = false;
+	/** The positions which are not yet written to the database, only the latest one for each video. */
+	private final Map<String, PendingPosition> pendingPositions = new LinkedHashMap<>();
+	private Disposable pendingFlush;
 	private int updateCounter = 0;
 	private static final String DATABASE_NAME = "playbackhistory.db";
 
@@ -37,19 +60,24 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 
 	public static synchronized PlaybackStatusDb getPlaybackStatusDb() {
 		if (playbackStatusDb == null) {
-			playbackStatusDb = new PlaybackStatusDb(SkyTubeApp.getContext());
+			playbackStatusDb = new PlaybackStatusDb();
 		}
 
 		return playbackStatusDb;
 	}
 
-	private PlaybackStatusDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+	private PlaybackStatusDb() {
+		super(DATABASE_NAME, DATABASE_VERSION);
 	}
 
 	public void deleteAllPlaybackHistory() {
 		getWritableDatabase().delete(PlaybackStatusTable.TABLE_NAME, null, null);
-		playbackHistoryMap = null;
+		synchronized (pendingPositions) {
+			pendingPositions.clear();
+		}
+		statusIndex.clear();
+		indexComplete = true;
+		indexLoaded = true;
 		updateCounter++;
 		onUpdated(null);
 	}
@@ -64,42 +92,83 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 
 	}
 
+	@Override
+	protected void onClose() {
+		// the DB file could be replaced - by a backup import -, so reload the statuses on the next lookup
+		indexLoaded = false;
+		indexComplete = false;
+		statusIndex.clear();
+	}
+
+	/**
+	 * Load the stored statuses into the memory - from the background -, so the first lookups don't need to wait for it.
+	 */
+	public void warmUp() {
+		SkyTubeApp.nonUiThread();
+		loadIndex();
+	}
+
+	private synchronized void loadIndex() {
+		if (indexLoaded) {
+			return;
+		}
+		int count = 0;
+		try (Stopwatch s = new Stopwatch("load playback statuses");
+			 Cursor cursor = getReadableDatabase().rawQuery(GET_RECENT_STATUSES_QUERY, null)) {
+			while (cursor.moveToNext()) {
+				count++;
+				if (count <= MAX_INDEX_SIZE) {
+					// an update could have already put a more recent value in the index
+					statusIndex.putIfAbsent(cursor.getString(0), toStatus(cursor));
+				}
+			}
+		}
+		indexComplete = count <= MAX_INDEX_SIZE;
+		indexLoaded = true;
+		Logger.i(this, "Loaded %s playback statuses, complete: %s", statusIndex.size(), indexComplete);
+	}
+
+	private static VideoWatchedStatus toStatus(Cursor cursor) {
+		return new VideoWatchedStatus(cursor.getInt(1), cursor.getInt(2) == 1);
+	}
+
 	/**
-	 * Get the watched status of the passed {@link YouTubeVideo}. Instead of always querying the database, a HashMap
-	 * is constructed that stores the watch status of all videos (that have a status). Subsequent calls to this method
-	 * will return the watch status for the passed video from this HashMap (which also gets updated by calls to setWatchedStatus().
+	 * Get the watched status of the passed {@link YouTubeVideo}. Instead of always querying the database, the statuses of
+	 * the videos (that have a status) are kept in a concurrent index, which is loaded on first use - or by {@link #warmUp()} -,
+	 * and updated by calls to setWatchedStatus(). Videos without a status are not stored in the index.
 	 *
 	 * @param videoId {@link YouTubeVideo}
 	 * @return {@link VideoWatchedStatus} of the passed video, which contains the position (in ms) and whether or not the video
 	 * 					has been (completely) watched.
 	 */
-	public synchronized VideoWatchedStatus getVideoWatchedStatus(@NonNull String videoId) {
-		if(playbackHistoryMap == null) {
-            try (Cursor cursor = getReadableDatabase().query(
-                    PlaybackStatusTable.TABLE_NAME,
-                    new String[]{PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, PlaybackStatusTable.COL_YOUTUBE_VIDEO_POSITION, PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED},
-                    null,
-                    null, null, null, null)) {
-                playbackHistoryMap = new HashMap<>();
-                final int videoIdIdx = cursor.getColumnIndexOrThrow(PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID);
-                final int positionIdx = cursor.getColumnIndexOrThrow(PlaybackStatusTable.COL_YOUTUBE_VIDEO_POSITION);
-                final int finishedIdx = cursor.getColumnIndexOrThrow(PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED);
-                while (cursor.moveToNext()) {
-                    String video_id = cursor.getString(videoIdIdx);
-                    int position = cursor.getInt(positionIdx);
-                    int finished = cursor.getInt(finishedIdx);
-                    VideoWatchedStatus status = new VideoWatchedStatus(position, finished == 1);
-                    playbackHistoryMap.put(video_id, status);
-                }
-            }
-		}
-		if(playbackHistoryMap.get(videoId) == null) {
-			// Requested video has no entry in the database, so create one in the Map. No need to create it in the Database yet - if needed,
-			// that will happen when video position is set
-			VideoWatchedStatus status = new VideoWatchedStatus();
-			playbackHistoryMap.put(videoId, status);
-		}
-		return playbackHistoryMap.get(videoId);
+	public VideoWatchedStatus getVideoWatchedStatus(@NonNull String videoId) {
+		if (!indexLoaded) {
+			loadIndex();
+		}
+		VideoWatchedStatus status = statusIndex.get(videoId);
+		if (status != null) {
+			return status;
+		}
+		if (!indexComplete) {
+			status = loadStatus(videoId);
+			if (status != null) {
+				return status;
+			}
+		}
+		return VideoWatchedStatus.NOT_WATCHED;
+	}
+
+	private VideoWatchedStatus loadStatus(@NonNull String videoId) {
+		try (Cursor cursor = getReadableDatabase().rawQuery(GET_STATUS_QUERY, new String[] { videoId })) {
+			if (cursor.moveToNext()) {
+				final VideoWatchedStatus status = toStatus(cursor);
+				if (statusIndex.size() < MAX_INDEX_SIZE) {
+					statusIndex.putIfAbsent(videoId, status);
+				}
+				return status;
+			}
+		}
+		return null;
 	}
 
     public Maybe<VideoWatchedStatus> getVideoWatchedStatusAsync(@NonNull String videoId) {
@@ -112,12 +181,13 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 	 * Set the position (in ms) of the passed {@link YouTubeVideo}. If the position is less than 5 seconds,
 	 * don't do anything. If the position is greater than or equal to 90% of the duration of the video, set
 	 * the position to 0 and mark the video as watched.
+	 * The position is visible immediately, but it is only written to the database after a short delay, together
+	 * with the other pending positions, so repeated updates of the same video only cause one write.
 	 *
 	 * @param video {@link YouTubeVideo}
 	 * @param position Number of milliseconds
-	 * @return Disposable which contains the background task.
 	 */
-	public Disposable setVideoPositionInBackground(YouTubeVideo video, long position) {
+	public void setVideoPositionInBackground(YouTubeVideo video, long position) {
 		// Don't record the position if it's < 5 seconds
 		if (SkyTubeApp.getSettings().isPlaybackStatusEnabled() && position >= 5000) {
 			boolean watched = false;
@@ -126,22 +196,64 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 				watched = true;
 				position = 0;
 			}
-			final long positionValue = position;
-			final boolean watchedValue = watched;
-			return Single.fromCallable(() -> saveVideoWatchStatus(video.getId(), positionValue, watchedValue))
-					.subscribeOn(Schedulers.io())
-					.observeOn(AndroidSchedulers.mainThread())
-					.subscribe((success) -> {
-						Logger.i(this, "onUpdated " + success);
-
-						if (success) {
-							onUpdated(video);
-						}
-					});
-		} else {
-			return Disposable.empty();
+			final VideoWatchedStatus status = new VideoWatchedStatus(position, watched);
+			statusIndex.put(video.getId(), status);
+			synchronized (pendingPositions) {
+				pendingPositions.put(video.getId(), new PendingPosition(video, status));
+				if (pendingFlush == null) {
+					pendingFlush = Completable.timer(FLUSH_DELAY_MS, TimeUnit.MILLISECONDS, Schedulers.io())
+							.subscribe(this::flushPendingPositions,
+									error -> Logger.e(this, "Unable to save positions: " + error.getMessage(), error));
+				}
+			}
 		}
+	}
 
+	/**
+	 * Write the pending positions to the database now, for example when the player is closed.
+	 */
+	public void flushPendingPositionsAsync() {
+		Completable.fromAction(this::flushPendingPositions)
+				.subscribeOn(Schedulers.io())
+				.subscribe(() -> {}, error -> Logger.e(this, "Unable to save positions: " + error.getMessage(), error));
+	}
+
+	/**
+	 * Write the pending positions to the database, before a query, which joins the playback statuses.
+	 */
+	void flushPendingPositions() {
+		final List<PendingPosition> positions;
+		synchronized (pendingPositions) {
+			if (pendingFlush != null) {
+				pendingFlush.dispose();
+				pendingFlush = null;
+			}
+			positions = new ArrayList<>(pendingPositions.values());
+			pendingPositions.clear();
+		}
+		if (positions.isEmpty()) {
+			return;
+		}
+		final List<CardData> updated = new ArrayList<>(positions.size());
+		final SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			for (PendingPosition pending : positions) {
+				if (insertVideoWatchStatus(db, pending.video.getId(), pending.status.position, pending.status.watched)) {
+					updated.add(pending.video);
+				}
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		Logger.i(this, "Saved %s positions", updated.size());
+		// one notification per changed video, so only the affected cards are refreshed
+		AndroidSchedulers.mainThread().scheduleDirect(() -> {
+			for (CardData video : updated) {
+				onUpdated(video);
+			}
+		});
 	}
 
 	/**
@@ -170,24 +282,23 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 	}
 
 	private boolean saveVideoWatchStatus(String videoId, long position, boolean watched) {
+		synchronized (pendingPositions) {
+			// an explicitly set status overrides the position, which is not yet saved
+			pendingPositions.remove(videoId);
+		}
+		return insertVideoWatchStatus(getWritableDatabase(), videoId, position, watched);
+	}
+
+	private boolean insertVideoWatchStatus(SQLiteDatabase db, String videoId, long position, boolean watched) {
 		ContentValues values = new ContentValues();
 		values.put(PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, videoId);
 		values.put(PlaybackStatusTable.COL_YOUTUBE_VIDEO_POSITION, (int)position);
 		values.put(PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED, watched ? 1 : 0);
 
-		boolean addSuccessful = getWritableDatabase().insertWithOnConflict(PlaybackStatusTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE) != -1;
-		if(addSuccessful) {
-			updateCounter++;
-		}
-
-		VideoWatchedStatus status = playbackHistoryMap.get(videoId);
-		if (status == null) {
-			status = new VideoWatchedStatus();
-			playbackHistoryMap.put(videoId, status);
+		boolean addSuccessful = db.insertWithOnConflict(PlaybackStatusTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE) != -1;
+		if (addSuccessful) {
+			statusIndex.put(videoId, new VideoWatchedStatus(position, watched));
 		}
-		status.position = position;
-		status.watched = watched;
-
 
 		return addSuccessful;
 	}
@@ -198,11 +309,23 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
         }
     }
 
+	private static class PendingPosition {
+		final YouTubeVideo video;
+		final VideoWatchedStatus status;
+
+		PendingPosition(YouTubeVideo video, VideoWatchedStatus status) {
+			this.video = video;
+			this.status = status;
+		}
+	}
+
 	/**
-	 * Class that contains the position and watched status of a video.
+	 * Immutable class that contains the position and watched status of a video.
 	 */
 	public static class VideoWatchedStatus {
-		public VideoWatchedStatus() {}
+		/** The status of videos, which were never played. */
+		public static final VideoWatchedStatus NOT_WATCHED = new VideoWatchedStatus(0, false);
+
 		public VideoWatchedStatus(long position, boolean watched) {
 			this.position = position;
 			this.watched = watched;
@@ -213,8 +336,8 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 			return String.format("Position: %d\nWatched: %s\n", position, watched);
 		}
 
-		private long position = 0;
-		private boolean watched = false;
+		private final long position;
+		private final boolean watched;
 
 		public boolean isFullyWatched() {
 			return watched;
@@ -230,8 +353,9 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 	}
 
 	/**
-	 * Return the number of updates happened to the playback status
-	 * If it different than the VideoGrid has, it needs to be refreshed.
+	 * Return the number of bulk updates (like clearing the history) happened to the playback status.
+	 * If it different than the VideoGrid has, it needs to be refreshed. Changes of individual videos are
+	 * propagated through the {@link VideoPlayStatusUpdateListener}s.
 	 *
 	 * @return int updateCounter
 	 */
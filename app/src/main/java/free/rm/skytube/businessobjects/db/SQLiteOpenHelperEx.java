@@ -18,11 +18,16 @@
 package free.rm.skytube.businessobjects.db;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
+import com.github.skytube.components.utils.SQLiteHelper;
+
 import java.io.File;
 
 import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
 
 /**
  * An extended {@link SQLiteOpenHelper} with extra goodies.
@@ -30,9 +35,12 @@ import free.rm.skytube.app.SkyTubeApp;
  * <p>Class assumes that sub-classes shall make use of the singleton design pattern.</p>
  */
 public abstract class SQLiteOpenHelperEx extends SQLiteOpenHelper {
+	private static final int AUTO_VACUUM_INCREMENTAL = 2;
 
-	public SQLiteOpenHelperEx(Context context, String name, android.database.sqlite.SQLiteDatabase.CursorFactory factory, int version) {
+	public SQLiteOpenHelperEx(Context context, String name, SQLiteDatabase.CursorFactory factory, int version) {
 		super(context, name, factory, version);
+		// readers are not blocked by the writers - e.g. the subscription refresh - with write-ahead logging
+		setWriteAheadLoggingEnabled(true);
 	}
 
 	/**
@@ -50,4 +58,90 @@ public abstract class SQLiteOpenHelperEx extends SQLiteOpenHelper {
 		return SkyTubeApp.getContext().getDatabasePath(getDatabaseName()).getParentFile();
 	}
 
+
+	/**
+	 * Remove the write-ahead log files of the - already closed - database, so they are not applied on a database
+	 * file, which is replaced, e.g. by a backup import. The log is checkpointed into the database file on close.
+	 */
+	public void deleteWriteAheadLog() {
+		for (String suffix : new String[] {"-wal", "-shm"}) {
+			File file = new File(getDatabasePath() + suffix);
+			if (file.exists() && !file.delete()) {
+				Logger.w(this, "Unable to delete %s", file);
+			}
+		}
+	}
+
+
+	/**
+	 * @return The size and the page statistics of the database.
+	 */
+	public Stats getStats() {
+		SQLiteDatabase db = getReadableDatabase();
+		return new Stats(new File(getDatabasePath()).length() + new File(getDatabasePath() + "-wal").length(),
+				SQLiteHelper.executeQueryForInteger(db, "PRAGMA page_size", 0),
+				SQLiteHelper.executeQueryForInteger(db, "PRAGMA page_count", 0),
+				SQLiteHelper.executeQueryForInteger(db, "PRAGMA freelist_count", 0));
+	}
+
+
+	/**
+	 * Return the free pages of the database to the file system, and truncate the write-ahead log. The first time,
+	 * the database is switched to incremental auto-vacuum, which needs a full VACUUM.
+	 *
+	 * @return True if a full VACUUM was done.
+	 */
+	public boolean compact() {
+		SQLiteDatabase db = getWritableDatabase();
+		boolean fullVacuum = false;
+		if (SQLiteHelper.executeQueryForInteger(db, "PRAGMA auto_vacuum", 0) != AUTO_VACUUM_INCREMENTAL) {
+			db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+			db.execSQL("VACUUM");
+			onFullVacuum(db);
+			fullVacuum = true;
+		} else {
+			executePragma(db, "PRAGMA incremental_vacuum");
+		}
+		executePragma(db, "PRAGMA wal_checkpoint(TRUNCATE)");
+		return fullVacuum;
+	}
+
+
+	/**
+	 * Called after a full VACUUM, which could re-assign the rowids of the tables without an INTEGER PRIMARY KEY.
+	 */
+	protected void onFullVacuum(SQLiteDatabase db) {
+	}
+
+
+	static void executePragma(SQLiteDatabase db, String pragma) {
+		// some pragmas return a row, which is not accepted by execSQL
+		try (Cursor cursor = db.rawQuery(pragma, null)) {
+			cursor.moveToFirst();
+		}
+	}
+
+
+	/**
+	 * The size and the page statistics of a database.
+	 */
+	public static class Stats {
+		public final long fileSize;
+		public final int pageSize;
+		public final int pageCount;
+		public final int freePageCount;
+
+		Stats(long fileSize, int pageSize, int pageCount, int freePageCount) {
+			this.fileSize = fileSize;
+			this.pageSize = pageSize;
+			this.pageCount = pageCount;
+			this.freePageCount = freePageCount;
+		}
+
+		@Override
+		public String toString() {
+			return "file size=" + fileSize + " bytes, pages=" + pageCount + " (free=" + freePageCount + ") * " + pageSize + " bytes";
+		}
+	}
+
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package free.rm.skytube.businessobjects.db;
 
 import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import androidx.annotation.NonNull;
 
@@ -14,7 +14,6 @@ import java.util.List;
 import java.util.Map;
 
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.businessobjects.Logger;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
@@ -24,25 +23,32 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
  * A database (DB) that stores user's searches (for use in Search Suggestions).
  */
 
-public class SearchHistoryDb extends SQLiteOpenHelperEx {
+public class SearchHistoryDb extends DatabaseModule {
 
 	public static final String[] SEARCH_HISTORY_COLUMNS = {SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT};
 	private static volatile SearchHistoryDb searchHistoryDb = null;
 
-	private static final int DATABASE_VERSION = 2;
+	private static final int DATABASE_VERSION = 3;
 	private static final String DATABASE_NAME = "searchHistory.db";
 
 	private static final String UPDATE_SEARCH_TEXT_TIMESTAMP = String.format("UPDATE %s SET %s = datetime('now','localtime') WHERE %s = ?", SearchHistoryTable.TABLE_NAME, SearchHistoryTable.COL_SEARCH_DATE, SearchHistoryTable.COL_SEARCH_TEXT);
+	/** The maximum number of suggestions shown to the user. */
+	private static final int MAX_SUGGESTIONS = 10;
 
+	/** Guards the loading and the updates of {@link #suggestions}, together with the matching DB writes. */
+	private final Object suggestionsLock = new Object();
+	/** The in-memory copy of the search history, loaded at the first search. */
+	private volatile SearchSuggestions suggestions;
 
-	private SearchHistoryDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+
+	private SearchHistoryDb() {
+		super(DATABASE_NAME, DATABASE_VERSION);
 	}
 
 
 	public static synchronized SearchHistoryDb getSearchHistoryDb() {
 		if (searchHistoryDb == null) {
-			searchHistoryDb = new SearchHistoryDb(SkyTubeApp.getContext());
+			searchHistoryDb = new SearchHistoryDb();
 		}
 
 		return searchHistoryDb;
@@ -51,6 +57,8 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(SearchHistoryTable.getCreateStatement());
+		SearchHistoryTable.addSearchCountColumn(db);
+		SearchHistoryTable.addUniqueTextIndex(db);
 	}
 
 	@Override
@@ -58,7 +66,8 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	    // Version 2 introduced the date the search term was searched for. If the user already has version 1,
         // grab all the values from the database, recreate it with the new column, and add the search terms back in.
         // The current timestamp will be used.
-		if(oldVersion == 1 && newVersion == 2) {
+		if (oldVersion < 2) {
+			List<Map<Integer, String>> history = new ArrayList<>();
 			try (Cursor cursor = db.query(SearchHistoryTable.TABLE_NAME,
 					new String[] {SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT},
 					null,
@@ -66,7 +75,6 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 					null,
 					null,
 					SearchHistoryTable.COL_SEARCH_ID + " ASC")) {
-                List<Map<Integer, String>> history = new ArrayList<>();
                 if (cursor.moveToFirst()) {
                     final int searchIdIdx = cursor.getColumnIndexOrThrow(SearchHistoryTable.COL_SEARCH_ID);
                     final int searchTxtIdx = cursor.getColumnIndexOrThrow(SearchHistoryTable.COL_SEARCH_TEXT);
@@ -77,27 +85,44 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
                             put(id, text);
                         }});
                     } while (cursor.moveToNext());
-                    db.execSQL("DROP TABLE " + SearchHistoryTable.TABLE_NAME);
-                    onCreate(db);
-                    for (Map<Integer, String> entry : history) {
-                        for (Map.Entry<Integer, String> e : entry.entrySet()) {
-                            String text = e.getValue();
-                            ContentValues values = new ContentValues();
-                            values.put(SearchHistoryTable.COL_SEARCH_ID, e.getKey());
-                            values.put(SearchHistoryTable.COL_SEARCH_TEXT, text);
-                            db.insert(SearchHistoryTable.TABLE_NAME, null, values);
-                        }
-                    }
                 }
             }
+			// the table is recreated even if it is empty, so the later upgrades find the version 2 schema
+			db.execSQL("DROP TABLE " + SearchHistoryTable.TABLE_NAME);
+			db.execSQL(SearchHistoryTable.getCreateStatement());
+			for (Map<Integer, String> entry : history) {
+				for (Map.Entry<Integer, String> e : entry.entrySet()) {
+					ContentValues values = new ContentValues();
+					values.put(SearchHistoryTable.COL_SEARCH_ID, e.getKey());
+					values.put(SearchHistoryTable.COL_SEARCH_TEXT, e.getValue());
+					db.insertWithOnConflict(SearchHistoryTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+				}
+			}
+		}
+		if (oldVersion < 3) {
+			// Version 3 counts the searches of the same text, instead of storing duplicates.
+			SearchHistoryTable.addSearchCountColumn(db);
+			SearchHistoryTable.addUniqueTextIndex(db);
 		}
 	}
 
+	@Override
+	protected void onClose() {
+		// the DB file could be replaced - by a backup import -, so reload the suggestions on the next search
+		suggestions = null;
+	}
+
 	/**
-	 * Delete all search history
+	 * Delete all search history, with the stored results of the searches.
 	 */
 	public void deleteAllSearchHistory() {
-		getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME, null, null);
+		synchronized (suggestionsLock) {
+			getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME, null, null);
+			if (suggestions != null) {
+				suggestions.clear();
+			}
+		}
+		PageSnapshotDb.getPageSnapshotDb().deleteSearchSnapshots();
 	}
 
 
@@ -108,12 +133,18 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
      */
     public Completable insertSearchText(String text) {
         return Completable.fromRunnable(()  -> {
-            if (!isSearchTextAlreadyStored(text)) {
-                ContentValues values = new ContentValues();
-                values.put(SearchHistoryTable.COL_SEARCH_TEXT, text);
-                getWritableDatabase().insert(SearchHistoryTable.TABLE_NAME, null, values);
-            } else {
-                updateSearchTextTimestamp(text);
+            synchronized (suggestionsLock) {
+                final long id;
+                try (SQLiteStatement statement = getWritableDatabase().compileStatement(SearchHistoryTable.UPSERT_SEARCH_TEXT)) {
+                    statement.bindString(1, text);
+                    statement.bindString(2, text);
+                    statement.bindString(3, text);
+                    id = statement.executeInsert();
+                }
+                final long now = System.currentTimeMillis();
+                if (suggestions != null && id != -1 && !suggestions.touch(text, now, true)) {
+                    suggestions.put(id, text, now, 1);
+                }
             }
         }).subscribeOn(Schedulers.io());
     }
@@ -125,25 +156,18 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	 */
 	public Completable updateSearchTextTimestamp(String text) {
 		return Completable.fromRunnable(() -> {
-			try (Cursor cursor = getWritableDatabase().rawQuery(UPDATE_SEARCH_TEXT_TIMESTAMP, new String[]{ text })) {
-				cursor.moveToFirst();
+			synchronized (suggestionsLock) {
+				try (Cursor cursor = getWritableDatabase().rawQuery(UPDATE_SEARCH_TEXT_TIMESTAMP, new String[]{ text })) {
+					cursor.moveToFirst();
+				}
+				if (suggestions != null) {
+					suggestions.touch(text, System.currentTimeMillis(), false);
+				}
 			}
 		}).subscribeOn(Schedulers.io());
 	}
 
 
-	/**
-	 * Return true if the given search text has already been stored in the database.
-	 *
-	 * @param text  Search text
-	 * @return True if the given search text has already been stored in the database; false otherwise.
-	 */
-	private boolean isSearchTextAlreadyStored(String text) {
-		try(Cursor cursor =  getSearchCursor(text, true)) {
-			return cursor.moveToNext();
-		}
-	}
-
     /**
      * Given a search string, it will return a cursor contain text strings which start as the given
      * searchText.
@@ -156,47 +180,49 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
          if (SkyTubeApp.getSettings().isDisableSearchHistory()) {
              return new MatrixCursor(SEARCH_HISTORY_COLUMNS, 0);
          } else {
-            return convert(getSearchCursor(searchText, false));
+            return search(searchText);
          }
     }
 
     /**
-     * Given a search string, it will return a cursor contain text strings which start as the given
-     * searchText.
-     *
-     * @param searchText        Text the user has typed.
-     * @param exactTextSearch   If set to true, it will only return items whose COL_SEARCH_TEXT's
-     *                          data is identical to the given searchText.
+     * Return the best ranked previous searches, which have a word starting with the given searchText.
      *
-     * @return                  A cursor containing texts which starts with the contents of searchText.
+     * @param searchText    Text the user has typed - if it is at most one character long, the overall best ranked
+     *                      searches are returned.
+     * @return              A cursor with the {@link #SEARCH_HISTORY_COLUMNS}.
      */
-    private Cursor getSearchCursor(String searchText, boolean exactTextSearch) {
-        if(searchText.length() <= 1) {
-            Logger.i(this, "showing all the recent searches for: %s", searchText);
-            return getReadableDatabase().query(SearchHistoryTable.TABLE_NAME,
-                    SEARCH_HISTORY_COLUMNS,
-                    null,
-                    null,
-                    null,
-                    null,
-                    SearchHistoryTable.COL_SEARCH_DATE + " DESC, " + SearchHistoryTable.COL_SEARCH_ID + " DESC",
-                    "10");
-        } else {
-            // if the user input "'" it was causing the app to crash, hence replace "'" with "\''"
-            String searchClause = exactTextSearch
-                    ? " = ?"
-                    : " LIKE ?";
-            String params = exactTextSearch ? searchText : "%" + searchText + '%';
-            Logger.i(this, "showing search queries matching : %s", params);
-
-            return getReadableDatabase().query(SearchHistoryTable.TABLE_NAME,
-                    SEARCH_HISTORY_COLUMNS,
-                    SearchHistoryTable.COL_SEARCH_TEXT + searchClause,
-                    new String[] {params},
-                    null,
-                    null,
-                    SearchHistoryTable.COL_SEARCH_TEXT + " ASC");
+    private Cursor search(String searchText) {
+        final String prefix = searchText == null || searchText.length() <= 1 ? "" : searchText;
+        final List<SearchSuggestions.Entry> entries = getSuggestions().find(prefix, MAX_SUGGESTIONS, System.currentTimeMillis());
+        final MatrixCursor cursor = new MatrixCursor(SEARCH_HISTORY_COLUMNS, entries.size());
+        for (SearchSuggestions.Entry entry : entries) {
+            cursor.addRow(new Object[]{entry.getId(), entry.getText()});
         }
+        return cursor;
+    }
+
+    /**
+     * @return The in-memory copy of the search history, loading it from the DB, if needed.
+     */
+    private SearchSuggestions getSuggestions() {
+        SearchSuggestions result = suggestions;
+        if (result == null) {
+            synchronized (suggestionsLock) {
+                result = suggestions;
+                if (result == null) {
+                    result = new SearchSuggestions();
+                    try (Cursor cursor = getReadableDatabase().rawQuery(SearchHistoryTable.QUERY_ALL, null)) {
+                        while (cursor.moveToNext()) {
+                            if (!cursor.isNull(1)) {
+                                result.put(cursor.getLong(0), cursor.getString(1), cursor.getLong(2), cursor.getInt(3));
+                            }
+                        }
+                    }
+                    suggestions = result;
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -207,37 +233,26 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
     public @NonNull Single<Cursor> deleteAndSearchAgain(String textToDelete, String search) {
         return Single.fromSupplier(() -> {
             deleteSearchText(textToDelete);
-            return convert(getSearchCursor(search, false));
+            return search(search);
         }).subscribeOn(Schedulers.io())
             .observeOn(AndroidSchedulers.mainThread());
     }
 
-    /**
-     * Convert the cursor into a MatrixCursor
-     * @param cursor
-     * @return
-     */
-    private Cursor convert(Cursor cursor) {
-        try {
-            MatrixCursor newCursor = new MatrixCursor(SEARCH_HISTORY_COLUMNS, cursor.getCount());
-            while (cursor.moveToNext()) {
-                newCursor.addRow(new Object[]{cursor.getInt(0), cursor.getString(1)});
-            }
-            return newCursor;
-        } finally {
-            cursor.close();
-        }
-    }
-
     /**
      * Delete a previously searched text.
      *
      * @param text  A previous searched text.
      */
     private void deleteSearchText(String text) {
-        getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME,
-                SearchHistoryTable.COL_SEARCH_TEXT + " = ?",
-                new String[]{text});
+        synchronized (suggestionsLock) {
+            getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME,
+                    SearchHistoryTable.COL_SEARCH_TEXT + " = ?",
+                    new String[]{text});
+            if (suggestions != null) {
+                suggestions.remove(text);
+            }
+        }
+        PageSnapshotDb.getPageSnapshotDb().deleteSearchSnapshot(text);
     }
 
 }
@@ -1,5 +1,10 @@
 package free.rm.skytube.businessobjects.db;
 
+import android.database.sqlite.SQLiteDatabase;
+
+import com.github.skytube.components.utils.Column;
+import com.github.skytube.components.utils.SQLiteHelper;
+
 /**
  * Search History Table
  */
@@ -8,6 +13,27 @@ public class SearchHistoryTable {
 	public static final String COL_SEARCH_ID = "_id";
 	public static final String COL_SEARCH_TEXT = "Search_Text";
 	public static final String COL_SEARCH_DATE = "Search_Date";
+	/** How many times the text was searched for, used to rank the search suggestions. */
+	public static final Column COL_SEARCH_COUNT = new Column("Search_Count", "integer", "not null default 1");
+
+	private static final String IDX_SEARCH_TEXT = "IDX_SearchHistory_Text";
+
+	/**
+	 * Insert the text, or if it is already stored, increment its counter and refresh its date - in one statement,
+	 * as 'ON CONFLICT DO UPDATE' is not supported by the SQLite versions of older Android releases. Parameters: the
+	 * search text, three times.
+	 */
+	static final String UPSERT_SEARCH_TEXT = "INSERT OR REPLACE INTO " + TABLE_NAME + " (" +
+			COL_SEARCH_ID + ", " + COL_SEARCH_TEXT + ", " + COL_SEARCH_DATE + ", " + COL_SEARCH_COUNT.name() + ") VALUES (" +
+			"(SELECT " + COL_SEARCH_ID + " FROM " + TABLE_NAME + " WHERE " + COL_SEARCH_TEXT + " = ?), ?, datetime('now','localtime'), " +
+			"coalesce((SELECT " + COL_SEARCH_COUNT.name() + " FROM " + TABLE_NAME + " WHERE " + COL_SEARCH_TEXT + " = ?), 0) + 1)";
+
+	/**
+	 * Every stored search, with the date as the number of milliseconds since the epoch.
+	 */
+	static final String QUERY_ALL = "SELECT " + COL_SEARCH_ID + ", " + COL_SEARCH_TEXT + ", " +
+			"CAST(strftime('%s', " + COL_SEARCH_DATE + ", 'utc') AS INTEGER) * 1000, " + COL_SEARCH_COUNT.name() +
+			" FROM " + TABLE_NAME;
 
 	public static String getCreateStatement() {
 		return "CREATE TABLE " + TABLE_NAME + " (" +
@@ -17,4 +43,20 @@ public class SearchHistoryTable {
 						" )";
 	}
 
+	static void addSearchCountColumn(SQLiteDatabase db) {
+		SQLiteHelper.addColumn(db, TABLE_NAME, COL_SEARCH_COUNT);
+	}
+
+	/**
+	 * Merge the duplicated search texts - keeping the latest one, with the number of duplicates as its counter -,
+	 * and create a unique index on the search text.
+	 */
+	static void addUniqueTextIndex(SQLiteDatabase db) {
+		db.execSQL("UPDATE " + TABLE_NAME + " SET " + COL_SEARCH_COUNT.name() + " = (SELECT COUNT(*) FROM " + TABLE_NAME + " t2 WHERE t2." +
+				COL_SEARCH_TEXT + " = " + TABLE_NAME + "." + COL_SEARCH_TEXT + ")");
+		db.execSQL("DELETE FROM " + TABLE_NAME + " WHERE " + COL_SEARCH_TEXT + " IS NULL OR " + COL_SEARCH_ID + " NOT IN (SELECT MAX(" +
+				COL_SEARCH_ID + ") FROM " + TABLE_NAME + " GROUP BY " + COL_SEARCH_TEXT + ")");
+		db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS " + IDX_SEARCH_TEXT + " ON " + TABLE_NAME + "(" + COL_SEARCH_TEXT + ")");
+	}
+
 }
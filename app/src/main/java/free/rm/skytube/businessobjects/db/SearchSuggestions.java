@@ -0,0 +1,164 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-memory copy of the search history, which serves the search suggestions without querying the database.
+ * Every word of a search text is indexed as a prefix, and the matching texts are ranked by how often and how
+ * recently they were searched for.
+ */
+public class SearchSuggestions {
+    /** The weight of a search halves after this time. */
+    static final long HALF_LIFE_MS = TimeUnit.DAYS.toMillis(14);
+
+    /**
+     * A previously searched text.
+     */
+    public static class Entry {
+        final long id;
+        final String text;
+        long lastUsed;
+        int count;
+
+        Entry(long id, @NonNull String text, long lastUsed, int count) {
+            this.id = id;
+            this.text = text;
+            this.lastUsed = lastUsed;
+            this.count = count;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        @NonNull
+        public String getText() {
+            return text;
+        }
+
+        double score(long now) {
+            return count * Math.pow(0.5, Math.max(0, now - lastUsed) / (double) HALF_LIFE_MS);
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    /** The entries by the lower case text starting at each word of the search text. */
+    private final TreeMap<String, Set<Entry>> prefixes = new TreeMap<>();
+
+    /**
+     * Add or replace the entry with the same text.
+     */
+    public synchronized void put(long id, @NonNull String text, long lastUsed, int count) {
+        remove(text);
+        final Entry entry = new Entry(id, text, lastUsed, count);
+        entries.put(text, entry);
+        for (String key : getKeys(text)) {
+            prefixes.computeIfAbsent(key, k -> new HashSet<>()).add(entry);
+        }
+    }
+
+    /**
+     * Register a new usage of the text.
+     * @return false, if the text is not known yet.
+     */
+    public synchronized boolean touch(@NonNull String text, long now, boolean increment) {
+        final Entry entry = entries.get(text);
+        if (entry == null) {
+            return false;
+        }
+        entry.lastUsed = now;
+        if (increment) {
+            entry.count++;
+        }
+        return true;
+    }
+
+    public synchronized void remove(@NonNull String text) {
+        final Entry entry = entries.remove(text);
+        if (entry != null) {
+            for (String key : getKeys(text)) {
+                final Set<Entry> set = prefixes.get(key);
+                if (set != null) {
+                    set.remove(entry);
+                    if (set.isEmpty()) {
+                        prefixes.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        prefixes.clear();
+    }
+
+    /**
+     * @return at most limit texts, which have a word starting with the given text, the best ranked first. For an
+     * empty text, the best ranked texts are returned.
+     */
+    @NonNull
+    public synchronized List<Entry> find(@Nullable String text, int limit, long now) {
+        final String prefix = text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+        final Collection<Entry> candidates;
+        if (prefix.isEmpty()) {
+            candidates = entries.values();
+        } else {
+            candidates = new HashSet<>();
+            for (Set<Entry> set : prefixes.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                candidates.addAll(set);
+            }
+        }
+        final List<Entry> result = new ArrayList<>(candidates);
+        Collections.sort(result, Comparator.comparingDouble((Entry entry) -> entry.score(now)).reversed()
+                .thenComparing(Comparator.comparingLong((Entry entry) -> entry.lastUsed).reversed()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * @return the lower case text, starting from each of its words.
+     */
+    private static Set<String> getKeys(String text) {
+        final String lowerCase = text.trim().toLowerCase(Locale.ROOT);
+        final Set<String> keys = new HashSet<>();
+        for (int i = 0; i < lowerCase.length(); i++) {
+            if (Character.isLetterOrDigit(lowerCase.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(lowerCase.charAt(i - 1)))) {
+                keys.add(lowerCase.substring(i));
+            }
+        }
+        if (keys.isEmpty()) {
+            keys.add(lowerCase);
+        }
+        return keys;
+    }
+}
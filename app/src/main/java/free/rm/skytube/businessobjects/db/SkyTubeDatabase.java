@@ -0,0 +1,332 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+
+import com.github.skytube.components.utils.SQLiteHelper;
+import com.github.skytube.components.utils.Stopwatch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+
+/**
+ * The single database of the app, which holds the tables of every {@link DatabaseModule}, so they share one
+ * connection pool and page cache, and the features can be joined in the queries.
+ */
+public final class SkyTubeDatabase extends SQLiteOpenHelperEx {
+    private static volatile SkyTubeDatabase skyTubeDatabase = null;
+
+    private static final int DATABASE_VERSION = 1;
+    private static final String DATABASE_NAME = "skytube.db";
+    /** The page cache of the connection, in KiB. */
+    private static final int CACHE_SIZE_KB = 8 * 1024;
+    /** The part of the database file, which is read through memory mapping - ignored by the older SQLite versions. */
+    private static final long MMAP_SIZE = 32L * 1024 * 1024;
+
+    private static final String SCHEMA_VERSION_TABLE = "SchemaVersion";
+    private static final String COL_MODULE = "module";
+    private static final String COL_VERSION = "version";
+    private static final String GET_SCHEMA_VERSION = "SELECT " + COL_VERSION + " FROM " + SCHEMA_VERSION_TABLE + " WHERE " + COL_MODULE + " = ?";
+    private static final String SET_SCHEMA_VERSION = "INSERT OR REPLACE INTO " + SCHEMA_VERSION_TABLE + " (" + COL_MODULE + ", " + COL_VERSION + ") VALUES (?, ?)";
+    private static final String TABLE_EXISTS = "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = ?";
+    private static final String GET_LEGACY_SCHEMA = "SELECT type, name, sql FROM sqlite_master WHERE sql IS NOT NULL AND substr(name, 1, 7) <> 'sqlite_' AND name <> 'android_metadata'";
+
+    private SkyTubeDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized SkyTubeDatabase getInstance() {
+        if (skyTubeDatabase == null) {
+            skyTubeDatabase = new SkyTubeDatabase(SkyTubeApp.getContext());
+        }
+        return skyTubeDatabase;
+    }
+
+    /**
+     * @return Every module, which has tables in the database.
+     */
+    private static DatabaseModule[] getModules() {
+        return new DatabaseModule[] {
+                SubscriptionsDb.getSubscriptionsDb(),
+                BookmarksDb.getBookmarksDb(),
+                PlaybackStatusDb.getPlaybackStatusDb(),
+                DownloadedVideosDb.getVideoDownloadsDb(),
+                ChannelFilteringDb.getChannelFilteringDb(),
+                SearchHistoryDb.getSearchHistoryDb(),
+                SponsorBlockDb.getSponsorBlockDb(),
+                PageSnapshotDb.getPageSnapshotDb()
+        };
+    }
+
+    /**
+     * Delete the content of the device-local tables - see {@link DatabaseModule#getDeviceLocalTables()} - in a copy of
+     * the database, which is not opened by this helper: e.g. an exported, or an imported backup.
+     */
+    public static void clearDeviceLocalTables(File databaseFile) {
+        final SQLiteDatabase db = SQLiteDatabase.openDatabase(databaseFile.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+        try {
+            db.beginTransaction();
+            try {
+                for (DatabaseModule module : getModules()) {
+                    for (String table : module.getDeviceLocalTables()) {
+                        // an older backup might not have the table yet
+                        if (SQLiteHelper.executeQueryForInteger(db, TABLE_EXISTS, new String[] {table}, 0) > 0) {
+                            db.delete(table, null, null);
+                        }
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            // the deleted rows shouldn't stay in the free pages of the file
+            db.execSQL("VACUUM");
+        } finally {
+            db.close();
+        }
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // only effective for a new database, the existing ones are converted by the first compact()
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        executePragma(db, "PRAGMA cache_size = -" + CACHE_SIZE_KB);
+        executePragma(db, "PRAGMA mmap_size = " + MMAP_SIZE);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + SCHEMA_VERSION_TABLE + " (" + COL_MODULE + " TEXT PRIMARY KEY NOT NULL, " + COL_VERSION + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        for (DatabaseModule module : getModules()) {
+            setUpModule(db, module);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (DatabaseModule module : getModules()) {
+            module.onClose();
+        }
+        super.close();
+    }
+
+    @Override
+    protected void onFullVacuum(SQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            for (DatabaseModule module : getModules()) {
+                module.onRowidsChanged(db);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Create or upgrade the tables of the module - or replace them with the content of its legacy database file,
+     * if there is one, e.g. after a backup of an older version was imported.
+     */
+    private void setUpModule(SQLiteDatabase db, DatabaseModule module) {
+        final File legacyFile = new File(getDatabaseDirectory(), module.getName());
+        if (legacyFile.exists()) {
+            migrateLegacyFile(db, module, legacyFile);
+        }
+        final int version = SQLiteHelper.executeQueryForInteger(db, GET_SCHEMA_VERSION, new String[] {module.getName()}, 0);
+        if (version == module.getVersion()) {
+            return;
+        }
+        if (version > module.getVersion()) {
+            throw new SQLiteException("Can't downgrade " + module.getName() + " from version " + version + " to " + module.getVersion());
+        }
+        db.beginTransaction();
+        try {
+            if (version == 0) {
+                module.onCreate(db);
+            } else {
+                Logger.i(this, "Upgrade %s from %s to %s", module.getName(), version, module.getVersion());
+                module.onUpgrade(db, version, module.getVersion());
+            }
+            setSchemaVersion(db, module);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upgrade the legacy database file of the module to the current version, copy its tables into the shared
+     * database - replacing the existing ones -, and delete the file.
+     */
+    private void migrateLegacyFile(SQLiteDatabase db, DatabaseModule module, File legacyFile) {
+        try (Stopwatch s = new Stopwatch("migrate " + legacyFile)) {
+            final SQLiteDatabase legacy = SQLiteDatabase.openDatabase(legacyFile.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+            try {
+                final int legacyVersion = legacy.getVersion();
+                if (legacyVersion > module.getVersion()) {
+                    throw new SQLiteException("Can't downgrade " + legacyFile + " from version " + legacyVersion + " to " + module.getVersion());
+                }
+                if (legacyVersion > 0) {
+                    if (legacyVersion < module.getVersion()) {
+                        legacy.beginTransaction();
+                        try {
+                            module.onUpgrade(legacy, legacyVersion, module.getVersion());
+                            legacy.setVersion(module.getVersion());
+                            legacy.setTransactionSuccessful();
+                        } finally {
+                            legacy.endTransaction();
+                        }
+                    }
+                    db.beginTransaction();
+                    try {
+                        copyTables(legacy, db);
+                        module.onRowidsChanged(db);
+                        setSchemaVersion(db, module);
+                        db.setTransactionSuccessful();
+                    } finally {
+                        db.endTransaction();
+                    }
+                }
+            } finally {
+                legacy.close();
+            }
+        }
+        if (!SQLiteDatabase.deleteDatabase(legacyFile)) {
+            Logger.w(this, "Unable to delete %s", legacyFile);
+        }
+    }
+
+    private static void setSchemaVersion(SQLiteDatabase db, DatabaseModule module) {
+        db.execSQL(SET_SCHEMA_VERSION, new Object[] {module.getName(), module.getVersion()});
+    }
+
+    /**
+     * Copy the schema and the rows of every table. The virtual tables are only created, as their content is
+     * derived from the other tables, see {@link DatabaseModule#onRowidsChanged(SQLiteDatabase)}.
+     */
+    private void copyTables(SQLiteDatabase from, SQLiteDatabase to) {
+        final List<String[]> tables = new ArrayList<>();
+        final List<String[]> virtualTables = new ArrayList<>();
+        final List<String[]> others = new ArrayList<>();
+        try (Cursor cursor = from.rawQuery(GET_LEGACY_SCHEMA, null)) {
+            while (cursor.moveToNext()) {
+                final String[] object = {cursor.getString(0), cursor.getString(1), cursor.getString(2)};
+                if (!"table".equals(object[0])) {
+                    others.add(object);
+                } else if (object[2].toUpperCase(Locale.ROOT).startsWith("CREATE VIRTUAL TABLE")) {
+                    virtualTables.add(object);
+                } else {
+                    tables.add(object);
+                }
+            }
+        }
+        // the shadow tables of the virtual tables are created together with them
+        final Set<String> shadowTables = new HashSet<>();
+        for (String[] table : tables) {
+            for (String[] virtualTable : virtualTables) {
+                if (table[1].startsWith(virtualTable[1] + '_')) {
+                    shadowTables.add(table[1]);
+                }
+            }
+        }
+        for (String[] table : virtualTables) {
+            to.execSQL("DROP TABLE IF EXISTS \"" + table[1] + '"');
+        }
+        for (String[] table : tables) {
+            if (!shadowTables.contains(table[1])) {
+                to.execSQL("DROP TABLE IF EXISTS \"" + table[1] + '"');
+                to.execSQL(table[2]);
+                final int rows = copyRows(from, to, table[1]);
+                Logger.i(this, "Copied %s rows of %s", rows, table[1]);
+            }
+        }
+        for (String[] table : virtualTables) {
+            to.execSQL(table[2]);
+        }
+        for (String[] object : others) {
+            if ("view".equals(object[0])) {
+                to.execSQL("DROP VIEW IF EXISTS \"" + object[1] + '"');
+            }
+            to.execSQL(object[2]);
+        }
+    }
+
+    private static int copyRows(SQLiteDatabase from, SQLiteDatabase to, String table) {
+        int rows = 0;
+        try (Cursor cursor = from.rawQuery("SELECT * FROM \"" + table + '"', null)) {
+            final String[] columns = cursor.getColumnNames();
+            final StringBuilder insert = new StringBuilder("INSERT INTO \"").append(table).append("\" (");
+            for (int i = 0; i < columns.length; i++) {
+                insert.append(i > 0 ? ", \"" : "\"").append(columns[i]).append('"');
+            }
+            insert.append(") VALUES (");
+            for (int i = 0; i < columns.length; i++) {
+                insert.append(i > 0 ? ", ?" : "?");
+            }
+            insert.append(')');
+            try (SQLiteStatement statement = to.compileStatement(insert.toString())) {
+                while (cursor.moveToNext()) {
+                    statement.clearBindings();
+                    for (int i = 0; i < columns.length; i++) {
+                        switch (cursor.getType(i)) {
+                            case Cursor.FIELD_TYPE_NULL:
+                                statement.bindNull(i + 1);
+                                break;
+                            case Cursor.FIELD_TYPE_INTEGER:
+                                statement.bindLong(i + 1, cursor.getLong(i));
+                                break;
+                            case Cursor.FIELD_TYPE_FLOAT:
+                                statement.bindDouble(i + 1, cursor.getDouble(i));
+                                break;
+                            case Cursor.FIELD_TYPE_BLOB:
+                                statement.bindBlob(i + 1, cursor.getBlob(i));
+                                break;
+                            default:
+                                statement.bindString(i + 1, cursor.getString(i));
+                                break;
+                        }
+                    }
+                    statement.executeInsert();
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.JsonSerializer;
+import free.rm.skytube.businessobjects.Sponsorblock.SBVideoInfo;
+
+/**
+ * A database (DB) that caches the SponsorBlock segments of the videos.
+ */
+public class SponsorBlockDb extends DatabaseModule {
+    private static volatile SponsorBlockDb sponsorBlockDb = null;
+
+    private static final int DATABASE_VERSION = 1;
+    private static final String DATABASE_NAME = "sponsorBlock.db";
+    /** Stays well below the limit of the bound parameters of the older SQLite versions (999). */
+    private static final int MAX_QUERY_PARAMETERS = 500;
+
+    private final JsonSerializer jsonSerializer = new JsonSerializer();
+
+    /**
+     * The cached segments of a video.
+     */
+    public static final class Entry {
+        /** The segments, or null, if the video has none. */
+        public final SBVideoInfo info;
+        public final long fetched;
+
+        Entry(SBVideoInfo info, long fetched) {
+            this.info = info;
+            this.fetched = fetched;
+        }
+    }
+
+    private SponsorBlockDb() {
+        super(DATABASE_NAME, DATABASE_VERSION);
+    }
+
+    public static synchronized SponsorBlockDb getSponsorBlockDb() {
+        if (sponsorBlockDb == null) {
+            sponsorBlockDb = new SponsorBlockDb();
+        }
+        return sponsorBlockDb;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(SponsorBlockTable.getCreateStatement());
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    @Override
+    protected String[] getDeviceLocalTables() {
+        return new String[] {SponsorBlockTable.TABLE_NAME};
+    }
+
+    /**
+     * @return The cached entries of the given videos - the videos, which were never fetched, are missing.
+     */
+    public Map<String, Entry> get(Collection<String> videoIds) {
+        SkyTubeApp.nonUiThread();
+        final Map<String, Entry> result = new HashMap<>();
+        final List<String> ids = new ArrayList<>(videoIds);
+        for (int start = 0; start < ids.size(); start += MAX_QUERY_PARAMETERS) {
+            final List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_QUERY_PARAMETERS));
+            final String selection = SponsorBlockTable.COL_VIDEO_ID + " IN (" + TextUtils.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (Cursor cursor = getReadableDatabase().query(SponsorBlockTable.TABLE_NAME,
+                    new String[]{SponsorBlockTable.COL_VIDEO_ID, SponsorBlockTable.COL_SEGMENTS, SponsorBlockTable.COL_FETCHED},
+                    selection, chunk.toArray(new String[0]), null, null, null)) {
+                while (cursor.moveToNext()) {
+                    final byte[] blob = cursor.getBlob(1);
+                    final SBVideoInfo info = blob != null ? jsonSerializer.fromSponsorBlockJson(new String(blob, StandardCharsets.UTF_8)) : null;
+                    result.put(cursor.getString(0), new Entry(info, cursor.getLong(2)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store the result of a fetch in one transaction.
+     *
+     * @param fetched  The videos, which were requested.
+     * @param segments The segments of the videos, which have any.
+     */
+    public void put(Collection<String> fetched, Map<String, SBVideoInfo> segments, long now) {
+        SkyTubeApp.nonUiThread();
+        final SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            final ContentValues values = new ContentValues();
+            for (String videoId : fetched) {
+                final SBVideoInfo info = segments.get(videoId);
+                values.clear();
+                values.put(SponsorBlockTable.COL_VIDEO_ID, videoId);
+                if (info != null) {
+                    values.put(SponsorBlockTable.COL_SEGMENTS, jsonSerializer.toPersistedSponsorBlockJson(info).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    values.putNull(SponsorBlockTable.COL_SEGMENTS);
+                }
+                values.put(SponsorBlockTable.COL_FETCHED, now);
+                db.replace(SponsorBlockTable.TABLE_NAME, null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return The number of the deleted entries, which were fetched before the given time.
+     */
+    public int deleteFetchedBefore(long time) {
+        SkyTubeApp.nonUiThread();
+        return getWritableDatabase().delete(SponsorBlockTable.TABLE_NAME, SponsorBlockTable.DELETE_FETCHED_BEFORE,
+                new String[]{String.valueOf(time)});
+    }
+}
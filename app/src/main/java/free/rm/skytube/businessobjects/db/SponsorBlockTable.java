@@ -0,0 +1,39 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The SponsorBlock segments of the videos, as they were fetched - including the videos without any segments, so
+ * they are not requested again and again.
+ */
+public class SponsorBlockTable {
+	public static final String TABLE_NAME = "SponsorBlock";
+	public static final String COL_VIDEO_ID = "Video_Id";
+	/** The segments as JSON, or NULL, if the video has no segments. */
+	public static final String COL_SEGMENTS = "Segments";
+	public static final String COL_FETCHED = "Fetched";
+
+	static final String DELETE_FETCHED_BEFORE = String.format("%s < ?", COL_FETCHED);
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_VIDEO_ID + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_SEGMENTS + " BLOB, " +
+						COL_FETCHED + " INTEGER NOT NULL" +
+						" )";
+	}
+}
@@ -18,10 +18,11 @@
 package free.rm.skytube.businessobjects.db;
 
 import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 
 import com.github.skytube.components.utils.SQLiteHelper;
 import com.github.skytube.components.utils.Stopwatch;
@@ -37,12 +38,14 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -54,7 +57,9 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.ChannelView;
 import free.rm.skytube.businessobjects.YouTube.POJOs.PersistentChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.RefreshScheduler;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+import free.rm.skytube.businessobjects.YouTube.newpipe.FeedValidator;
 import free.rm.skytube.businessobjects.model.Status;
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
@@ -63,8 +68,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 /**
  * A database (DB) that stores user subscriptions (with respect to YouTube channels).
  */
-public class SubscriptionsDb extends SQLiteOpenHelperEx {
-    private static final String HAS_VIDEO_QUERY = String.format("SELECT COUNT(*) FROM %s WHERE %s = ?", SubscriptionsVideosTable.TABLE_NAME_V2, SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID);
+public class SubscriptionsDb extends DatabaseModule {
     private static final String GET_VIDEO_IDS_BY_CHANNEL_TO_PUBLISH_TS = String.format("SELECT %s,%s FROM %s WHERE %s = ?",
             SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID, SubscriptionsVideosTable.COL_PUBLISH_TIME.name(), SubscriptionsVideosTable.TABLE_NAME_V2, SubscriptionsVideosTable.COL_CHANNEL_ID);
     private static final String GET_VIDEO_IDS_BY_CHANNEL = String.format("SELECT %s FROM %s WHERE %s = ?",
@@ -77,23 +81,53 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 	private static final String SUBSCRIBED_CHANNEL_LIMIT_BY_TITLE = " and LOWER(c." +LocalChannelTable.COL_TITLE + ") like ?";
 
     private static final String GET_ALL_SUBSCRIBED_CHANNEL_ID = "SELECT s." + SubscriptionsTable.COL_CHANNEL_ID + " FROM " + SubscriptionsTable.TABLE_NAME + " s, " + LocalChannelTable.TABLE_NAME + " c where s.channel_pk = c._Id and c." + LocalChannelTable.COL_STATE.name() + " = 0";
+    private static final String GET_CHANNEL_REFRESH_STATES = "SELECT s." + SubscriptionsTable.COL_CHANNEL_ID + ", s." + SubscriptionsTable.COL_LAST_VIDEO_FETCH + ", c." + LocalChannelTable.COL_LAST_VIDEO_TS + ", c." + LocalChannelTable.COL_ID.name() +
+            " FROM " + SubscriptionsTable.TABLE_NAME + " s, " + LocalChannelTable.TABLE_NAME + " c where s.channel_pk = c._Id and c." + LocalChannelTable.COL_STATE.name() + " = 0";
+    private static final String GET_RECENT_UPLOADS = "SELECT " + SubscriptionsVideosTable.COL_CHANNEL_PK.name() + ", " + SubscriptionsVideosTable.COL_PUBLISH_TIME.name() +
+            " FROM " + SubscriptionsVideosTable.TABLE_NAME_V2 + " WHERE " + SubscriptionsVideosTable.COL_PUBLISH_TIME.name() + " > ? ORDER BY " + SubscriptionsVideosTable.COL_PUBLISH_TIME.name() + " DESC";
 	private static final String IS_SUBSCRIBED_QUERY = String.format("SELECT EXISTS(SELECT %s FROM %s WHERE %s =?) AS VAL ", SubscriptionsTable.COL_ID, SubscriptionsTable.TABLE_NAME, SubscriptionsTable.COL_CHANNEL_ID);
 
     private static final String GET_PK_FROM_CHANNEL_ID = "SELECT " + LocalChannelTable.COL_ID.name() + " FROM " + LocalChannelTable.TABLE_NAME + " WHERE " + LocalChannelTable.COL_CHANNEL_ID.name() + " = ?";
 
 	private static volatile SubscriptionsDb subscriptionsDb = null;
 
-    private static final int DATABASE_VERSION = 18;
+    private static final int DATABASE_VERSION = 23;
 
     private static final String DATABASE_NAME = "subs.db";
+    /** Only the uploads in this period are used to calculate the upload frequency of the channels. */
+    private static final long UPLOAD_HISTORY_MS = TimeUnit.DAYS.toMillis(365);
+    /** SQLite on older Android versions doesn't accept more than 999 parameters in a query. */
+    private static final int MAX_QUERY_PARAMETERS = 500;
+    private static final int FEED_PAGE_SIZE = 20;
+    /**
+     * The latest videos of a channel are never deleted by the retention policy: a channel refresh fetches about this
+     * many videos, so they would be inserted again.
+     */
+    private static final int MIN_VIDEOS_KEPT_PER_CHANNEL = 30;
+    /** The number of feed pages, which are kept in memory, from the top of the feed. */
+    private static final int FEED_CACHED_PAGES = 10;
+
+    private final FeedPageCache<YouTubeVideo> feedCache = new FeedPageCache<>(new FeedPageCache.Loader<YouTubeVideo>() {
+        @NonNull
+        @Override
+        public List<YouTubeVideo> loadPage(int limit, @Nullable String afterId, long afterPublishTime) {
+            return getSubscriptionVideoPage(limit, afterId, afterPublishTime);
+        }
+
+        @NonNull
+        @Override
+        public List<YouTubeVideo> loadHead(long minPublishTime, int limit) {
+            return getSubscriptionVideoHead(minPublishTime, limit);
+        }
+    }, runnable -> Schedulers.io().scheduleDirect(runnable), FEED_PAGE_SIZE, FEED_CACHED_PAGES);
 
-    private SubscriptionsDb(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private SubscriptionsDb() {
+        super(DATABASE_NAME, DATABASE_VERSION);
     }
 
 	public static synchronized SubscriptionsDb getSubscriptionsDb() {
 		if (subscriptionsDb == null) {
-			subscriptionsDb = new SubscriptionsDb(SkyTubeApp.getContext());
+			subscriptionsDb = new SubscriptionsDb();
 		}
 
 		return subscriptionsDb;
@@ -103,9 +137,13 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(SubscriptionsTable.getCreateStatement());
         SubscriptionsVideosTable.addNewFlatTable(db, false);
-        SubscriptionsVideosTable.addPublishTimeIndex(db);
+        SubscriptionsVideosTable.addFeedIndex(db);
+        SubscriptionsVideosTable.addChannelIndex(db);
         db.execSQL(LocalChannelTable.getCreateStatement(true));
         LocalChannelTable.addChannelIdIndex(db);
+        LocalChannelTable.addFeedValidatorColumns(db);
+        SubscriptionsVideosTable.addDetectedLanguageColumn(db);
+        SubscriptionsVideosTable.addSearchIndex(db);
         db.execSQL(CategoriesTable.getCreateStatement());
         new CategoryManagement(db).setupDefaultCategories();
     }
@@ -182,6 +220,33 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
             SubscriptionsTable.addChannelIdColumn(db);
             LocalChannelTable.addStateColumn(db);
         }
+        if (upgrade.executeStep(19)) {
+            LocalChannelTable.addFeedValidatorColumns(db);
+        }
+        if (upgrade.executeStep(20)) {
+            SubscriptionsVideosTable.addDetectedLanguageColumn(db);
+        }
+        if (upgrade.executeStep(21)) {
+            Logger.w(this, "Create full-text index on subscription_videos");
+            SubscriptionsVideosTable.addSearchIndex(db);
+        }
+        if (upgrade.executeStep(22)) {
+            SubscriptionsVideosTable.addFeedIndex(db);
+        }
+        if (upgrade.executeStep(23)) {
+            SubscriptionsVideosTable.addChannelIndex(db);
+        }
+    }
+
+    @Override
+    protected void onRowidsChanged(SQLiteDatabase db) {
+        // the full-text index refers to the rowids of the videos
+        SubscriptionsVideosTable.rebuildSearchIndex(db);
+    }
+
+    @Override
+    protected void onClose() {
+        feedCache.invalidate();
     }
 
     private void normalizeSubscriptionVideosTable(final SQLiteDatabase db) {
@@ -359,6 +424,7 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         getWritableDatabase().delete(SubscriptionsVideosTable.TABLE_NAME_V2,
                 SubscriptionsVideosTable.COL_SUBS_ID.name() + " = ?",
                 toArray(channel.subscriptionPk()));
+        feedCache.invalidate();
 
         // remove this channel from the subscriptions DB
         int rowsDeleted = getWritableDatabase().delete(SubscriptionsTable.TABLE_NAME,
@@ -371,9 +437,52 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		return (rowsDeleted >= 0) ? DatabaseResult.SUCCESS : DatabaseResult.NOT_MODIFIED;
 	}
 
+    /**
+     * Delete the videos of the channels, which are not subscribed anymore, and the videos of each channel, which are
+     * expired according to the retention policy. The latest {@link #MIN_VIDEOS_KEPT_PER_CHANNEL} videos of a channel
+     * are always kept.
+     *
+     * @param minPublishTimestamp   The videos published before this time are deleted, 0 to keep them.
+     * @param maxVideosPerChannel   The maximum number of videos kept of a channel, 0 for unlimited.
+     * @return The number of deleted videos.
+     */
+    public int deleteExpiredVideos(long minPublishTimestamp, int maxVideosPerChannel) {
+        SkyTubeApp.nonUiThread();
+        SQLiteDatabase db = getWritableDatabase();
+        List<Long> channelPks = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(SubscriptionsVideosTable.QUERY_CHANNELS_WITH_VIDEOS, null)) {
+            while (cursor.moveToNext()) {
+                channelPks.add(cursor.getLong(0));
+            }
+        }
+        int deleted = 0;
+        try (Stopwatch s = new Stopwatch("deleteExpiredVideos channels=" + channelPks.size())) {
+            db.beginTransaction();
+            try (SQLiteStatement deleteUnsubscribed = db.compileStatement(SubscriptionsVideosTable.DELETE_UNSUBSCRIBED_VIDEOS);
+                 SQLiteStatement deleteExpired = db.compileStatement(SubscriptionsVideosTable.DELETE_EXPIRED_VIDEOS)) {
+                deleted += deleteUnsubscribed.executeUpdateDelete();
+                for (long channelPk : channelPks) {
+                    deleteExpired.bindLong(1, channelPk);
+                    deleteExpired.bindLong(2, MIN_VIDEOS_KEPT_PER_CHANNEL);
+                    deleteExpired.bindLong(3, minPublishTimestamp);
+                    deleteExpired.bindLong(4, maxVideosPerChannel <= 0 ? -1 : Math.max(maxVideosPerChannel, MIN_VIDEOS_KEPT_PER_CHANNEL));
+                    deleted += deleteExpired.executeUpdateDelete();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        if (deleted > 0) {
+            feedCache.invalidate();
+        }
+        return deleted;
+    }
+
 	public void unsubscribeFromAllChannels() {
 		getWritableDatabase().delete(SubscriptionsVideosTable.TABLE_NAME_V2,null,null);
 		getWritableDatabase().delete(SubscriptionsTable.TABLE_NAME,null,null);
+		feedCache.invalidate();
 	}
 
 	/**
@@ -413,6 +522,18 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
                 values,
                 SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID_EQUALS_TO,
                 new String[] { video.getId() });
+        markFeedChanged(video);
+    }
+
+    /**
+     * Let the cached feed pages know, that the video was updated.
+     */
+    private void markFeedChanged(YouTubeVideo video) {
+        if (video.getPublishTimestamp() != null) {
+            feedCache.markChanged(video.getId(), video.getPublishTimestamp());
+        } else {
+            feedCache.invalidate();
+        }
     }
 
     private ContentValues convertToContentValues(final YouTubeVideo video, @Nullable PersistentChannel persistentChannel) {
@@ -454,11 +575,13 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         ContentValues values = new ContentValues();
         values.put(SubscriptionsVideosTable.COL_PUBLISH_TIME.name(), video.getPublishTimestamp());
 
-        return getWritableDatabase().update(
+        final int count = getWritableDatabase().update(
                 SubscriptionsVideosTable.TABLE_NAME_V2,
                 values,
                 SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID_EQUALS_TO,
                 new String[] { video.getId() });
+        markFeedChanged(video);
+        return count;
     }
 
 	private List<ChannelId> getSubscribedChannelIds() {
@@ -477,6 +600,107 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 				.subscribeOn(Schedulers.io());
 	}
 
+    /**
+     * Return the subscribed channels which are due for a refresh, based on their upload history.
+     * @param fullSweep return all the subscribed channels, the most overdue ones first.
+     */
+    public Single<List<ChannelId>> getChannelIdsToRefreshAsync(boolean fullSweep) {
+        return Single.fromCallable(() -> getChannelIdsToRefresh(fullSweep))
+                .subscribeOn(Schedulers.io());
+    }
+
+    private List<ChannelId> getChannelIdsToRefresh(boolean fullSweep) {
+        SkyTubeApp.nonUiThread();
+        final long now = System.currentTimeMillis();
+        final SQLiteDatabase db = getReadableDatabase();
+        final Map<Long, RefreshScheduler.ChannelState> states = new HashMap<>();
+        try (Cursor cursor = db.rawQuery(GET_CHANNEL_REFRESH_STATES, null)) {
+            while (cursor.moveToNext()) {
+                final ChannelId channelId = new ChannelId(cursor.getString(0));
+                final long lastCheck = cursor.isNull(1) ? 0 : cursor.getLong(1);
+                final Long lastVideo = cursor.isNull(2) ? null : cursor.getLong(2);
+                states.put(cursor.getLong(3), new RefreshScheduler.ChannelState(channelId, lastCheck, lastVideo));
+            }
+        }
+        try (Cursor cursor = db.rawQuery(GET_RECENT_UPLOADS, toArray(now - UPLOAD_HISTORY_MS))) {
+            while (cursor.moveToNext()) {
+                final RefreshScheduler.ChannelState state = states.get(cursor.getLong(0));
+                if (state != null) {
+                    state.addUpload(cursor.getLong(1));
+                }
+            }
+        }
+        final List<ChannelId> result = RefreshScheduler.schedule(new ArrayList<>(states.values()), now, fullSweep);
+        Logger.i(this, "Channels to refresh: %s from %s, full sweep: %s", result.size(), states.size(), fullSweep);
+        return result;
+    }
+
+    /**
+     * Record that the channel was checked for new videos just now, even if nothing new was found.
+     */
+    public void setChannelChecked(@NonNull ChannelId channelId) {
+        SkyTubeApp.nonUiThread();
+        SubscriptionsTable.updateLastVideoFetchTimestamp(getWritableDatabase(), channelId);
+    }
+
+    /**
+     * @return the state of the last downloaded feed of the channel, to make conditional requests possible.
+     */
+    public FeedValidator getFeedValidator(@NonNull ChannelId channelId) {
+        SkyTubeApp.nonUiThread();
+        return LocalChannelTable.getFeedValidator(getReadableDatabase(), channelId);
+    }
+
+    public void saveFeedValidator(@NonNull ChannelId channelId, @NonNull FeedValidator validator) {
+        SkyTubeApp.nonUiThread();
+        LocalChannelTable.updateFeedValidator(getWritableDatabase(), channelId, validator);
+    }
+
+    /**
+     * @return the previously detected languages of the given subscription videos, by video id.
+     */
+    @NonNull
+    public Map<String, String> getDetectedLanguages(@NonNull List<String> videoIds) {
+        SkyTubeApp.nonUiThread();
+        final SQLiteDatabase db = getReadableDatabase();
+        final Map<String, String> result = new HashMap<>();
+        for (int start = 0; start < videoIds.size(); start += MAX_QUERY_PARAMETERS) {
+            final List<String> chunk = videoIds.subList(start, Math.min(videoIds.size(), start + MAX_QUERY_PARAMETERS));
+            final String query = "SELECT " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + ',' + SubscriptionsVideosTable.COL_DETECTED_LANGUAGE.name() +
+                    " FROM " + SubscriptionsVideosTable.TABLE_NAME_V2 + " WHERE " + SubscriptionsVideosTable.COL_DETECTED_LANGUAGE.name() + " IS NOT NULL AND " +
+                    SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " IN (" + TextUtils.join(",", Collections.nCopies(chunk.size(), "?")) + ')';
+            try (Cursor cursor = db.rawQuery(query, chunk.toArray(new String[0]))) {
+                while (cursor.moveToNext()) {
+                    result.put(cursor.getString(0), cursor.getString(1));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store the detected languages of the videos, it's a no-op for the videos which are not in the subscription feed.
+     */
+    public void saveDetectedLanguages(@NonNull Map<String, String> languagesByVideoId) {
+        if (languagesByVideoId.isEmpty()) {
+            return;
+        }
+        SkyTubeApp.nonUiThread();
+        final SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement update = db.compileStatement("UPDATE " + SubscriptionsVideosTable.TABLE_NAME_V2 + " SET " +
+                SubscriptionsVideosTable.COL_DETECTED_LANGUAGE.name() + " = ? WHERE " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID_EQUALS_TO)) {
+            for (Map.Entry<String, String> entry : languagesByVideoId.entrySet()) {
+                update.bindString(1, entry.getValue());
+                update.bindString(2, entry.getKey());
+                update.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     public void setChannelState(@NonNull ChannelId channelId, @NonNull Status status) {
         Logger.i(this, "Set channel id=%s state to %s", channelId, status);
         SkyTubeApp.nonUiThread();
@@ -580,49 +804,124 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         }).subscribeOn(Schedulers.io());
     }
     
-    private boolean hasVideo(YouTubeVideo video) {
-        return SQLiteHelper.executeQueryForInteger(getReadableDatabase(), HAS_VIDEO_QUERY, new String[]{video.getId()}, 0) > 0;
+    /**
+     * @return The rowid of the latest inserted video - the videos inserted later have greater rowids.
+     */
+    public long getLastVideoRowid() {
+        SkyTubeApp.nonUiThread();
+        try (Cursor cursor = getReadableDatabase().rawQuery(SubscriptionsVideosTable.QUERY_LAST_ROWID, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
     }
 
-	/**
-	 * Loop through each video saved in the passed {@link YouTubeChannel} and insert it into the database, or update it.
-	 * @param videos the list of videos
+    /**
+     * @return The thumbnail URLs of the videos inserted after the given rowid - see {@link #getLastVideoRowid()} -,
+     * the latest videos first, and then the thumbnails of their channels.
+     */
+    public List<String> getThumbnailsInsertedAfter(long rowid) {
+        SkyTubeApp.nonUiThread();
+        final List<String> urls = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(SubscriptionsVideosTable.QUERY_THUMBNAILS_INSERTED_AFTER,
+                new String[]{String.valueOf(rowid)})) {
+            while (cursor.moveToNext()) {
+                urls.add(cursor.getString(0));
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Insert or update each video of the given channel, in a single transaction, with precompiled statements.
+     * @param videos the list of videos
      * @param persistentChannel information about the persisted channel.
-	 */
-	public void saveChannelVideos(Collection<YouTubeVideo> videos, PersistentChannel persistentChannel, boolean doUpdate) {
+     * @param doUpdate update the already stored videos with the fresh values, or just leave them as is.
+     */
+    public void saveChannelVideos(Collection<YouTubeVideo> videos, PersistentChannel persistentChannel, boolean doUpdate) {
         SkyTubeApp.nonUiThread();
         SQLiteDatabase db = getWritableDatabase();
         long latestPublishTimestamp = 0;
-
-        for (YouTubeVideo video : videos) {
-            if (video.getPublishTimestamp() != null) {
-                latestPublishTimestamp = Math.max(latestPublishTimestamp, video.getPublishTimestamp());
-                ContentValues values = createContentValues(video, persistentChannel);
-                if (hasVideo(video)) {
-                    if (doUpdate) {
-                        values.remove(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID);
-                        db.update(SubscriptionsVideosTable.TABLE_NAME_V2,
-                                values,
-                                SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID_EQUALS_TO,
-                                new String[]{video.getId()});
+        long oldestChangedTimestamp = Long.MAX_VALUE;
+        int inserted = 0;
+        // the cached pages are only told after the commit, otherwise a reload could read the old rows, and clear the mark
+        final Map<String, Long> updatedVideos = new HashMap<>();
+
+        try (Stopwatch s = new Stopwatch("saveChannelVideos " + persistentChannel.getChannelId() + " videos=" + videos.size())) {
+            db.beginTransaction();
+            try (SQLiteStatement insert = db.compileStatement(SubscriptionsVideosTable.INSERT_VIDEO);
+                 SQLiteStatement update = doUpdate ? db.compileStatement(SubscriptionsVideosTable.UPDATE_VIDEO) : null) {
+                for (YouTubeVideo video : videos) {
+                    if (video.getPublishTimestamp() != null) {
+                        latestPublishTimestamp = Math.max(latestPublishTimestamp, video.getPublishTimestamp());
+                        bindVideo(insert, video, persistentChannel);
+                        if (insert.executeInsert() != -1) {
+                            inserted++;
+                            oldestChangedTimestamp = Math.min(oldestChangedTimestamp, video.getPublishTimestamp());
+                        } else if (update != null) {
+                            bindVideo(update, video, persistentChannel);
+                            if (update.executeUpdateDelete() > 0) {
+                                updatedVideos.put(video.getId(), video.getPublishTimestamp());
+                            }
+                        }
                     }
-                } else {
-                    db.insert(SubscriptionsVideosTable.TABLE_NAME_V2, null, values);
                 }
+                SubscriptionsTable.updateLastVideoFetchTimestamps(db, persistentChannel);
+                LocalChannelTable.updateLatestVideoTimestamp(db, persistentChannel, latestPublishTimestamp);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
             }
         }
-        SubscriptionsTable.updateLastVideoFetchTimestamps(db, persistentChannel);
-        LocalChannelTable.updateLatestVideoTimestamp(db, persistentChannel, latestPublishTimestamp);
+        if (inserted > 0) {
+            feedCache.markChanged(oldestChangedTimestamp);
+        }
+        for (Map.Entry<String, Long> updatedVideo : updatedVideos.entrySet()) {
+            feedCache.markChanged(updatedVideo.getKey(), updatedVideo.getValue());
+        }
+        Logger.i(this, "Saved videos for %s : inserted=%s, updated=%s from %s", persistentChannel.getChannelId(), inserted, updatedVideos.size(), videos.size());
     }
 
-    private ContentValues createContentValues(YouTubeVideo video, PersistentChannel persistentChannel) {
-        ContentValues values = convertToContentValues(video, persistentChannel);
-        values.put(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID, video.getId());
-        final long publishInstant = video.getPublishTimestamp();
-        values.put(SubscriptionsVideosTable.COL_PUBLISH_TIME.name(), publishInstant);
-        values.put(SubscriptionsVideosTable.COL_CATEGORY_ID.name(), video.getCategoryId());
+    /**
+     * Bind the parameters of {@link SubscriptionsVideosTable#INSERT_VIDEO} or {@link SubscriptionsVideosTable#UPDATE_VIDEO}.
+     */
+    private static void bindVideo(SQLiteStatement statement, YouTubeVideo video, PersistentChannel persistentChannel) {
+        statement.clearBindings();
+        statement.bindString(1, persistentChannel.getChannelId().getRawId());
+        bindOptional(statement, 2, persistentChannel.subscriptionPk());
+        statement.bindLong(3, persistentChannel.channelPk());
+        bindOptional(statement, 4, video.getCategoryId() != null ? video.getCategoryId().longValue() : null);
+        statement.bindLong(5, video.getPublishTimestampExact() ? 1 : 0);
+        statement.bindLong(6, video.getPublishTimestamp());
+        bindOptional(statement, 7, video.getLikeCountNumber());
+        bindOptional(statement, 8, video.getDislikeCountNumber());
+        bindOptional(statement, 9, video.getViewsCountInt());
+        bindOptional(statement, 10, video.getTitle());
+        bindOptional(statement, 11, video.getDescription());
+        statement.bindLong(12, video.getDurationInSeconds());
+        bindOptional(statement, 13, video.getThumbnailUrl());
+        statement.bindString(14, video.getId());
+    }
 
-        return values;
+    private static void bindOptional(SQLiteStatement statement, int index, @Nullable Long value) {
+        if (value != null) {
+            statement.bindLong(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    private static void bindOptional(SQLiteStatement statement, int index, @Nullable String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    /**
+     * @return the pages of the subscriptions feed, the first ones are cached in memory.
+     */
+    public FeedPageCache<YouTubeVideo> getSubscriptionFeed() {
+        return feedCache;
     }
 
     /**
@@ -636,21 +935,92 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         final String sortingColumn = SubscriptionsVideosTable.COL_PUBLISH_TIME.name();
         final String[] selectionArguments;
         if (videoId != null) {
-            selection = "WHERE (" + sortingColumn + " < ?) OR (" + sortingColumn + " = ? AND " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " > ?)";
+            // the first condition is a range on the feed index
+            selection = "WHERE " + sortingColumn + " <= ? AND (" + sortingColumn + " < ? OR " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " > ?)";
             String formatted = String.valueOf(beforeTimestamp);
             selectionArguments = new String[]{ formatted, formatted, videoId };
         } else {
             selection = "";
             selectionArguments = null;
         }
-        final String sorting = " ORDER BY " + sortingColumn + " DESC, " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " ASC limit "+ limit;
-        String query = SubscriptionsVideosTable.BASE_QUERY + selection + sorting;
+        String query = SubscriptionsVideosTable.BASE_QUERY + selection + getFeedOrder(limit);
         try (Stopwatch s = new Stopwatch("getVideos " + query + ",limit=" + limit + ", beforeTimestamp=" + beforeTimestamp+" videoid="+videoId)) {
             Cursor cursor = getReadableDatabase().rawQuery(query, selectionArguments);
             return extractVideos(cursor, true);
         }
     }
 
+    /**
+     * @return the first videos of the feed, which are published at or after the given time.
+     */
+    private List<YouTubeVideo> getSubscriptionVideoHead(long minPublishTimestamp, int limit) {
+        SkyTubeApp.nonUiThread();
+        String query = SubscriptionsVideosTable.BASE_QUERY + "WHERE " + SubscriptionsVideosTable.COL_PUBLISH_TIME.name() + " >= ?" + getFeedOrder(limit);
+        try (Stopwatch s = new Stopwatch("getVideoHead minPublishTimestamp=" + minPublishTimestamp + ",limit=" + limit)) {
+            Cursor cursor = getReadableDatabase().rawQuery(query, new String[] { String.valueOf(minPublishTimestamp) });
+            return extractVideos(cursor, true);
+        }
+    }
+
+    private static String getFeedOrder(int limit) {
+        return " ORDER BY " + SubscriptionsVideosTable.COL_PUBLISH_TIME.name() + " DESC, " + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " ASC limit " + limit;
+    }
+
+    /**
+     * Search in the title, description and channel title of the stored subscription videos, with the full-text index.
+     *
+     * @return the ids of the matching videos, the most relevant ones first.
+     */
+    @NonNull
+    public List<String> searchSubscriptionVideos(@NonNull String query) {
+        SkyTubeApp.nonUiThread();
+        final String matchExpression = FullTextSearch.toMatchExpression(query);
+        if (matchExpression == null) {
+            return Collections.emptyList();
+        }
+        final List<String> ids = new ArrayList<>();
+        final Map<String, Double> scores = new HashMap<>();
+        final Map<String, Long> publishTimes = new HashMap<>();
+        try (Stopwatch s = new Stopwatch("searchSubscriptionVideos " + matchExpression);
+             Cursor cursor = getReadableDatabase().rawQuery(SubscriptionsVideosTable.SEARCH_QUERY, new String[] { matchExpression })) {
+            while (cursor.moveToNext()) {
+                final String id = cursor.getString(0);
+                ids.add(id);
+                publishTimes.put(id, cursor.getLong(1));
+                scores.put(id, FullTextSearch.score(cursor.getBlob(2)));
+            }
+        }
+        // the most relevant first, and from the equally relevant ones, the newest
+        Collections.sort(ids, Comparator.comparing((String id) -> scores.get(id)).reversed()
+                .thenComparing(Comparator.comparing((String id) -> publishTimes.get(id)).reversed()));
+        return ids;
+    }
+
+    /**
+     * @return the subscription videos with the given ids, in the same order.
+     */
+    @NonNull
+    public List<YouTubeVideo> getSubscriptionVideos(@NonNull List<String> videoIds) {
+        SkyTubeApp.nonUiThread();
+        if (videoIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final String query = SubscriptionsVideosTable.BASE_QUERY + " WHERE s." + SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID +
+                " IN (" + TextUtils.join(",", Collections.nCopies(videoIds.size(), "?")) + ')';
+        final Map<String, YouTubeVideo> videos = new HashMap<>();
+        for (YouTubeVideo video : extractVideos(getReadableDatabase().rawQuery(query, videoIds.toArray(new String[0])), true)) {
+            videos.put(video.getId(), video);
+        }
+        final List<YouTubeVideo> result = new ArrayList<>(videos.size());
+        for (String videoId : videoIds) {
+            final YouTubeVideo video = videos.get(videoId);
+            if (video != null) {
+                result.add(video);
+            }
+        }
+        return result;
+    }
+
     /**
      * Load YouTubeVideo objects from a cursor, only SubscriptionsVideosTable.COL_YOUTUBE_VIDEO column is needed.
      * @param cursor the cursor to process
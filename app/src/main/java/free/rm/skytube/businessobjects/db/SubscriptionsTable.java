@@ -23,6 +23,7 @@ import com.github.skytube.components.utils.Column;
 import com.github.skytube.components.utils.SQLiteHelper;
 
 import free.rm.skytube.businessobjects.YouTube.POJOs.PersistentChannel;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
 
 /**
  * YouTube channels subscriptions table.
@@ -95,6 +96,14 @@ public class SubscriptionsTable {
         }
     }
 
+    /**
+     * Updates the given channel's last fetch time with the current timestamp.
+     */
+    public static void updateLastVideoFetchTimestamp(SQLiteDatabase db, ChannelId channelId) {
+        db.execSQL("update " + TABLE_NAME + " set " + COL_LAST_VIDEO_FETCH + " = ? where " + COL_CHANNEL_ID + " = ?", new Object[] {
+                System.currentTimeMillis(), channelId.getRawId() });
+    }
+
     public static void addChannelIdColumn(SQLiteDatabase db) {
         SQLiteHelper.addColumn(db, TABLE_NAME, COL_CHANNEL_PK);
         db.execSQL("update " + TABLE_NAME +
@@ -57,12 +57,62 @@ public class SubscriptionsVideosTable {
     public static final Column COL_THUMBNAIL_URL = new Column("thumbnail_url", "text");
     public static final Column COL_SUBS_ID = new Column("subs_id", "integer");
     public static final Column COL_CHANNEL_PK = new Column("channel_pk", "integer");
+    /** The comma separated list of the languages detected from the title of the video. */
+    public static final Column COL_DETECTED_LANGUAGE = new Column("detected_language", "text");
 
 	public static final String COL_YOUTUBE_VIDEO_ID_EQUALS_TO = SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?";
 
 	private static final String IDX_PUBLISH_TS = "IDX_SubsVideo_Publish";
     private static final String IDX_PUBLISH_TS_V2 = "IDX_subscription_videos_Publish";
     private static final String IDX_PUBLISH_TIMESTAMP = "IDX_subscription_videos_PublishTime";
+    private static final String IDX_FEED = "IDX_subscription_videos_Feed";
+    private static final String IDX_CHANNEL = "IDX_subscription_videos_Channel";
+
+    /** The channels, which have stored videos. */
+    static final String QUERY_CHANNELS_WITH_VIDEOS = "SELECT DISTINCT " + COL_CHANNEL_PK.name() + " FROM " + TABLE_NAME_V2 +
+            " WHERE " + COL_CHANNEL_PK.name() + " IS NOT NULL";
+    /** The rowid of the latest inserted video. */
+    static final String QUERY_LAST_ROWID = "SELECT coalesce(max(rowid), 0) FROM " + TABLE_NAME_V2;
+
+    /**
+     * The thumbnails of the videos inserted after the given rowid, the latest first, then the thumbnails of their
+     * channels. Parameter: the rowid.
+     */
+    static final String QUERY_THUMBNAILS_INSERTED_AFTER = "SELECT url FROM (" +
+            "SELECT " + COL_THUMBNAIL_URL.name() + " AS url, 0 AS channel, " + COL_PUBLISH_TIME.name() + " AS time FROM " + TABLE_NAME_V2 +
+            " WHERE rowid > ?1 AND " + COL_THUMBNAIL_URL.name() + " IS NOT NULL" +
+            " UNION ALL SELECT " + LocalChannelTable.COL_THUMBNAIL_NORMAL_URL + ", 1, 0 FROM " + LocalChannelTable.TABLE_NAME +
+            " WHERE " + LocalChannelTable.COL_ID.name() + " IN (SELECT " + COL_CHANNEL_PK.name() + " FROM " + TABLE_NAME_V2 +
+            " WHERE rowid > ?1) AND " + LocalChannelTable.COL_THUMBNAIL_NORMAL_URL + " IS NOT NULL" +
+            ") ORDER BY channel, time DESC";
+
+    /** Delete the videos of the channels, which are not subscribed anymore. */
+    static final String DELETE_UNSUBSCRIBED_VIDEOS = "DELETE FROM " + TABLE_NAME_V2 + " WHERE " + COL_CHANNEL_PK.name() +
+            " NOT IN (SELECT " + SubscriptionsTable.COL_CHANNEL_PK.name() + " FROM " + SubscriptionsTable.TABLE_NAME +
+            " WHERE " + SubscriptionsTable.COL_CHANNEL_PK.name() + " IS NOT NULL)";
+    /**
+     * Delete the videos of a channel, which are older than the given time, or not among its given number of latest
+     * videos - except its minimum number of latest videos. Parameters: channel pk, minimum number of videos kept,
+     * the oldest publish time kept, maximum number of videos kept (-1 for unlimited).
+     */
+    static final String DELETE_EXPIRED_VIDEOS = "DELETE FROM " + TABLE_NAME_V2 + " WHERE " + COL_CHANNEL_PK.name() + " = ?1 AND rowid NOT IN (" +
+            latestVideosOfChannel("?2") + ") AND (" + COL_PUBLISH_TIME.name() + " < ?3 OR rowid NOT IN (" + latestVideosOfChannel("?4") + "))";
+
+    private static String latestVideosOfChannel(String limit) {
+        return "SELECT rowid FROM " + TABLE_NAME_V2 + " WHERE " + COL_CHANNEL_PK.name() + " = ?1 ORDER BY " + COL_PUBLISH_TIME.name() + " DESC LIMIT " + limit;
+    }
+
+    /** The full-text index of the videos, see {@link #addSearchIndex(SQLiteDatabase)}. */
+    static final String SEARCH_TABLE_NAME = "subscription_videos_fts";
+    private static final String INSERT_SEARCH_DOCUMENT = "INSERT INTO " + SEARCH_TABLE_NAME + " (docid," +
+            COL_TITLE.name() + ',' + COL_DESCRIPTION.name() + ',' + COL_CHANNEL_TITLE.name() + ") VALUES (new.rowid, new." +
+            COL_TITLE.name() + ", new." + COL_DESCRIPTION.name() + ", (SELECT Title FROM Channel WHERE _id = new." + COL_CHANNEL_PK.name() + "))";
+    /**
+     * Find the matching videos, with the data for ranking them: the number of phrases and columns, and the hit
+     * counts of the phrases in each column, in this row and in all rows.
+     */
+    static final String SEARCH_QUERY = "SELECT s." + COL_YOUTUBE_VIDEO_ID + ", s." + COL_PUBLISH_TIME.name() + ", matchinfo(f, 'pcx') FROM " +
+            SEARCH_TABLE_NAME + " f JOIN " + TABLE_NAME_V2 + " s ON s.rowid = f.docid WHERE f MATCH ?";
 
     static final String[] ALL_COLUMNS_FOR_EXTRACT = new String[] {
             COL_CHANNEL_ID_V2.name(),
@@ -90,6 +140,33 @@ public class SubscriptionsVideosTable {
     }
 
 
+    /**
+     * Insert a video, the statement is a no-op if the video is already stored. Missing counters fall back to 0.
+     * Parameters: channel id, subs id, channel pk, category id, publish time exact, publish time, likes,
+     * dislikes, views, title, description, duration, thumbnail url, video id.
+     */
+    static final String INSERT_VIDEO = "INSERT OR IGNORE INTO " + TABLE_NAME_V2 + " (" +
+            COL_CHANNEL_ID_V2.name() + ',' + COL_SUBS_ID.name() + ',' + COL_CHANNEL_PK.name() + ',' +
+            COL_CATEGORY_ID.name() + ',' + COL_PUBLISH_TIME_EXACT.name() + ',' + COL_PUBLISH_TIME.name() + ',' +
+            COL_LIKES.name() + ',' + COL_DISLIKES.name() + ',' + COL_VIEWS.name() + ',' +
+            COL_TITLE.name() + ',' + COL_DESCRIPTION.name() + ',' + COL_DURATION.name() + ',' + COL_THUMBNAIL_URL.name() + ',' +
+            COL_YOUTUBE_VIDEO_ID + ") VALUES (?,?,?,?,?,?,coalesce(?,0),coalesce(?,0),coalesce(?,0),?,?,?,?,?)";
+
+    /**
+     * Update a stored video, with the same parameters as {@link #INSERT_VIDEO}. The optional values
+     * (counters, title, description, thumbnail) are kept, if the new value is null.
+     */
+    static final String UPDATE_VIDEO = "UPDATE " + TABLE_NAME_V2 + " SET " +
+            COL_CHANNEL_ID_V2.name() + " = ?," + COL_SUBS_ID.name() + " = ?," + COL_CHANNEL_PK.name() + " = ?," +
+            COL_CATEGORY_ID.name() + " = ?," + COL_PUBLISH_TIME_EXACT.name() + " = ?," + COL_PUBLISH_TIME.name() + " = ?," +
+            keepIfNull(COL_LIKES) + ',' + keepIfNull(COL_DISLIKES) + ',' + keepIfNull(COL_VIEWS) + ',' +
+            keepIfNull(COL_TITLE) + ',' + keepIfNull(COL_DESCRIPTION) + ',' + COL_DURATION.name() + " = ?," + keepIfNull(COL_THUMBNAIL_URL) +
+            " WHERE " + COL_YOUTUBE_VIDEO_ID_EQUALS_TO;
+
+    private static String keepIfNull(Column column) {
+        return column.name() + " = coalesce(?," + column.name() + ')';
+    }
+
     private static final String ADD_COLUMN = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN ";
 
     public static String getCreateStatement() {
@@ -172,4 +249,54 @@ public class SubscriptionsVideosTable {
     static void addPublishTimeIndex(SQLiteDatabase db) {
         SQLiteHelper.createIndex(db, IDX_PUBLISH_TIMESTAMP, TABLE_NAME_V2, COL_PUBLISH_TIME);
     }
+
+    /**
+     * Create the index in the order of the feed - newest first, then by the video id - which also contains the
+     * channel key, so the feed pages are read in index order, without sorting, and the join with the channel table
+     * doesn't need the row. It replaces the index on the publish time.
+     */
+    static void addFeedIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_FEED + " ON " + TABLE_NAME_V2 + "(" + COL_PUBLISH_TIME.name() + " DESC, " +
+                COL_YOUTUBE_VIDEO_ID + ", " + COL_CHANNEL_PK.name() + ")");
+        db.execSQL("DROP INDEX IF EXISTS " + IDX_PUBLISH_TIMESTAMP);
+    }
+
+    static void addChannelIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_CHANNEL + " ON " + TABLE_NAME_V2 + "(" + COL_CHANNEL_PK.name() + ", " +
+                COL_PUBLISH_TIME.name() + ")");
+    }
+
+    static void addDetectedLanguageColumn(SQLiteDatabase db) {
+        SQLiteHelper.addColumn(db, TABLE_NAME_V2, COL_DETECTED_LANGUAGE);
+    }
+
+    /**
+     * Create the full-text index of the title, description and channel title of the videos, and the triggers
+     * which keep it in sync with the table. The documents are identified by the rowid of the videos.
+     */
+    static void addSearchIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + SEARCH_TABLE_NAME + " USING fts4(" +
+                COL_TITLE.name() + ',' + COL_DESCRIPTION.name() + ',' + COL_CHANNEL_TITLE.name() + ')');
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS subscription_videos_fts_insert AFTER INSERT ON " + TABLE_NAME_V2 +
+                " BEGIN " + INSERT_SEARCH_DOCUMENT + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS subscription_videos_fts_update AFTER UPDATE ON " + TABLE_NAME_V2 +
+                " WHEN old.rowid <> new.rowid OR old." + COL_TITLE.name() + " IS NOT new." + COL_TITLE.name() +
+                " OR old." + COL_DESCRIPTION.name() + " IS NOT new." + COL_DESCRIPTION.name() +
+                " OR old." + COL_CHANNEL_PK.name() + " IS NOT new." + COL_CHANNEL_PK.name() +
+                " BEGIN DELETE FROM " + SEARCH_TABLE_NAME + " WHERE docid = old.rowid; " + INSERT_SEARCH_DOCUMENT + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS subscription_videos_fts_delete AFTER DELETE ON " + TABLE_NAME_V2 +
+                " BEGIN DELETE FROM " + SEARCH_TABLE_NAME + " WHERE docid = old.rowid; END");
+        rebuildSearchIndex(db);
+    }
+
+    /**
+     * Re-create every document of the full-text index, needed after an operation which could change the rowids,
+     * like a full VACUUM.
+     */
+    static void rebuildSearchIndex(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + SEARCH_TABLE_NAME);
+        db.execSQL("INSERT INTO " + SEARCH_TABLE_NAME + " (docid," + COL_TITLE.name() + ',' + COL_DESCRIPTION.name() + ',' + COL_CHANNEL_TITLE.name() +
+                ") SELECT s.rowid, s." + COL_TITLE.name() + ", s." + COL_DESCRIPTION.name() + ", c.Title FROM " + TABLE_NAME_V2 +
+                " s LEFT JOIN Channel c ON s." + COL_CHANNEL_PK.name() + " = c._id");
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package free.rm.skytube.businessobjects.db.Tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+
+/**
+ * Search in the videos of the user's subscriptions, stored in the local database - works offline too.
+ */
+public class GetSubscriptionsVideosBySearch extends GetYouTubeVideos {
+	private static final int PAGE_SIZE = 20;
+
+	private String query;
+	/** The ids of the matching videos, the most relevant first - the search runs once, the videos are loaded by pages. */
+	private List<String> matchingVideoIds;
+	private int position;
+
+	@Override
+	public synchronized void init() {
+		reset();
+	}
+
+	@Override
+	public synchronized void setQuery(String query) {
+		this.query = query;
+		reset();
+	}
+
+	@Override
+	public synchronized List<CardData> getNextVideos() {
+		if (noMoreVideoPages()) {
+			return null;
+		}
+		final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
+		if (matchingVideoIds == null) {
+			matchingVideoIds = query != null ? db.searchSubscriptionVideos(query) : new ArrayList<>();
+		}
+		final int end = Math.min(matchingVideoIds.size(), position + PAGE_SIZE);
+		final List<CardData> result = new ArrayList<>(db.getSubscriptionVideos(matchingVideoIds.subList(position, end)));
+		position = end;
+		noMoreVideoPages = position >= matchingVideoIds.size();
+		return result;
+	}
+
+	@Override
+	public synchronized void reset() {
+		super.reset();
+		matchingVideoIds = null;
+		position = 0;
+	}
+}
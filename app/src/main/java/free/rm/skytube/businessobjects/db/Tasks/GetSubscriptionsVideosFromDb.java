@@ -28,7 +28,8 @@ import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 
 
 /**
- * Get user's subscriptions video feed from the user's local database.
+ * Get user's subscriptions video feed from the user's local database - through the page cache of
+ * {@link SubscriptionsDb#getSubscriptionFeed()}.
  */
 public class GetSubscriptionsVideosFromDb extends GetYouTubeVideos {
 
@@ -44,7 +45,7 @@ public class GetSubscriptionsVideosFromDb extends GetYouTubeVideos {
 	@Override
 	public synchronized List<CardData> getNextVideos() {
 		if (!noMoreVideoPages()) {
-			List<YouTubeVideo> result = SubscriptionsDb.getSubscriptionsDb().getSubscriptionVideoPage(20, lastVideoId, lastVideoPublishTimestamp);
+			List<YouTubeVideo> result = SubscriptionsDb.getSubscriptionsDb().getSubscriptionFeed().getPage(lastVideoId, lastVideoPublishTimestamp);
 			if (result.isEmpty()) {
 				noMoreVideoPages = true;
 				lastVideoId = null;
@@ -61,6 +62,15 @@ public class GetSubscriptionsVideosFromDb extends GetYouTubeVideos {
 	}
 
 
+	/**
+	 * Start loading the next page, when half of the last page is reached - it's usually prefetched already.
+	 */
+	@Override
+	public int getPrefetchDistance() {
+		return SubscriptionsDb.getSubscriptionsDb().getSubscriptionFeed().getPageSize() / 2;
+	}
+
+
 	@Override
 	public synchronized void reset() {
 		super.reset();
@@ -0,0 +1,154 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Removes the fully watched videos from the downloads and the bookmarks in bulk: the watched videos are selected with
+ * one query per database, the files are deleted in parallel - on at most {@link #MAX_PARALLEL_DELETIONS} threads -, the
+ * rows are deleted in one transaction per database, and the listeners are notified once per database. In a dry run
+ * nothing is deleted, only the number of the videos and the size of their files are reported.
+ */
+public final class WatchedVideosCleaner {
+    private static final String TAG = "WatchedVideosCleaner";
+    /** Deleting the files is mostly waiting for the storage, a few of them in parallel hide the latency. */
+    private static final int MAX_PARALLEL_DELETIONS = 4;
+
+    public static final class Result {
+        public final boolean dryRun;
+        public final int downloads;
+        public final int bookmarks;
+        /** The size of the deleted - or in a dry run, of the deletable - files. */
+        public final long bytes;
+        /** The files, which couldn't be deleted - their downloads are kept. */
+        public final List<String> failedFiles;
+
+        Result(boolean dryRun, int downloads, int bookmarks, long bytes, List<String> failedFiles) {
+            this.dryRun = dryRun;
+            this.downloads = downloads;
+            this.bookmarks = bookmarks;
+            this.bytes = bytes;
+            this.failedFiles = failedFiles;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Result{dryRun=" + dryRun + ", downloads=" + downloads + ", bookmarks=" + bookmarks + ", bytes=" + bytes
+                    + ", failedFiles=" + failedFiles + '}';
+        }
+    }
+
+    /** The outcome of deleting - or measuring - the files of one download. */
+    private static final class Deletion {
+        final DownloadedVideosDb.Status status;
+        final long bytes;
+        final String failedFile;
+
+        Deletion(DownloadedVideosDb.Status status, long bytes, String failedFile) {
+            this.status = status;
+            this.bytes = bytes;
+            this.failedFile = failedFile;
+        }
+    }
+
+    private WatchedVideosCleaner() {
+    }
+
+    /**
+     * @param downloads True, if the watched downloads should be removed, with their files.
+     * @param bookmarks True, if the watched bookmarks should be removed.
+     * @param dryRun    True, if nothing should be deleted, just counted.
+     * @return The removed - or in a dry run, the removable - videos, computed on the IO threads.
+     */
+    public static Single<Result> clean(boolean downloads, boolean bookmarks, boolean dryRun) {
+        return Single.fromCallable(() -> {
+            final long start = System.currentTimeMillis();
+            final Result downloadsResult = downloads ? cleanDownloads(dryRun) : new Result(dryRun, 0, 0, 0, Collections.emptyList());
+            final int bookmarkCount = bookmarks ? cleanBookmarks(dryRun) : 0;
+            final Result result = new Result(dryRun, downloadsResult.downloads, bookmarkCount, downloadsResult.bytes, downloadsResult.failedFiles);
+            Log.i(TAG, "Cleaned in " + (System.currentTimeMillis() - start) + " ms: " + result);
+            return result;
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private static Result cleanDownloads(boolean dryRun) {
+        SkyTubeApp.nonUiThread();
+        final DownloadedVideosDb db = DownloadedVideosDb.getVideoDownloadsDb();
+        final List<DownloadedVideosDb.Status> statuses = db.getWatchedDownloadedVideosStatuses();
+        final List<Deletion> deletions = Flowable.fromIterable(statuses)
+                .flatMap(status -> Flowable.fromCallable(() -> deleteFiles(status, dryRun)).subscribeOn(Schedulers.io()),
+                        MAX_PARALLEL_DELETIONS)
+                .toList()
+                .blockingGet();
+
+        final List<DownloadedVideosDb.Status> removable = new ArrayList<>(deletions.size());
+        final List<String> failedFiles = new ArrayList<>();
+        long bytes = 0;
+        for (Deletion deletion : deletions) {
+            bytes += deletion.bytes;
+            if (deletion.failedFile == null) {
+                removable.add(deletion.status);
+            } else {
+                failedFiles.add(deletion.failedFile);
+            }
+        }
+        final int removed = dryRun ? removable.size() : db.removeDownloads(removable);
+        return new Result(dryRun, removed, 0, bytes, failedFiles);
+    }
+
+    private static int cleanBookmarks(boolean dryRun) {
+        SkyTubeApp.nonUiThread();
+        final BookmarksDb db = BookmarksDb.getBookmarksDb();
+        final Set<VideoId> watched = db.getWatchedBookmarkedVideoIds();
+        return dryRun ? watched.size() : db.removeBookmarks(watched);
+    }
+
+    /**
+     * Delete the audio and the video file of the download - both of them, or just the first, which failed. In a
+     * dry run, they are only measured.
+     */
+    private static Deletion deleteFiles(DownloadedVideosDb.Status status, boolean dryRun) {
+        long bytes = 0;
+        for (File file : new File[]{status.getLocalAudioFile(), status.getLocalVideoFile()}) {
+            if (file != null && file.exists()) {
+                final long length = file.length();
+                if (!dryRun && !file.delete()) {
+                    Log.w(TAG, "Unable to delete file : " + file.getAbsolutePath());
+                    return new Deletion(status, bytes, file.getAbsolutePath());
+                }
+                bytes += length;
+            }
+        }
+        return new Deletion(status, bytes, null);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.os.Environment;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.github.skytube.components.utils.Stopwatch;
+
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.exceptions.ReCaptchaException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Keeps the {@link DownloadedVideosDb} in sync with the download folders: the folders are scanned incrementally by
+ * the {@link DownloadFolderScanner} at the start of the app, and while it runs, they are watched for changes,
+ * which trigger a new scan. The downloaded files, which are not in the database - e.g. after a reinstall -, are
+ * imported with the details of their videos.
+ */
+public final class DownloadFolderReconciler {
+    private static final String TAG = "DownloadFolderReconcile";
+    /** The changes in the folders are collected for this long, before scanning them. */
+    private static final long SCAN_DELAY_MS = 2000;
+    private static final int WATCHED_EVENTS = FileObserver.CREATE | FileObserver.DELETE | FileObserver.MOVED_FROM
+            | FileObserver.MOVED_TO | FileObserver.CLOSE_WRITE | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+    private static DownloadFolderReconciler instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduledScan = () -> reconcile().subscribe();
+    /** The observers of the scanned folders, guarded by 'this'. */
+    private final Map<String, FileObserver> observers = new HashMap<>();
+
+    private DownloadFolderReconciler() {
+    }
+
+    public static synchronized DownloadFolderReconciler get() {
+        if (instance == null) {
+            instance = new DownloadFolderReconciler();
+        }
+        return instance;
+    }
+
+    /**
+     * Scan the download folders in the background, and update the database.
+     */
+    public Completable reconcile() {
+        return Completable.fromAction(this::reconcileNow)
+                .subscribeOn(Schedulers.io())
+                .doOnError(throwable -> Log.e(TAG, "Unable to scan the download folders: " + throwable.getMessage(), throwable))
+                .onErrorComplete();
+    }
+
+    private synchronized void reconcileNow() {
+        // if the storage is not available, every file would be missing
+        if (!Environment.MEDIA_MOUNTED.equals(Environment.getExternalStorageState())) {
+            return;
+        }
+        final DownloadedVideosDb db = DownloadedVideosDb.getVideoDownloadsDb();
+        final DownloadFolderScanner scanner = new DownloadFolderScanner(SkyTubeApp.getSettings().getDownloadParentFolder(), System.currentTimeMillis());
+        final DownloadFolderScanner.Result result;
+        try (Stopwatch s = new Stopwatch("scan download folders")) {
+            result = scanner.scan(db.getDownloads(), db.getDownloadFolders(), db.getFailedImports(), db.getQueuedDownloadIds());
+        }
+
+        final Map<DownloadFolderScanner.ImportCandidate, YouTubeVideo> imported = new LinkedHashMap<>();
+        final List<DownloadFolderScanner.ImportCandidate> retriedImports = new ArrayList<>();
+        final List<DownloadFolderScanner.ImportCandidate> failedImports = new ArrayList<>();
+        for (DownloadFolderScanner.ImportCandidate candidate : result.imports) {
+            try {
+                imported.put(candidate, NewPipeService.get().getDetails(candidate.videoId));
+            } catch (ReCaptchaException | IOException e) {
+                // the folder is scanned again next time
+                Log.w(TAG, "Unable to import " + candidate + " for now: " + e.getMessage());
+                retriedImports.add(candidate);
+            } catch (ExtractionException e) {
+                // e.g. the video is removed, or the file is not a downloaded video - which isn't looked up again
+                Log.w(TAG, "Unable to import " + candidate + ": " + e.getMessage());
+                failedImports.add(candidate);
+            }
+        }
+        final Map<String, Long> scannedFolders = result.getScannedFolders(retriedImports);
+        db.applyScan(result, imported, scannedFolders, result.getFailedImports(failedImports));
+        Log.i(TAG, "Listed " + result.getListedFolders() + " of " + scannedFolders.size() + " folders, missing: " + result.missing.size()
+                + ", modified: " + result.modified.size() + ", imported: " + imported.size() + ", failed imports: " + failedImports.size()
+                + ", retried imports: " + retriedImports.size());
+        watch(scannedFolders.keySet());
+    }
+
+    /**
+     * Watch the given folders - and stop watching the others.
+     */
+    private void watch(Set<String> folders) {
+        for (Iterator<Map.Entry<String, FileObserver>> iterator = observers.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<String, FileObserver> entry = iterator.next();
+            if (!folders.contains(entry.getKey())) {
+                entry.getValue().stopWatching();
+                iterator.remove();
+            }
+        }
+        for (String folder : folders) {
+            if (!observers.containsKey(folder)) {
+                final FileObserver observer = new FolderObserver(folder);
+                observer.startWatching();
+                observers.put(folder, observer);
+            }
+        }
+    }
+
+    private void scheduleScan() {
+        handler.removeCallbacks(scheduledScan);
+        handler.postDelayed(scheduledScan, SCAN_DELAY_MS);
+    }
+
+    private class FolderObserver extends FileObserver {
+        @SuppressWarnings("deprecation")
+        FolderObserver(String folder) {
+            // the File based constructor is only available from Android 10
+            super(folder, WATCHED_EVENTS);
+        }
+
+        @Override
+        public void onEvent(int event, String path) {
+            if (path != null && (path.endsWith(SegmentedDownloader.PART_SUFFIX) || path.endsWith(SegmentedDownloader.STATE_SUFFIX))) {
+                // the unfinished downloads are ignored anyway
+                return;
+            }
+            scheduleScan();
+        }
+    }
+}
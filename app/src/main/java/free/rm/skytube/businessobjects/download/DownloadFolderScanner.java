@@ -0,0 +1,341 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import org.schabi.newpipe.extractor.MediaFormat;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the downloads recorded in the database with the files in the download folders. A folder is only listed,
+ * if its modification time - which changes when a file is added, removed or renamed in it - is different from the
+ * one recorded at the previous scan, so an unchanged library costs one stat per folder.
+ * <p>
+ * In the listed folders, the recorded downloads are checked for missing or modified files, and the downloaded
+ * files, which are not recorded yet, are collected for importing. The videos, which couldn't be imported, are
+ * recorded with their folder, so they are not looked up again, when the folder is listed for an other change.
+ */
+public class DownloadFolderScanner {
+    static final String VIDEO_INFIX = ".video.";
+    static final String AUDIO_INFIX = ".audio.";
+
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^\\w\\d]+");
+    /**
+     * The downloaded files are named by {@link #getBaseName} as '[video id] [title].[extension]', where the title
+     * only has words separated by single spaces, and the extension is of an audio or a video format - so the other
+     * files of the folder are not looked up as videos.
+     */
+    private static final Pattern DOWNLOADED_FILE = Pattern.compile("([A-Za-z0-9_-]{11}) (?:\\w+(?: \\w+)*)?"
+            + "(?:" + Pattern.quote(VIDEO_INFIX) + '|' + Pattern.quote(AUDIO_INFIX) + "|\\.)(?:" + getMediaSuffixes() + ')');
+    /**
+     * The folders modified in the last few seconds are scanned again next time, as the modification time of some
+     * file systems only has a resolution of seconds, so a later change could keep the same time.
+     */
+    private static final long MODIFICATION_TIME_RESOLUTION_MS = 2000;
+
+    /**
+     * A download, as it is recorded in the database.
+     */
+    public static final class Download {
+        final String videoId;
+        final File videoFile;
+        final File audioFile;
+        final long size;
+        final long modified;
+
+        public Download(String videoId, File videoFile, File audioFile, long size, long modified) {
+            this.videoId = videoId;
+            this.videoFile = videoFile;
+            this.audioFile = audioFile;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * The downloaded files of a video, which is not in the database.
+     */
+    public static final class ImportCandidate {
+        public final String videoId;
+        public final File videoFile;
+        public final File audioFile;
+        /** The folder, which is scanned again, if the video should be imported again. */
+        final String folder;
+
+        ImportCandidate(String videoId, File videoFile, File audioFile, String folder) {
+            this.videoId = videoId;
+            this.videoFile = videoFile;
+            this.audioFile = audioFile;
+            this.folder = folder;
+        }
+
+        @Override
+        public String toString() {
+            return "ImportCandidate{" + videoId + ", " + videoFile + (audioFile != null ? ", " + audioFile : "") + '}';
+        }
+    }
+
+    public static final class Result {
+        /** The videos, whose files are missing. */
+        public final List<String> missing = new ArrayList<>();
+        /** The size and the modification time of the downloads, whose files were modified. */
+        public final Map<String, long[]> modified = new HashMap<>();
+        public final List<ImportCandidate> imports = new ArrayList<>();
+        /** The modification time of the scanned folders. */
+        final Map<String, Long> folders = new HashMap<>();
+        /** The videos of the scanned folders, which couldn't be imported at the previous scans. */
+        final Map<String, Set<String>> failedImports = new HashMap<>();
+        int listedFolders;
+
+        /**
+         * @param retriedImports The candidates, which couldn't be imported for now, like without a network - their
+         *                       folders are scanned again next time.
+         * @return The modification time of the folders, which don't need to be listed on the next scan.
+         */
+        public Map<String, Long> getScannedFolders(Collection<ImportCandidate> retriedImports) {
+            final Map<String, Long> scanned = new HashMap<>(folders);
+            for (ImportCandidate candidate : retriedImports) {
+                scanned.remove(candidate.folder);
+            }
+            return scanned;
+        }
+
+        /**
+         * @param failedImports The candidates, which can't be imported, like the removed videos.
+         * @return The videos of the scanned folders, which shouldn't be looked up again, by their folders.
+         */
+        public Map<String, Set<String>> getFailedImports(Collection<ImportCandidate> failedImports) {
+            final Map<String, Set<String>> failed = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : this.failedImports.entrySet()) {
+                failed.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+            for (ImportCandidate candidate : failedImports) {
+                getSet(failed, candidate.folder).add(candidate.videoId);
+            }
+            return failed;
+        }
+
+        public int getListedFolders() {
+            return listedFolders;
+        }
+
+        public boolean isEmpty() {
+            return missing.isEmpty() && modified.isEmpty() && imports.isEmpty();
+        }
+    }
+
+    private final File downloadFolder;
+    private final long now;
+
+    /**
+     * @param downloadFolder The folder, where the videos are downloaded to - its sub-folders are scanned too.
+     * @param now            The current time.
+     */
+    public DownloadFolderScanner(File downloadFolder, long now) {
+        this.downloadFolder = downloadFolder;
+        this.now = now;
+    }
+
+    /**
+     * @return The name of the downloaded file of the video, without the extension.
+     */
+    public static String getBaseName(String videoId, String title) {
+        return videoId + ' ' + INVALID_CHARACTERS.matcher(title != null ? title : "").replaceAll(" ").trim();
+    }
+
+    /**
+     * @param downloads    The recorded downloads.
+     * @param folderTimes  The modification time of the folders at the previous scan.
+     * @param ignoredIds   The videos, which are being downloaded, so their files shouldn't be imported yet.
+     */
+    public Result scan(Collection<Download> downloads, Map<String, Long> folderTimes, Set<String> ignoredIds) {
+        return scan(downloads, folderTimes, Collections.emptyMap(), ignoredIds);
+    }
+
+    /**
+     * @param downloads     The recorded downloads.
+     * @param folderTimes   The modification time of the folders at the previous scan.
+     * @param failedImports The videos, which couldn't be imported at the previous scans, by their folders.
+     * @param ignoredIds    The videos, which are being downloaded, so their files shouldn't be imported yet.
+     */
+    public Result scan(Collection<Download> downloads, Map<String, Long> folderTimes, Map<String, Set<String>> failedImports,
+                       Set<String> ignoredIds) {
+        final Map<String, List<Download>> downloadsByFolder = new HashMap<>();
+        final Set<String> knownIds = new HashSet<>(ignoredIds);
+        for (Download download : downloads) {
+            knownIds.add(download.videoId);
+            final File file = download.videoFile != null ? download.videoFile : download.audioFile;
+            if (file != null) {
+                getList(downloadsByFolder, file.getParent()).add(download);
+            }
+        }
+
+        final Deque<String> queue = new ArrayDeque<>(downloadsByFolder.keySet());
+        queue.addAll(folderTimes.keySet());
+        queue.add(downloadFolder.getPath());
+        final Set<String> checked = new HashSet<>();
+        final Result result = new Result();
+        while (!queue.isEmpty()) {
+            final String folder = queue.poll();
+            if (folder == null || !checked.add(folder)) {
+                continue;
+            }
+            final List<Download> folderDownloads = downloadsByFolder.containsKey(folder)
+                    ? downloadsByFolder.get(folder) : Collections.emptyList();
+            final File directory = new File(folder);
+            final long modified = directory.lastModified();
+            if (modified == 0 || !directory.isDirectory()) {
+                for (Download download : folderDownloads) {
+                    result.missing.add(download.videoId);
+                }
+                continue;
+            }
+            final Set<String> folderFailedImports = failedImports.containsKey(folder)
+                    ? failedImports.get(folder) : Collections.emptySet();
+            final Long previous = folderTimes.get(folder);
+            if (previous != null && previous == modified) {
+                result.folders.put(folder, modified);
+                if (!folderFailedImports.isEmpty()) {
+                    result.failedImports.put(folder, folderFailedImports);
+                }
+                continue;
+            }
+            final File[] files = directory.listFiles();
+            if (files == null) {
+                // not readable at the moment, try again next time
+                continue;
+            }
+            result.listedFolders++;
+            final boolean isDownloadFolder = folder.equals(downloadFolder.getPath());
+            final Map<String, File> filesByName = new HashMap<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    if (isDownloadFolder) {
+                        queue.add(file.getPath());
+                    }
+                } else {
+                    filesByName.put(file.getName(), file);
+                }
+            }
+            checkDownloads(folderDownloads, filesByName, result);
+            findImports(folder, filesByName, knownIds, folderFailedImports, result);
+            if (now - modified > MODIFICATION_TIME_RESOLUTION_MS) {
+                result.folders.put(folder, modified);
+            }
+        }
+        return result;
+    }
+
+    private static void checkDownloads(List<Download> downloads, Map<String, File> filesByName, Result result) {
+        for (Download download : downloads) {
+            final File video = download.videoFile != null ? filesByName.get(download.videoFile.getName()) : null;
+            final File audio = download.audioFile != null ? filesByName.get(download.audioFile.getName()) : null;
+            if ((download.videoFile != null && video == null) || (download.audioFile != null && audio == null)) {
+                result.missing.add(download.videoId);
+                continue;
+            }
+            final long size = length(video) + length(audio);
+            final long modified = Math.max(lastModified(video), lastModified(audio));
+            if (size != download.size || modified != download.modified) {
+                result.modified.put(download.videoId, new long[] {size, modified});
+            }
+        }
+    }
+
+    private static void findImports(String folder, Map<String, File> filesByName, Set<String> knownIds, Set<String> failedImports,
+                                    Result result) {
+        final Map<String, File> videos = new HashMap<>();
+        final Map<String, File> audios = new HashMap<>();
+        for (File file : filesByName.values()) {
+            final String name = file.getName();
+            if (name.endsWith(SegmentedDownloader.PART_SUFFIX) || name.endsWith(SegmentedDownloader.STATE_SUFFIX)) {
+                continue;
+            }
+            final Matcher matcher = DOWNLOADED_FILE.matcher(name);
+            if (!matcher.matches() || knownIds.contains(matcher.group(1))) {
+                continue;
+            }
+            if (failedImports.contains(matcher.group(1))) {
+                // only kept, while the file is in the folder
+                getSet(result.failedImports, folder).add(matcher.group(1));
+                continue;
+            }
+            if (name.contains(AUDIO_INFIX)) {
+                audios.put(matcher.group(1), file);
+            } else {
+                final File other = videos.get(matcher.group(1));
+                // prefer the muxed file over the separate video stream
+                if (other == null || other.getName().contains(VIDEO_INFIX)) {
+                    videos.put(matcher.group(1), file);
+                }
+            }
+        }
+        for (Map.Entry<String, File> entry : videos.entrySet()) {
+            final File video = entry.getValue();
+            final File audio = video.getName().contains(VIDEO_INFIX) ? audios.get(entry.getKey()) : null;
+            result.imports.add(new ImportCandidate(entry.getKey(), video, audio, folder));
+        }
+    }
+
+    private static String getMediaSuffixes() {
+        final Set<String> suffixes = new HashSet<>();
+        for (MediaFormat format : MediaFormat.values()) {
+            if (format.mimeType.startsWith("video/") || format.mimeType.startsWith("audio/")) {
+                suffixes.add(Pattern.quote(format.suffix));
+            }
+        }
+        return String.join("|", suffixes);
+    }
+
+    private static Set<String> getSet(Map<String, Set<String>> map, String key) {
+        Set<String> set = map.get(key);
+        if (set == null) {
+            set = new HashSet<>();
+            map.put(key, set);
+        }
+        return set;
+    }
+
+    private static List<Download> getList(Map<String, List<Download>> map, String key) {
+        List<Download> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        return list;
+    }
+
+    static long length(File file) {
+        return file != null ? file.length() : 0;
+    }
+
+    static long lastModified(File file) {
+        return file != null ? file.lastModified() : 0;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads a file with parallel HTTP range requests. The file is split into fixed size segments, which are
+ * written into a '.part' file, and every finished segment is recorded in a '.segments' file, so an interrupted
+ * download continues with the missing segments only.
+ * <p>
+ * The stream URLs of YouTube expire after a few hours, so if the server rejects the URL, a new one is requested
+ * from the {@link UrlSource}, and the download continues with it.
+ */
+public class SegmentedDownloader {
+
+    /**
+     * Provides the URL of the downloaded file.
+     */
+    public interface UrlSource {
+        /**
+         * @param expired True, if the server rejected the previously returned URL, so a new one should be resolved.
+         */
+        String getUrl(boolean expired) throws IOException;
+    }
+
+    public interface ProgressListener {
+        void onProgress(long downloadedBytes, long totalBytes);
+    }
+
+    static final String PART_SUFFIX = ".part";
+    static final String STATE_SUFFIX = ".segments";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 15_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+    /** How many times a segment is requested, before the download is failed. */
+    private static final int MAX_ATTEMPTS_PER_SEGMENT = 3;
+    /** How many times a new URL is resolved during one download. */
+    private static final int MAX_URL_REFRESHES = 3;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+\\d+-\\d+/(\\d+)");
+
+    private final UrlSource urlSource;
+    private final File target;
+    private final File partFile;
+    private final File stateFile;
+    private final int connections;
+    private final long segmentSize;
+    private ProgressListener progressListener;
+
+    /** The current URL, and the number of times it was refreshed, guarded by 'this'. */
+    private String url;
+    private int urlGeneration;
+
+    /**
+     * @param target      The downloaded file.
+     * @param connections The maximum number of parallel requests.
+     * @param segmentSize The size of the requested ranges, in bytes.
+     */
+    public SegmentedDownloader(UrlSource urlSource, File target, int connections, long segmentSize) {
+        if (connections < 1 || segmentSize < 1) {
+            throw new IllegalArgumentException("Invalid connections: " + connections + " or segmentSize: " + segmentSize);
+        }
+        this.urlSource = urlSource;
+        this.target = target;
+        this.partFile = new File(target.getPath() + PART_SUFFIX);
+        this.stateFile = new File(target.getPath() + STATE_SUFFIX);
+        this.connections = connections;
+        this.segmentSize = segmentSize;
+    }
+
+    public SegmentedDownloader setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    public File getTarget() {
+        return target;
+    }
+
+    /**
+     * Download the file, blocking the calling thread. On success, the target file is complete, and the temporary
+     * files are deleted; on failure, they are kept, so the next call can resume the download.
+     *
+     * @return The size of the file.
+     */
+    public long download() throws IOException, InterruptedException {
+        synchronized (this) {
+            url = urlSource.getUrl(false);
+            urlGeneration = 0;
+        }
+        final long totalSize = fetchSize();
+        final int segmentCount = (int) ((totalSize + segmentSize - 1) / segmentSize);
+        final BitSet finished = loadState(totalSize, segmentCount);
+
+        final Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+        final AtomicLong downloaded = new AtomicLong();
+        for (int i = 0; i < segmentCount; i++) {
+            if (finished.get(i)) {
+                downloaded.addAndGet(getSegmentLength(i, totalSize));
+            } else {
+                pending.add(i);
+            }
+        }
+        reportProgress(downloaded.get(), totalSize);
+
+        if (!pending.isEmpty()) {
+            try (RandomAccessFile file = new RandomAccessFile(partFile, "rw");
+                 Writer state = new OutputStreamWriter(new FileOutputStream(stateFile, true), StandardCharsets.US_ASCII)) {
+                file.setLength(totalSize);
+                final FileChannel channel = file.getChannel();
+                final int workers = Math.min(connections, pending.size());
+                final ExecutorService executor = Executors.newFixedThreadPool(workers);
+                try {
+                    // the workers are awaited in the order of completion, so the first failure stops the others
+                    final CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+                    for (int i = 0; i < workers; i++) {
+                        completionService.submit(createWorker(pending, channel, state, totalSize, downloaded));
+                    }
+                    for (int i = 0; i < workers; i++) {
+                        completionService.take().get();
+                    }
+                } catch (ExecutionException e) {
+                    throw asIOException(e.getCause());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Unable to replace " + target);
+        }
+        if (!partFile.renameTo(target)) {
+            throw new IOException("Unable to rename " + partFile + " to " + target);
+        }
+        stateFile.delete();
+        return totalSize;
+    }
+
+    /**
+     * Delete the temporary files of an unfinished download.
+     */
+    public void discard() {
+        partFile.delete();
+        stateFile.delete();
+    }
+
+    private Callable<Void> createWorker(Queue<Integer> pending, FileChannel channel, Writer state, long totalSize, AtomicLong downloaded) {
+        return () -> {
+            Integer segment;
+            while ((segment = pending.poll()) != null) {
+                downloadSegment(segment, channel, totalSize, downloaded);
+                // the data must be on the disk, before the segment is recorded as finished
+                channel.force(false);
+                synchronized (state) {
+                    state.write(segment + "\n");
+                    state.flush();
+                }
+            }
+            return null;
+        };
+    }
+
+    private void downloadSegment(int segment, FileChannel channel, long totalSize, AtomicLong downloaded) throws IOException {
+        final long start = segment * segmentSize;
+        final long length = getSegmentLength(segment, totalSize);
+        int attempt = 0;
+        while (true) {
+            final String currentUrl;
+            final int generation;
+            synchronized (this) {
+                currentUrl = url;
+                generation = urlGeneration;
+            }
+            long written = 0;
+            try {
+                final HttpURLConnection connection = openConnection(currentUrl, start, start + length - 1);
+                try {
+                    final int code = connection.getResponseCode();
+                    if (isExpired(code)) {
+                        refreshUrl(generation);
+                        continue;
+                    }
+                    if (code != HttpURLConnection.HTTP_PARTIAL) {
+                        throw new IOException("Unexpected response " + code + " for segment " + segment);
+                    }
+                    try (InputStream input = connection.getInputStream()) {
+                        final byte[] buffer = new byte[BUFFER_SIZE];
+                        int read;
+                        while (written < length && (read = input.read(buffer, 0, (int) Math.min(buffer.length, length - written))) >= 0) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedIOException("Download interrupted");
+                            }
+                            final ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                            while (data.hasRemaining()) {
+                                channel.write(data, start + written + data.position());
+                            }
+                            written += read;
+                            reportProgress(downloaded.addAndGet(read), totalSize);
+                        }
+                    }
+                    if (written != length) {
+                        throw new IOException("Segment " + segment + " ended after " + written + " of " + length + " bytes");
+                    }
+                    return;
+                } finally {
+                    connection.disconnect();
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                // the partially written bytes are downloaded again
+                downloaded.addAndGet(-written);
+                if (++attempt >= MAX_ATTEMPTS_PER_SEGMENT) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The size of the file, based on the Content-Range of the response for the first byte.
+     */
+    private long fetchSize() throws IOException {
+        while (true) {
+            final String currentUrl;
+            final int generation;
+            synchronized (this) {
+                currentUrl = url;
+                generation = urlGeneration;
+            }
+            final HttpURLConnection connection = openConnection(currentUrl, 0, 0);
+            try {
+                final int code = connection.getResponseCode();
+                if (isExpired(code)) {
+                    refreshUrl(generation);
+                    continue;
+                }
+                if (code != HttpURLConnection.HTTP_PARTIAL) {
+                    throw new IOException("Range requests are not supported, response: " + code);
+                }
+                final String contentRange = connection.getHeaderField("Content-Range");
+                final Matcher matcher = contentRange != null ? CONTENT_RANGE.matcher(contentRange) : null;
+                if (matcher == null || !matcher.matches()) {
+                    throw new IOException("Invalid Content-Range: " + contentRange);
+                }
+                return Long.parseLong(matcher.group(1));
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Resolve a new URL, unless an other thread has already done it since the given generation of the URL was read.
+     */
+    private synchronized void refreshUrl(int seenGeneration) throws IOException {
+        if (seenGeneration != urlGeneration) {
+            return;
+        }
+        if (urlGeneration >= MAX_URL_REFRESHES) {
+            throw new IOException("The URL of " + target + " was rejected after " + urlGeneration + " refreshes");
+        }
+        url = urlSource.getUrl(true);
+        urlGeneration++;
+    }
+
+    /**
+     * @return The finished segments from the state file, if it belongs to a download with the same layout,
+     * otherwise an empty set, and the temporary files of the previous download are deleted.
+     */
+    private BitSet loadState(long totalSize, int segmentCount) throws IOException {
+        final BitSet finished = new BitSet(segmentCount);
+        final String header = totalSize + " " + segmentSize;
+        if (stateFile.exists() && partFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(stateFile), StandardCharsets.US_ASCII))) {
+                if (header.equals(reader.readLine())) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        try {
+                            final int segment = Integer.parseInt(line.trim());
+                            if (segment >= 0 && segment < segmentCount) {
+                                finished.set(segment);
+                            }
+                        } catch (NumberFormatException e) {
+                            // the last line could be truncated, if the app was killed while writing it
+                        }
+                    }
+                    return finished;
+                }
+            }
+        }
+        discard();
+        try (Writer state = new OutputStreamWriter(new FileOutputStream(stateFile), StandardCharsets.US_ASCII)) {
+            state.write(header + "\n");
+        }
+        return finished;
+    }
+
+    private long getSegmentLength(int segment, long totalSize) {
+        return Math.min(segmentSize, totalSize - segment * segmentSize);
+    }
+
+    private void reportProgress(long downloadedBytes, long totalBytes) {
+        final ProgressListener listener = progressListener;
+        if (listener != null) {
+            listener.onProgress(downloadedBytes, totalBytes);
+        }
+    }
+
+    private static HttpURLConnection openConnection(String url, long from, long to) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setRequestProperty("Range", "bytes=" + from + "-" + to);
+        return connection;
+    }
+
+    private static boolean isExpired(int responseCode) {
+        return responseCode == HttpURLConnection.HTTP_FORBIDDEN || responseCode == HttpURLConnection.HTTP_GONE;
+    }
+
+    private static IOException asIOException(Throwable throwable) {
+        if (throwable instanceof IOException) {
+            return (IOException) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new IOException(throwable);
+    }
+}
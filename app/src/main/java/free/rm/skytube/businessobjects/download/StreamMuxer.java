@@ -0,0 +1,147 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.annotation.SuppressLint;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaMuxer;
+import android.os.Build;
+
+import org.schabi.newpipe.extractor.MediaFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Combines a video-only and an audio-only stream into one file with {@link MediaMuxer}, copying the encoded
+ * samples without re-encoding them.
+ */
+public final class StreamMuxer {
+    public static final int UNSUPPORTED = -1;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private StreamMuxer() {
+    }
+
+    /**
+     * @return The {@link MediaMuxer.OutputFormat} for the given containers, or {@link #UNSUPPORTED}, if
+     * {@link MediaMuxer} can't write them on this device.
+     */
+    @SuppressLint("InlinedApi")
+    public static int getOutputFormat(MediaFormat videoFormat, MediaFormat audioFormat) {
+        if (videoFormat == MediaFormat.MPEG_4 && audioFormat == MediaFormat.M4A) {
+            return MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4;
+        }
+        if (videoFormat == MediaFormat.WEBM && (audioFormat == MediaFormat.WEBMA || audioFormat == MediaFormat.WEBMA_OPUS)
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return MediaMuxer.OutputFormat.MUXER_OUTPUT_WEBM;
+        }
+        return UNSUPPORTED;
+    }
+
+    public static boolean canMux(MediaFormat videoFormat, MediaFormat audioFormat) {
+        return getOutputFormat(videoFormat, audioFormat) != UNSUPPORTED;
+    }
+
+    /**
+     * Write the video track of the first file and the audio track of the second into the output file, interleaving
+     * the samples by their presentation time.
+     *
+     * @param outputFormat One of the {@link MediaMuxer.OutputFormat} constants.
+     */
+    @SuppressLint("WrongConstant")
+    public static void mux(File videoFile, File audioFile, File output, int outputFormat) throws IOException {
+        final MediaExtractor video = new MediaExtractor();
+        final MediaExtractor audio = new MediaExtractor();
+        MediaMuxer muxer = null;
+        boolean started = false;
+        try {
+            video.setDataSource(videoFile.getPath());
+            audio.setDataSource(audioFile.getPath());
+            final android.media.MediaFormat videoTrack = selectTrack(video, "video/", videoFile);
+            final android.media.MediaFormat audioTrack = selectTrack(audio, "audio/", audioFile);
+
+            muxer = new MediaMuxer(output.getPath(), outputFormat);
+            final int videoIndex = muxer.addTrack(videoTrack);
+            final int audioIndex = muxer.addTrack(audioTrack);
+            muxer.start();
+            started = true;
+
+            final ByteBuffer buffer = ByteBuffer.allocate(Math.max(getMaxInputSize(videoTrack), getMaxInputSize(audioTrack)));
+            final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean videoDone = false;
+            boolean audioDone = false;
+            while (!videoDone || !audioDone) {
+                final boolean writeVideo = audioDone || (!videoDone && video.getSampleTime() <= audio.getSampleTime());
+                final MediaExtractor extractor = writeVideo ? video : audio;
+                final int size = extractor.readSampleData(buffer, 0);
+                if (size < 0) {
+                    if (writeVideo) {
+                        videoDone = true;
+                    } else {
+                        audioDone = true;
+                    }
+                    continue;
+                }
+                // MediaExtractor.SAMPLE_FLAG_SYNC has the same value as MediaCodec.BUFFER_FLAG_KEY_FRAME
+                info.set(0, size, extractor.getSampleTime(), extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC);
+                muxer.writeSampleData(writeVideo ? videoIndex : audioIndex, buffer, info);
+                extractor.advance();
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // thrown by MediaMuxer for the codecs it doesn't support
+            throw new IOException("Unable to mux " + videoFile + " and " + audioFile + ": " + e.getMessage(), e);
+        } finally {
+            video.release();
+            audio.release();
+            if (muxer != null) {
+                try {
+                    if (started) {
+                        muxer.stop();
+                    }
+                } catch (IllegalStateException e) {
+                    output.delete();
+                    throw new IOException("Unable to finish " + output + ": " + e.getMessage(), e);
+                } finally {
+                    muxer.release();
+                }
+            }
+        }
+    }
+
+    private static android.media.MediaFormat selectTrack(MediaExtractor extractor, String mimePrefix, File file) throws IOException {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            final android.media.MediaFormat format = extractor.getTrackFormat(i);
+            final String mime = format.getString(android.media.MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith(mimePrefix)) {
+                extractor.selectTrack(i);
+                return format;
+            }
+        }
+        throw new IOException("No " + mimePrefix + " track in " + file);
+    }
+
+    private static int getMaxInputSize(android.media.MediaFormat format) {
+        if (format.containsKey(android.media.MediaFormat.KEY_MAX_INPUT_SIZE)) {
+            return Math.max(format.getInteger(android.media.MediaFormat.KEY_MAX_INPUT_SIZE), DEFAULT_BUFFER_SIZE);
+        }
+        return DEFAULT_BUFFER_SIZE;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Uri;
+import android.os.IBinder;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.PendingIntentCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import free.rm.skytube.R;
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * A foreground Service, which runs the downloads of the queue in {@link DownloadedVideosDb}, so they are not killed
+ * with the activities - and restarted by the system, or at the next start of the app, if they are. While the device
+ * is roaming, or disconnected, the downloads are paused, and resumed, once it is connected to a different network.
+ */
+public class VideoDownloadService extends Service {
+    private static final String TAG = "VideoDownloadService";
+    private static final String ACTION_CANCEL = "free.rm.skytube.download.CANCEL";
+    private static final String EXTRA_VIDEO_ID = "VideoDownloadService.VIDEO_ID";
+    private static final int MAX_PARALLEL_DOWNLOADS = 2;
+
+    private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+    /** The running downloads by the video IDs - only accessed on the main thread. */
+    private final Map<String, Disposable> runningDownloads = new HashMap<>();
+    private final BroadcastReceiver connectivityReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onConnectivityChanged();
+        }
+    };
+    private NotificationCompat.Builder notificationBuilder;
+    private boolean waitingForNetwork;
+
+    /**
+     * Start the queued downloads.
+     */
+    public static void start(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, VideoDownloadService.class));
+    }
+
+    /**
+     * Start the downloads, which were interrupted, because the process was killed - blocking the calling thread,
+     * while the queue is read.
+     */
+    public static void resumeQueued(Context context) {
+        if (!DownloadedVideosDb.getVideoDownloadsDb().getQueuedDownloadIds().isEmpty()) {
+            start(context);
+        }
+    }
+
+    /**
+     * @return The intent of the cancel action of a download notification.
+     */
+    static PendingIntent getCancelIntent(Context context, String videoId) {
+        final Intent intent = new Intent(context, VideoDownloadService.class)
+                .setAction(ACTION_CANCEL)
+                .setData(Uri.fromParts("video", videoId, null))
+                .putExtra(EXTRA_VIDEO_ID, videoId);
+        return PendingIntentCompat.getService(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT, false);
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        notificationBuilder = new NotificationCompat.Builder(this, SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL)
+                .setSmallIcon(android.R.drawable.stat_sys_download)
+                .setContentTitle(getString(R.string.app_name))
+                .setOnlyAlertOnce(true)
+                .setOngoing(true);
+        startForeground(SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL_ID, notificationBuilder.build());
+        registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    @Override
+    public void onDestroy() {
+        unregisterReceiver(connectivityReceiver);
+        // the interrupted downloads stay in the queue, and are resumed later
+        for (Disposable download : runningDownloads.values()) {
+            download.dispose();
+        }
+        runningDownloads.clear();
+        compositeDisposable.clear();
+        super.onDestroy();
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_CANCEL.equals(intent.getAction())) {
+            cancel(intent.getStringExtra(EXTRA_VIDEO_ID));
+        } else {
+            startQueued();
+        }
+        return START_STICKY;
+    }
+
+    private void startQueued() {
+        compositeDisposable.add(Single.fromCallable(() -> DownloadedVideosDb.getVideoDownloadsDb().getQueuedDownloads())
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::startDownloads,
+                        error -> {
+                            Log.e(TAG, "Unable to read the download queue: " + error.getMessage(), error);
+                            stopIfIdle(0);
+                        }));
+    }
+
+    private void startDownloads(List<DownloadedVideosDb.QueuedDownload> queue) {
+        waitingForNetwork = !SkyTubeApp.isConnected(this) || SkyTubeApp.isActiveNetworkRoaming(this);
+        if (!waitingForNetwork) {
+            for (DownloadedVideosDb.QueuedDownload download : queue) {
+                if (runningDownloads.size() >= MAX_PARALLEL_DOWNLOADS) {
+                    break;
+                }
+                if (!runningDownloads.containsKey(download.getVideo().getId())) {
+                    startDownload(VideoDownloadTask.fromQueue(download));
+                }
+            }
+        }
+        stopIfIdle(queue.size());
+    }
+
+    private void startDownload(VideoDownloadTask task) {
+        final YouTubeVideo video = task.getVideo();
+        final Disposable disposable = Single.fromCallable(task::download)
+                .subscribeOn(Schedulers.io())
+                .flatMap(files -> DownloadedVideosDb.getVideoDownloadsDb().add(video, Uri.fromFile(files[0]),
+                        files[1] != null ? Uri.fromFile(files[1]) : null))
+                .observeOn(Schedulers.io())
+                .doOnSuccess(success -> DownloadedVideosDb.getVideoDownloadsDb().removeQueuedDownload(video.getId()))
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> runningDownloads.remove(video.getId()))
+                .subscribe(success -> {
+                    showToast(success ? R.string.video_downloaded : R.string.video_download_stream_error, video);
+                    startQueued();
+                }, error -> {
+                    if (!SkyTubeApp.isConnected(this) || SkyTubeApp.isActiveNetworkRoaming(this)) {
+                        // kept in the queue, and resumed on the next network
+                        Log.i(TAG, "Download of " + video.getId() + " is paused: " + error.getMessage());
+                        startQueued();
+                        return;
+                    }
+                    Log.e(TAG, "Download of " + video.getId() + " failed: " + error.getMessage(), error);
+                    Toast.makeText(this,
+                            String.format(getString(R.string.download_failed_because), video.getTitle(), error.getMessage()),
+                            Toast.LENGTH_LONG).show();
+                    removeFromQueue(task);
+                });
+        runningDownloads.put(video.getId(), disposable);
+    }
+
+    /**
+     * Stop the download, and remove it from the queue, with its partially downloaded files.
+     */
+    private void cancel(String videoId) {
+        final Disposable download = runningDownloads.remove(videoId);
+        if (download != null) {
+            download.dispose();
+        }
+        compositeDisposable.add(Single.fromCallable(() -> DownloadedVideosDb.getVideoDownloadsDb().getQueuedDownloads())
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(queue -> {
+                    for (DownloadedVideosDb.QueuedDownload queued : queue) {
+                        if (queued.getVideo().getId().equals(videoId)) {
+                            showToast(R.string.download_cancelled, queued.getVideo());
+                            removeFromQueue(VideoDownloadTask.fromQueue(queued));
+                            return;
+                        }
+                    }
+                    startQueued();
+                }, error -> Log.e(TAG, "Unable to cancel " + videoId + ": " + error.getMessage(), error)));
+    }
+
+    private void removeFromQueue(VideoDownloadTask task) {
+        compositeDisposable.add(Completable.fromAction(() -> {
+                    DownloadedVideosDb.getVideoDownloadsDb().removeQueuedDownload(task.getVideo().getId());
+                    task.discard();
+                })
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::startQueued,
+                        error -> Log.e(TAG, "Unable to remove " + task.getVideo().getId() + " from the queue: " + error.getMessage(), error)));
+    }
+
+    private void onConnectivityChanged() {
+        if (SkyTubeApp.isActiveNetworkRoaming(this)) {
+            // the partially downloaded files are kept, and the downloads are resumed on the next network
+            for (Disposable download : new ArrayList<>(runningDownloads.values())) {
+                download.dispose();
+            }
+            runningDownloads.clear();
+            startQueued();
+        } else if (waitingForNetwork && SkyTubeApp.isConnected(this)) {
+            startQueued();
+        }
+    }
+
+    /**
+     * Update the foreground notification, or stop the service, if there is nothing left in the queue.
+     */
+    private void stopIfIdle(int queueSize) {
+        if (queueSize == 0 && runningDownloads.isEmpty()) {
+            ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+            stopSelf();
+            return;
+        }
+        notificationBuilder.setContentText(waitingForNetwork
+                ? getString(R.string.downloads_waiting_for_network)
+                : String.format(getString(R.string.downloads_in_progress), queueSize));
+        ContextCompat.getSystemService(this, NotificationManager.class)
+                .notify(SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL_ID, notificationBuilder.build());
+    }
+
+    private void showToast(int messageId, YouTubeVideo video) {
+        Toast.makeText(this, String.format(getString(messageId), video.getTitle()), Toast.LENGTH_LONG).show();
+    }
+}
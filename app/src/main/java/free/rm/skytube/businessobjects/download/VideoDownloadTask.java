@@ -0,0 +1,368 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Environment;
+import android.widget.Toast;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.google.gson.Gson;
+
+import org.schabi.newpipe.extractor.MediaFormat;
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.stream.AudioStream;
+import org.schabi.newpipe.extractor.stream.Stream;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+import org.schabi.newpipe.extractor.stream.VideoStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import free.rm.skytube.R;
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.StreamSelectionPolicy;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.newpipe.StreamInfoCache;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import free.rm.skytube.gui.activities.PermissionsActivity;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import static free.rm.skytube.app.SkyTubeApp.getContext;
+
+/**
+ * Downloads the selected streams of a video with the {@link SegmentedDownloader}, and records them in the
+ * {@link DownloadedVideosDb}. A video-only stream is downloaded together with its audio stream, and they are
+ * muxed into one file, if {@link StreamMuxer} supports their containers - otherwise both files are kept, and
+ * the player combines them.
+ * <p>
+ * The download is queued in the database, and run by the {@link VideoDownloadService}, so it is resumed, if the
+ * process is killed.
+ */
+public class VideoDownloadTask implements Serializable, PermissionsActivity.PermissionsTask {
+    private static final int CONNECTIONS = 4;
+    private static final long SEGMENT_SIZE = 2 * 1024 * 1024;
+    /** The minimum time between two updates of the progress notification. */
+    private static final long PROGRESS_UPDATE_INTERVAL_MS = 500;
+    /** How long the URLs of a new extraction are used, before extracting again. */
+    private static final long STREAM_INFO_REUSE_MS = 60_000;
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^\\w\\d]+");
+    private static final Gson GSON = new Gson();
+
+    private final YouTubeVideo video;
+    private final StreamReference videoStream;
+    private final StreamReference audioStream;
+
+    public VideoDownloadTask(YouTubeVideo video, StreamSelectionPolicy.StreamSelection selection) {
+        this.video = video;
+        this.videoStream = new StreamReference(selection.getVideoStream(), true);
+        this.audioStream = selection.getVideoStream().isVideoOnly() && selection.getAudioStream() != null
+                ? new StreamReference(selection.getAudioStream(), false) : null;
+    }
+
+    private VideoDownloadTask(YouTubeVideo video, QueuedStreams streams) {
+        this.video = video;
+        this.videoStream = streams.video;
+        this.audioStream = streams.audio;
+    }
+
+    /**
+     * @return The task of a download, as it was queued by {@link #onExternalStoragePermissionsGranted()}.
+     */
+    static VideoDownloadTask fromQueue(DownloadedVideosDb.QueuedDownload download) {
+        return new VideoDownloadTask(download.getVideo(), GSON.fromJson(download.getStreams(), QueuedStreams.class));
+    }
+
+    YouTubeVideo getVideo() {
+        return video;
+    }
+
+    /**
+     * Displays the {@link PermissionsActivity}, which starts the download, once the user has granted the
+     * permission to write to the external storage.
+     */
+    public void displayPermissionsActivity(Context context) {
+        Intent i = new Intent(getContext(), PermissionsActivity.class);
+        i.putExtra(PermissionsActivity.PERMISSIONS_TASK_OBJ, this);
+        context.startActivity(i);
+    }
+
+    @Override
+    public void onExternalStoragePermissionsGranted() {
+        if (!Environment.MEDIA_MOUNTED.equals(Environment.getExternalStorageState())) {
+            Toast.makeText(getContext(), R.string.external_storage_not_available, Toast.LENGTH_LONG).show();
+            return;
+        }
+        showToast(R.string.starting_video_download);
+        final String streams = GSON.toJson(new QueuedStreams(videoStream, audioStream));
+        Completable.fromAction(() -> DownloadedVideosDb.getVideoDownloadsDb().addQueuedDownload(video, streams))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> VideoDownloadService.start(getContext()),
+                        error -> Logger.e(this, "Unable to queue the download of " + video.getId() + ": " + error.getMessage(), error));
+    }
+
+    /**
+     * Download the streams, blocking the calling thread, and show the progress in a notification, which can cancel
+     * the download. If the thread is interrupted, the partially downloaded files are kept, so the next call resumes
+     * the download.
+     *
+     * @return The video file and the audio file, or null, if the audio is in the video file.
+     */
+    File[] download() throws IOException, InterruptedException {
+        final DownloadNotification notification = new DownloadNotification();
+        try {
+            return download(notification);
+        } finally {
+            notification.cancel();
+        }
+    }
+
+    /**
+     * Delete the partially downloaded files of a cancelled download.
+     */
+    void discard() {
+        final File target = getTarget();
+        discard(target);
+        if (audioStream != null) {
+            for (File file : new File[] {getVideoFile(), getAudioFile()}) {
+                file.delete();
+                discard(file);
+            }
+        }
+    }
+
+    private File[] download(DownloadNotification notification) throws IOException, InterruptedException {
+        final File directory = getOutputDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        final ResolvedStreams resolvedStreams = new ResolvedStreams();
+
+        if (audioStream == null) {
+            final File target = getTarget();
+            if (!target.exists()) {
+                downloadStream(videoStream, target, resolvedStreams, notification, 0, 1);
+            }
+            return new File[] {target, null};
+        }
+
+        final int muxFormat = StreamMuxer.getOutputFormat(videoStream.format, audioStream.format);
+        final File videoFile = getVideoFile();
+        final File audioFile = getAudioFile();
+        final File target = getTarget();
+        if (muxFormat != StreamMuxer.UNSUPPORTED && target.exists()) {
+            return new File[] {target, null};
+        }
+        if (!videoFile.exists()) {
+            downloadStream(videoStream, videoFile, resolvedStreams, notification, 0, 2);
+        }
+        if (!audioFile.exists()) {
+            downloadStream(audioStream, audioFile, resolvedStreams, notification, 1, 2);
+        }
+        if (muxFormat == StreamMuxer.UNSUPPORTED) {
+            Logger.i(this, "%s and %s can't be muxed, keeping them separately", videoStream.format, audioStream.format);
+            return new File[] {videoFile, audioFile};
+        }
+
+        notification.showMuxing();
+        final File muxed = new File(target.getPath() + SegmentedDownloader.PART_SUFFIX);
+        try {
+            StreamMuxer.mux(videoFile, audioFile, muxed, muxFormat);
+        } catch (IOException e) {
+            Logger.e(this, "Muxing failed, keeping the separate files: " + e.getMessage(), e);
+            muxed.delete();
+            return new File[] {videoFile, audioFile};
+        }
+        if (!muxed.renameTo(target)) {
+            throw new IOException("Unable to rename " + muxed + " to " + target);
+        }
+        videoFile.delete();
+        audioFile.delete();
+        return new File[] {target, null};
+    }
+
+    private void downloadStream(StreamReference stream, File target, ResolvedStreams resolvedStreams,
+                                DownloadNotification notification, int part, int parts) throws IOException, InterruptedException {
+        new SegmentedDownloader(expired -> expired ? resolvedStreams.resolve(stream) : stream.url, target, CONNECTIONS, SEGMENT_SIZE)
+                .setProgressListener((downloaded, total) -> notification.showProgress(part, parts, (double) downloaded / total))
+                .download();
+    }
+
+    private static void discard(File target) {
+        new SegmentedDownloader(expired -> null, target, CONNECTIONS, SEGMENT_SIZE).discard();
+    }
+
+    /**
+     * @return The downloaded file - or the muxed file, if the video and the audio are downloaded separately.
+     */
+    private File getTarget() {
+        return new File(getOutputDirectory(), getBaseName() + '.' + videoStream.format.suffix);
+    }
+
+    private File getVideoFile() {
+        return new File(getOutputDirectory(), getBaseName() + DownloadFolderScanner.VIDEO_INFIX + videoStream.format.suffix);
+    }
+
+    private File getAudioFile() {
+        return new File(getOutputDirectory(), getBaseName() + DownloadFolderScanner.AUDIO_INFIX + audioStream.format.suffix);
+    }
+
+    private String getBaseName() {
+        return DownloadFolderScanner.getBaseName(video.getId(), video.getTitle());
+    }
+
+    private File getOutputDirectory() {
+        final File parent = SkyTubeApp.getSettings().getDownloadParentFolder();
+        final String channelName = video.getChannelName() != null
+                ? INVALID_CHARACTERS.matcher(video.getChannelName()).replaceAll(" ").trim() : "";
+        if (SkyTubeApp.getSettings().isDownloadToSeparateFolders() && !channelName.isEmpty()) {
+            return new File(parent, channelName);
+        }
+        return parent;
+    }
+
+    private void showToast(int messageId) {
+        Toast.makeText(getContext(), String.format(getContext().getString(messageId), video.getTitle()), Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * The selected streams, as they are persisted in the queue.
+     */
+    private static class QueuedStreams {
+        final StreamReference video;
+        final StreamReference audio;
+
+        QueuedStreams(StreamReference video, StreamReference audio) {
+            this.video = video;
+            this.audio = audio;
+        }
+    }
+
+    /**
+     * Identifies a stream across the extractions, as the URLs expire.
+     */
+    private static class StreamReference implements Serializable {
+        final int itag;
+        final MediaFormat format;
+        final String url;
+        final boolean video;
+
+        StreamReference(Stream stream, boolean video) {
+            this.itag = stream instanceof VideoStream ? ((VideoStream) stream).getItag() : ((AudioStream) stream).getItag();
+            this.format = stream.getFormat();
+            this.url = stream.getContent();
+            this.video = video;
+        }
+
+        boolean matches(Stream stream) {
+            if (!stream.isUrl() || stream.getFormat() != format) {
+                return false;
+            }
+            final int streamItag = stream instanceof VideoStream ? ((VideoStream) stream).getItag() : ((AudioStream) stream).getItag();
+            return streamItag == itag;
+        }
+    }
+
+    /**
+     * Extracts the stream info again, when a URL expires. The new URLs of both streams are in it, so it is reused
+     * for a while.
+     */
+    private class ResolvedStreams {
+        private StreamInfo streamInfo;
+        private long extractedAt;
+
+        synchronized String resolve(StreamReference reference) throws IOException {
+            if (streamInfo == null || System.currentTimeMillis() - extractedAt > STREAM_INFO_REUSE_MS) {
+                try {
+                    Logger.i(VideoDownloadTask.this, "Stream URL of %s expired, extracting again", video.getId());
+                    streamInfo = StreamInfoCache.get().refresh(video.getId());
+                    extractedAt = System.currentTimeMillis();
+                } catch (ExtractionException e) {
+                    throw new IOException("Unable to extract " + video.getId() + ": " + e.getMessage(), e);
+                }
+            }
+            final List<Stream> candidates = new ArrayList<>();
+            if (reference.video) {
+                candidates.addAll(streamInfo.getVideoStreams());
+                candidates.addAll(streamInfo.getVideoOnlyStreams());
+            } else {
+                candidates.addAll(streamInfo.getAudioStreams());
+            }
+            for (Stream stream : candidates) {
+                if (reference.matches(stream)) {
+                    return stream.getContent();
+                }
+            }
+            throw new IOException("Stream " + reference.itag + " of " + video.getId() + " is not available anymore");
+        }
+    }
+
+    /**
+     * The progress notification of the download, updated at most every {@link #PROGRESS_UPDATE_INTERVAL_MS}.
+     */
+    private class DownloadNotification {
+        private final int notificationId = SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL_ID + video.getId().hashCode();
+        private final NotificationCompat.Builder builder = new NotificationCompat.Builder(getContext(), SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL)
+                .setSmallIcon(android.R.drawable.stat_sys_download)
+                .setContentTitle(video.getTitle())
+                .setOnlyAlertOnce(true)
+                .setOngoing(true)
+                .addAction(android.R.drawable.ic_menu_close_clear_cancel, getContext().getString(R.string.cancel),
+                        VideoDownloadService.getCancelIntent(getContext(), video.getId()));
+        private long lastUpdate;
+        private int lastPercent = -1;
+        /** The workers of an interrupted download might report their progress after the notification is removed. */
+        private boolean cancelled;
+
+        synchronized void showProgress(int part, int parts, double partProgress) {
+            final int percent = (int) ((part + partProgress) * 100 / parts);
+            final long now = System.currentTimeMillis();
+            if (cancelled || percent == lastPercent || (now - lastUpdate < PROGRESS_UPDATE_INTERVAL_MS && percent < 100)) {
+                return;
+            }
+            lastPercent = percent;
+            lastUpdate = now;
+            builder.setProgress(100, percent, false).setContentText(percent + "%");
+            notify(builder);
+        }
+
+        synchronized void showMuxing() {
+            builder.setProgress(0, 0, true).setContentText(getContext().getString(R.string.merging_video_and_audio));
+            notify(builder);
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            NotificationManagerCompat.from(getContext()).cancel(notificationId);
+        }
+
+        private void notify(NotificationCompat.Builder builder) {
+            NotificationManagerCompat.from(getContext()).notify(notificationId, builder.build());
+        }
+    }
+}
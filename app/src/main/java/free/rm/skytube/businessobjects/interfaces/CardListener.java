@@ -16,6 +16,8 @@
  */
 package free.rm.skytube.businessobjects.interfaces;
 
+import java.util.Collection;
+
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 
@@ -30,4 +32,9 @@ public interface CardListener {
      */
     void onCardDeleted(ContentId card);
 
+    /**
+     * Will be called once the DB is updated - by a bulk deletion, with all the deleted videos at once.
+     */
+    void onCardsDeleted(Collection<? extends ContentId> cards);
+
 }
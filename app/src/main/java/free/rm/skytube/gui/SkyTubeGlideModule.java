@@ -17,9 +17,78 @@
 
 package free.rm.skytube.gui;
 
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
 import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.module.AppGlideModule;
 
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Configures Glide: the images are fetched with OkHttp, and the caches have explicit sizes - the memory cache is
+ * sized in screens of images, as the video grid shows a screen at a time.
+ */
 @GlideModule
 public final class SkyTubeGlideModule extends AppGlideModule {
+	private static final float MEMORY_CACHE_SCREENS = 2;
+	private static final float BITMAP_POOL_SCREENS = 2;
+	/** The thumbnails are a few tens of KB each, so this keeps a few thousand of them. */
+	private static final long DISK_CACHE_SIZE = 100L * 1024 * 1024;
+	private static final long CONNECT_TIMEOUT_SECONDS = 15;
+	private static final long READ_TIMEOUT_SECONDS = 30;
+
+	private static volatile LruResourceCache memoryCache;
+
+	@Override
+	public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+		final MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+				.setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+				.setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+				.build();
+		memoryCache = new LruResourceCache(calculator.getMemoryCacheSize());
+		builder.setMemoryCache(memoryCache)
+				.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()))
+				.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_SIZE))
+				.setLogLevel(Log.ERROR);
+	}
+
+	@Override
+	public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+		final OkHttpClient client = new OkHttpClient.Builder()
+				.connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+				.readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+				.build();
+		registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(client));
+	}
+
+	@Override
+	public boolean isManifestParsingEnabled() {
+		return false;
+	}
+
+	/**
+	 * @return The current and the maximum size of the memory cache, for logging.
+	 */
+	public static String getMemoryCacheStats() {
+		final LruResourceCache cache = memoryCache;
+		if (cache == null) {
+			return "memory cache: not initialized";
+		}
+		return "memory cache: " + cache.getCurrentSize() / 1024 + " of " + cache.getMaxSize() / 1024 + " KB";
+	}
 }
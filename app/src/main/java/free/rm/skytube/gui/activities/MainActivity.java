@@ -29,6 +29,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.AutoCompleteTextView;
 import android.widget.FrameLayout;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
@@ -57,9 +58,9 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.VideoBlocker;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
-import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 import free.rm.skytube.businessobjects.db.SearchHistoryDb;
 import free.rm.skytube.businessobjects.db.SearchHistoryTable;
+import free.rm.skytube.businessobjects.download.DownloadFolderReconciler;
 import free.rm.skytube.databinding.DialogEnterVideoUrlBinding;
 import free.rm.skytube.gui.businessobjects.BlockedVideosDialog;
 import free.rm.skytube.gui.businessobjects.CleanerDialog;
@@ -104,6 +105,7 @@ public class MainActivity extends BaseActivity {
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
+		SkyTubeApp.getStartupTrace().mark("main activity created");
 		Logger.i(this, "AppID: %s - flavor: %s buildType: %s version: %s (%s)", BuildConfig.APPLICATION_ID, BuildConfig.FLAVOR, BuildConfig.BUILD_TYPE, BuildConfig.VERSION_NAME, BuildConfig.VERSION_CODE);
 
 		// To enable downloading with https on pre-kitkat devices.
@@ -120,10 +122,12 @@ public class MainActivity extends BaseActivity {
 		EventBus.getInstance().registerMainActivityListener(this);
 
 		SkyTubeApp.setFeedUpdateInterval(SkyTubeApp.getSettings().getFeedUpdaterInterval());
-		// Delete any missing downloaded videos
-		new DownloadedVideosDb.RemoveMissingVideosTask().executeInParallel();
+		// Remove the missing downloaded videos, and import the new files of the download folders
+		DownloadFolderReconciler.get().reconcile().subscribe();
 
 		setContentView(binding.getRoot());
+		// runs after the first layout of the window - only the first one counts for the startup trace
+		binding.getRoot().post(() -> SkyTubeApp.getStartupTrace().finishPart("main activity shown"));
 
 		// The Extra variant needs to initialize some Fragments that are used for Chromecast control. This is done in onLayoutSet of BaseActivity.
 		// The OSS variant has a no-op version of this method, since it doesn't need to do anything else here.
@@ -496,6 +500,11 @@ public class MainActivity extends BaseActivity {
 		SearchVideoGridFragment searchVideoGridFragment = new SearchVideoGridFragment();
 		Bundle bundle = new Bundle();
 		bundle.putString(SearchVideoGridFragment.QUERY, query);
+		if (!SkyTubeApp.isConnected(this)) {
+			// without network, search in the stored videos of the subscriptions
+			Toast.makeText(this, R.string.searching_in_subscriptions, Toast.LENGTH_LONG).show();
+			bundle.putBoolean(SearchVideoGridFragment.SEARCH_SUBSCRIPTIONS, true);
+		}
 		searchVideoGridFragment.setArguments(bundle);
 		switchToFragment(searchVideoGridFragment, true, SEARCH_FRAGMENT_TAG);
 	}
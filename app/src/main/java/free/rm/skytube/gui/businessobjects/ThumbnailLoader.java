@@ -0,0 +1,156 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.gui.businessobjects;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import free.rm.skytube.R;
+import free.rm.skytube.businessobjects.YouTube.YouTubeThumbnails;
+import free.rm.skytube.gui.SkyTubeGlideModule;
+
+/**
+ * Loads the thumbnails of the video cards: the smallest variant, which fills the width of a card, is decoded to the
+ * size of the card in RGB_565 - as the thumbnails have no transparency. The preloaded thumbnails are requested the
+ * same way, so they are found in the memory cache, when their cards are displayed.
+ */
+public final class ThumbnailLoader {
+    private static final String TAG = "ThumbnailLoader";
+    /** The number of the cards after the visible ones, whose thumbnails are preloaded. */
+    private static final int PRELOAD_COUNT = 8;
+    /** The statistics are logged after this many loads. */
+    private static final int STATS_INTERVAL = 50;
+
+    private static final AtomicLong loads = new AtomicLong();
+    private static final AtomicLong memoryHits = new AtomicLong();
+    private static final AtomicLong diskHits = new AtomicLong();
+    private static final AtomicLong remoteLoads = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    /** The time of the loads, which were not served from the memory cache - fetching and decoding. */
+    private static final AtomicLong diskLoadMs = new AtomicLong();
+    private static final AtomicLong remoteLoadMs = new AtomicLong();
+    private static final AtomicLong bitmapBytes = new AtomicLong();
+
+    private ThumbnailLoader() {
+    }
+
+    /**
+     * @return The width of a card in the video grid, in pixels.
+     */
+    public static int getCardWidth(@NonNull Context context) {
+        return context.getResources().getDisplayMetrics().widthPixels
+                / context.getResources().getInteger(R.integer.video_grid_num_columns);
+    }
+
+    /**
+     * @return The request of the thumbnail, in the size of the card.
+     */
+    public static RequestBuilder<Drawable> load(@NonNull RequestManager requestManager, @Nullable String url, int cardWidth) {
+        final long start = SystemClock.elapsedRealtime();
+        return requestManager
+                .load(YouTubeThumbnails.getUrlForWidth(url, cardWidth))
+                // the thumbnails are decoded to the width of the card, the height follows the aspect ratio
+                .override(cardWidth, cardWidth * 9 / 16)
+                .dontTransform()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .listener(new StatsListener(start));
+    }
+
+    /**
+     * @return A scroll listener of the grid, which preloads the thumbnails of the upcoming cards.
+     */
+    public static <T> RecyclerViewPreloader<T> createPreloader(@NonNull Fragment fragment,
+                                                               @NonNull ListPreloader.PreloadModelProvider<T> modelProvider) {
+        final int cardWidth = getCardWidth(fragment.requireContext());
+        return new RecyclerViewPreloader<>(Glide.with(fragment), modelProvider,
+                new FixedPreloadSizeProvider<>(cardWidth, cardWidth * 9 / 16), PRELOAD_COUNT);
+    }
+
+    private static final class StatsListener implements RequestListener<Drawable> {
+        private final long start;
+
+        StatsListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+            failures.incrementAndGet();
+            count();
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target, DataSource dataSource, boolean isFirstResource) {
+            final long elapsed = SystemClock.elapsedRealtime() - start;
+            switch (dataSource) {
+                case MEMORY_CACHE:
+                    memoryHits.incrementAndGet();
+                    break;
+                case REMOTE:
+                    remoteLoads.incrementAndGet();
+                    remoteLoadMs.addAndGet(elapsed);
+                    break;
+                default:
+                    diskHits.incrementAndGet();
+                    diskLoadMs.addAndGet(elapsed);
+                    break;
+            }
+            if (resource instanceof BitmapDrawable) {
+                final Bitmap bitmap = ((BitmapDrawable) resource).getBitmap();
+                bitmapBytes.addAndGet(bitmap.getByteCount());
+            }
+            count();
+            return false;
+        }
+
+        private void count() {
+            final long count = loads.incrementAndGet();
+            if (count % STATS_INTERVAL == 0) {
+                final long disk = diskHits.get();
+                final long remote = remoteLoads.get();
+                final long decoded = count - failures.get();
+                Log.i(TAG, "Thumbnails: " + count + " loads, memory: " + memoryHits + ", disk: " + disk + " (avg " + (disk > 0 ? diskLoadMs.get() / disk : 0)
+                        + " ms), remote: " + remote + " (avg " + (remote > 0 ? remoteLoadMs.get() / remote : 0) + " ms), failed: " + failures
+                        + ", avg bitmap: " + (decoded > 0 ? bitmapBytes.get() / decoded / 1024 : 0) + " KB, "
+                        + SkyTubeGlideModule.getMemoryCacheStats());
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.gui.businessobjects.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import free.rm.skytube.businessobjects.YouTube.POJOs.ChannelView;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+
+/**
+ * An immutable snapshot of the subscribed channels, with a trigram index over their normalized titles - lower
+ * case, without accents -, so the channel list can be filtered in memory, while the user is typing.
+ */
+public class ChannelTitleIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{Mn}+");
+    private static final int GRAM_SIZE = 3;
+    private static final int[] NO_MATCH = new int[0];
+
+    private final List<ChannelView> channels;
+    private final String[] normalizedTitles;
+    /** The positions of the channels, which contain the trigram in their title, in ascending order. */
+    private final Map<String, int[]> trigrams;
+
+    public ChannelTitleIndex(@NonNull List<ChannelView> channels) {
+        this.channels = Collections.unmodifiableList(new ArrayList<>(channels));
+        this.normalizedTitles = new String[channels.size()];
+        final Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < normalizedTitles.length; i++) {
+            final String title = normalize(channels.get(i).getTitle());
+            normalizedTitles[i] = title;
+            for (int start = 0; start + GRAM_SIZE <= title.length(); start++) {
+                final List<Integer> list = positions.computeIfAbsent(title.substring(start, start + GRAM_SIZE), key -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                    list.add(i);
+                }
+            }
+        }
+        this.trigrams = new HashMap<>(positions.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+            final List<Integer> list = entry.getValue();
+            final int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            trigrams.put(entry.getKey(), array);
+        }
+    }
+
+    /**
+     * @return the title in lower case, without accents.
+     */
+    @NonNull
+    static String normalize(@Nullable String title) {
+        if (title == null) {
+            return "";
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(title, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    @NonNull
+    public List<ChannelView> getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return the channels, whose title contains the search text, in the original order.
+     */
+    @NonNull
+    public List<ChannelView> filter(@Nullable String searchText) {
+        final String text = normalize(searchText);
+        if (text.isEmpty()) {
+            return channels;
+        }
+        final List<ChannelView> result = new ArrayList<>();
+        if (text.length() < GRAM_SIZE) {
+            for (int i = 0; i < normalizedTitles.length; i++) {
+                if (normalizedTitles[i].contains(text)) {
+                    result.add(channels.get(i));
+                }
+            }
+            return result;
+        }
+        int[] candidates = null;
+        for (int start = 0; start + GRAM_SIZE <= text.length(); start++) {
+            final int[] positions = trigrams.get(text.substring(start, start + GRAM_SIZE));
+            candidates = positions == null ? NO_MATCH : candidates == null ? positions : intersect(candidates, positions);
+            if (candidates.length == 0) {
+                return result;
+            }
+        }
+        // the trigrams could be in a different order in the title, so check the candidates
+        for (int position : candidates) {
+            if (normalizedTitles[position].contains(text)) {
+                result.add(channels.get(position));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new snapshot, without the given channel.
+     */
+    @NonNull
+    public ChannelTitleIndex without(@NonNull ChannelId channelId) {
+        final List<ChannelView> remaining = new ArrayList<>(channels.size());
+        for (ChannelView channel : channels) {
+            if (!channelId.equals(channel.getId())) {
+                remaining.add(channel);
+            }
+        }
+        return remaining.size() == channels.size() ? this : new ChannelTitleIndex(remaining);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        final int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -39,6 +39,7 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
 import free.rm.skytube.businessobjects.db.DatabaseTasks;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
@@ -48,6 +49,7 @@ import free.rm.skytube.databinding.VideoCellBinding;
 import free.rm.skytube.gui.activities.ThumbnailViewerActivity;
 import free.rm.skytube.gui.businessobjects.MainActivityListener;
 import free.rm.skytube.gui.businessobjects.MobileNetworkWarningDialog;
+import free.rm.skytube.gui.businessobjects.ThumbnailLoader;
 import free.rm.skytube.gui.businessobjects.YouTubePlayer;
 import free.rm.skytube.gui.businessobjects.views.ChannelActionHandler;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
@@ -87,6 +89,8 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 
 		binding.thumbnailImageView.setOnClickListener(thumbnailView -> {
 			if (currentCard instanceof YouTubeVideo) {
+				YouTubeTasks.prefetchDesiredStream((YouTubeVideo) currentCard).subscribe();
+				prefetchNextVideo();
 				YouTubePlayer.launch((YouTubeVideo) currentCard, context);
 			} else if (currentCard instanceof YouTubePlaylist) {
 				mainActivityListener.onPlaylistClick((YouTubePlaylist) currentCard);
@@ -105,10 +109,34 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 			}
 		};
 
+		// long press opens the options of the video, which can play or download it
+		binding.thumbnailImageView.setOnLongClickListener(thumbnailView -> {
+			if (currentCard instanceof YouTubeVideo) {
+				YouTubeTasks.prefetchDesiredStream((YouTubeVideo) currentCard).subscribe();
+				onOptionsButtonClick(binding.optionsButton);
+				return true;
+			}
+			return false;
+		});
+
 		binding.channelLayout.setOnClickListener(showChannelInfo ? channelOnClickListener : null);
 		binding.optionsButton.setOnClickListener(this::onOptionsButtonClick);
 	}
 
+	/**
+	 * Resolve the streams of the next video in the list too, as it is often played after this one.
+	 */
+	private void prefetchNextVideo() {
+		final RecyclerView.Adapter<?> adapter = getBindingAdapter();
+		final int next = getBindingAdapterPosition() + 1;
+		if (adapter instanceof VideoGridAdapter && next > 0 && next < adapter.getItemCount()) {
+			final CardData nextCard = ((VideoGridAdapter) adapter).get(next);
+			if (nextCard instanceof YouTubeVideo) {
+				YouTubeTasks.prefetchDesiredStream((YouTubeVideo) nextCard).subscribe();
+			}
+		}
+	}
+
 	void clearBackgroundTasks() {
 		compositeDisposable.clear();
 	}
@@ -138,8 +166,7 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 			binding.publishDateTextView.setVisibility(View.GONE);
 			binding.separatorTextView.setVisibility(View.GONE);
 		}
-		Glide.with(context)
-				.load(currentCard.getThumbnailUrl())
+		ThumbnailLoader.load(Glide.with(context), currentCard.getThumbnailUrl(), ThumbnailLoader.getCardWidth(context))
 				.apply(new RequestOptions().placeholder(R.drawable.thumbnail_default))
 				.into(binding.thumbnailImageView);
 
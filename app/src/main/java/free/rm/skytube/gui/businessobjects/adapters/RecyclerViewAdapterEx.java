@@ -117,6 +117,28 @@ public abstract class RecyclerViewAdapterEx<T, HolderType extends RecyclerView.V
 		}
 	}
 
+	/**
+	 * Remove all the items matching the predicate in one pass, and redraw the list once - unlike
+	 * {@link #remove(Predicate)}, which shifts the list and animates the removal item by item.
+	 *
+	 * @return The number of the removed items.
+	 */
+	public int removeAll(Predicate<T> predicate) {
+		final List<T> kept = new ArrayList<>(list.size());
+		for (T item : list) {
+			if (!predicate.test(item)) {
+				kept.add(item);
+			}
+		}
+		final int removed = list.size() - kept.size();
+		if (removed > 0) {
+			list.clear();
+			list.addAll(kept);
+			this.notifyDataSetChanged();
+		}
+		return removed;
+	}
+
 	/**
 	 * Clear all items that are in the list.
 	 */
@@ -24,12 +24,17 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.EventBus;
@@ -48,6 +53,8 @@ public class SubsAdapter extends RecyclerViewAdapterEx<ChannelView, SubsAdapter.
 	private static final String TAG = SubsAdapter.class.getSimpleName();
 
 	private String searchText;
+	/** All the subscribed channels, the displayed ones are filtered from this by the search text. */
+	private ChannelTitleIndex channelIndex = new ChannelTitleIndex(Collections.emptyList());
 
 	private final CompositeDisposable compositeDisposable = new CompositeDisposable();
 
@@ -55,7 +62,7 @@ public class SubsAdapter extends RecyclerViewAdapterEx<ChannelView, SubsAdapter.
 		super(context);
 
 		// populate this adapter with user's subscribed channels
-		executeQuery(null, progressBar);
+		loadChannels(progressBar);
 	}
 
 	/**
@@ -64,16 +71,13 @@ public class SubsAdapter extends RecyclerViewAdapterEx<ChannelView, SubsAdapter.
 	 * @param channelId Channel to remove.
 	 */
 	public void removeChannel(ChannelId channelId) {
-		int size = getItemCount();
-
-		for (int i = 0; i < size; i++) {
-			if (get(i).getId().equals(channelId)) {
-				remove(i);
-				return;
-			}
+		ChannelTitleIndex newIndex = channelIndex.without(channelId);
+		if (newIndex == channelIndex) {
+			Log.e(TAG, "Channel not removed from adapter:  id=" + channelId);
+			return;
 		}
-
-		Log.e(TAG, "Channel not removed from adapter:  id=" + channelId);
+		channelIndex = newIndex;
+		showChannels(channelIndex.filter(searchText));
 	}
 
 	/**
@@ -129,23 +133,59 @@ public class SubsAdapter extends RecyclerViewAdapterEx<ChannelView, SubsAdapter.
 	 * This should be called only from MainFragment
 	 */
 	public void refreshSubsList() {
-		clearList();
-		executeQuery(searchText, null);
-	}
-
-	private void refreshFilteredSubsList(String searchText) {
-		clearList();
-		executeQuery(searchText, null);
+		loadChannels(null);
 	}
 
-	private void executeQuery(String searchText, View progressBar) {
-		compositeDisposable.add(DatabaseTasks.getSubscribedChannelView(getContext(), progressBar, searchText)
-				.subscribe(this::appendList));
+	private void loadChannels(View progressBar) {
+		compositeDisposable.add(DatabaseTasks.getSubscribedChannelView(getContext(), progressBar, null)
+				.subscribe(channels -> {
+					channelIndex = new ChannelTitleIndex(channels);
+					showChannels(channelIndex.filter(searchText));
+				}));
 	}
 
+	/**
+	 * Filter the channels in memory, while the user is typing.
+	 */
 	public void filterSubSearch(String searchText){
 		this.searchText = searchText;
-		refreshFilteredSubsList(searchText);
+		showChannels(channelIndex.filter(searchText));
+	}
+
+	/**
+	 * Display the given channels, only the changed rows are notified.
+	 */
+	private void showChannels(List<ChannelView> channels) {
+		final List<ChannelView> oldChannels = new ArrayList<>(list);
+		DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+			@Override
+			public int getOldListSize() {
+				return oldChannels.size();
+			}
+
+			@Override
+			public int getNewListSize() {
+				return channels.size();
+			}
+
+			@Override
+			public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+				return oldChannels.get(oldItemPosition).getId().equals(channels.get(newItemPosition).getId());
+			}
+
+			@Override
+			public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+				ChannelView oldChannel = oldChannels.get(oldItemPosition);
+				ChannelView newChannel = channels.get(newItemPosition);
+				return Objects.equals(oldChannel.getTitle(), newChannel.getTitle())
+						&& Objects.equals(oldChannel.getThumbnailUrl(), newChannel.getThumbnailUrl())
+						&& oldChannel.isNewVideosSinceLastVisit() == newChannel.isNewVideosSinceLastVisit()
+						&& oldChannel.status() == newChannel.status();
+			}
+		});
+		list.clear();
+		list.addAll(channels);
+		diff.dispatchUpdatesTo(this);
 	}
 
 	////////////////////////////////////////////////////////////////////////////////////////////////
@@ -17,15 +17,28 @@
 
 package free.rm.skytube.gui.businessobjects.adapters;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import free.rm.skytube.R;
 import free.rm.skytube.businessobjects.Logger;
@@ -33,19 +46,25 @@ import free.rm.skytube.businessobjects.VideoCategory;
 import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.VideoBlocker;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
+import free.rm.skytube.businessobjects.db.PageSnapshotDb;
 import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
 import free.rm.skytube.businessobjects.interfaces.CardListener;
 import free.rm.skytube.businessobjects.interfaces.VideoPlayStatusUpdateListener;
 import free.rm.skytube.databinding.VideoCellBinding;
 import free.rm.skytube.gui.businessobjects.MainActivityListener;
+import free.rm.skytube.gui.businessobjects.ThumbnailLoader;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 
 /**
  * An adapter that will display videos in a {@link android.widget.GridView}.
  */
-public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHolder> implements VideoPlayStatusUpdateListener, CardListener {
+public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHolder> implements VideoPlayStatusUpdateListener, CardListener,
+		ListPreloader.PreloadModelProvider<CardData> {
 	private static final String TAG = VideoGridAdapter.class.getSimpleName();
 
 	public interface Callback {
@@ -65,6 +84,12 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 	 * Current video category
 	 */
 	private VideoCategory currentVideoCategory = null;
+	/**
+	 * The key of the snapshot of the first page, or null, if the category is not stored.
+	 */
+	private String snapshotKey = null;
+	/** Set to true while the snapshot is displayed, until the first page is loaded again. */
+	private boolean showingSnapshot = false;
 
 	// This allows the grid items to pass messages back to MainActivity
 	protected MainActivityListener listener;
@@ -83,6 +108,8 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 	/** Set to true if the video adapter is initialized. */
 	private boolean initialized = false;
     private boolean refreshHappens = false;
+	/** Set to true while the next page is being loaded. */
+	private boolean loadingNextPage = false;
 
 	private VideoGridAdapter.Callback videoGridUpdated;
 
@@ -126,6 +153,34 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
         remove(card -> contentId.getId().equals(card.getId()));
     }
 
+    /**
+     * Will be called once the DB is updated - by a bulk deletion.
+     */
+    @Override
+    public void onCardsDeleted(final Collection<? extends ContentId> contentIds) {
+        final Set<String> ids = new HashSet<>(contentIds.size());
+        for (ContentId contentId : contentIds) {
+            ids.add(contentId.getId());
+        }
+        removeAll(card -> ids.contains(card.getId()));
+    }
+
+	@NonNull
+	@Override
+	public List<CardData> getPreloadItems(int position) {
+		return position < getItemCount() ? Collections.singletonList(get(position)) : Collections.emptyList();
+	}
+
+	@Nullable
+	@Override
+	public RequestBuilder<?> getPreloadRequestBuilder(@NonNull CardData card) {
+		final Context context = getContext();
+		if (context == null) {
+			return null;
+		}
+		return ThumbnailLoader.load(Glide.with(context), card.getThumbnailUrl(), ThumbnailLoader.getCardWidth(context));
+	}
+
 	/**
 	 * Set the video category.  Upon set, the adapter will download the videos of the specified
 	 * category asynchronously.
@@ -167,6 +222,7 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 
 			// set current video category
 			this.currentVideoCategory = videoCategory;
+			this.snapshotKey = PageSnapshotDb.getKey(videoCategory, searchQuery);
 
 		} catch (IOException e) {
 			Logger.e(this, "Could not init " + videoCategory, e);
@@ -219,23 +275,98 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 			// now, we consider this as initialized - sometimes 'refresh' can be called before the initializeList is called.
 			initialized = true;
 
+			if (clearVideosList && getItemCount() == 0) {
+				showSnapshot();
+			}
 			compositeDisposable.add(YouTubeTasks.getYouTubeVideos(getYouTubeVideos, this,
 					swipeRefreshLayout, clearVideosList).subscribe());
 		}
 	}
 
+	/**
+	 * Display the stored snapshot of the first page, while it's loaded from the network.
+	 */
+	private void showSnapshot() {
+		if (snapshotKey == null) {
+			return;
+		}
+		final boolean filtering = currentVideoCategory.isVideoFilteringEnabled();
+		compositeDisposable.add(PageSnapshotDb.getPageSnapshotDb().getSnapshotAsync(snapshotKey)
+				.map(cards -> filtering ? new VideoBlocker().filter(cards) : cards)
+				.observeOn(AndroidSchedulers.mainThread())
+				.subscribe(cards -> {
+					// only while the first page is still loading - or it failed to load
+					if (refreshHappens && getItemCount() == 0) {
+						Logger.d(this, "Displaying the snapshot of " + snapshotKey + ": " + cards.size() + " cards");
+						showingSnapshot = true;
+						appendList(cards);
+					}
+				}, error -> Logger.e(this, "Unable to display the snapshot of " + snapshotKey, error)));
+	}
+
+	/**
+	 * Replace the displayed cards with the reloaded first page. Only the differences are applied, so the cards of the
+	 * snapshot, which are still on the first page, stay in place. If nothing could be loaded, the snapshot is kept.
+	 */
+	public void replaceList(@NonNull List<CardData> cards) {
+		if (cards.isEmpty() && showingSnapshot) {
+			return;
+		}
+		showingSnapshot = false;
+		final List<CardData> oldCards = new ArrayList<>(list);
+		final DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+			@Override
+			public int getOldListSize() {
+				return oldCards.size();
+			}
+
+			@Override
+			public int getNewListSize() {
+				return cards.size();
+			}
+
+			@Override
+			public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+				return Objects.equals(oldCards.get(oldItemPosition).getId(), cards.get(newItemPosition).getId());
+			}
+
+			@Override
+			public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+				final CardData oldCard = oldCards.get(oldItemPosition);
+				final CardData newCard = cards.get(newItemPosition);
+				if (!Objects.equals(oldCard.getTitle(), newCard.getTitle())
+						|| !Objects.equals(oldCard.getThumbnailUrl(), newCard.getThumbnailUrl())
+						|| !Objects.equals(oldCard.getPublishTimestamp(), newCard.getPublishTimestamp())) {
+					return false;
+				}
+				if (oldCard instanceof YouTubeVideo && newCard instanceof YouTubeVideo) {
+					final YouTubeVideo oldVideo = (YouTubeVideo) oldCard;
+					final YouTubeVideo newVideo = (YouTubeVideo) newCard;
+					return Objects.equals(oldVideo.getViewsCountInt(), newVideo.getViewsCountInt())
+							&& Objects.equals(oldVideo.getDuration(), newVideo.getDuration());
+				}
+				return oldCard.getClass() == newCard.getClass();
+			}
+		});
+		list.clear();
+		list.addAll(cards);
+		diff.dispatchUpdatesTo(this);
+	}
+
 	@Override
 	public void onBindViewHolder(@NonNull GridViewHolder viewHolder, int position) {
 		viewHolder.updateInfo(get(position), getContext(), listener);
 
-		// if it reached the bottom of the list, then try to get the next page of videos
-		if (position >= getItemCount() - 1) {
+		// if it is close to the bottom of the list, then try to get the next page of videos
+		if (getYouTubeVideos != null && !loadingNextPage && !showingSnapshot && !getYouTubeVideos.noMoreVideoPages()
+				&& position >= getItemCount() - getYouTubeVideos.getPrefetchDistance()) {
 			Logger.d(this, "BOTTOM REACHED!!!");
-			if(getYouTubeVideos != null) {
-				refreshHappens = true;
-				compositeDisposable.add(YouTubeTasks.getYouTubeVideos(getYouTubeVideos, this,
-						swipeRefreshLayout, false).subscribe());
-			}
+			refreshHappens = true;
+			loadingNextPage = true;
+			compositeDisposable.add(YouTubeTasks.getYouTubeVideos(getYouTubeVideos, this,
+					swipeRefreshLayout, false)
+					.doFinally(() -> loadingNextPage = false)
+					.subscribe());
 		}
 	}
 
@@ -272,6 +403,10 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 		return currentVideoCategory;
 	}
 
+	public String getSnapshotKey() {
+		return snapshotKey;
+	}
+
     @Override
     public void onVideoStatusUpdated(CardData video) {
         if (video != null) {
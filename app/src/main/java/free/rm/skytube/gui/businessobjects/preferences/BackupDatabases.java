@@ -18,13 +18,18 @@
 package free.rm.skytube.gui.businessobjects.preferences;
 
 import android.content.SharedPreferences;
+import android.database.sqlite.SQLiteDatabase;
 import android.os.Environment;
 import android.util.Log;
 
 import com.google.gson.Gson;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
@@ -37,11 +42,7 @@ import java.util.TimeZone;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.businessobjects.db.BookmarksDb;
-import free.rm.skytube.businessobjects.db.ChannelFilteringDb;
-import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
-import free.rm.skytube.businessobjects.db.SearchHistoryDb;
-import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+import free.rm.skytube.businessobjects.db.SkyTubeDatabase;
 
 /**
  * A class that handles subscriptions and bookmarks databases backups.
@@ -83,36 +84,49 @@ public class BackupDatabases {
 	 * @throws IOException
 	 */
 	public String backupDbsToSdCard() throws IOException {
-		SubscriptionsDb     subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
-		BookmarksDb         bookmarksDb = BookmarksDb.getBookmarksDb();
-		PlaybackStatusDb    playbackDb = PlaybackStatusDb.getPlaybackStatusDb();
-		ChannelFilteringDb  channelFilteringDb = ChannelFilteringDb.getChannelFilteringDb();
-		SearchHistoryDb     searchHistoryDb = SearchHistoryDb.getSearchHistoryDb();
+		SkyTubeDatabase     database = SkyTubeDatabase.getInstance();
 
 		final File          backupPath = new File(EXPORT_DIR, generateFileName());
 
 		Gson gson = new Gson();
 
-		// close the databases
-		subscriptionsDb.close();
-		bookmarksDb.close();
-		playbackDb.close();
-		channelFilteringDb.close();
-		searchHistoryDb.close();
-
-		try (ZipOutput databasesZip = new ZipOutput(backupPath)) {
-			// backup the databases inside a zip file
-			databasesZip.addFile(subscriptionsDb.getDatabasePath());
-			databasesZip.addFile(bookmarksDb.getDatabasePath());
-			databasesZip.addFile(playbackDb.getDatabasePath());
-			databasesZip.addFile(channelFilteringDb.getDatabasePath());
-			databasesZip.addFile(searchHistoryDb.getDatabasePath());
-
-			databasesZip.addContent(PREFERENCES_JSON, gson.toJson(getImportantKeys()));
+		// close the database, so the write-ahead log is merged into the database file
+		database.close();
+
+		// the device-local tables - like the paths of the downloaded files - are removed from a copy of the database
+		final File          databaseFile = new File(database.getDatabasePath());
+		final File          exportDirectory = new File(SkyTubeApp.getContext().getCacheDir(), "backup");
+		final File          exportedDatabase = new File(exportDirectory, databaseFile.getName());
+		try {
+			if (!exportDirectory.isDirectory() && !exportDirectory.mkdirs()) {
+				throw new IOException("Unable to create " + exportDirectory);
+			}
+			copyFile(databaseFile, exportedDatabase);
+			SkyTubeDatabase.clearDeviceLocalTables(exportedDatabase);
+
+			try (ZipOutput databasesZip = new ZipOutput(backupPath)) {
+				// backup the database inside a zip file
+				databasesZip.addFile(exportedDatabase.getPath());
+
+				databasesZip.addContent(PREFERENCES_JSON, gson.toJson(getImportantKeys()));
+			}
+		} finally {
+			SQLiteDatabase.deleteDatabase(exportedDatabase);
 		}
 		return backupPath.getPath();
 	}
 
+	private static void copyFile(File from, File to) throws IOException {
+		try (InputStream input = new FileInputStream(from);
+			 OutputStream output = new FileOutputStream(to)) {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = input.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+			}
+		}
+	}
+
 
 	private static Map<String, Object> getImportantKeys() {
 		Map<String, ?> allPreferences = SkyTubeApp.getPreferenceManager().getAll();
@@ -127,31 +141,31 @@ public class BackupDatabases {
 	}
 
 	/**
-	 * Imports the backed-up databases.
+	 * Imports the backed-up databases. The backups of the older versions contain a database file for each
+	 * feature, these are copied into the shared database, when it is opened next time.
 	 *
 	 * @param backupFilePath    Path to the backup file (*.skytube)
 	 * @throws IOException
 	 */
 	public void importBackupDb(String backupFilePath) throws IOException {
 
-		SubscriptionsDb     subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
-		BookmarksDb         bookmarksDb = BookmarksDb.getBookmarksDb();
-		PlaybackStatusDb    playbackDb = PlaybackStatusDb.getPlaybackStatusDb();
-		ChannelFilteringDb  channelFilteringDb = ChannelFilteringDb.getChannelFilteringDb();
-		SearchHistoryDb     searchHistoryDb = SearchHistoryDb.getSearchHistoryDb();
+		SkyTubeDatabase     database = SkyTubeDatabase.getInstance();
 
-		File                databasesDirectory = subscriptionsDb.getDatabaseDirectory();
+		File                databasesDirectory = database.getDatabaseDirectory();
 
-		// close the databases
-		subscriptionsDb.close();
-		bookmarksDb.close();
-		playbackDb.close();
-		channelFilteringDb.close();
-		searchHistoryDb.close();
+		// close the database
+		database.close();
+		database.deleteWriteAheadLog();
 
 		// extract the databases from the backup zip file
 		ZipFile databasesZip = new ZipFile(new File(backupFilePath));
 		Map<String, ZipFile.JsonFile> result = databasesZip.unzip(databasesDirectory);
+		final File databaseFile = new File(database.getDatabasePath());
+		if (databasesZip.contains(databaseFile.getName())) {
+			// the downloads of the other device - or of the past - are not valid here, the files in the download
+			// folders are imported again by the next scan
+			SkyTubeDatabase.clearDeviceLocalTables(databaseFile);
+		}
 		loadPreferencesFromJson(result);
 	}
 
@@ -95,6 +95,22 @@ public class ZipFile {
 		}
 	}
 
+	/**
+	 * @return True, if the zip file contains a file with the given name.
+	 */
+	public boolean contains(String name) throws IOException {
+		try (FileInputStream fin = new FileInputStream(zipFilePath);
+			 ZipInputStream zipInputStream = new ZipInputStream(fin)) {
+			ZipEntry zipEntry;
+			while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+				if (name.equals(zipEntry.getName())) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
 	private void copyStream(ZipInputStream zipInputStream, OutputStream fout) throws IOException {
 		byte[]              buffer = new byte[BUFFER_SIZE];
 		int                 count;
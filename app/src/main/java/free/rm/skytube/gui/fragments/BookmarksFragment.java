@@ -26,6 +26,8 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Collection;
+
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.VideoCategory;
@@ -87,6 +89,14 @@ public class BookmarksFragment extends OrderableVideosGridFragment implements Ca
         }
     }
 
+    @Override
+    public void onCardsDeleted(final Collection<? extends ContentId> contentIds) {
+        videoGridAdapter.onCardsDeleted(contentIds);
+        if (videoGridAdapter.getItemCount() == 0) {
+            setListVisible(false);
+        }
+    }
+
 	@Override
 	protected VideoCategory getVideoCategory() {
 		return VideoCategory.BOOKMARKS_VIDEOS;
@@ -9,6 +9,8 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Collection;
+
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.VideoCategory;
@@ -84,6 +86,14 @@ public class DownloadedVideosFragment extends OrderableVideosGridFragment implem
         }
     }
 
+    @Override
+    public void onCardsDeleted(final Collection<? extends ContentId> contentIds) {
+        videoGridAdapter.onCardsDeleted(contentIds);
+        if (videoGridAdapter.getItemCount() == 0) {
+            setListVisible(false);
+        }
+    }
+
     private void populateList() {
         DownloadedVideosDb.getVideoDownloadsDb().getTotalCount()
                 .observeOn(AndroidSchedulers.mainThread())
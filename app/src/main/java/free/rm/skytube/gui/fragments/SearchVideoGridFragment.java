@@ -42,9 +42,12 @@ import free.rm.skytube.gui.businessobjects.adapters.VideoGridAdapter;
  */
 public class SearchVideoGridFragment extends VideosGridFragment {
 	public static final String QUERY = "SearchVideoGridFragment.Query";
+	/** Search in the locally stored videos of the subscriptions, instead of YouTube. */
+	public static final String SEARCH_SUBSCRIPTIONS = "SearchVideoGridFragment.SearchSubscriptions";
 
 	/** User's search query string. */
 	private String searchQuery = "";
+	private boolean searchSubscriptions;
 	/** Edit searched query through long press on search query**/
 	private SearchView editSearchView;
     private SearchActionbarBinding searchActionbar;
@@ -56,6 +59,7 @@ public class SearchVideoGridFragment extends VideosGridFragment {
 
 		// set the user's search query
 		searchQuery = requireArguments().getString(QUERY);
+		searchSubscriptions = requireArguments().getBoolean(SEARCH_SUBSCRIPTIONS, false);
 	}
 
     @Override
@@ -141,7 +145,7 @@ public class SearchVideoGridFragment extends VideosGridFragment {
 
 	@Override
 	protected VideoCategory getVideoCategory() {
-		return VideoCategory.SEARCH_QUERY;
+		return searchSubscriptions ? VideoCategory.SUBSCRIPTIONS_SEARCH_QUERY : VideoCategory.SEARCH_QUERY;
 	}
 
 
@@ -98,7 +98,7 @@ public class SubscriptionsFeedFragment extends VideosGridFragment implements Get
         // setup the UI and refresh the feed (if applicable)
         Settings settings = SkyTubeApp.getSettings();
         if (settings.isFullRefreshTimely() || settings.isRefreshSubsFeedFull()) {
-            startRefreshTask();
+            startRefreshTask(false);
         }
 
         refreshFeedFromCache();
@@ -127,11 +127,12 @@ public class SubscriptionsFeedFragment extends VideosGridFragment implements Get
 
     @Override
     public void onRefresh() {
-        startRefreshTask();
+        // the user explicitly asked for a refresh, check every channel
+        startRefreshTask(true);
     }
 
-    private synchronized void startRefreshTask() {
-        FeedUpdateTask.getInstance().start(requireContext());
+    private synchronized void startRefreshTask(boolean fullSweep) {
+        FeedUpdateTask.getInstance().start(requireContext(), fullSweep);
     }
 
     @Override
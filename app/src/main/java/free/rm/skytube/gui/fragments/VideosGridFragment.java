@@ -33,6 +33,7 @@ import free.rm.skytube.R;
 import free.rm.skytube.businessobjects.VideoCategory;
 import free.rm.skytube.databinding.VideosGridviewBinding;
 import free.rm.skytube.gui.businessobjects.MainActivityListener;
+import free.rm.skytube.gui.businessobjects.ThumbnailLoader;
 import free.rm.skytube.gui.businessobjects.adapters.VideoGridAdapter;
 import free.rm.skytube.gui.businessobjects.fragments.BaseVideosGridFragment;
 
@@ -69,6 +70,7 @@ public abstract class VideosGridFragment extends BaseVideosGridFragment {
         gridviewBinding.gridView.setLayoutManager(new GridLayoutManager(getActivity(),
                 getResources().getInteger(R.integer.video_grid_num_columns)));
         gridviewBinding.gridView.setAdapter(videoGridAdapter);
+        gridviewBinding.gridView.addOnScrollListener(ThumbnailLoader.createPreloader(this, videoGridAdapter));
         gridviewBinding.swipeRefreshLayout.setOnRefreshListener(this);
     }
 
@@ -193,6 +193,7 @@ public class YouTubePlayerV1Fragment extends ImmersiveModeFragment implements Me
 	@Override
 	public void onDestroy() {
 		compositeDisposable.clear();
+		PlaybackStatusDb.getPlaybackStatusDb().flushPendingPositionsAsync();
 		videoDescriptionBinding.videoDescSubscribeButton.clearBackgroundTasks();
 		fragmentBinding = null;
 		videoDescriptionBinding = null;
@@ -935,8 +936,7 @@ public class YouTubePlayerV1Fragment extends ImmersiveModeFragment implements Me
 	}
 
 	private void saveVideoPosition(int position) {
-		compositeDisposable.add(
-				PlaybackStatusDb.getPlaybackStatusDb().setVideoPositionInBackground(youTubeVideo, position));
+		PlaybackStatusDb.getPlaybackStatusDb().setVideoPositionInBackground(youTubeVideo, position);
 	}
 
 	@Override
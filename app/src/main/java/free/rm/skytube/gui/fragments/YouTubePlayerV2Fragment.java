@@ -807,13 +807,13 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
     }
 
     private void saveVideoPosition() {
-        compositeDisposable.add(
-                PlaybackStatusDb.getPlaybackStatusDb().setVideoPositionInBackground(youTubeVideo, player.getCurrentPosition()));
+        PlaybackStatusDb.getPlaybackStatusDb().setVideoPositionInBackground(youTubeVideo, player.getCurrentPosition());
     }
 
     @Override
     public void onDestroy() {
         compositeDisposable.clear();
+        PlaybackStatusDb.getPlaybackStatusDb().flushPendingPositionsAsync();
         super.onDestroy();
         // stop the player from playing (when this fragment is going to be destroyed) and clean up
         player.stop();
@@ -0,0 +1,90 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class StartupTraceTest {
+    private final AtomicLong clock = new AtomicLong(1000);
+    private final List<String> reports = new ArrayList<>();
+    private final StartupTrace trace = new StartupTrace(clock::get, 900, 2, reports::add);
+
+    @Test
+    void recordsStagesRelativeToTheProcessStart() {
+        trace.run("settings", () -> clock.addAndGet(15));
+        trace.mark("application created");
+
+        List<StartupTrace.Stage> stages = trace.getStages();
+        assertEquals(2, stages.size());
+        assertEquals("settings", stages.get(0).name);
+        assertEquals(100, stages.get(0).startMs);
+        assertEquals(15, stages.get(0).durationMs);
+        assertEquals("application created", stages.get(1).name);
+        assertEquals(115, stages.get(1).startMs);
+        assertEquals(0, stages.get(1).durationMs);
+    }
+
+    @Test
+    void failedStageIsRecorded() {
+        assertThrows(IOException.class, () -> trace.run("language detection", () -> {
+            clock.addAndGet(7);
+            throw new IOException("missing profiles");
+        }));
+
+        assertEquals(1, trace.getStages().size());
+        assertEquals(7, trace.getStages().get(0).durationMs);
+    }
+
+    @Test
+    void reportedOnceAfterTheLastPart() {
+        trace.run("settings", () -> clock.addAndGet(10));
+        trace.finishPart("deferred initialization");
+        assertEquals(0, reports.size());
+
+        clock.addAndGet(40);
+        trace.finishPart("main activity shown");
+        assertEquals(1, reports.size());
+        assertEquals("total=150ms, settings=10ms@100[" + Thread.currentThread().getName() + "], deferred initialization=0ms@110["
+                + Thread.currentThread().getName() + "], main activity shown=0ms@150[" + Thread.currentThread().getName() + "]", reports.get(0));
+
+        // a recreated activity is not part of the startup
+        trace.mark("main activity created");
+        trace.finishPart("main activity shown");
+        assertEquals(1, reports.size());
+        assertEquals(3, trace.getStages().size());
+    }
+
+    @Test
+    void stagesAreOrderedByStart() {
+        final long start = clock.get();
+        clock.addAndGet(20);
+        trace.mark("later");
+        clock.set(start);
+        trace.mark("earlier");
+
+        assertEquals("earlier", trace.getStages().get(0).name);
+        assertEquals("later", trace.getStages().get(1).name);
+    }
+}
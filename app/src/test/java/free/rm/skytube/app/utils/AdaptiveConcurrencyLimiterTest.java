@@ -0,0 +1,111 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter create() {
+        return new AdaptiveConcurrencyLimiter(1, 4, 16, 1000, now::get);
+    }
+
+    @Test
+    void testAdditiveIncrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = create();
+        // roughly one increase per 'limit' successful requests
+        for (int i = 0; i < 5; i++) {
+            long start = limiter.acquire();
+            now.addAndGet(ms(100));
+            limiter.release(start, true);
+        }
+        Assertions.assertEquals(5, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testMultiplicativeDecreaseOncePerBurst() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = create();
+        long[] starts = new long[4];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limiter.acquire();
+        }
+        Assertions.assertEquals(4, limiter.getMaxInFlight());
+        now.addAndGet(ms(100));
+        for (long start : starts) {
+            limiter.release(start, false);
+        }
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testSlowRequestDecreases() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = create();
+        long start = limiter.acquire();
+        now.addAndGet(ms(2000));
+        Assertions.assertEquals(2000, limiter.release(start, true));
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testBackOff() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = create();
+        long start = limiter.acquire();
+        limiter.backOff();
+        now.addAndGet(ms(100));
+        limiter.release(start, false);
+        Assertions.assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void testBackOffIsNotUndoneByTheCaptchaResponses() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = create();
+        long[] starts = new long[4];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limiter.acquire();
+        }
+        now.addAndGet(ms(50));
+        limiter.backOff();
+        // the captcha responses arrive quickly, but they are released as failures
+        for (long start : starts) {
+            limiter.release(start, false);
+        }
+        Assertions.assertEquals(1, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+
+        // only the requests after the back off can raise the limit again
+        long start = limiter.acquire();
+        now.addAndGet(ms(100));
+        limiter.release(start, true);
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testInvalidLimits() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(0, 1, 2, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(2, 1, 2, 100));
+    }
+
+    private static long ms(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExpiringCacheTest {
+    private final AtomicLong now = new AtomicLong(1000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Executor direct = Runnable::run;
+
+    @Test
+    void testValueIsReusedUntilExpiry() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10, now::get);
+        Assertions.assertEquals("a-1", load(cache, "a"));
+        now.addAndGet(50);
+        Assertions.assertEquals("a-1", load(cache, "a"));
+        now.addAndGet(50);
+        Assertions.assertEquals("a-2", load(cache, "a"));
+    }
+
+    @Test
+    void testPendingLoadIsShared() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10, now::get);
+        Executor never = command -> { };
+        Future<String> first = cache.get("a", () -> "first", never);
+        Future<String> second = cache.get("a", () -> "second", never);
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    void testFailuresAreNotCached() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10, now::get);
+        Future<String> failed = cache.get("a", () -> {
+            throw new IOException("network");
+        }, direct);
+        Assertions.assertThrows(ExecutionException.class, failed::get);
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals("a-1", load(cache, "a"));
+    }
+
+    @Test
+    void testSizeIsBounded() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 2, now::get);
+        for (String key : new String[] { "a", "b", "c" }) {
+            load(cache, key);
+            now.incrementAndGet();
+        }
+        Assertions.assertEquals(2, cache.size());
+        // 'a' was the oldest, so it needs to be loaded again
+        Assertions.assertEquals("a-4", load(cache, "a"));
+    }
+
+    @Test
+    void testValueCanShortenItsLifetime() throws Exception {
+        // the values, which end with '1', expire sooner
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10,
+                value -> value.endsWith("1") ? now.get() + 20 : Long.MAX_VALUE, now::get);
+        Assertions.assertEquals("a-1", load(cache, "a"));
+        now.addAndGet(10);
+        Assertions.assertEquals("a-1", load(cache, "a"));
+        now.addAndGet(10);
+        Assertions.assertEquals("a-2", load(cache, "a"));
+        now.addAndGet(90);
+        Assertions.assertEquals("a-2", load(cache, "a"));
+    }
+
+    @Test
+    void testPeekAndRemove() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10, now::get);
+        Assertions.assertNull(cache.peek("a"));
+        load(cache, "a");
+        Assertions.assertEquals("a-1", cache.peek("a").get());
+        cache.remove("a");
+        Assertions.assertNull(cache.peek("a"));
+        load(cache, "a");
+        now.addAndGet(100);
+        Assertions.assertNull(cache.peek("a"));
+    }
+
+    private String load(ExpiringCache<String, String> cache, String key) throws Exception {
+        return cache.get(key, () -> key + '-' + loads.incrementAndGet(), direct).get();
+    }
+}
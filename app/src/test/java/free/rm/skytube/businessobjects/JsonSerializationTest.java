@@ -22,12 +22,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 
 import free.rm.skytube.businessobjects.Sponsorblock.SBSegment;
 import free.rm.skytube.businessobjects.Sponsorblock.SBVideoInfo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
@@ -132,6 +137,29 @@ class JsonSerializationTest {
         Assertions.assertEquals(7000.0, seg2.getEndPos());
     }
 
+    @Test
+    void cardSnapshotRoundTrip() throws IOException {
+        // the channel refers back to the video
+        channel.addYouTubeVideo(video);
+        YouTubePlaylist playlist = new YouTubePlaylist("PL1234", "playlist", "", null, 12, THUMBNAIL_URL, channel);
+        YouTubeChannel otherChannel = new YouTubeChannel("UC5678", "Other channel");
+
+        List<CardData> cards = serializer.fromCardSnapshot(serializer.toCardSnapshot(Arrays.asList(video, playlist, otherChannel)));
+
+        Assertions.assertEquals(3, cards.size());
+        YouTubeVideo newVideo = (YouTubeVideo) cards.get(0);
+        verifyVideoProperties(newVideo);
+        verifyChannel(newVideo);
+        Assertions.assertTrue(newVideo.getChannel().getYouTubeVideos().isEmpty());
+        YouTubePlaylist newPlaylist = (YouTubePlaylist) cards.get(1);
+        Assertions.assertEquals("PL1234", newPlaylist.getId());
+        Assertions.assertEquals(12, newPlaylist.getVideoCount());
+        Assertions.assertEquals(CHANNEL_TITLE, newPlaylist.getChannelTitle());
+        YouTubeChannel newChannel = (YouTubeChannel) cards.get(2);
+        Assertions.assertEquals("UC5678", newChannel.getId());
+        Assertions.assertEquals("Other channel", newChannel.getTitle());
+    }
+
     private void verifyVideoProperties(YouTubeVideo newVideo) {
         Assertions.assertEquals(VIDEO_ID, newVideo.getId());
         Assertions.assertEquals(TITLE, newVideo.getTitle());
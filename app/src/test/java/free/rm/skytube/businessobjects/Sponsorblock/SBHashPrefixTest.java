@@ -0,0 +1,70 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.Sponsorblock;
+
+import com.grack.nanojson.JsonArray;
+import com.grack.nanojson.JsonParser;
+import com.grack.nanojson.JsonParserException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class SBHashPrefixTest {
+
+    @Test
+    void testSha256() {
+        Assertions.assertEquals("5f6b0b4e201f2a7e66927abb5cadeec81624dcc8efe6644b78aa182213f653a2", SBHashPrefix.sha256("dQw4w9WgXcQ"));
+        Assertions.assertEquals("5f6b", SBHashPrefix.getPrefix("dQw4w9WgXcQ"));
+    }
+
+    @Test
+    void testGroupByPrefix() {
+        // every video is requested once, even if it is listed twice
+        final Map<String, List<String>> groups = SBHashPrefix.groupByPrefix(Arrays.asList("dQw4w9WgXcQ", "aaaaaaaaaaa", "dQw4w9WgXcQ"));
+        Assertions.assertEquals(2, groups.size());
+        Assertions.assertEquals(Collections.singletonList("aaaaaaaaaaa"), groups.get("28cb"));
+        Assertions.assertEquals(Collections.singletonList("dQw4w9WgXcQ"), groups.get("5f6b"));
+    }
+
+    @Test
+    void testParse() throws JsonParserException {
+        final JsonArray response = JsonParser.array().from("[" +
+                "{\"videoID\":\"dQw4w9WgXcQ\",\"hash\":\"5f6b0b4e\",\"segments\":[" +
+                "{\"category\":\"sponsor\",\"segment\":[1.5,10],\"videoDuration\":212}," +
+                "{\"category\":\"intro\",\"segment\":[0,1.5],\"videoDuration\":212}]}," +
+                "{\"videoID\":\"otherVideo1\",\"hash\":\"5f6b1234\",\"segments\":[" +
+                "{\"category\":\"sponsor\",\"segment\":[3,4],\"videoDuration\":100}]}]");
+
+        final Map<String, SBVideoInfo> result = SBHashPrefix.parse(response, Arrays.asList("dQw4w9WgXcQ", "notInResult"));
+        Assertions.assertEquals(1, result.size());
+        final SBVideoInfo info = result.get("dQw4w9WgXcQ");
+        Assertions.assertEquals(212.0, info.getVideoDuration());
+        Assertions.assertEquals(2, info.getSegments().size());
+
+        final Set<String> sponsorOnly = Collections.singleton("sponsor");
+        final SBVideoInfo filtered = info.filter(sponsorOnly);
+        Assertions.assertEquals(1, filtered.getSegments().size());
+        Assertions.assertEquals(1.5, filtered.getSegments().get(0).getStartPos());
+        Assertions.assertNull(info.filter(Collections.singleton("outro")));
+    }
+}
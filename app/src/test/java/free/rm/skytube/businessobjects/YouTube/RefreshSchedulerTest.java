@@ -0,0 +1,70 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+
+public class RefreshSchedulerTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long NOW = 1000 * DAY;
+
+    private static RefreshScheduler.ChannelState channel(String id, long lastCheck, long uploadInterval, long lastUpload) {
+        RefreshScheduler.ChannelState state = new RefreshScheduler.ChannelState(new ChannelId(id), lastCheck, lastUpload);
+        for (int i = 0; i < RefreshScheduler.MAX_UPLOADS; i++) {
+            state.addUpload(lastUpload - i * uploadInterval);
+        }
+        return state;
+    }
+
+    @Test
+    void testCadenceIsMedianGap() {
+        Assertions.assertEquals(2 * DAY, RefreshScheduler.getCadence(Arrays.asList(0L, 2 * DAY, 4 * DAY, 5 * DAY, 7 * DAY)));
+        Assertions.assertEquals(RefreshScheduler.DEFAULT_CADENCE_MS, RefreshScheduler.getCadence(Collections.singletonList(DAY)));
+    }
+
+    @Test
+    void testDormantChannelBacksOffExponentially() {
+        long active = RefreshScheduler.getRefreshInterval(channel("a", NOW, 2 * DAY, NOW - DAY), NOW);
+        long quiet = RefreshScheduler.getRefreshInterval(channel("b", NOW, 2 * DAY, NOW - 8 * DAY), NOW);
+        long dormant = RefreshScheduler.getRefreshInterval(channel("c", NOW, 2 * DAY, NOW - 400 * DAY), NOW);
+        Assertions.assertEquals(DAY, active);
+        Assertions.assertEquals(4 * DAY, quiet);
+        Assertions.assertEquals(RefreshScheduler.MAX_INTERVAL_MS, dormant);
+    }
+
+    @Test
+    void testScheduleOnlyDueChannels() {
+        List<RefreshScheduler.ChannelState> channels = Arrays.asList(
+                channel("dormant", NOW - 2 * DAY, DAY, NOW - 300 * DAY),
+                channel("active", NOW - 3 * HOUR, 4 * HOUR, NOW - HOUR),
+                channel("checked", NOW - HOUR, DAY, NOW - DAY),
+                new RefreshScheduler.ChannelState(new ChannelId("new"), 0, null));
+
+        Assertions.assertEquals(Arrays.asList(new ChannelId("new"), new ChannelId("active")),
+                RefreshScheduler.schedule(channels, NOW, false));
+        Assertions.assertEquals(4, RefreshScheduler.schedule(channels, NOW, true).size());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class YouTubeThumbnailsTest {
+    private static final String BASE = "https://i.ytimg.com/vi/dQw4w9WgXcQ/";
+
+    @Test
+    void testSmallerVariantWithSameAspectRatio() {
+        Assertions.assertEquals(BASE + "default.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "hqdefault.jpg", 100));
+        Assertions.assertEquals(BASE + "hqdefault.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "sddefault.jpg", 400));
+        // the query parameters of the original variant are dropped
+        Assertions.assertEquals(BASE + "mqdefault.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "hq720.jpg?sqp=abc&rs=def", 300));
+        Assertions.assertEquals("https://i.ytimg.com/vi_webp/dQw4w9WgXcQ/mqdefault.webp",
+                YouTubeThumbnails.getUrlForWidth("https://i.ytimg.com/vi_webp/dQw4w9WgXcQ/maxresdefault.webp", 320));
+    }
+
+    @Test
+    void testNeverLarger() {
+        Assertions.assertEquals(BASE + "hqdefault.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "hqdefault.jpg", 1080));
+        Assertions.assertEquals(BASE + "hq720.jpg?sqp=abc", YouTubeThumbnails.getUrlForWidth(BASE + "hq720.jpg?sqp=abc", 1080));
+        Assertions.assertEquals(BASE + "mqdefault.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "mqdefault.jpg", 1080));
+    }
+
+    @Test
+    void testOtherUrls() {
+        Assertions.assertNull(YouTubeThumbnails.getUrlForWidth(null, 100));
+        Assertions.assertEquals(BASE + "custom.jpg", YouTubeThumbnails.getUrlForWidth(BASE + "custom.jpg", 100));
+        final String avatar = "https://yt3.ggpht.com/abc=s88-c-k-c0x00ffffff-no-rj";
+        Assertions.assertEquals(avatar, YouTubeThumbnails.getUrlForWidth(avatar, 100));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FeedValidatorTest {
+
+    private static String feed(int views, String... ids) {
+        StringBuilder feed = new StringBuilder("<feed><title>Channel</title>");
+        for (String id : ids) {
+            feed.append("<entry><yt:videoId>").append(id).append("</yt:videoId>")
+                    .append("<media:statistics views=\"").append(views).append("\"/></entry>");
+        }
+        return feed.append("</feed>").toString();
+    }
+
+    @Test
+    void testHashIgnoresStatistics() {
+        Assertions.assertEquals(FeedValidator.hashVideoIds(feed(10, "a", "b")), FeedValidator.hashVideoIds(feed(20, "a", "b")));
+    }
+
+    @Test
+    void testHashChangesWithNewVideo() {
+        Assertions.assertNotEquals(FeedValidator.hashVideoIds(feed(10, "a", "b")), FeedValidator.hashVideoIds(feed(10, "c", "a", "b")));
+    }
+
+    @Test
+    void testEmptyFeed() {
+        Assertions.assertNull(FeedValidator.hashVideoIds(feed(10)));
+    }
+
+    @Test
+    void testUpdateTracksChanges() {
+        FeedValidator validator = new FeedValidator("etag", null, "hash");
+        validator.update("etag", null, "hash");
+        Assertions.assertFalse(validator.isChanged());
+        validator.update("etag2", null, "hash");
+        Assertions.assertTrue(validator.isChanged());
+        Assertions.assertEquals("etag2", validator.getETag());
+    }
+
+    @Test
+    void testPendingValuesAreOnlyAppliedOnRequest() {
+        FeedValidator validator = new FeedValidator("etag", null, "hash");
+        FeedValidator.Candidate candidate = new FeedValidator.Candidate("etag2", null, "hash2");
+        Assertions.assertFalse(validator.isSameContent(candidate));
+        validator.setPending(candidate);
+        // a retry after a failed extraction still compares with the previous feed
+        Assertions.assertEquals("etag", validator.getETag());
+        Assertions.assertFalse(validator.isSameContent(candidate));
+        Assertions.assertFalse(validator.isChanged());
+
+        validator.applyPending();
+        Assertions.assertTrue(validator.isChanged());
+        Assertions.assertEquals("etag2", validator.getETag());
+        Assertions.assertTrue(validator.isSameContent(candidate));
+    }
+
+    @Test
+    void testNotModifiedHasNothingToApply() {
+        FeedValidator validator = new FeedValidator("etag", null, "hash");
+        Assertions.assertTrue(validator.isSameContent(FeedValidator.Candidate.NOT_MODIFIED));
+        validator.setPending(FeedValidator.Candidate.NOT_MODIFIED);
+        validator.applyPending();
+        Assertions.assertFalse(validator.isChanged());
+        Assertions.assertEquals("hash", validator.getContentHash());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StreamInfoCacheTest {
+
+    @Test
+    void testQueryParameter() {
+        Assertions.assertEquals(1_800_000_000_000L,
+                StreamInfoCache.getUrlExpiry("https://rr1---sn-abc.googlevideo.com/videoplayback?expire=1800000000&ei=xyz&itag=18"));
+        Assertions.assertEquals(1_800_000_000_000L,
+                StreamInfoCache.getUrlExpiry("https://rr1---sn-abc.googlevideo.com/videoplayback?ei=xyz&expire=1800000000"));
+    }
+
+    @Test
+    void testPathParameter() {
+        Assertions.assertEquals(1_800_000_000_000L,
+                StreamInfoCache.getUrlExpiry("https://manifest.googlevideo.com/api/manifest/hls_variant/expire/1800000000/ei/xyz/file/index.m3u8"));
+    }
+
+    @Test
+    void testNoExpiry() {
+        Assertions.assertEquals(Long.MAX_VALUE, StreamInfoCache.getUrlExpiry(null));
+        Assertions.assertEquals(Long.MAX_VALUE, StreamInfoCache.getUrlExpiry("https://example.com/video.mp4?noexpire=1800000000"));
+    }
+}
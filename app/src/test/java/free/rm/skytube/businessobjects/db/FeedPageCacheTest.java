@@ -0,0 +1,161 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+
+public class FeedPageCacheTest {
+
+    private static class FakeFeed implements FeedPageCache.Loader<CardData> {
+        final List<CardData> items = new ArrayList<>();
+        int pageQueries;
+        int headQueries;
+
+        FakeFeed(int count) {
+            for (int i = 0; i < count; i++) {
+                add("v" + i, 1000 - i);
+            }
+        }
+
+        void add(String id, long publishTime) {
+            CardData item = new CardData();
+            item.setId(id);
+            item.setPublishTimestamp(publishTime);
+            items.add(item);
+            items.sort(Comparator.comparing((CardData card) -> card.getPublishTimestamp()).reversed().thenComparing(CardData::getId));
+        }
+
+        CardData get(String id) {
+            for (CardData item : items) {
+                if (item.getId().equals(id)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public List<CardData> loadPage(int limit, String afterId, long afterPublishTime) {
+            pageQueries++;
+            List<CardData> result = new ArrayList<>();
+            for (CardData item : items) {
+                long time = item.getPublishTimestamp();
+                if (result.size() < limit && (afterId == null || time < afterPublishTime || (time == afterPublishTime && item.getId().compareTo(afterId) > 0))) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<CardData> loadHead(long minPublishTime, int limit) {
+            headQueries++;
+            List<CardData> result = new ArrayList<>();
+            for (CardData item : items) {
+                if (result.size() < limit && item.getPublishTimestamp() >= minPublishTime) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+    }
+
+    private final FakeFeed feed = new FakeFeed(50);
+    private final FeedPageCache<CardData> cache = new FeedPageCache<>(feed, Runnable::run, 20, 2);
+
+    /** Read the whole feed, page by page, as the video grid does. */
+    private List<String> readAll() {
+        List<String> ids = new ArrayList<>();
+        List<CardData> page = cache.getPage(null, 0);
+        while (!page.isEmpty()) {
+            for (CardData item : page) {
+                ids.add(item.getId());
+            }
+            CardData last = page.get(page.size() - 1);
+            page = cache.getPage(last.getId(), last.getPublishTimestamp());
+        }
+        return ids;
+    }
+
+    private List<String> expected() {
+        List<String> ids = new ArrayList<>();
+        for (CardData item : feed.items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testFirstPagesAreCached() {
+        Assertions.assertEquals(expected(), readAll());
+        int queries = feed.pageQueries;
+        Assertions.assertEquals(20, cache.getPage(null, 0).size());
+        Assertions.assertEquals(queries, feed.pageQueries);
+        Assertions.assertEquals(20, cache.getPage("v19", 981).size());
+        // the page after the cached window is prefetched
+        Assertions.assertEquals(queries + 1, feed.pageQueries);
+    }
+
+    @Test
+    void testOnlyTheHeadIsReloaded() {
+        readAll();
+        feed.add("new1", 2000);
+        feed.add("new2", 2001);
+        cache.markChanged(2000);
+        int queries = feed.pageQueries;
+        List<CardData> first = cache.getPage(null, 0);
+        Assertions.assertEquals(1, feed.headQueries);
+        Assertions.assertEquals(queries, feed.pageQueries);
+        Assertions.assertEquals("new2", first.get(0).getId());
+        Assertions.assertEquals(expected(), readAll());
+    }
+
+    @Test
+    void testMovedItem() {
+        readAll();
+        feed.items.remove(feed.get("v30"));
+        feed.add("v30", 1500);
+        cache.markChanged("v30", 1500);
+        Assertions.assertEquals("v30", cache.getPage(null, 0).get(0).getId());
+        Assertions.assertEquals(expected(), readAll());
+    }
+
+    @Test
+    void testInvalidate() {
+        readAll();
+        feed.items.remove(feed.get("v3"));
+        cache.invalidate();
+        Assertions.assertEquals(expected(), readAll());
+        Assertions.assertEquals(0, feed.headQueries);
+    }
+
+    @Test
+    void testSmallFeedIsComplete() {
+        FakeFeed small = new FakeFeed(5);
+        FeedPageCache<CardData> smallCache = new FeedPageCache<>(small, Runnable::run, 20, 2);
+        Assertions.assertEquals(5, smallCache.getPage(null, 0).size());
+        Assertions.assertTrue(smallCache.getPage("v4", 996).isEmpty());
+        Assertions.assertEquals(1, small.pageQueries);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+
+public class FullTextSearchTest {
+
+    @Test
+    void testMatchExpression() {
+        Assertions.assertEquals("\"Linux*\" \"kernel*\"", FullTextSearch.toMatchExpression(" Linux  kernel"));
+        Assertions.assertEquals("\"OR*\" \"c*\"", FullTextSearch.toMatchExpression("\"OR\" c++ -"));
+        Assertions.assertEquals("\"\u00c1rv\u00edzt\u0171r\u0151*\"", FullTextSearch.toMatchExpression("\u00c1rv\u00edzt\u0171r\u0151"));
+        Assertions.assertNull(FullTextSearch.toMatchExpression(" *\" "));
+        Assertions.assertNull(FullTextSearch.toMatchExpression(null));
+    }
+
+    @Test
+    void testTitleHitsRankHigher() {
+        // one phrase, three columns: hits in this row, hits in all rows, rows with hits
+        double inTitle = FullTextSearch.score(IntBuffer.wrap(new int[] { 1, 3, 1, 10, 10, 0, 5, 5, 0, 0, 0 }));
+        double inDescription = FullTextSearch.score(IntBuffer.wrap(new int[] { 1, 3, 0, 10, 10, 1, 5, 5, 0, 0, 0 }));
+        Assertions.assertTrue(inTitle > inDescription);
+    }
+
+    @Test
+    void testRarePhrasesRankHigher() {
+        double common = FullTextSearch.score(IntBuffer.wrap(new int[] { 1, 3, 1, 100, 100, 0, 0, 0, 0, 0, 0 }));
+        double rare = FullTextSearch.score(IntBuffer.wrap(new int[] { 1, 3, 1, 2, 2, 0, 0, 0, 0, 0, 0 }));
+        Assertions.assertTrue(rare > common);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GapOrderingTest {
+
+    private static LinkedHashMap<String, Integer> stored(String... ids) {
+        LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+        int order = ids.length * GapOrdering.GAP;
+        for (String id : ids) {
+            result.put(id, order);
+            order -= GapOrdering.GAP;
+        }
+        return result;
+    }
+
+    @Test
+    void testUnchangedOrder() {
+        Assertions.assertTrue(GapOrdering.reorder(stored("a", "b", "c"), Arrays.asList("a", "b")).isEmpty());
+    }
+
+    @Test
+    void testMoveDownTouchesOneRow() {
+        Map<String, Integer> changes = GapOrdering.reorder(stored("a", "b", "c", "d"), Arrays.asList("b", "c", "a", "d"));
+        Assertions.assertEquals(Collections.singletonMap("a", 2 * GapOrdering.GAP - GapOrdering.GAP / 2), changes);
+    }
+
+    @Test
+    void testMoveToTopAndBottom() {
+        Assertions.assertEquals(Collections.singletonMap("c", 4 * GapOrdering.GAP),
+                GapOrdering.reorder(stored("a", "b", "c"), Arrays.asList("c", "a", "b")));
+        Assertions.assertEquals(Collections.singletonMap("a", GapOrdering.GAP / 2),
+                GapOrdering.reorder(stored("a", "b", "c"), Arrays.asList("b", "c", "a")));
+    }
+
+    @Test
+    void testMoveBelowLoadedPage() {
+        // the last item is not loaded yet, it must keep its position
+        Assertions.assertEquals(Collections.singletonMap("c", 3 * GapOrdering.GAP + GapOrdering.GAP / 2),
+                GapOrdering.reorder(stored("a", "b", "c", "d"), Arrays.asList("a", "c", "b")));
+    }
+
+    @Test
+    void testRenumberWhenNoRoom() {
+        LinkedHashMap<String, Integer> stored = new LinkedHashMap<>();
+        stored.put("a", 3);
+        stored.put("b", 2);
+        stored.put("c", 1);
+        Map<String, Integer> changes = GapOrdering.reorder(stored, Arrays.asList("a", "c", "b"));
+        Assertions.assertEquals(3 * GapOrdering.GAP, changes.get("a").intValue());
+        Assertions.assertEquals(2 * GapOrdering.GAP, changes.get("c").intValue());
+        Assertions.assertEquals(GapOrdering.GAP, changes.get("b").intValue());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SearchSuggestionsTest {
+    private static final long NOW = TimeUnit.DAYS.toMillis(1000);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static List<String> find(SearchSuggestions suggestions, String text, int limit) {
+        List<String> result = new ArrayList<>();
+        for (SearchSuggestions.Entry entry : suggestions.find(text, limit, NOW)) {
+            result.add(entry.getText());
+        }
+        return result;
+    }
+
+    @Test
+    void testMatchesWordPrefixes() {
+        SearchSuggestions suggestions = new SearchSuggestions();
+        suggestions.put(1, "Linux kernel", NOW, 1);
+        suggestions.put(2, "kernel panic", NOW - DAY, 1);
+        suggestions.put(3, "unikernel", NOW, 1);
+        Assertions.assertEquals(Arrays.asList("Linux kernel", "kernel panic"), find(suggestions, "KERN", 10));
+        Assertions.assertEquals(Arrays.asList("Linux kernel"), find(suggestions, "linux k", 10));
+        Assertions.assertTrue(find(suggestions, "ernel", 10).isEmpty());
+    }
+
+    @Test
+    void testRankedByFrequencyAndRecency() {
+        SearchSuggestions suggestions = new SearchSuggestions();
+        suggestions.put(1, "old but frequent", NOW - 14 * DAY, 8);
+        suggestions.put(2, "new", NOW, 1);
+        suggestions.put(3, "recent and frequent", NOW - DAY, 3);
+        Assertions.assertEquals(Arrays.asList("old but frequent", "recent and frequent"), find(suggestions, "", 2));
+
+        suggestions.touch("new", NOW, true);
+        suggestions.touch("new", NOW, true);
+        Assertions.assertEquals(Arrays.asList("old but frequent", "new", "recent and frequent"), find(suggestions, null, 5));
+    }
+
+    @Test
+    void testRemove() {
+        SearchSuggestions suggestions = new SearchSuggestions();
+        suggestions.put(1, "cats", NOW, 1);
+        suggestions.put(2, "cat videos", NOW, 1);
+        suggestions.remove("cats");
+        Assertions.assertEquals(Arrays.asList("cat videos"), find(suggestions, "cat", 10));
+        Assertions.assertFalse(suggestions.touch("cats", NOW, true));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DownloadFolderScannerTest {
+    private static final long NOW = 1_800_000_000_000L;
+    private static final long OLD = NOW - 60_000;
+
+    private File root;
+    private final List<DownloadFolderScanner.Download> downloads = new ArrayList<>();
+    private final Map<String, Long> folderTimes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("downloads").toFile();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (java.util.stream.Stream<java.nio.file.Path> paths = Files.walk(root.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void testBaseName() {
+        Assertions.assertEquals("a-b_cdefghi Hello World", DownloadFolderScanner.getBaseName("a-b_cdefghi", "Hello, World!"));
+    }
+
+    @Test
+    void testUnchangedFolderIsNotListed() throws IOException {
+        record("aaaaaaaaaaa", createFile(root, "aaaaaaaaaaa Title.mp4", 10), null);
+        root.setLastModified(OLD);
+
+        DownloadFolderScanner.Result first = scan();
+        Assertions.assertEquals(1, first.getListedFolders());
+        Assertions.assertTrue(first.isEmpty());
+        folderTimes.putAll(first.getScannedFolders(Collections.emptyList()));
+
+        // deleted without changing the time of the folder - which is not noticed, as the folder is not listed
+        new File(root, "aaaaaaaaaaa Title.mp4").delete();
+        root.setLastModified(OLD);
+        DownloadFolderScanner.Result second = scan();
+        Assertions.assertEquals(0, second.getListedFolders());
+        Assertions.assertTrue(second.isEmpty());
+    }
+
+    @Test
+    void testMissingAndModifiedFiles() throws IOException {
+        record("aaaaaaaaaaa", createFile(root, "aaaaaaaaaaa Title.mp4", 10), null);
+        File video = createFile(root, "bbbbbbbbbbb Title.video.webm", 10);
+        File audio = createFile(root, "bbbbbbbbbbb Title.audio.webm", 5);
+        record("bbbbbbbbbbb", video, audio);
+        File modified = createFile(root, "ccccccccccc Title.mp4", 10);
+        record("ccccccccccc", modified, null);
+        folderTimes.put(root.getPath(), OLD - 1000);
+
+        new File(root, "aaaaaaaaaaa Title.mp4").delete();
+        audio.delete();
+        try (FileOutputStream output = new FileOutputStream(modified, true)) {
+            output.write(new byte[5]);
+        }
+        root.setLastModified(OLD);
+
+        DownloadFolderScanner.Result result = scan();
+        Assertions.assertEquals(1, result.getListedFolders());
+        Collections.sort(result.missing);
+        Assertions.assertEquals(List.of("aaaaaaaaaaa", "bbbbbbbbbbb"), result.missing);
+        Assertions.assertEquals(1, result.modified.size());
+        Assertions.assertEquals(15L, result.modified.get("ccccccccccc")[0]);
+        Assertions.assertEquals(OLD, (long) result.getScannedFolders(Collections.emptyList()).get(root.getPath()));
+    }
+
+    @Test
+    void testMissingFolder() {
+        File channel = new File(root, "Channel");
+        record("aaaaaaaaaaa", new File(channel, "aaaaaaaaaaa Title.mp4"), null);
+
+        DownloadFolderScanner.Result result = scan();
+        Assertions.assertEquals(List.of("aaaaaaaaaaa"), result.missing);
+        Assertions.assertFalse(result.getScannedFolders(Collections.emptyList()).containsKey(channel.getPath()));
+    }
+
+    @Test
+    void testNewFilesAreImported() throws IOException {
+        File channel = new File(root, "Channel");
+        channel.mkdir();
+        record("known000000", createFile(channel, "known000000 Title.mp4", 10), null);
+        createFile(channel, "newvideo-01 New video.mp4", 10);
+        createFile(channel, "separate_01 Separate.video.webm", 10);
+        createFile(channel, "separate_01 Separate.audio.webm", 10);
+        createFile(channel, "muxed000001 Muxed.video.mp4", 10);
+        createFile(channel, "muxed000001 Muxed.mp4", 10);
+        createFile(channel, "running0001 Running.mp4", 10);
+        createFile(channel, "partial0001 Partial.mp4.part", 10);
+        createFile(channel, "cover.jpg", 10);
+        createFile(channel, "notes000001 To do.txt", 10);
+        createFile(channel, "Holiday2019 - beach (1).mp4", 10);
+        createFile(root, "rootvideo01 In the root.webm", 10);
+        channel.setLastModified(OLD);
+        root.setLastModified(OLD);
+
+        DownloadFolderScanner.Result result = new DownloadFolderScanner(root, NOW)
+                .scan(downloads, folderTimes, Collections.singleton("running0001"));
+
+        Map<String, DownloadFolderScanner.ImportCandidate> imports = new HashMap<>();
+        for (DownloadFolderScanner.ImportCandidate candidate : result.imports) {
+            imports.put(candidate.videoId, candidate);
+        }
+        Assertions.assertEquals(4, imports.size(), "Imports: " + result.imports);
+        Assertions.assertEquals("newvideo-01 New video.mp4", imports.get("newvideo-01").videoFile.getName());
+        Assertions.assertNull(imports.get("newvideo-01").audioFile);
+        Assertions.assertEquals("separate_01 Separate.audio.webm", imports.get("separate_01").audioFile.getName());
+        Assertions.assertEquals("muxed000001 Muxed.mp4", imports.get("muxed000001").videoFile.getName());
+        Assertions.assertNull(imports.get("muxed000001").audioFile);
+        Assertions.assertEquals(root, imports.get("rootvideo01").videoFile.getParentFile());
+
+        // the folders of the retried imports are scanned again
+        Map<String, Long> scanned = result.getScannedFolders(Collections.singletonList(imports.get("newvideo-01")));
+        Assertions.assertFalse(scanned.containsKey(channel.getPath()));
+        Assertions.assertTrue(scanned.containsKey(root.getPath()));
+    }
+
+    @Test
+    void testFailedImportsAreNotLookedUpAgain() throws IOException {
+        createFile(root, "removed0001 Removed.mp4", 10);
+        root.setLastModified(OLD);
+
+        DownloadFolderScanner.Result first = scan();
+        Assertions.assertEquals(1, first.imports.size());
+        Map<String, Long> scanned = first.getScannedFolders(Collections.emptyList());
+        Map<String, Set<String>> failed = first.getFailedImports(first.imports);
+        Assertions.assertEquals(OLD, (long) scanned.get(root.getPath()));
+        Assertions.assertEquals(Set.of("removed0001"), failed.get(root.getPath()));
+
+        // listed again for a new file, only the new one is imported
+        createFile(root, "newvideo-01 New video.mp4", 10);
+        root.setLastModified(OLD + 1000);
+        folderTimes.putAll(scanned);
+        DownloadFolderScanner.Result second = new DownloadFolderScanner(root, NOW).scan(downloads, folderTimes, failed, Collections.emptySet());
+        Assertions.assertEquals(1, second.getListedFolders());
+        Assertions.assertEquals(1, second.imports.size());
+        Assertions.assertEquals("newvideo-01", second.imports.get(0).videoId);
+        Assertions.assertEquals(Set.of("removed0001"), second.getFailedImports(Collections.emptyList()).get(root.getPath()));
+
+        // forgotten, once the file is deleted
+        new File(root, "removed0001 Removed.mp4").delete();
+        root.setLastModified(OLD + 2000);
+        DownloadFolderScanner.Result third = new DownloadFolderScanner(root, NOW).scan(downloads, folderTimes, failed, Collections.emptySet());
+        Assertions.assertFalse(third.getFailedImports(Collections.emptyList()).containsKey(root.getPath()));
+    }
+
+    @Test
+    void testRecentlyModifiedFolderIsScannedAgain() throws IOException {
+        createFile(root, "aaaaaaaaaaa Title.mp4", 10);
+        root.setLastModified(NOW - 500);
+
+        DownloadFolderScanner.Result result = scan();
+        Assertions.assertEquals(1, result.getListedFolders());
+        Assertions.assertFalse(result.getScannedFolders(Collections.emptyList()).containsKey(root.getPath()));
+    }
+
+    private DownloadFolderScanner.Result scan() {
+        return new DownloadFolderScanner(root, NOW).scan(downloads, folderTimes, Collections.emptySet());
+    }
+
+    private void record(String videoId, File video, File audio) {
+        downloads.add(new DownloadFolderScanner.Download(videoId, video, audio,
+                DownloadFolderScanner.length(video) + DownloadFolderScanner.length(audio),
+                Math.max(DownloadFolderScanner.lastModified(video), DownloadFolderScanner.lastModified(audio))));
+    }
+
+    private static File createFile(File folder, String name, int size) throws IOException {
+        File file = new File(folder, name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[size]);
+        }
+        file.setLastModified(OLD - 5000);
+        return file;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SegmentedDownloaderTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final int SEGMENT_SIZE = 1000;
+
+    private final byte[] content = new byte[10 * SEGMENT_SIZE + 123];
+    /** The paths, which are accepted by the server, the others are rejected with 403. */
+    private final Set<String> validPaths = ConcurrentHashMap.newKeySet();
+    /** The range starts, which fail with 500. */
+    private final Set<Long> failingRanges = ConcurrentHashMap.newKeySet();
+    private final List<Long> requestedRanges = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer server;
+    private File target;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        new Random(42).nextBytes(content);
+        validPaths.add("/video");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        target = File.createTempFile("download", ".mp4");
+        target.delete();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        target.delete();
+        new File(target.getPath() + SegmentedDownloader.PART_SUFFIX).delete();
+        new File(target.getPath() + SegmentedDownloader.STATE_SUFFIX).delete();
+    }
+
+    @Test
+    void testParallelDownload() throws Exception {
+        final AtomicInteger progressCalls = new AtomicInteger();
+        final long size = new SegmentedDownloader(expired -> url("/video"), target, 4, SEGMENT_SIZE)
+                .setProgressListener((downloaded, total) -> {
+                    Assertions.assertTrue(downloaded <= total);
+                    progressCalls.incrementAndGet();
+                })
+                .download();
+
+        Assertions.assertEquals(content.length, size);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assertions.assertFalse(new File(target.getPath() + SegmentedDownloader.PART_SUFFIX).exists());
+        Assertions.assertFalse(new File(target.getPath() + SegmentedDownloader.STATE_SUFFIX).exists());
+        // the size probe, and one request for each segment
+        Assertions.assertEquals(12, requestedRanges.size());
+        Assertions.assertTrue(progressCalls.get() > 0);
+    }
+
+    @Test
+    void testResumeAfterFailure() throws Exception {
+        failingRanges.add(3L * SEGMENT_SIZE);
+        final SegmentedDownloader downloader = new SegmentedDownloader(expired -> url("/video"), target, 2, SEGMENT_SIZE);
+        Assertions.assertThrows(IOException.class, downloader::download);
+        Assertions.assertFalse(target.exists());
+
+        failingRanges.clear();
+        requestedRanges.clear();
+        downloader.download();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // the size probe, and the failed segment - the others could be finished too, before the failure stopped the download
+        Assertions.assertEquals(0L, requestedRanges.get(0));
+        Assertions.assertTrue(requestedRanges.contains(3L * SEGMENT_SIZE));
+        Assertions.assertTrue(requestedRanges.size() < 12, "Requested: " + requestedRanges);
+    }
+
+    @Test
+    void testExpiredUrlIsResolvedAgain() throws Exception {
+        final AtomicInteger refreshes = new AtomicInteger();
+        final SegmentedDownloader.UrlSource source = expired -> {
+            if (expired) {
+                refreshes.incrementAndGet();
+                return url("/video");
+            }
+            return url("/expired");
+        };
+        new SegmentedDownloader(source, target, 3, SEGMENT_SIZE).download();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assertions.assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    void testUrlExpiryDuringDownload() throws Exception {
+        final AtomicInteger refreshes = new AtomicInteger();
+        final SegmentedDownloader.UrlSource source = expired -> {
+            if (expired) {
+                refreshes.incrementAndGet();
+                validPaths.add("/refreshed");
+                return url("/refreshed");
+            }
+            return url("/video");
+        };
+        // the first URL expires after the size probe and a few segments
+        final AtomicInteger requests = new AtomicInteger();
+        server.removeContext("/");
+        server.createContext("/", exchange -> {
+            if (requests.incrementAndGet() == 4) {
+                validPaths.remove("/video");
+            }
+            handle(exchange);
+        });
+        new SegmentedDownloader(source, target, 1, SEGMENT_SIZE).download();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assertions.assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    void testPermanentlyRejectedUrlFails() {
+        validPaths.clear();
+        final SegmentedDownloader downloader = new SegmentedDownloader(expired -> url("/video"), target, 2, SEGMENT_SIZE);
+        Assertions.assertThrows(IOException.class, downloader::download);
+        Assertions.assertFalse(target.exists());
+    }
+
+    @Test
+    void testStateOfDifferentFileIsDiscarded() throws Exception {
+        failingRanges.add(5L * SEGMENT_SIZE);
+        Assertions.assertThrows(IOException.class, new SegmentedDownloader(expired -> url("/video"), target, 1, SEGMENT_SIZE)::download);
+
+        // a different segment size means a different layout, so everything is downloaded again
+        failingRanges.clear();
+        requestedRanges.clear();
+        new SegmentedDownloader(expired -> url("/video"), target, 1, 2 * SEGMENT_SIZE).download();
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assertions.assertEquals(7, requestedRanges.size());
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!validPaths.contains(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            final Matcher matcher = RANGE.matcher(exchange.getRequestHeaders().getFirst("Range"));
+            Assertions.assertTrue(matcher.matches());
+            final long from = Long.parseLong(matcher.group(1));
+            final long to = Math.min(Long.parseLong(matcher.group(2)), content.length - 1);
+            requestedRanges.add(from);
+            if (failingRanges.contains(from)) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + content.length);
+            exchange.sendResponseHeaders(206, to - from + 1);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(content, (int) from, (int) (to - from + 1));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SkyTube
+ * Copyright (C) 2026  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.gui.businessobjects.adapters;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.YouTube.POJOs.ChannelView;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ChannelId;
+import free.rm.skytube.businessobjects.model.Status;
+
+public class ChannelTitleIndexTest {
+    private final ChannelTitleIndex index = new ChannelTitleIndex(Arrays.asList(
+            channel("a", "Linus Tech Tips"),
+            channel("b", "Caf\u00e9 Cr\u00e8me"),
+            channel("c", "Techmoan"),
+            channel("d", "Numberphile")));
+
+    private static ChannelView channel(String id, String title) {
+        return new ChannelView(new ChannelId(id), title, null, false, Status.OK);
+    }
+
+    private List<String> filter(ChannelTitleIndex index, String text) {
+        List<String> ids = new ArrayList<>();
+        for (ChannelView channel : index.filter(text)) {
+            ids.add(channel.getId().getRawId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testFilterKeepsOrder() {
+        Assertions.assertEquals(Arrays.asList("a", "c"), filter(index, "TECH"));
+        Assertions.assertEquals(Arrays.asList("a", "b", "c", "d"), filter(index, ""));
+        Assertions.assertEquals(Arrays.asList("a", "c", "d"), filter(index, "n"));
+    }
+
+    @Test
+    void testAccentsAreFolded() {
+        Assertions.assertEquals(Arrays.asList("b"), filter(index, "cafe creme"));
+        Assertions.assertEquals(Arrays.asList("b"), filter(index, "Cr\u00c8"));
+    }
+
+    @Test
+    void testNoMatch() {
+        Assertions.assertTrue(filter(index, "techtech").isEmpty());
+        Assertions.assertTrue(filter(index, "xyz").isEmpty());
+    }
+
+    @Test
+    void testWithout() {
+        Assertions.assertEquals(Arrays.asList("c"), filter(index.without(new ChannelId("a")), "tech"));
+        Assertions.assertSame(index, index.without(new ChannelId("x")));
+    }
+}
@@ -0,0 +1,68 @@
+#!/bin/sh
+#
+# Cold start benchmark of SkyTube: stops the app, and starts it again on the connected device or emulator RUNS
+# times. Every run prints the launch time reported by the activity manager, and the startup trace logged by the
+# app. At the end, it prints the median duration and start time of every stage.
+#
+# The process is started cold, but the files of the app are likely still in the page cache - dropping it needs
+# root. Use the same build type for comparisons, the debug builds are slower because of StrictMode.
+#
+# Usage: scripts/cold-start-benchmark.sh [package] [runs]
+#   package  the application id of the installed build, default: free.rm.skytube.oss
+#   runs     the number of the starts, default: 10
+
+set -eu
+
+PACKAGE=${1:-free.rm.skytube.oss}
+RUNS=${2:-10}
+ACTIVITY=free.rm.skytube.gui.activities.MainActivity
+TAB=$(printf '\t')
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+
+run=1
+while [ "$run" -le "$RUNS" ]; do
+    adb shell am force-stop "$PACKAGE"
+    sleep 2
+    adb logcat -c
+    launch=$(adb shell am start -W -n "$PACKAGE/$ACTIVITY" | tr -d '\r' | sed -n 's/^TotalTime: //p')
+    # the trace is logged after both the first screen and the deferred initialization are finished
+    trace=""
+    tries=0
+    while [ -z "$trace" ] && [ "$tries" -lt 30 ]; do
+        sleep 1
+        trace=$(adb logcat -d -s StartupTrace:I | tr -d '\r' | sed -n 's/^.*StartupTrace: //p' | tail -n 1)
+        tries=$((tries + 1))
+    done
+    echo "run $run: launch=${launch}ms, $trace"
+    echo "launch=${launch}ms@0[am], $trace" >> "$RESULTS"
+    run=$((run + 1))
+done
+
+echo
+echo "median of $RUNS runs (duration, start):"
+# one 'name<TAB>duration<TAB>start' line per stage and run
+tr ',' '\n' < "$RESULTS" \
+    | sed -n "s/^ *\\([^=]*\\)=\\([0-9]*\\)ms@\\{0,1\\}\\([0-9]*\\).*/\\1$TAB\\2$TAB\\3/p" \
+    | awk -F "$TAB" '
+        function median(list,    n, v, i, j, t) {
+            n = split(substr(list, 2), v, " ")
+            for (i = 2; i <= n; i++) {
+                for (j = i; j > 1 && v[j - 1] + 0 > v[j] + 0; j--) {
+                    t = v[j]; v[j] = v[j - 1]; v[j - 1] = t
+                }
+            }
+            return v[int((n + 1) / 2)]
+        }
+        {
+            if (!($1 in durations)) {
+                order[++count] = $1
+            }
+            durations[$1] = durations[$1] " " $2
+            starts[$1] = starts[$1] " " ($3 == "" ? 0 : $3)
+        }
+        END {
+            for (i = 1; i <= count; i++) {
+                printf "  %-28s %6d ms  at %6d ms\n", order[i], median(durations[order[i]]), median(starts[order[i]])
+            }
+        }'